@@ -1,14 +1,14 @@
 package com.digytal.control.infra.commons.definition;
 
 import com.digytal.control.infra.commons.validation.Attributes;
-import org.springframework.beans.PropertyAccessor;
-import org.springframework.beans.PropertyAccessorFactory;
+import com.digytal.control.infra.commons.validation.FieldAccessor;
 
 import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
 
+/**
+ * Conjunto imutável de regras de definição (normalização) dos atributos, com o mesmo uso das Validations:
+ * cada método devolve um novo conjunto, que pode ser declarado como constante e compartilhado entre as threads.
+ */
 public class Definitions {
     private enum Type{
         UPPER,
@@ -17,66 +17,73 @@ public class Definitions {
         NORMALIZE,
         UPPER_NORMALIZE;
     }
+    private static final Definitions EMPTY = new Definitions(new Type[0], new String[0][]);
 
-    private Map<Type,List<String>> defintions = new LinkedHashMap<>();
-    private static Definitions instance;
-
-    private Definitions(){
+    private final Type[] types;
+    private final String[][] attributes;
 
+    private Definitions(Type[] types, String[][] attributes){
+        this.types = types;
+        this.attributes = attributes;
     }
     private static String[] names(Attributes... fields){
         return Arrays.stream(fields).map(f -> f.getAttribute()).toArray(String[]::new);
     }
-    public static Definitions upperCase(Attributes... fields){
+    public Definitions upperCase(Attributes... fields){
         return upperCase(names(fields));
     }
-    public static Definitions upperNormalize(Attributes... fields){
+    public Definitions upperNormalize(Attributes... fields){
         return upperNormalize(names(fields));
     }
-    public static Definitions upperNormalize(String ... attributes){
+    public Definitions upperNormalize(String ... attributes){
         return put(Type.UPPER_NORMALIZE,attributes);
     }
-    public static Definitions upperCase(String ... attributes){
+    public Definitions upperCase(String ... attributes){
         return put(Type.UPPER,attributes);
     }
-    public static Definitions lowerCase(Attributes... fields){
+    public Definitions lowerCase(Attributes... fields){
         return lowerCase(names(fields));
     }
-    public static Definitions lowerCase(String ... attributes){
+    public Definitions lowerCase(String ... attributes){
         return put(Type.LOWER,attributes);
     }
-    public static Definitions onlyDigits(Attributes... fields){
+    public Definitions onlyDigits(Attributes... fields){
         return onlyDigits(names(fields));
     }
-    public static Definitions onlyDigits(String ... attributes){
+    public Definitions onlyDigits(String ... attributes){
         return put(Type.DIGITS,attributes);
     }
-    public static Definitions normalize(Attributes... fields){
+    public Definitions normalize(Attributes... fields){
         return normalize(names(fields));
     }
-    public static Definitions normalize(String ... attributes){
+    public Definitions normalize(String ... attributes){
         return put(Type.NORMALIZE,attributes);
     }
 
     public static Definitions build(){
-        instance = new Definitions();
-        return instance;
-    }
-    public static Definitions put(Type type, String ... attributes){
-        instance.defintions.put(type,Arrays.asList(attributes));
-        return instance;
+        return EMPTY;
+    }
+    //a regra do mesmo tipo substitui a anterior, mantendo a posição
+    private Definitions put(Type type, String ... fields){
+        int index = 0;
+        while (index < types.length && types[index] != type)
+            index++;
+        int length = Math.max(types.length, index + 1);
+        Type[] newTypes = Arrays.copyOf(types, length);
+        String[][] newAttributes = Arrays.copyOf(attributes, length);
+        newTypes[index] = type;
+        newAttributes[index] = fields.clone();
+        return new Definitions(newTypes, newAttributes);
     }
     public void define(final Object object){
-        for (Map.Entry<Type,List<String>> entry : instance.defintions.entrySet()) {
-            List<String> fields = entry.getValue();
-            fields.forEach(f->{
-                define(object,entry.getKey(), f);
-            });
+        for (int i = 0; i < types.length; i++) {
+            for (String field : attributes[i])
+                define(object, types[i], field);
         }
     }
     private void define(Object object,Type type, String field){
-        PropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(object);
-        Object value = accessor.getPropertyValue(field);
+        FieldAccessor accessor = FieldAccessor.of(object.getClass(), field);
+        Object value = accessor.get(object);
         if(value!=null){
             if(type== Type.UPPER)
                 value = Text.upperCase(value);
@@ -91,8 +98,7 @@ public class Definitions {
                 value = Text.normalize(value);
             }
 
-            accessor.setPropertyValue(field,value);
+            accessor.set(object,value);
         }
     }
 }
-
@@ -0,0 +1,73 @@
+package com.digytal.control.infra.commons.validation;
+
+import org.springframework.beans.NotReadablePropertyException;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acesso direto a um atributo (o mesmo do PropertyAccessorFactory.forDirectFieldAccess), resolvido uma única vez
+ * por (classe, atributo) e compartilhado entre as threads. Usado pelas regras de Validations e Definitions.
+ */
+public final class FieldAccessor {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final ClassValue<Map<String, FieldAccessor>> CACHE = new ClassValue<Map<String, FieldAccessor>>() {
+        @Override
+        protected Map<String, FieldAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<?> type;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private FieldAccessor(Field field) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.type = ClassUtils.resolvePrimitiveIfNecessary(field.getType());
+        this.getter = lookup.unreflectGetter(field).asType(GETTER);
+        this.setter = lookup.unreflectSetter(field).asType(SETTER);
+    }
+
+    public static FieldAccessor of(Class<?> type, String attribute) {
+        return CACHE.get(type).computeIfAbsent(attribute, a -> create(type, a));
+    }
+    private static FieldAccessor create(Class<?> type, String attribute) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(attribute);
+                field.setAccessible(true);
+                return new FieldAccessor(field);
+            } catch (NoSuchFieldException e) {
+                //continua na superclasse
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new NotReadablePropertyException(type, attribute);
+    }
+
+    public Object get(Object target) {
+        try {
+            return getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    public void set(Object target, Object value) {
+        if (value != null && !type.isInstance(value))
+            value = new SimpleTypeConverter().convertIfNecessary(value, type);
+        try {
+            setter.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.digytal.control.infra.commons.validation;
 
 import com.digytal.control.infra.business.*;
-import org.springframework.beans.PropertyAccessor;
-import org.springframework.beans.PropertyAccessorFactory;
 
 import java.math.BigDecimal;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Conjunto imutável de regras de validação. Cada método de regra devolve um novo conjunto, o que permite
+ * declarar as regras como constantes e usá-las em várias requisições ao mesmo tempo; os atributos são
+ * resolvidos uma única vez por classe validada.
+ * <pre>
+ * private static final Validations OBRIGATORIOS = Validations.build(NOME, VALOR).notEmpty();
+ * OBRIGATORIOS.check(request);
+ * </pre>
+ */
 public class Validations {
     private enum Type{
         RANGE_LEN,
@@ -19,87 +27,105 @@ public class Validations {
         ZERO,
         ;
     }
+    private static final class Rule {
+        private final Type type;
+        private final int min;
+        private final int max;
+        private Rule(Type type, int min, int max) {
+            this.type = type;
+            this.min = min;
+            this.max = max;
+        }
+    }
 
-    private Map<Type, Object[]> defintions = new LinkedHashMap<>();
-    private static Validations instance;
-
-    private Attributes[] fields;
-
-    private Validations(){
+    private final Attributes[] fields;
+    private final Rule[] rules;
+    private final Map<Class<?>, FieldAccessor[]> accessors = new ConcurrentHashMap<>();
 
+    private Validations(Attributes[] fields, Rule[] rules){
+        this.fields = fields;
+        this.rules = rules;
     }
     public static Validations build(Attributes... fields){
-        instance = new Validations();
-        instance.fields = fields;
-        return instance;
+        return new Validations(fields.clone(), new Rule[0]);
     }
     public Validations minLen(int min){
-        return put(Type.MIN_LEN,min);
+        return put(Type.MIN_LEN, min, 0);
     }
     public Validations cpfCnpj(){
-        return put(Type.CPF_CNPJ);
+        return put(Type.CPF_CNPJ, 0, 0);
     }
     public Validations email(){
-        return put(Type.EMAIL);
+        return put(Type.EMAIL, 0, 0);
     }
     public Validations maxLen(int max){
-        return put(Type.MAX_LEN,max);
+        return put(Type.MAX_LEN, 0, max);
     }
     public Validations rangeLen(int min,int max){
-        return put(Type.RANGE_LEN,min,max);
+        return put(Type.RANGE_LEN, min, max);
     }
     public Validations notEmpty(){
-        return put(Type.NOT_EMPTY,0);
+        return put(Type.NOT_EMPTY, 0, 0);
     }
-    public Validations notZero() {return put(Type.ZERO);
+    public Validations notZero() {
+        return put(Type.ZERO, 0, 0);
     }
-    private Validations put(Type type, Object ... conditions){
-        instance.defintions.put(type,conditions);
-        return  instance;
+    //a regra do mesmo tipo substitui a anterior, mantendo a posição
+    private Validations put(Type type, int min, int max){
+        Rule[] copy = rules;
+        int index = 0;
+        while (index < copy.length && copy[index].type != type)
+            index++;
+        copy = Arrays.copyOf(copy, Math.max(copy.length, index + 1));
+        copy[index] = new Rule(type, min, max);
+        return new Validations(fields, copy);
     }
     public void check(Object object) throws BusinessException {
-        for (Map.Entry<Type, Object[]> entry : instance.defintions.entrySet()) {
-            check(object, entry.getKey(), entry.getValue());
+        if (rules.length == 0)
+            return;
+        if (object == null)
+            throw new IllegalArgumentException("Target object must not be null");
+        FieldAccessor[] fieldAccessors = accessors.computeIfAbsent(object.getClass(), this::resolve);
+        for (Rule rule : rules) {
+            for (int i = 0; i < fields.length; i++)
+                check(rule, fields[i].getLabel(), fieldAccessors[i].get(object));
         }
     }
-    private void check(Object object, Type type, Object[] conditions){
-       for(Attributes field:instance.fields){
-           String label = field.getLabel();
-           PropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(object);
-           Object value = accessor.getPropertyValue(field.getAttribute());
-           String condition = conditions!=null && conditions.length >0 ? conditions[0].toString():null;
-           if(value!=null) {
-               if (type == Type.NOT_EMPTY) {
-                   if (Validation.isEmpty(value))
-                       throw new CampoObrigatorioException(label);
-               } else if (type == Type.RANGE_LEN) {
-                   int min = Integer.parseInt(condition);
-                   int max = Integer.parseInt(conditions[1].toString());
-                   if (!Validation.rangeLength(value, min, max))
-                       throw new TamanhoMinimoMaximoException(label, min, max);
-               } else if (type == Type.MIN_LEN) {
-                   int min = Integer.parseInt(condition);
-                   if (!Validation.minLength(value, min))
-                       throw new TamanhoMinimoException(label, min);
-               } else if (type == Type.MAX_LEN) {
-                   int max = Integer.parseInt(condition);
-                   if (!Validation.maxLength(value, max))
-                       throw new TamanhoMaximoException(label, max);
-               }  else if (type == Type.CPF_CNPJ) {
-                   if (!Validation.cpfCnpj(value.toString()))
-                       throw new CpfCnpjInvalidoException();
-               } else if (type == Type.EMAIL) {
-                   if (!Validation.email(value.toString()))
-                       throw new EmailInvalidoException();
-               } else if (type == Type.ZERO) {
-                   if(new BigDecimal(value.toString()).equals(BigDecimal.ZERO))
-                       throw new NumeriZeroException(label);
-               }
-           }else{
-               if (type == Type.NOT_EMPTY) {
-                   throw new CampoObrigatorioException(label);
-               }
-           }
-       }
+    private FieldAccessor[] resolve(Class<?> type){
+        FieldAccessor[] resolved = new FieldAccessor[fields.length];
+        for (int i = 0; i < fields.length; i++)
+            resolved[i] = FieldAccessor.of(type, fields[i].getAttribute());
+        return resolved;
+    }
+    private void check(Rule rule, String label, Object value){
+        Type type = rule.type;
+        if(value!=null) {
+            if (type == Type.NOT_EMPTY) {
+                if (Validation.isEmpty(value))
+                    throw new CampoObrigatorioException(label);
+            } else if (type == Type.RANGE_LEN) {
+                if (!Validation.rangeLength(value, rule.min, rule.max))
+                    throw new TamanhoMinimoMaximoException(label, rule.min, rule.max);
+            } else if (type == Type.MIN_LEN) {
+                if (!Validation.minLength(value, rule.min))
+                    throw new TamanhoMinimoException(label, rule.min);
+            } else if (type == Type.MAX_LEN) {
+                if (!Validation.maxLength(value, rule.max))
+                    throw new TamanhoMaximoException(label, rule.max);
+            }  else if (type == Type.CPF_CNPJ) {
+                if (!Validation.cpfCnpj(value.toString()))
+                    throw new CpfCnpjInvalidoException();
+            } else if (type == Type.EMAIL) {
+                if (!Validation.email(value.toString()))
+                    throw new EmailInvalidoException();
+            } else if (type == Type.ZERO) {
+                if(new BigDecimal(value.toString()).equals(BigDecimal.ZERO))
+                    throw new NumeriZeroException(label);
+            }
+        }else{
+            if (type == Type.NOT_EMPTY) {
+                throw new CampoObrigatorioException(label);
+            }
+        }
     }
 }
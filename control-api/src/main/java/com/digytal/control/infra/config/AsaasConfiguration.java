@@ -0,0 +1,25 @@
+package com.digytal.control.infra.config;
+
+import com.digytal.control.integracao.asaas.AsaasClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cliente HTTP único da Asaas, com pool de conexões configurado em asaas.http.*.
+ */
+@Configuration
+public class AsaasConfiguration {
+
+    @Bean
+    @ConfigurationProperties("asaas.http")
+    public AsaasClient.Configuracao asaasClientConfiguracao() {
+        return new AsaasClient.Configuracao();
+    }
+
+    @Bean(destroyMethod = "close")
+    public AsaasClient asaasClient(@Value("${asaas.url}") String url, AsaasClient.Configuracao asaasClientConfiguracao) {
+        return new AsaasClient(url, asaasClientConfiguracao);
+    }
+}
@@ -5,10 +5,13 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.digytal.control.infra.report.ReportCache;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
+import org.springframework.context.event.EventListener;
 
 //https://medium.com/@andylke/rest-controller-configure-date-time-format-in-json-response-201e97aa74b0
 //https://www.baeldung.com/spring-boot-customize-jackson-objectmapper
@@ -30,6 +33,10 @@ public class GlobalConfiguration   {
         instance.registerModule(new Jdk8Module());
         return instance;
     }
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarRelatorios(){
+        ReportCache.warmUp();
+    }
     /*
     @Bean
     @Qualifier("employeeServiceB")
@@ -1,22 +1,29 @@
 package com.digytal.control.infra.config;
 
 
+import com.digytal.control.infra.security.jwt.Credencial;
 import io.swagger.v3.oas.annotations.media.Schema;
-import lombok.Data;
-import org.springframework.context.annotation.Scope;
-import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.WebApplicationContext;
 
+/**
+ * Usuário, empresa e organização da requisição em andamento, lidos do TenantContext.
+ */
 @Component
-@Scope(value = WebApplicationContext.SCOPE_REQUEST, proxyMode = ScopedProxyMode.TARGET_CLASS)
-@Data
 @Schema(name = "Requisição informativa")
 public class RequestInfo {
     @Schema(description = "identificador único do usuário", type = "numeric")
-    private Integer usuario;
+    public Integer getUsuario() {
+        Credencial credencial = TenantContext.get();
+        return credencial == null ? null : credencial.getUsuario();
+    }
     @Schema(description = "identificador único da empresa", type = "numeric")
-    private Integer empresa;
+    public Integer getEmpresa() {
+        Credencial credencial = TenantContext.get();
+        return credencial == null ? null : credencial.getEmpresa();
+    }
     @Schema(description = "identificador único da organização", type = "numeric")
-    private Integer organizacao;
+    public Integer getOrganizacao() {
+        Credencial credencial = TenantContext.get();
+        return credencial == null ? null : credencial.getOrganizacao();
+    }
 }
@@ -0,0 +1,23 @@
+package com.digytal.control.infra.config;
+
+import com.digytal.control.infra.security.jwt.Credencial;
+
+/**
+ * Credencial da requisição em andamento, definida pelo JwtFilter e removida ao final da requisição.
+ * Substitui o proxy de escopo request no RequestInfo: a leitura é um ThreadLocal.get, sem consultar
+ * os atributos da requisição. Fora de uma requisição autenticada (jobs, threads próprias) não há credencial.
+ */
+public final class TenantContext {
+    private static final ThreadLocal<Credencial> atual = new ThreadLocal<>();
+    private TenantContext(){}
+
+    public static void set(Credencial credencial) {
+        atual.set(credencial);
+    }
+    public static Credencial get() {
+        return atual.get();
+    }
+    public static void clear() {
+        atual.remove();
+    }
+}
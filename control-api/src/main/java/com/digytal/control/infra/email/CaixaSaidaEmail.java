@@ -0,0 +1,174 @@
+package com.digytal.control.infra.email;
+
+import com.digytal.control.model.modulo.acesso.email.EmailSaidaEntity;
+import com.digytal.control.model.modulo.acesso.email.EmailSaidaStatus;
+import com.digytal.control.repository.modulo.acesso.EmailSaidaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Caixa de saída dos e-mails. O SendEmail só grava a mensagem (na transação de quem chamou, quando houver);
+ * o Job reserva os pendentes em lotes com FOR UPDATE SKIP LOCKED e os divide entre um número fixo de threads,
+ * cada uma enviando a sua parte em uma única conexão SMTP. Em caso de erro o e-mail volta para a fila com
+ * espera crescente e, esgotadas as tentativas, fica como FALHA.
+ */
+@Component
+@Slf4j
+public class CaixaSaidaEmail {
+    @Value("${email.saida.lote:50}")
+    private int lote;
+    @Value("${email.saida.workers:2}")
+    private int workers;
+    @Value("${email.saida.reserva:300}")
+    private int reserva;
+    @Value("${email.saida.tentativas:6}")
+    private int tentativas;
+    @Value("${email.saida.backoff:60}")
+    private int backoff;
+    @Value("${email.saida.backoff-maximo:3600}")
+    private int backoffMaximo;
+    @Autowired
+    private EmailSaidaRepository repository;
+    @Autowired
+    private JavaMailSender mailSender;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transacao;
+    private EnvioEmailLote envio;
+    private ExecutorService executor;
+    private final AtomicLong registrados = new AtomicLong();
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong retentativas = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong conexoes = new AtomicLong();
+
+    @PostConstruct
+    public void iniciar() {
+        transacao = new TransactionTemplate(transactionManager);
+        envio = new EnvioEmailLote(mailSender);
+        AtomicInteger numero = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "email-saida-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    public void registrar(String remetente, String destinatario, String titulo, String corpo, boolean html) {
+        EmailSaidaEntity email = new EmailSaidaEntity();
+        email.setRemetente(remetente);
+        email.setDestinatario(destinatario);
+        email.setTitulo(titulo);
+        email.setCorpo(corpo);
+        email.setHtml(html);
+        repository.save(email);
+        registrados.incrementAndGet();
+    }
+
+    //envia lotes enquanto houver pendentes; devolve quantos e-mails foram enviados
+    public int enviarPendentes() throws InterruptedException {
+        int total = 0;
+        List<EmailSaidaEntity> emails;
+        do {
+            emails = transacao.execute(s -> reservar());
+            //uma parte por thread, cada parte em uma conexão
+            int tamanho = Math.max(1, (emails.size() + workers - 1) / workers);
+            List<Future<Integer>> tarefas = new ArrayList<>();
+            for (int i = 0; i < emails.size(); i += tamanho) {
+                List<EmailSaidaEntity> parte = emails.subList(i, Math.min(emails.size(), i + tamanho));
+                tarefas.add(executor.submit(() -> enviar(parte)));
+            }
+            for (Future<Integer> tarefa : tarefas) {
+                try {
+                    total += tarefa.get();
+                } catch (ExecutionException ex) {
+                    log.error("{EMAIL} erro inesperado no envio", ex.getCause());
+                }
+            }
+        } while (emails.size() == lote);
+        return total;
+    }
+    private List<EmailSaidaEntity> reservar() {
+        List<EmailSaidaEntity> emails = repository.travarPendentes(lote);
+        if (!emails.isEmpty())
+            repository.reservar(emails.stream().map(EmailSaidaEntity::getId).collect(Collectors.toList()), reserva);
+        return emails;
+    }
+    private int enviar(List<EmailSaidaEntity> emails) {
+        conexoes.incrementAndGet();
+        Map<EmailSaidaEntity, String> erros = envio.enviar(emails);
+        List<Long> ids = emails.stream().filter(e -> !erros.containsKey(e)).map(EmailSaidaEntity::getId).collect(Collectors.toList());
+        transacao.executeWithoutResult(s -> {
+            if (!ids.isEmpty())
+                repository.concluir(ids);
+            erros.forEach(this::falhar);
+        });
+        enviados.addAndGet(ids.size());
+        return ids.size();
+    }
+    private void falhar(EmailSaidaEntity email, String erro) {
+        int tentativa = email.getTentativas() + 1;
+        if (tentativa >= tentativas) {
+            falhas.incrementAndGet();
+            repository.falhar(email.getId(), EmailSaidaStatus.FALHA.getId(), erro, 0);
+            log.error("{EMAIL} e-mail {} para {} descartado após {} tentativas: {}", email.getId(), email.getDestinatario(), tentativa, erro);
+        } else {
+            retentativas.incrementAndGet();
+            repository.falhar(email.getId(), EmailSaidaStatus.PENDENTE.getId(), erro, espera(tentativa));
+            log.warn("{EMAIL} e-mail {} falhou na tentativa {}: {}", email.getId(), tentativa, erro);
+        }
+    }
+    //segundos até a próxima tentativa: dobra a cada tentativa, com até 20% a mais para espalhar os reenvios
+    private int espera(int tentativa) {
+        long espera = Math.min(backoffMaximo, (long) backoff << Math.min(tentativa - 1, 20));
+        return (int) (espera + ThreadLocalRandom.current().nextLong(espera / 5 + 1));
+    }
+
+    public int removerEnviados(int dias) {
+        return transacao.execute(s -> repository.removerEnviados(dias));
+    }
+
+    public long getPendentes() {
+        return repository.contarPendentes();
+    }
+    public long getRegistrados() {
+        return registrados.get();
+    }
+    public long getEnviados() {
+        return enviados.get();
+    }
+    public long getRetentativas() {
+        return retentativas.get();
+    }
+    public long getFalhas() {
+        return falhas.get();
+    }
+    //conexões SMTP abertas pela caixa de saída, uma por lote de cada thread
+    public long getConexoes() {
+        return conexoes.get();
+    }
+}
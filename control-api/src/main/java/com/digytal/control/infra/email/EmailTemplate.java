@@ -0,0 +1,68 @@
+package com.digytal.control.infra.email;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modelo de e-mail HTML com variáveis no formato ${nome}. O texto é separado em trechos fixos e variáveis uma
+ * única vez; cada envio só concatena os trechos com os valores (escapados para HTML).
+ */
+public final class EmailTemplate {
+    private final String[] trechos;
+    private final String[] variaveis;
+    private final int tamanho;
+
+    private EmailTemplate(String[] trechos, String[] variaveis) {
+        this.trechos = trechos;
+        this.variaveis = variaveis;
+        int tamanho = 0;
+        for (String trecho : trechos)
+            tamanho += trecho.length();
+        this.tamanho = tamanho;
+    }
+
+    public static EmailTemplate compilar(String conteudo) {
+        List<String> trechos = new ArrayList<>();
+        List<String> variaveis = new ArrayList<>();
+        int inicio = 0;
+        int abre;
+        while ((abre = conteudo.indexOf("${", inicio)) >= 0) {
+            int fecha = conteudo.indexOf('}', abre);
+            if (fecha < 0)
+                break;
+            trechos.add(conteudo.substring(inicio, abre));
+            variaveis.add(conteudo.substring(abre + 2, fecha).trim());
+            inicio = fecha + 1;
+        }
+        trechos.add(conteudo.substring(inicio));
+        return new EmailTemplate(trechos.toArray(new String[0]), variaveis.toArray(new String[0]));
+    }
+    public static EmailTemplate carregar(String recurso) {
+        try (InputStream in = new ClassPathResource(recurso).getInputStream()) {
+            return compilar(StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Modelo de e-mail não encontrado: " + recurso, e);
+        }
+    }
+
+    //variável sem valor informado fica vazia
+    public String render(Map<String, ?> valores) {
+        StringBuilder sb = new StringBuilder(tamanho + variaveis.length * 32);
+        for (int i = 0; i < variaveis.length; i++) {
+            sb.append(trechos[i]);
+            Object valor = valores.get(variaveis[i]);
+            if (valor != null)
+                sb.append(HtmlUtils.htmlEscape(valor.toString(), StandardCharsets.UTF_8.name()));
+        }
+        return sb.append(trechos[variaveis.length]).toString();
+    }
+}
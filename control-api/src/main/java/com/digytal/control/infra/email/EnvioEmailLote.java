@@ -0,0 +1,72 @@
+package com.digytal.control.infra.email;
+
+import com.digytal.control.model.modulo.acesso.email.EmailSaidaEntity;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Envia um lote de e-mails da caixa de saída em uma única chamada ao JavaMailSender, que abre uma conexão
+ * SMTP para o lote inteiro. Devolve os e-mails que falharam com a mensagem de erro de cada um.
+ */
+public class EnvioEmailLote {
+    private final JavaMailSender mailSender;
+
+    public EnvioEmailLote(JavaMailSender mailSender) {
+        this.mailSender = mailSender;
+    }
+
+    public Map<EmailSaidaEntity, String> enviar(List<EmailSaidaEntity> emails) {
+        Map<EmailSaidaEntity, String> falhas = new IdentityHashMap<>();
+        Map<MimeMessage, EmailSaidaEntity> mensagens = new IdentityHashMap<>();
+        List<MimeMessage> lote = new ArrayList<>(emails.size());
+        for (EmailSaidaEntity email : emails) {
+            try {
+                MimeMessage mensagem = criar(email);
+                mensagens.put(mensagem, email);
+                lote.add(mensagem);
+            } catch (Exception ex) {
+                falhas.put(email, erro(ex));
+            }
+        }
+        if (lote.isEmpty())
+            return falhas;
+        try {
+            mailSender.send(lote.toArray(new MimeMessage[0]));
+        } catch (MailSendException ex) {
+            //com a conexão aberta, só as mensagens recusadas aparecem aqui
+            if (ex.getFailedMessages().isEmpty())
+                lote.forEach(m -> falhas.put(mensagens.get(m), erro(ex)));
+            ex.getFailedMessages().forEach((m, e) -> {
+                EmailSaidaEntity email = mensagens.get(m);
+                if (email != null)
+                    falhas.put(email, erro(e));
+            });
+        } catch (MailException ex) {
+            //autenticação ou conexão: nenhuma mensagem foi enviada
+            lote.forEach(m -> falhas.put(mensagens.get(m), erro(ex)));
+        }
+        return falhas;
+    }
+    private MimeMessage criar(EmailSaidaEntity email) throws Exception {
+        MimeMessage mensagem = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mensagem, "UTF-8");
+        if (email.getRemetente() != null)
+            helper.setFrom(email.getRemetente());
+        helper.setTo(email.getDestinatario());
+        helper.setSubject(email.getTitulo());
+        helper.setText(email.getCorpo(), email.isHtml());
+        return mensagem;
+    }
+    private static String erro(Exception ex) {
+        String erro = ex.getMessage() == null ? ex.toString() : ex.getMessage();
+        return erro.length() > 500 ? erro.substring(0, 500) : erro;
+    }
+}
@@ -5,8 +5,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Component
 public class MessageTemplate {
+    private static final EmailTemplate NOVO_ACESSO_HTML = EmailTemplate.carregar("email/novo-acesso.html");
+    private static final EmailTemplate REDEFINICAO_SENHA_HTML = EmailTemplate.carregar("email/redefinicao-senha.html");
     @Value("${app.name}")
     private String app;
     public String novoAcessoTitulo(){
@@ -35,4 +40,18 @@ public class MessageTemplate {
         String msg = String.format("Olá %s,\nHouve uma solicitação de alteração de senha em sua conta.\n\nAtenciosamente,\nDigytal",nome);
         return msg;
     }
+    public String novoAcessoHtml(String nome, String login, String token){
+        Map<String, Object> valores = new HashMap<>();
+        valores.put("nome", nome);
+        valores.put("login", login);
+        valores.put("token", token);
+        return NOVO_ACESSO_HTML.render(valores);
+    }
+    public String redefinicaoSenhaHtml(String nome, String token, String url){
+        Map<String, Object> valores = new HashMap<>();
+        valores.put("nome", nome);
+        valores.put("token", token);
+        valores.put("url", url);
+        return REDEFINICAO_SENHA_HTML.render(valores);
+    }
 }
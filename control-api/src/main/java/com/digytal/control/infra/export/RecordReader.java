@@ -0,0 +1,99 @@
+package com.digytal.control.infra.export;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lê um CSV no mesmo formato do {@link RecordWriter} (separador ';', valores com aspas duplas quando necessário)
+ * registro a registro, sem carregar o arquivo em memória. A primeira linha é o cabeçalho e dá nome às colunas;
+ * colunas vazias não entram no registro.
+ */
+public class RecordReader implements Iterator<Map<String, String>> {
+    private static final char SEPARADOR = ';';
+    private final Reader reader;
+    private final List<String> header;
+    private List<String> next;
+
+    private RecordReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.header = readLine();
+        if (header != null && !header.isEmpty() && header.get(0).startsWith("\uFEFF"))
+            header.set(0, header.get(0).substring(1));
+        this.next = header == null ? null : readLine();
+    }
+
+    public static RecordReader csv(InputStream input) {
+        return new RecordReader(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (next == null)
+            throw new NoSuchElementException();
+        Map<String, String> record = new LinkedHashMap<>();
+        for (int i = 0; i < header.size() && i < next.size(); i++) {
+            if (!next.get(i).isEmpty())
+                record.put(header.get(i).trim(), next.get(i));
+        }
+        next = readLine();
+        return record;
+    }
+
+    //linhas em branco são ignoradas, valores entre aspas podem conter separador e quebra de linha
+    private List<String> readLine() {
+        try {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (quoted) {
+                    if (c != '"') {
+                        value.append((char) c);
+                    } else {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            value.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == SEPARADOR) {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else if (c == '\n') {
+                    if (values.isEmpty() && value.length() == 0)
+                        continue;
+                    break;
+                } else if (c != '\r') {
+                    value.append((char) c);
+                }
+            }
+            if (c == -1 && values.isEmpty() && value.length() == 0)
+                return null;
+            values.add(value.toString());
+            return values;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
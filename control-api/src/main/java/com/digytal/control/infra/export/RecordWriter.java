@@ -0,0 +1,111 @@
+package com.digytal.control.infra.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Escreve registros um a um no formato NDJSON (um objeto JSON por linha) ou CSV.
+ * No CSV os atributos aninhados viram colunas "atributo_subatributo" e o cabeçalho
+ * é definido pelo primeiro registro.
+ */
+public class RecordWriter {
+    private static final char SEPARADOR = ';';
+    private final ExportFormat format;
+    private final ObjectMapper mapper;
+    private final Supplier<OutputStream> output;
+    private Writer writer;
+    private List<String> header;
+
+    private RecordWriter(ExportFormat format, Supplier<OutputStream> output, ObjectMapper mapper) {
+        this.format = format;
+        this.mapper = mapper;
+        this.output = output;
+    }
+
+    /**
+     * O OutputStream só é obtido na primeira escrita, permitindo que validações
+     * anteriores ainda respondam com o tratamento de erro padrão.
+     */
+    public static RecordWriter of(ExportFormat format, Supplier<OutputStream> output, ObjectMapper mapper) {
+        return new RecordWriter(format, output, mapper);
+    }
+
+    public void write(Object record) {
+        try {
+            open();
+            if (ExportFormat.NDJSON == format) {
+                writer.write(mapper.writeValueAsString(record));
+            } else {
+                Map<String, String> columns = new LinkedHashMap<>();
+                flatten("", mapper.valueToTree(record), columns);
+                if (header == null) {
+                    header = new ArrayList<>(columns.keySet());
+                    writeLine(header);
+                }
+                List<String> values = new ArrayList<>(header.size());
+                for (String column : header)
+                    values.add(columns.get(column));
+                writeLine(values);
+                return;
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() throws IOException {
+        open();
+        writer.flush();
+    }
+
+    private void open() {
+        if (writer == null)
+            writer = new BufferedWriter(new OutputStreamWriter(output.get(), StandardCharsets.UTF_8));
+    }
+
+    private void writeLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0)
+                writer.write(SEPARADOR);
+            writer.write(escape(values.get(i)));
+        }
+        writer.write('\n');
+    }
+
+    private void flatten(String prefix, JsonNode node, Map<String, String> columns) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                flatten(prefix.isEmpty() ? field.getKey() : prefix + "_" + field.getKey(), field.getValue(), columns);
+            }
+        } else if (node.isNull() || node.isMissingNode()) {
+            columns.put(prefix, null);
+        } else {
+            columns.put(prefix, node.isValueNode() ? node.asText() : node.toString());
+        }
+    }
+
+    private String escape(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(SEPARADOR) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,136 @@
+package com.digytal.control.infra.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encaminha as conexões de transações somente-leitura (e das requisições marcadas via {@link #marcarLeitura})
+ * para a réplica, voltando para a primária quando a réplica está fora do ar ou com atraso acima do limite.
+ * Deve ficar atrás de um LazyConnectionDataSourceProxy: o JpaTransactionManager pede a conexão antes de
+ * marcar a transação como somente-leitura.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource {
+    private static final String ATRASO_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint END";
+    private static final ThreadLocal<Boolean> LEITURA = new ThreadLocal<>();
+
+    private final DataSource primaria;
+    private final DataSource replica;
+    private final long atrasoMaximo;
+    private volatile boolean replicaDisponivel = true;
+    private final AtomicLong atraso = new AtomicLong();
+    private final AtomicLong conexoesPrimaria = new AtomicLong();
+    private final AtomicLong conexoesReplica = new AtomicLong();
+    private final AtomicLong desviosPrimaria = new AtomicLong();
+    private final AtomicLong falhasReplica = new AtomicLong();
+
+    public ReplicaDataSource(DataSource primaria, DataSource replica, long atrasoMaximo) {
+        this.primaria = primaria;
+        this.replica = replica;
+        this.atrasoMaximo = atrasoMaximo;
+    }
+
+    public static void marcarLeitura(boolean leitura) {
+        if (leitura)
+            LEITURA.set(Boolean.TRUE);
+        else
+            LEITURA.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conectar(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conectar(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection conectar(Conexao conexao) throws SQLException {
+        if (!isLeitura()) {
+            conexoesPrimaria.incrementAndGet();
+            return conexao.obter(primaria);
+        }
+        if (replicaDisponivel) {
+            try {
+                Connection connection = conexao.obter(replica);
+                conexoesReplica.incrementAndGet();
+                return connection;
+            } catch (SQLException ex) {
+                registrarFalha(ex);
+            }
+        }
+        desviosPrimaria.incrementAndGet();
+        conexoesPrimaria.incrementAndGet();
+        return conexao.obter(primaria);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.intervalo-verificacao:5000}")
+    public void verificarReplica() {
+        try (Connection connection = replica.getConnection();
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(ATRASO_SQL)) {
+            rs.next();
+            atraso.set(rs.getLong(1));
+            boolean disponivel = atraso.get() <= atrasoMaximo;
+            if (disponivel != replicaDisponivel)
+                log.warn("Réplica {} (atraso de {} ms, limite {} ms)", disponivel ? "disponível" : "desativada", atraso.get(), atrasoMaximo);
+            replicaDisponivel = disponivel;
+        } catch (SQLException ex) {
+            registrarFalha(ex);
+        }
+    }
+
+    private void registrarFalha(SQLException ex) {
+        falhasReplica.incrementAndGet();
+        if (replicaDisponivel)
+            log.warn("Réplica desativada, as leituras seguem para a primária: {}", ex.getMessage());
+        replicaDisponivel = false;
+    }
+
+    private boolean isLeitura() {
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return Boolean.TRUE.equals(LEITURA.get());
+    }
+
+    public boolean isReplicaDisponivel() {
+        return replicaDisponivel;
+    }
+    public long getAtrasoReplica() {
+        return atraso.get();
+    }
+    public long getConexoesPrimaria() {
+        return conexoesPrimaria.get();
+    }
+    public long getConexoesReplica() {
+        return conexoesReplica.get();
+    }
+    public long getDesviosPrimaria() {
+        return desviosPrimaria.get();
+    }
+    public long getFalhasReplica() {
+        return falhasReplica.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("réplica %s (atraso de %d ms), %d conexões na primária, %d na réplica, %d leituras desviadas para a primária, %d falhas da réplica",
+                replicaDisponivel ? "disponível" : "desativada", getAtrasoReplica(), getConexoesPrimaria(), getConexoesReplica(), getDesviosPrimaria(), getFalhasReplica());
+    }
+
+    private interface Conexao {
+        Connection obter(DataSource dataSource) throws SQLException;
+    }
+}
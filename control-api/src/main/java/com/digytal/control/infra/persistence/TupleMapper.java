@@ -0,0 +1,162 @@
+package com.digytal.control.infra.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conversor de Tuple para DTO compilado uma única vez por (classe, aliases) e reaproveitado
+ * entre as consultas. Os aliases seguem a convenção do QueryRepository: "cadastro_descricao"
+ * representa o atributo aninhado cadastro.descricao.
+ */
+@Slf4j
+public final class TupleMapper {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR = MethodType.methodType(Object.class);
+    private static final Map<String, TupleMapper> CACHE = new ConcurrentHashMap<>();
+
+    private final MethodHandle constructor;
+    private final Property[] properties;
+
+    private TupleMapper(Class<?> dto, List<TupleElement<?>> elements) {
+        this.constructor = constructor(dto);
+        this.properties = new Property[elements.size()];
+        for (int i = 0; i < properties.length; i++) {
+            String alias = elements.get(i).getAlias();
+            properties[i] = Property.of(dto, alias);
+            if (properties[i] == null)
+                log.warn("Alias {} sem atributo correspondente em {}", alias, dto.getSimpleName());
+        }
+    }
+
+    public static TupleMapper of(Class<?> dto, List<TupleElement<?>> elements) {
+        StringBuilder key = new StringBuilder(dto.getName());
+        for (TupleElement<?> te : elements)
+            key.append('|').append(te.getAlias());
+        return CACHE.computeIfAbsent(key.toString(), k -> new TupleMapper(dto, elements));
+    }
+
+    public <T> T map(Tuple tuple) {
+        try {
+            Object item = constructor.invokeExact();
+            for (int i = 0; i < properties.length; i++) {
+                Object value = tuple.get(i);
+                if (value != null && properties[i] != null)
+                    properties[i].set(item, value);
+            }
+            return (T) item;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Erro ao converter o registro", e);
+        }
+    }
+
+    static Object convert(Object value, Class<?> type) {
+        if (value instanceof java.sql.Timestamp)
+            value = ((java.sql.Timestamp) value).toLocalDateTime();
+        else if (value instanceof java.sql.Date)
+            value = ((java.sql.Date) value).toLocalDate();
+
+        if (type.isInstance(value))
+            return value;
+        if (type == String.class)
+            return value.toString();
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == Integer.class) return number.intValue();
+            if (type == Long.class) return number.longValue();
+            if (type == Double.class) return number.doubleValue();
+            if (type == Float.class) return number.floatValue();
+            if (type == Short.class) return number.shortValue();
+            if (type == BigDecimal.class) return new BigDecimal(number.toString());
+            if (type == BigInteger.class) return new BigDecimal(number.toString()).toBigInteger();
+        }
+        return value;
+    }
+
+    private static MethodHandle constructor(Class<?> type) {
+        try {
+            Constructor<?> c = type.getDeclaredConstructor();
+            c.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(c).asType(CONSTRUCTOR);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Classe sem construtor padrão: " + type.getName(), e);
+        }
+    }
+
+    private static Field field(Class<?> type, String name) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                //continua na superclasse
+            }
+        }
+        return null;
+    }
+
+    private static final class Property {
+        private MethodHandle[] getters;
+        private MethodHandle[] setters;
+        private MethodHandle[] constructors;
+        private MethodHandle setter;
+        private Class<?> type;
+
+        static Property of(Class<?> dto, String alias) {
+            try {
+                String[] path = alias.split("_");
+                Property instance = new Property();
+                int nested = path.length - 1;
+                instance.getters = new MethodHandle[nested];
+                instance.setters = new MethodHandle[nested];
+                instance.constructors = new MethodHandle[nested];
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                Class<?> owner = dto;
+                for (int i = 0; i < nested; i++) {
+                    Field field = field(owner, path[i]);
+                    if (field == null)
+                        return null;
+                    instance.getters[i] = lookup.unreflectGetter(field).asType(GETTER);
+                    instance.setters[i] = lookup.unreflectSetter(field).asType(SETTER);
+                    instance.constructors[i] = constructor(field.getType());
+                    owner = field.getType();
+                }
+                Field field = field(owner, path[nested]);
+                if (field == null)
+                    return null;
+                instance.setter = lookup.unreflectSetter(field).asType(SETTER);
+                instance.type = ClassUtils.resolvePrimitiveIfNecessary(field.getType());
+                return instance;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Alias inválido: " + alias, e);
+            }
+        }
+
+        void set(Object item, Object value) throws Throwable {
+            Object target = item;
+            for (int i = 0; i < getters.length; i++) {
+                Object nested = getters[i].invokeExact(target);
+                if (nested == null) {
+                    nested = constructors[i].invokeExact();
+                    setters[i].invokeExact(target, nested);
+                }
+                target = nested;
+            }
+            setter.invokeExact(target, convert(value, type));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.digytal.control.infra.report;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+
+/**
+ * Relatórios já carregados, por nome do recurso em reports/. O JasperReport é imutável depois de carregado e
+ * pode ser preenchido por várias threads ao mesmo tempo, então cada modelo é lido do classpath uma única vez.
+ * Sem o .jasper, o .jrxml de mesmo nome é compilado (também uma única vez).
+ */
+public final class ReportCache {
+    private static final Logger log = LoggerFactory.getLogger(ReportCache.class);
+    private static final String PASTA = "reports/";
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final Map<String, JasperReport> cache = new ConcurrentHashMap<>();
+    private ReportCache(){}
+
+    public static JasperReport get(String reportName) throws JRException {
+        JasperReport report = cache.get(reportName);
+        if (report != null) {
+            hits.incrementAndGet();
+            return report;
+        }
+        misses.incrementAndGet();
+        //duas threads podem carregar o mesmo modelo na primeira chamada; fica o primeiro
+        report = load(reportName);
+        JasperReport existente = cache.putIfAbsent(reportName, report);
+        return existente == null ? report : existente;
+    }
+
+    //carrega todos os .jasper de reports/, para a primeira emissão não pagar a leitura
+    public static int warmUp() {
+        int carregados = 0;
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:" + PASTA + "**/*.jasper");
+            for (Resource resource : resources) {
+                String path = resource.getURL().getPath();
+                String reportName = path.substring(path.lastIndexOf(PASTA) + PASTA.length());
+                try {
+                    get(reportName);
+                    carregados++;
+                } catch (JRException | RuntimeException e) {
+                    log.warn("Relatório {} não pôde ser carregado: {}", reportName, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Não foi possível listar os relatórios: {}", e.getMessage());
+        }
+        log.info("Relatórios carregados: {}", carregados);
+        return carregados;
+    }
+
+    private static JasperReport load(String reportName) throws JRException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try (InputStream jasperStream = classLoader.getResourceAsStream(PASTA + reportName)) {
+            if (jasperStream != null)
+                return (JasperReport) JRLoader.loadObject(jasperStream);
+        } catch (IOException e) {
+            throw new JRException(e);
+        }
+        String jrxml = reportName.replaceAll("\\.jasper$", "") + ".jrxml";
+        try (InputStream jrxmlStream = classLoader.getResourceAsStream(PASTA + jrxml)) {
+            if (jrxmlStream == null)
+                throw new IllegalStateException("Report not found: " + reportName);
+            return JasperCompileManager.compileReport(jrxmlStream);
+        } catch (IOException e) {
+            throw new JRException(e);
+        }
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static int getSize() {
+        return cache.size();
+    }
+
+    public static void clear() {
+        cache.clear();
+    }
+}
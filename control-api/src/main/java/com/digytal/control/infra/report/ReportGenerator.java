@@ -25,6 +25,7 @@ import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JRResultSetDataSource;
 import net.sf.jasperreports.engine.JasperFillManager;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
 import net.sf.jasperreports.engine.export.JRPdfExporter;
 import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
@@ -154,44 +155,40 @@ public class ReportGenerator {
     }
     
     public OutputStream generate(OutputStream output) throws IOException, JRException {
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-        String resourceName = "reports/" + reportName;
-        try (InputStream jasperStream = classLoader.getResourceAsStream(resourceName)) {
-            if (jasperStream == null) {
-                throw new IllegalStateException("Report not found: " + reportName);
-            }
-
-            parameters.put(JRParameter.REPORT_LOCALE, BRAZIL_LOCALE);
-            parameters.put("REPORT_FORMAT", format.name());
-            parameters.put("EXPORTING_XLS", format == ReportFormat.EXCEL);
-            if (format == ReportFormat.EXCEL) {
-                parameters.put(JRParameter.IS_IGNORE_PAGINATION, true);
-            }
-            if (dataSource == null && data != null) {
-                if (data instanceof ResultSet) {
-                    dataSource = new JRResultSetDataSource((ResultSet) data);
-                } else {
-                    Collection<?> collection = data instanceof Collection
-                            ? (Collection<?>) data
-                            : Collections.singleton(data);
-                    dataSource = new JRBeanCollectionDataSource(collection);
-                }
-            }
-            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperStream, parameters, dataSource);
+        export(fill(), output);
+        return output;
+    }
 
-            if (format == ReportFormat.PDF) {
-                generatePdf(jasperPrint, output);
-            } else if (format == ReportFormat.EXCEL) {
-                generateExcel(jasperPrint, output);
+    //preenche com o modelo já carregado pelo ReportCache; a saída pode ser escrita depois, direto na resposta
+    public JasperPrint fill() throws JRException {
+        JasperReport jasperReport = ReportCache.get(reportName);
+        parameters.put(JRParameter.REPORT_LOCALE, BRAZIL_LOCALE);
+        parameters.put("REPORT_FORMAT", format.name());
+        parameters.put("EXPORTING_XLS", format == ReportFormat.EXCEL);
+        if (format == ReportFormat.EXCEL) {
+            parameters.put(JRParameter.IS_IGNORE_PAGINATION, true);
+        }
+        if (dataSource == null && data != null) {
+            if (data instanceof ResultSet) {
+                dataSource = new JRResultSetDataSource((ResultSet) data);
             } else {
-                throw new IllegalStateException("Formato de relatório não tratado: " + format);
+                Collection<?> collection = data instanceof Collection
+                        ? (Collection<?>) data
+                        : Collections.singleton(data);
+                dataSource = new JRBeanCollectionDataSource(collection);
             }
-        }catch (Exception e) {
-            e.printStackTrace();
-        }finally {
-            output.close();
         }
-        return output;
+        return JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+    }
+
+    public void export(JasperPrint jasperPrint, OutputStream output) throws JRException {
+        if (format == ReportFormat.PDF) {
+            generatePdf(jasperPrint, output);
+        } else if (format == ReportFormat.EXCEL) {
+            generateExcel(jasperPrint, output);
+        } else {
+            throw new IllegalStateException("Formato de relatório não tratado: " + format);
+        }
     }
 
     private void generatePdf(JasperPrint jasperPrint, OutputStream output) throws JRException {
@@ -0,0 +1,65 @@
+package com.digytal.control.infra.security.jwt;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Dados imutáveis de um token já verificado, com a autenticação pronta para o SecurityContext.
+ * A mesma instância é reaproveitada pelo TokenCache em todas as requisições com o mesmo token.
+ */
+public final class Credencial {
+    private final String subject;
+    private final Integer usuario;
+    private final Integer empresa;
+    private final Integer organizacao;
+    private final boolean valido;
+    private final long expiraEm;
+    private final Authentication autenticacao;
+
+    private Credencial(JwtObject token) {
+        this.subject = token.getSubject();
+        this.usuario = token.getUsuario();
+        this.empresa = token.getEmpresa();
+        this.organizacao = token.getOrganizacao();
+        this.valido = token.isValido();
+        this.expiraEm = Timestamp.valueOf(token.getExpiration()).getTime();
+        List<String> roles = token.getRoles() == null ? Collections.emptyList() : token.getRoles();
+        List<SimpleGrantedAuthority> authorities = roles.stream().map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        this.autenticacao = new UsernamePasswordAuthenticationToken(subject, null, authorities);
+    }
+    public static Credencial of(JwtObject token) {
+        return new Credencial(token);
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+    public Integer getUsuario() {
+        return usuario;
+    }
+    public Integer getEmpresa() {
+        return empresa;
+    }
+    public Integer getOrganizacao() {
+        return organizacao;
+    }
+    public boolean isValido() {
+        return valido;
+    }
+    public long getExpiraEm() {
+        return expiraEm;
+    }
+    public boolean isExpirada(long agora) {
+        return expiraEm <= agora;
+    }
+    public Authentication getAutenticacao() {
+        return autenticacao;
+    }
+}
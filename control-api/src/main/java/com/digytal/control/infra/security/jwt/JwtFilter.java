@@ -1,7 +1,5 @@
 package com.digytal.control.infra.security.jwt;
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -9,13 +7,10 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.digytal.control.infra.business.login.TokenInvalidoException;
-import com.digytal.control.infra.config.RequestInfo;
+import com.digytal.control.infra.config.TenantContext;
 import com.digytal.control.infra.http.response.ResponseFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -31,8 +26,6 @@ public class JwtFilter extends OncePerRequestFilter {
     private final ObjectMapper mapper = new ObjectMapper();
     private final UrlPathHelper urlHelper = new UrlPathHelper();
 
-    @Autowired
-    private RequestInfo requestInfo;
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -42,26 +35,13 @@ public class JwtFilter extends OncePerRequestFilter {
         //esta implementação só esta validando a integridade do token
         try {
             if(token!=null && !token.isEmpty() && !token.trim().equals("Bearer")) {
-                JwtObject tokenObject = JwtCreator.create(token,SecurityConfig.PREFIX, SecurityConfig.KEY);
-                if(!tokenObject.isValido() && (!request.getRequestURI().contains("public")))
+                //o token já verificado é reaproveitado até a sua expiração
+                Credencial credencial = TokenCache.get(token);
+                if(!credencial.isValido())
                     throw new UnsupportedJwtException("Este token não possui as credencias necessárias");
 
-                List<SimpleGrantedAuthority> authorities = authorities(tokenObject.getRoles());
-
-                UsernamePasswordAuthenticationToken userToken =
-                        new UsernamePasswordAuthenticationToken(
-                                tokenObject.getSubject(),
-                                null,
-                                authorities);
-
-                if(tokenObject.isValido()) {
-                    SecurityContextHolder.getContext().setAuthentication(userToken);
-                    requestInfo.setUsuario(tokenObject.getUsuario());
-                    requestInfo.setEmpresa(tokenObject.getEmpresa());
-                    requestInfo.setOrganizacao(tokenObject.getOrganizacao());
-                }else
-                    throw new UnsupportedJwtException("");
-
+                SecurityContextHolder.getContext().setAuthentication(credencial.getAutenticacao());
+                TenantContext.set(credencial);
             }else {
                 SecurityContextHolder.clearContext();
             }
@@ -73,12 +53,10 @@ public class JwtFilter extends OncePerRequestFilter {
             String json = mapper.writeValueAsString(ResponseFactory.exception(new TokenInvalidoException()));
             //String json = mapper.writeValueAsString(new TokenInvalidoException());
             response.getWriter().write(json);
+        }finally {
+            TenantContext.clear();
         }
     }
-    private List<SimpleGrantedAuthority> authorities(List<String> roles){
-        return roles.stream().map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-    }
     /**
      * String scheme = req.getScheme();             // http
      *     String serverName = req.getServerName();     // hostname.com
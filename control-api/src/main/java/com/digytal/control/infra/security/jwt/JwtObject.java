@@ -13,17 +13,15 @@ public class JwtObject {
     private LocalDateTime expiration; // data de expiração do token
     private List<String> roles; //perfis de acesso
     private boolean valido;
-    private static JwtObject build=null;
     public static JwtObject builder(){
-        build = new JwtObject();
-        return build;
+        return new JwtObject();
     }
     public String getSubject() {
         return subject;
     }
 
     public JwtObject subject(String subject) {
-        this.build.subject = subject;
+        this.subject = subject;
         return this;
     }
 
@@ -32,11 +30,11 @@ public class JwtObject {
     }
 
     public JwtObject issuedAt(LocalDateTime issuedAt) {
-        this.build.issuedAt = issuedAt;
+        this.issuedAt = issuedAt;
         return this;
     }
     public JwtObject issuedAt() {
-        this.build.issuedAt = LocalDateTime.now();
+        this.issuedAt = LocalDateTime.now();
         return this;
     }
 
@@ -45,27 +43,27 @@ public class JwtObject {
     }
 
     public JwtObject expirationHours(long hours) {
-        this.build.expiration = this.build.issuedAt.plusHours(hours);
+        this.expiration = this.issuedAt.plusHours(hours);
         return this;
     }
     public JwtObject expiration(LocalDateTime expiration) {
-        this.build.expiration = expiration;
+        this.expiration = expiration;
         return this;
     }
     public JwtObject usuario(Integer usuario) {
-        this.build.usuario = usuario;
+        this.usuario = usuario;
         return this;
     }
     public JwtObject empresa(Integer empresa) {
-        this.build.empresa = empresa;
+        this.empresa = empresa;
         return this;
     }
     public JwtObject organizacao(Integer organizacao) {
-        this.build.organizacao = organizacao;
+        this.organizacao = organizacao;
         return this;
     }
     public JwtObject valido(boolean valido) {
-        this.build.valido = valido;
+        this.valido = valido;
         return this;
     }
 
@@ -74,12 +72,12 @@ public class JwtObject {
     }
 
     public JwtObject roles(List<String> roles) {
-        this.build.roles = roles;
+        this.roles = roles;
         return this;
     }
 
     public JwtObject roles(String... roles){
-        this.build.roles = Arrays.asList(roles);
+        this.roles = Arrays.asList(roles);
         return this;
     }
 
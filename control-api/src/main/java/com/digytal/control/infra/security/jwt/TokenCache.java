@@ -0,0 +1,80 @@
+package com.digytal.control.infra.security.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache (LRU) dos tokens já verificados, indexado pelo SHA-256 do token (o token em si não fica em memória).
+ * Cada entrada vale até a expiração do próprio token; depois disso o token volta a ser verificado pelo
+ * JwtCreator, que recusa o token expirado. Tokens com assinatura inválida nunca entram no cache.
+ */
+public final class TokenCache {
+    private static final int MAX_SIZE = 10_000;
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final ThreadLocal<MessageDigest> digest = ThreadLocal.withInitial(TokenCache::sha256);
+    private static final Map<ByteBuffer, Credencial> cache = Collections.synchronizedMap(new LinkedHashMap<ByteBuffer, Credencial>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Credencial> eldest) {
+            return size() > MAX_SIZE;
+        }
+    });
+    private TokenCache(){}
+
+    public static Credencial get(String token) {
+        return get(token, t -> Credencial.of(JwtCreator.create(t, SecurityConfig.PREFIX, SecurityConfig.KEY)));
+    }
+    public static Credencial get(String token, Function<String, Credencial> verificador) {
+        ByteBuffer key = ByteBuffer.wrap(digest.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        long agora = System.currentTimeMillis();
+        Credencial credencial = cache.get(key);
+        if (credencial != null) {
+            if (!credencial.isExpirada(agora)) {
+                hits.incrementAndGet();
+                return credencial;
+            }
+            cache.remove(key);
+        }
+        misses.incrementAndGet();
+        credencial = verificador.apply(token);
+        if (!credencial.isExpirada(agora))
+            cache.put(key, credencial);
+        return credencial;
+    }
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static double getTaxaAcerto() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public static int getSize() {
+        return cache.size();
+    }
+
+    public static void clear() {
+        cache.clear();
+    }
+}
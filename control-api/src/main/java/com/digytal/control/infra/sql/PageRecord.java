@@ -1,15 +1,16 @@
 package com.digytal.control.infra.sql;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
 import java.util.stream.IntStream;
 
 public class PageRecord<E> extends Page {
     private List<E> records;
-    private static PageRecord instance;
     private PageRecord(){}
 
     public static PageRecord of(List records,Integer pageIndex,Integer pageSize,Integer total){
-        instance = new PageRecord();
+        PageRecord instance = new PageRecord();
         instance.totalItems = total;
         instance.pageIndex=pageIndex==null || pageIndex==0?1:pageIndex;
         pageSize = pageSize==null?StringSQL.DEFAULT_PAGE_SIZE:pageSize;
@@ -17,20 +18,21 @@ public class PageRecord<E> extends Page {
         instance.pageSize=pageSize;
         instance.records = records;
         instance.totalPageItems = records==null?0:records.size();
-        instance.pages = new int[Double.valueOf(Math.ceil((double) instance.totalItems/instance.pageSize)).intValue()];
+        instance.pages = new int[pageSize==0?0:(int) Math.ceil((double) instance.totalItems/pageSize)];
         IntStream.range(0, instance.pages.length).forEach(index -> instance.pages[index]=index+1);
         return  instance;
     }
-    public List getRecords() {
+    public List<E> getRecords() {
         return records;
     }
+    @JsonIgnore
     public Page getPage(){
         Page page = new Page();
-        page.pageIndex = instance.pageIndex;
-        page.pageSize = instance.pageSize;
-        page.totalItems = instance.totalItems;
-        page.totalPageItems = instance.totalPageItems;
-        page.pages = instance.pages;
+        page.pageIndex = pageIndex;
+        page.pageSize = pageSize;
+        page.totalItems = totalItems;
+        page.totalPageItems = totalPageItems;
+        page.pages = pages;
         return page;
     }
-}
\ No newline at end of file
+}
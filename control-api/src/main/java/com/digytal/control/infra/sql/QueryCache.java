@@ -0,0 +1,53 @@
+package com.digytal.control.infra.sql;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache (LRU) das consultas geradas pelo StringSQL, indexado pelo formato da consulta:
+ * select, ordenação e o conjunto de condições aplicadas. Como o texto gerado é sempre o
+ * mesmo para o mesmo formato, o Hibernate também reaproveita o plano da consulta.
+ */
+public final class QueryCache {
+    public static int MAX_SIZE = 512;
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final Map<Object, String> cache = Collections.synchronizedMap(new LinkedHashMap<Object, String>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, String> eldest) {
+            return size() > MAX_SIZE;
+        }
+    });
+    private QueryCache(){}
+
+    static String get(Object key, Supplier<String> generator) {
+        String sql = cache.get(key);
+        if (sql != null) {
+            hits.incrementAndGet();
+            return sql;
+        }
+        misses.incrementAndGet();
+        sql = generator.get();
+        cache.put(key, sql);
+        return sql;
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static int getSize() {
+        return cache.size();
+    }
+
+    public static void clear() {
+        cache.clear();
+    }
+}
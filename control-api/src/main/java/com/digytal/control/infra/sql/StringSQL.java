@@ -2,12 +2,15 @@ package com.digytal.control.infra.sql;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
 public class StringSQL {
     public static Integer DEFAULT_PAGE_SIZE=50;
+    public static Integer MAX_PAGE_SIZE=500;
     private enum Definition{
         UPPER,
         LOWER,
@@ -45,7 +48,7 @@ public class StringSQL {
         }
     }
     private int pindex=0;
-    private String order = "";
+    private String order;
     private String select;
     private Map<String, Object> filters =new LinkedHashMap<>();
     private StringBuilder where = new StringBuilder();
@@ -53,19 +56,37 @@ public class StringSQL {
     private Condition currentCondition;
     private Integer pageIndex=0;
     private Integer pageSize;
+    private String seekField;
+    private String seekIdField;
     public StringSQL select(String select){
         this.select = select;
         return this;
     }
     public void orderBy(String orderBy) {
-        this.order = " ORDER BY " +  orderBy;
+        this.order = orderBy;
     }
     public StringSQL setFilters(Map<String, Object> filters) {
         this.pageIndex= Integer.valueOf(Objects.toString(filters.remove("pageIndex"),"1"));
         this.pageSize= Integer.valueOf(Objects.toString(filters.remove("pageSize"),DEFAULT_PAGE_SIZE.toString()));
+        this.pageIndex = Math.max(pageIndex, 1);
+        this.pageSize = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
         this.filters = filters;
         return this;
     }
+    /**
+     * Paginação por chave (keyset): retorna somente os registros posteriores ao último
+     * registro recebido pelo cliente, evitando o OFFSET em consultas profundas.
+     * O ORDER BY da consulta deve ser pelos mesmos campos (ordem, id).
+     */
+    public StringSQL seek(String orderField, String idField, LocalDateTime lastValue, Integer lastId){
+        if(lastValue!=null && lastId!=null) {
+            filters.put("seekValue", lastValue);
+            filters.put("seekId", lastId);
+            this.seekField = orderField;
+            this.seekIdField = idField;
+        }
+        return this;
+    }
     //conditions
     public StringSQL where(String field){
         addCondition(field,"WHERE");
@@ -240,8 +261,107 @@ public class StringSQL {
         return this;
     }
     public String generate(){
+        return QueryCache.get(shape(false), this::build);
+    }
+    public String generateCount(){
+        return QueryCache.get(shape(true), this::buildCount);
+    }
+    /**
+     * Chave do formato da consulta: as partes de cada condição registrada (por referência, sem montar texto)
+     * mais as condições aplicadas identificam o texto gerado, independente dos valores dos parâmetros.
+     */
+    private Shape shape(boolean count){
+        String[] parts = new String[conditions.size() * 4];
+        BitSet applied = new BitSet();
+        int index = 0;
+        for(Condition c: conditions.values()){
+            if(c.isApply())
+                applied.set(index / 4);
+            parts[index++] = c.getLogic();
+            parts[index++] = c.getField();
+            parts[index++] = c.getRelational();
+            parts[index++] = c.getParam();
+        }
+        return new Shape(select, order, seekField, seekIdField, count, parts, applied);
+    }
+    private static final class Shape {
+        private final String select;
+        private final String order;
+        private final String seekField;
+        private final String seekIdField;
+        private final boolean count;
+        private final String[] parts;
+        private final BitSet applied;
+        private final int hash;
+
+        Shape(String select, String order, String seekField, String seekIdField, boolean count, String[] parts, BitSet applied) {
+            this.select = select;
+            this.order = order;
+            this.seekField = seekField;
+            this.seekIdField = seekIdField;
+            this.count = count;
+            this.parts = parts;
+            this.applied = applied;
+            this.hash = Objects.hash(select, order, seekField, seekIdField, count, Arrays.hashCode(parts), applied);
+        }
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Shape))
+                return false;
+            Shape other = (Shape) o;
+            return hash == other.hash && count == other.count && applied.equals(other.applied) && Arrays.equals(parts, other.parts)
+                    && Objects.equals(select, other.select) && Objects.equals(order, other.order)
+                    && Objects.equals(seekField, other.seekField) && Objects.equals(seekIdField, other.seekIdField);
+        }
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+    private String build(){
         StringBuilder sql = new StringBuilder();
         sql.append(select);
+        boolean where = appendConditions(sql);
+        if(seekField!=null)
+            sql.append(String.format(" %s (%s > :seekValue OR (%s = :seekValue AND %s > :seekId))", where ? "WHERE" : "AND", seekField, seekField, seekIdField));
+        if(order!=null)
+            sql.append(" ORDER BY ").append(order);
+        //System.out.println("Gerando SQL " + sql.toString());
+        return sql.toString();
+    }
+    private String buildCount(){
+        StringBuilder sql = new StringBuilder("SELECT count(*) ");
+        sql.append(select.substring(indexOfFrom(select)));
+        appendConditions(sql);
+        return sql.toString();
+    }
+    /**
+     * Posição do FROM principal da consulta: em qualquer caixa e após qualquer espaço ou quebra de linha,
+     * ignorando subconsultas entre parênteses e literais entre aspas.
+     */
+    private static int indexOfFrom(String select){
+        int depth = 0;
+        boolean literal = false;
+        for(int i = 0; i < select.length(); i++){
+            char c = select.charAt(i);
+            if(c == '\'')
+                literal = !literal;
+            else if(literal)
+                continue;
+            else if(c == '(')
+                depth++;
+            else if(c == ')')
+                depth--;
+            else if(depth == 0 && select.regionMatches(true, i, "FROM", 0, 4)
+                    && (i == 0 || !Character.isJavaIdentifierPart(select.charAt(i - 1)))
+                    && (i + 4 == select.length() || !Character.isJavaIdentifierPart(select.charAt(i + 4))))
+                return i;
+        }
+        throw new IllegalStateException("Consulta sem cláusula FROM para a contagem: " + select);
+    }
+    private boolean appendConditions(StringBuilder sql){
         boolean where = true;
         for(Map.Entry<String,Condition> map: conditions.entrySet()){
             Condition c = map.getValue();
@@ -250,9 +370,7 @@ public class StringSQL {
                 where=false;
             }
         }
-        sql.append(this.order);
-        //System.out.println("Gerando SQL " + sql.toString());
-        return sql.toString();
+        return where;
     }
     private void addCondition(String field, String logic){
         currentCondition= Condition.of(field,logic);
@@ -267,6 +385,10 @@ public class StringSQL {
         return pageSize;
     }
 
+    public boolean isKeyset() {
+        return seekField != null;
+    }
+
     public Map<String, Object> getFilters() {
         return filters;
     }
@@ -0,0 +1,185 @@
+package com.digytal.control.infra.utils;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Valor monetário imutável em ponto fixo com 4 casas decimais (a escala das colunas numeric do banco), guardado
+ * em um long de décimos de milésimo. Soma, subtração, multiplicação e divisão são feitas em aritmética inteira,
+ * sem criar BigDecimal, com o mesmo arredondamento do {@link Calculos}: HALF_EVEN nas operações e HALF_UP na
+ * porcentagem. Só recorre ao BigDecimal quando o resultado intermediário não cabe em um long.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+    public static final int ESCALA = Calculos.ESCALA4;
+    private static final long FATOR = 10_000L;
+    //acima disso o double não tem precisão para separar a quarta casa de um empate
+    private static final double LIMITE_DOUBLE = 1e12;
+    public static final Money ZERO = new Money(0);
+
+    private final long unidades;
+
+    private Money(long unidades) {
+        this.unidades = unidades;
+    }
+    public static Money of(double valor) {
+        double escalado = valor * FATOR;
+        if (Math.abs(escalado) < LIMITE_DOUBLE) {
+            double fracao = Math.abs(escalado - Math.floor(escalado));
+            //longe do empate o arredondamento do double coincide com o do valor decimal
+            if (Math.abs(fracao - 0.5) > 1e-3)
+                return ofUnidades(Math.round(escalado));
+        }
+        return of(new BigDecimal(Double.toString(valor)));
+    }
+    public static Money of(Double valor) {
+        return of(Objects.requireNonNull(valor, "valor").doubleValue());
+    }
+    @JsonCreator
+    public static Money of(BigDecimal valor) {
+        return ofUnidades(valor.setScale(ESCALA, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+    }
+    public static Money ofUnidades(long unidades) {
+        return unidades == 0 ? ZERO : new Money(unidades);
+    }
+
+    public Money somar(Money valor) {
+        return ofUnidades(Math.addExact(unidades, valor.unidades));
+    }
+    public Money subtrair(Money valor) {
+        return ofUnidades(Math.subtractExact(unidades, valor.unidades));
+    }
+    public Money multiplicar(Money valor) {
+        long alto = Math.multiplyHigh(unidades, valor.unidades);
+        long baixo = unidades * valor.unidades;
+        if ((alto == 0 && baixo >= 0) || (alto == -1 && baixo < 0))
+            return ofUnidades(dividir(baixo, FATOR, RoundingMode.HALF_EVEN));
+        return of(toBigDecimal().multiply(valor.toBigDecimal()));
+    }
+    public Money multiplicar(long quantidade) {
+        return ofUnidades(Math.multiplyExact(unidades, quantidade));
+    }
+    public Money dividir(Money divisor) {
+        if (divisor.unidades == 0)
+            throw new ArithmeticException("Divisão por zero");
+        if (Math.abs(unidades) <= Long.MAX_VALUE / FATOR)
+            return ofUnidades(dividir(unidades * FATOR, divisor.unidades, RoundingMode.HALF_EVEN));
+        return of(toBigDecimal().divide(divisor.toBigDecimal(), ESCALA, RoundingMode.HALF_EVEN));
+    }
+    public Money dividir(long divisor) {
+        if (divisor == 0)
+            throw new ArithmeticException("Divisão por zero");
+        return ofUnidades(dividir(unidades, divisor, RoundingMode.HALF_EVEN));
+    }
+    /**
+     * Mesmo resultado do {@link Calculos#calcularPorcentagem}: valor * aliquota / 100 com 4 casas e depois 2, ambos HALF_UP.
+     */
+    public Money porcentagem(Money aliquota) {
+        long alto = Math.multiplyHigh(unidades, aliquota.unidades);
+        long baixo = unidades * aliquota.unidades;
+        if ((alto == 0 && baixo >= 0) || (alto == -1 && baixo < 0)) {
+            long escala4 = dividir(baixo, FATOR * 100, RoundingMode.HALF_UP);
+            return ofUnidades(dividir(escala4, 100, RoundingMode.HALF_UP) * 100);
+        }
+        return of(Calculos.calcularPorcentagem(toBigDecimal(), aliquota.toBigDecimal()));
+    }
+    /**
+     * Arredonda para menos casas decimais (HALF_EVEN), como o {@link Calculos#aplicarEscala(int, Double)}.
+     */
+    public Money arredondar(int escala) {
+        if (escala >= ESCALA)
+            return this;
+        long divisor = 1;
+        for (int i = escala; i < ESCALA; i++)
+            divisor *= 10;
+        return ofUnidades(dividir(unidades, divisor, RoundingMode.HALF_EVEN) * divisor);
+    }
+    /**
+     * Divide o valor em parcelas de 2 casas, como no ParcelamentoService: cada parcela é o valor dividido
+     * (4 casas, HALF_EVEN) arredondado para 2 casas, e a diferença do arredondamento fica na última parcela,
+     * que recebe o restante do valor.
+     */
+    public List<Money> parcelar(int parcelas) {
+        Money parcela = dividir(parcelas).arredondar(Calculos.ESCALA2);
+        List<Money> valores = new ArrayList<>(parcelas);
+        for (int p = 1; p < parcelas; p++)
+            valores.add(parcela);
+        valores.add(subtrair(parcela.multiplicar(parcelas - 1)).arredondar(Calculos.ESCALA2));
+        return valores;
+    }
+    public Money negar() {
+        return ofUnidades(Math.negateExact(unidades));
+    }
+    public Money abs() {
+        return unidades < 0 ? negar() : this;
+    }
+
+    public int signum() {
+        return Long.signum(unidades);
+    }
+    public boolean isZero() {
+        return unidades == 0;
+    }
+    public boolean isNegativo() {
+        return unidades < 0;
+    }
+    public boolean isPositivo() {
+        return unidades > 0;
+    }
+    public boolean menorQue(Money valor) {
+        return unidades < valor.unidades;
+    }
+    public boolean maiorQue(Money valor) {
+        return unidades > valor.unidades;
+    }
+    public long getUnidades() {
+        return unidades;
+    }
+    public double toDouble() {
+        //os dois operandos são exatos no double, a divisão é arredondada uma única vez como no BigDecimal.doubleValue
+        return unidades / (double) FATOR;
+    }
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unidades, ESCALA);
+    }
+
+    @Override
+    public int compareTo(Money valor) {
+        return Long.compare(unidades, valor.unidades);
+    }
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && ((Money) o).unidades == unidades);
+    }
+    @Override
+    public int hashCode() {
+        return Long.hashCode(unidades);
+    }
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    //divisão inteira com o arredondamento do BigDecimal (HALF_EVEN ou HALF_UP)
+    private static long dividir(long numerador, long divisor, RoundingMode modo) {
+        if (divisor < 0) {
+            numerador = Math.negateExact(numerador);
+            divisor = -divisor;
+        }
+        long quociente = numerador / divisor;
+        long resto = Math.abs(numerador % divisor);
+        if (resto == 0)
+            return quociente;
+        int comparacao = Long.compare(resto, divisor - resto);
+        boolean incrementar = comparacao > 0 || (comparacao == 0 &&
+                (modo == RoundingMode.HALF_UP || (quociente & 1) != 0));
+        return incrementar ? quociente + Long.signum(numerador) : quociente;
+    }
+}
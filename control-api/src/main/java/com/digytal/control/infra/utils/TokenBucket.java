@@ -0,0 +1,39 @@
+package com.digytal.control.infra.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de requisições por balde de fichas: até {@code capacidade} chamadas seguidas e depois
+ * {@code porSegundo} chamadas por segundo. A ficha é reservada sob o lock e a espera acontece fora dele,
+ * então várias threads aguardam em fila sem segurar umas às outras.
+ */
+public final class TokenBucket {
+    private final double capacidade;
+    private final double porNano;
+    private double fichas;
+    private long ultimo;
+
+    public TokenBucket(int capacidade, double porSegundo) {
+        if (capacidade < 1 || porSegundo <= 0)
+            throw new IllegalArgumentException("Capacidade e taxa devem ser positivas");
+        this.capacidade = capacidade;
+        this.porNano = porSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.fichas = capacidade;
+        this.ultimo = System.nanoTime();
+    }
+
+    //devolve o tempo que a chamada aguardou, em nanossegundos
+    public long adquirir() throws InterruptedException {
+        long espera = reservar();
+        if (espera > 0)
+            TimeUnit.NANOSECONDS.sleep(espera);
+        return espera;
+    }
+    private synchronized long reservar() {
+        long agora = System.nanoTime();
+        fichas = Math.min(capacidade, fichas + (agora - ultimo) * porNano);
+        ultimo = agora;
+        fichas -= 1;
+        return fichas >= 0 ? 0 : (long) Math.ceil(-fichas / porNano);
+    }
+}
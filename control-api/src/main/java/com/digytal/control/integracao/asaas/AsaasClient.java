@@ -0,0 +1,277 @@
+package com.digytal.control.integracao.asaas;
+
+import com.digytal.control.infra.business.IntegracaoException;
+import com.digytal.control.infra.utils.TokenBucket;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cliente HTTP da Asaas compartilhado por todas as empresas: pool de conexões (keep-alive) com tempos de
+ * conexão e leitura, novas tentativas com espera aleatória crescente e circuito que recusa as chamadas por
+ * um tempo depois de várias falhas seguidas. As consultas (GET) são repetidas em erro 5xx ou de rede; as
+ * inclusões (POST) só quando a requisição não chegou a ser enviada, para não gerar cobrança em dobro.
+ */
+@Slf4j
+public class AsaasClient implements AutoCloseable {
+    //maior página aceita pelas listagens da Asaas
+    private static final int LIMITE_PAGINA = 100;
+    @Data
+    public static class Configuracao {
+        private int conexaoTimeout = 2000;
+        private int leituraTimeout = 10000;
+        private int maxConexoes = 20;
+        private int tentativas = 3;
+        private long backoff = 200;
+        private long backoffMaximo = 2000;
+        private int falhasCircuito = 5;
+        private long esperaCircuito = 30000;
+    }
+
+    private final String root;
+    private final Configuracao configuracao;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate template;
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Circuito circuito;
+    private final AtomicLong chamadas = new AtomicLong();
+    private final AtomicLong retentativas = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong recusadas = new AtomicLong();
+
+    public AsaasClient(String root, Configuracao configuracao) {
+        this.root = root.endsWith("/") ? root.substring(0, root.length() - 1) : root;
+        this.configuracao = configuracao;
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        //todas as chamadas vão para o mesmo host
+        pool.setMaxTotal(configuracao.getMaxConexoes());
+        pool.setDefaultMaxPerRoute(configuracao.getMaxConexoes());
+        pool.setValidateAfterInactivity(2000);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(configuracao.getConexaoTimeout())
+                .setConnectionRequestTimeout(configuracao.getConexaoTimeout())
+                .setSocketTimeout(configuracao.getLeituraTimeout())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .disableAutomaticRetries()
+                .build();
+        this.template = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        this.circuito = new Circuito(configuracao.getFalhasCircuito(), configuracao.getEsperaCircuito());
+    }
+
+    public <T> T get(String token, Class<T> tipo, String path, Object... params) {
+        HttpEntity<Void> entity = new HttpEntity<>(headers(token));
+        return executar(true, () -> template.exchange(root + path, HttpMethod.GET, entity, tipo, params).getBody());
+    }
+    public <T> T post(String token, Object corpo, Class<T> tipo, String path) {
+        HttpEntity<Object> entity = new HttpEntity<>(corpo, headers(token));
+        return executar(false, () -> template.exchange(root + path, HttpMethod.POST, entity, tipo).getBody());
+    }
+
+    /**
+     * Percorre todas as páginas de uma listagem ({@code data}/{@code hasMore}), aguardando o limite antes de
+     * cada página quando informado.
+     */
+    public <T> List<T> listar(String token, Class<T> tipo, TokenBucket limite, String path, Object... params) {
+        List<T> itens = new ArrayList<>();
+        String pagina = path + (path.contains("?") ? "&" : "?") + "offset={offset}&limit={limit}";
+        Object[] parametros = Arrays.copyOf(params, params.length + 2);
+        parametros[params.length + 1] = LIMITE_PAGINA;
+        boolean continuar = true;
+        while (continuar) {
+            aguardarLimite(limite);
+            parametros[params.length] = itens.size();
+            JsonNode corpo = lerJson(get(token, String.class, pagina, parametros));
+            for (JsonNode item : corpo.path("data"))
+                itens.add(mapper.convertValue(item, tipo));
+            continuar = corpo.path("hasMore").asBoolean(false) && corpo.path("data").size() > 0;
+        }
+        return itens;
+    }
+    private JsonNode lerJson(String corpo) {
+        try {
+            return mapper.readTree(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IntegracaoException("Resposta inválida da Asaas: " + e.getOriginalMessage());
+        }
+    }
+    private static void aguardarLimite(TokenBucket limite) {
+        if (limite == null)
+            return;
+        try {
+            limite.adquirir();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IntegracaoException("A chamada à Asaas foi interrompida");
+        }
+    }
+
+    private <T> T executar(boolean idempotente, Chamada<T> chamada) {
+        if (!circuito.permitir()) {
+            recusadas.incrementAndGet();
+            throw new IntegracaoException("A integração com a Asaas está indisponível no momento, tente novamente em instantes");
+        }
+        chamadas.incrementAndGet();
+        try {
+            return tentar(idempotente, chamada);
+        } finally {
+            //interrompida na espera entre tentativas, a chamada de teste não registra sucesso nem falha
+            circuito.encerrar();
+        }
+    }
+    private <T> T tentar(boolean idempotente, Chamada<T> chamada) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                T resposta = chamada.executar();
+                circuito.sucesso();
+                return resposta;
+            } catch (HttpClientErrorException ex) {
+                //erro de negócio (4xx): o serviço respondeu, só o 429 pede nova tentativa
+                if (ex.getStatusCode() != HttpStatus.TOO_MANY_REQUESTS || tentativa >= configuracao.getTentativas()) {
+                    circuito.sucesso();
+                    throw ex;
+                }
+            } catch (HttpServerErrorException | ResourceAccessException ex) {
+                if (tentativa >= configuracao.getTentativas() || !(idempotente || naoEnviada(ex))) {
+                    falhas.incrementAndGet();
+                    circuito.falha();
+                    throw ex;
+                }
+                log.warn("{ASAAS} tentativa {} falhou: {}", tentativa, ex.getMessage());
+            } catch (RuntimeException ex) {
+                //resposta recebida, mas fora do formato esperado
+                circuito.sucesso();
+                throw ex;
+            }
+            retentativas.incrementAndGet();
+            aguardar(tentativa);
+        }
+    }
+    private static boolean naoEnviada(RestClientException ex) {
+        Throwable causa = ex.getCause();
+        return causa instanceof ConnectException || causa instanceof ConnectTimeoutException
+                || causa instanceof ConnectionPoolTimeoutException;
+    }
+    //espera aleatória entre zero e o backoff dobrado a cada tentativa (full jitter)
+    private void aguardar(int tentativa) {
+        long limite = Math.min(configuracao.getBackoffMaximo(), configuracao.getBackoff() << Math.min(tentativa - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(limite + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IntegracaoException("A chamada à Asaas foi interrompida");
+        }
+    }
+    private static HttpHeaders headers(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        headers.set("access_token", token);
+        return headers;
+    }
+
+    public long getChamadas() {
+        return chamadas.get();
+    }
+    public long getRetentativas() {
+        return retentativas.get();
+    }
+    public long getFalhas() {
+        return falhas.get();
+    }
+    public long getRecusadas() {
+        return recusadas.get();
+    }
+    public boolean isCircuitoAberto() {
+        return circuito.isAberto();
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    @FunctionalInterface
+    private interface Chamada<T> {
+        T executar();
+    }
+
+    /**
+     * Fechado: as chamadas passam. Aberto: recusa até terminar a espera. Depois da espera libera uma única
+     * chamada de teste, que fecha o circuito em caso de sucesso ou o reabre em caso de falha.
+     */
+    private static final class Circuito {
+        private final int limite;
+        private final long espera;
+        private int falhasSeguidas;
+        private long abertoAte;
+        //thread da chamada de teste em andamento
+        private Thread testando;
+
+        private Circuito(int limite, long espera) {
+            this.limite = limite;
+            this.espera = espera;
+        }
+        synchronized boolean permitir() {
+            if (falhasSeguidas < limite)
+                return true;
+            if (testando != null || System.currentTimeMillis() < abertoAte)
+                return false;
+            testando = Thread.currentThread();
+            return true;
+        }
+        synchronized void sucesso() {
+            falhasSeguidas = 0;
+            testando = null;
+        }
+        synchronized void falha() {
+            falhasSeguidas++;
+            testando = null;
+            if (falhasSeguidas >= limite) {
+                if (falhasSeguidas == limite)
+                    log.error("{ASAAS} circuito aberto por {} ms depois de {} falhas seguidas", espera, limite);
+                abertoAte = System.currentTimeMillis() + espera;
+            }
+        }
+        //libera o teste da thread que terminou sem registrar o resultado, para a próxima chamada testar de novo
+        synchronized void encerrar() {
+            if (testando == Thread.currentThread())
+                testando = null;
+        }
+        synchronized boolean isAberto() {
+            return falhasSeguidas >= limite;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.digytal.control.integracao.asaas;
+
+import com.digytal.control.infra.business.BusinessException;
+import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
+import com.digytal.control.infra.commons.definition.Definition;
+import com.digytal.control.infra.commons.validation.Entities;
+import com.digytal.control.model.modulo.acesso.empresa.EmpresaEntity;
+import com.digytal.control.model.modulo.acesso.empresa.EmpresaIntegracao;
+import com.digytal.control.repository.modulo.acesso.empresa.EmpresaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.digytal.control.infra.commons.validation.Attributes.ID;
+
+/**
+ * Credenciais de integração por empresa, lidas do banco uma vez e reaproveitadas até serem invalidadas
+ * pelo EmpresaService (alteração de token ou taxa) ou vencerem (alterações feitas por outra instância).
+ */
+@Component
+@Slf4j
+public class AsaasCredenciais {
+    @Autowired
+    private EmpresaRepository empresaRepository;
+    @Value("${asaas.token}")
+    private String token;
+    @Value("${asaas.webHookAccessToken}")
+    private String webHookAccessToken;
+    @Value("${asaas.taxaBoleto:0.0}")
+    private Double taxaBoleto;
+    @Value("${asaas.taxaPix:0.0}")
+    private Double taxaPix;
+    @Value("${asaas.credenciais.validade:600000}")
+    private long validade;
+    private final Map<Integer, AsaasCredencial> cache = new ConcurrentHashMap<>();
+
+    public AsaasCredencial buscar(Integer empresa) {
+        AsaasCredencial credencial = cache.get(empresa);
+        if (credencial == null || System.currentTimeMillis() - credencial.getCarregadaEm() > validade) {
+            credencial = carregar(empresa);
+            cache.put(empresa, credencial);
+        }
+        return credencial;
+    }
+    //remove já e de novo ao final da transação, para não guardar o valor lido antes do commit
+    public void invalidar(Integer empresa) {
+        cache.remove(empresa);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.remove(empresa);
+                }
+            });
+        }
+    }
+    private AsaasCredencial carregar(Integer empresa) {
+        log.info("Montando os parametros de integracao da Asaas da empresa {}", empresa);
+        EmpresaEntity entity = empresaRepository.findById(empresa).orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.EMPRESA_ENTITY, ID));
+        String email = Definition.seNuloOuVazio(entity.getEmail(), "gleyson@digytal.com.br");
+        EmpresaIntegracao integracao = entity.getIntegracao();
+        if (integracao == null)
+            return new AsaasCredencial(token, webHookAccessToken, taxaBoleto, taxaPix, false, email);
+
+        String webHook = integracao.isContaEmpresa() ? integracao.getAsaasWebhookToken() : webHookAccessToken;
+        if (webHook == null || webHook.trim().length() == 0)
+            throw new BusinessException("A empresa de CNPJ " + entity.getCpfCnpj() + " Não definiu o seu access token");
+        return new AsaasCredencial(Definition.seNuloOuVazio(integracao.getAsaasToken(), token), webHook,
+                Definition.seNulo(integracao.getAsaasTaxaEmissaoBoleto(), taxaBoleto), taxaPix, integracao.isContaEmpresa(), email);
+    }
+}
@@ -0,0 +1,46 @@
+package com.digytal.control.integracao.asaas;
+
+/**
+ * Parâmetros de integração de uma empresa com a Asaas, montados pelo AsaasCredenciais.
+ */
+public final class AsaasCredencial {
+    private final String token;
+    private final String webHookAccessToken;
+    private final Double taxaBoleto;
+    private final Double taxaPix;
+    private final boolean contaEmpresa;
+    private final String email;
+    private final long carregadaEm;
+
+    AsaasCredencial(String token, String webHookAccessToken, Double taxaBoleto, Double taxaPix, boolean contaEmpresa, String email) {
+        this.token = token;
+        this.webHookAccessToken = webHookAccessToken;
+        this.taxaBoleto = taxaBoleto;
+        this.taxaPix = taxaPix;
+        this.contaEmpresa = contaEmpresa;
+        this.email = email;
+        this.carregadaEm = System.currentTimeMillis();
+    }
+
+    public String getToken() {
+        return token;
+    }
+    public String getWebHookAccessToken() {
+        return webHookAccessToken;
+    }
+    public Double getTaxaEmissaoBoleto() {
+        return taxaBoleto;
+    }
+    public Double getTaxaEmissaoPix() {
+        return taxaPix;
+    }
+    public boolean isContaEmpresa() {
+        return contaEmpresa;
+    }
+    public String getEmail() {
+        return email;
+    }
+    long getCarregadaEm() {
+        return carregadaEm;
+    }
+}
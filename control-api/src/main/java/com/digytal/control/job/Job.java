@@ -1,29 +1,65 @@
 package com.digytal.control.job;
 
 
+import com.digytal.control.infra.email.CaixaSaidaEmail;
 import com.digytal.control.infra.email.Message;
 import com.digytal.control.infra.email.SendEmail;
-import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
-import com.digytal.control.repository.modulo.fincanceiro.ParcelaRepository;
-import com.digytal.control.service.modulo.financeiro.BoletoService;
+import com.digytal.control.infra.persistence.ReplicaDataSource;
+import com.digytal.control.infra.report.ReportCache;
+import com.digytal.control.infra.security.jwt.TokenCache;
+import com.digytal.control.infra.sql.QueryCache;
+import com.digytal.control.integracao.asaas.AsaasClient;
+import com.digytal.control.model.modulo.financeiro.parcelamento.boleto.ConciliacaoResumo;
+import com.digytal.control.repository.modulo.fincanceiro.WebhookEventoRepository;
+import com.digytal.control.service.modulo.financeiro.BoletoConciliacaoService;
+import com.digytal.control.service.modulo.financeiro.ContaMovimentoService;
+import com.digytal.control.service.modulo.financeiro.PagamentoService;
+import com.digytal.control.service.modulo.financeiro.TransacaoRecorrenteService;
+import com.digytal.control.service.modulo.financeiro.WebhookEventoService;
+import com.digytal.control.service.modulo.param.CepCache;
+import com.digytal.control.service.modulo.param.CepService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 @Component
 @Slf4j
 public class Job {
 
     @Autowired
-    private ParcelaRepository parcelaRepository;
+    private BoletoConciliacaoService boletoConciliacaoService;
     @Autowired
-    private BoletoService boletoService;
+    private PagamentoService pagamentoService;
+    @Autowired
+    private ContaMovimentoService contaMovimentoService;
+    @Autowired
+    private TransacaoRecorrenteService transacaoRecorrenteService;
+    @Autowired
+    private WebhookEventoService webhookEventoService;
+    @Autowired
+    private WebhookEventoRepository webhookEventoRepository;
+    @Value("${webhook.evento.dias-retencao:30}")
+    private int diasRetencaoWebhook;
+    @Autowired
+    private CaixaSaidaEmail caixaSaidaEmail;
+    @Value("${email.saida.dias-retencao:30}")
+    private int diasRetencaoEmail;
+    @Value("${financeiro.resumo-diario.dias-reconstrucao:7}")
+    private int diasReconstrucaoResumo;
+    @Autowired
+    private AsaasClient asaasClient;
+    @Autowired
+    private CepService cepService;
+    //só existe com spring.datasource.replica.url
+    @Autowired(required = false)
+    private ReplicaDataSource replicaDataSource;
 
     @Autowired
     private SendEmail sendEmail;
@@ -42,22 +78,104 @@ public class Job {
         try{
             LocalDate dataInicial = LocalDate.now();//.withDayOfMonth(1);
             LocalDate dataFinal = dataInicial.plusMonths(1);
-            log.info("Executando o Job de consultarParcelasPendentes junto a Asaas Pagamento via BOLETO ");
-            List<ParcelaEntity> parcelas = parcelaRepository.listarParcelasBoleto(dataInicial, dataFinal);
-            log.info("Consultando as parcelas com vencimentos entre {} e {}", dataInicial, dataFinal);
-            for (ParcelaEntity parcela : parcelas) {
-                log.info("Processando a parcela id:{} número{} e boleto número de integração {}", parcela.getId(), parcela.getDetalhe().getNumeroParcela(), parcela.getBoleto().getNumeroAutorizacao());
-                boletoService.compensarViaJob(parcela);
-                Thread.sleep(1000 * 30);
-            }
+            log.info("Executando o Job de conciliação dos boletos Asaas com vencimentos entre {} e {}", dataInicial, dataFinal);
+            ConciliacaoResumo resumo = boletoConciliacaoService.conciliar(dataInicial, dataFinal);
+            if(resumo.getFalhas() > 0)
+                enviarResumoCompensacao(resumo + "\n\n" + String.join("\n", resumo.getErros()));
+        }catch (Exception ex){
+            log.error("{ERRO} ao processar a compensação de pagamentos via Asaas Pay", ex);
+            enviarResumoCompensacao("Erro ao tentar realizar a compensação diária");
+        }
+    }
+    private void enviarResumoCompensacao(String corpo){
+        String dataHora = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
+        Message message = new Message();
+        message.setTo("gleyson.s@hotmail.com");
+        message.setTitle("Resumo de Compensação de Boletos: " + dataHora);
+        message.setBody(corpo);
+        sendEmail.send(message);
+    }
+    @Scheduled(cron = "0 30 2 * * *")
+    public void reconstruirResumoDiario(){
+        try{
+            LocalDate dataFinal = LocalDate.now();
+            LocalDate dataInicial = dataFinal.minusDays(diasReconstrucaoResumo);
+            log.info("Executando o Job de reconstruirResumoDiario entre {} e {}", dataInicial, dataFinal);
+            pagamentoService.reconstruirResumoDiario(dataInicial, dataFinal);
+        }catch (Exception ex){
+            log.error("{ERRO} ao reconstruir o resumo diário de pagamentos", ex);
+        }
+    }
+    @Scheduled(cron = "0 0 1 * * *")
+    public void fecharSaldosContas(){
+        try{
+            LocalDate dia = LocalDate.now().minusDays(1);
+            log.info("Executando o Job de fecharSaldosContas do dia {}", dia);
+            contaMovimentoService.fecharSaldos(dia);
         }catch (Exception ex){
-            log.error("{ERRO} ao processar a compensação de pagamentos via Asaas Pay");
-            String dataHora = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
-            Message message = new Message();
-            message.setTo("gleyson.s@hotmail.com");
-            message.setTitle("Resumo de Compensação de Boletos: " + dataHora);
-            message.setBody("Erro ao tentar realizar a compensação diária");
-            sendEmail.send(message);
+            log.error("{ERRO} ao fechar os saldos diários das contas", ex);
         }
     }
+    @Scheduled(cron = "0 15 0 * * *")
+    public void gerarTransacoesRecorrentes(){
+        try{
+            LocalDate dia = LocalDate.now();
+            log.info("Executando o Job de gerarTransacoesRecorrentes até {}", dia);
+            transacaoRecorrenteService.gerarOcorrencias(dia);
+        }catch (Exception ex){
+            log.error("{ERRO} ao gerar os lançamentos recorrentes", ex);
+        }
+    }
+    @Scheduled(fixedDelayString = "${webhook.evento.intervalo:1000}")
+    public void processarWebhooks(){
+        try{
+            webhookEventoService.processarPendentes();
+        }catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }catch (Exception ex){
+            log.error("{ERRO} ao processar os eventos de webhook", ex);
+        }
+    }
+    @Scheduled(cron = "0 45 3 * * *")
+    @Transactional
+    public void removerWebhooksConcluidos(){
+        int removidos = webhookEventoRepository.removerConcluidos(diasRetencaoWebhook);
+        log.info("Eventos de webhook concluídos há mais de {} dias removidos: {}", diasRetencaoWebhook, removidos);
+    }
+    @Scheduled(fixedDelayString = "${email.saida.intervalo:2000}")
+    public void enviarEmails(){
+        try{
+            caixaSaidaEmail.enviarPendentes();
+        }catch (InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }catch (Exception ex){
+            log.error("{ERRO} ao enviar os e-mails da caixa de saída", ex);
+        }
+    }
+    @Scheduled(cron = "0 50 3 * * *")
+    public void removerEmailsEnviados(){
+        int removidos = caixaSaidaEmail.removerEnviados(diasRetencaoEmail);
+        log.info("E-mails enviados há mais de {} dias removidos: {}", diasRetencaoEmail, removidos);
+    }
+    //contadores acumulados desde a subida da aplicação
+    @Scheduled(fixedDelayString = "${metricas.intervalo:300000}", initialDelayString = "${metricas.intervalo:300000}")
+    public void registrarMetricas(){
+        log.info("{METRICAS} tokens: {} em cache, {} acertos, {} verificações, taxa de acerto {}",
+                TokenCache.getSize(), TokenCache.getHits(), TokenCache.getMisses(), String.format("%.3f", TokenCache.getTaxaAcerto()));
+        log.info("{METRICAS} consultas: {} formatos em cache, {} acertos, {} gerações",
+                QueryCache.getSize(), QueryCache.getHits(), QueryCache.getMisses());
+        log.info("{METRICAS} e-mails: {} pendentes, {} registrados, {} enviados em {} conexões, {} retentativas, {} falhas",
+                caixaSaidaEmail.getPendentes(), caixaSaidaEmail.getRegistrados(), caixaSaidaEmail.getEnviados(), caixaSaidaEmail.getConexoes(),
+                caixaSaidaEmail.getRetentativas(), caixaSaidaEmail.getFalhas());
+        log.info("{METRICAS} asaas: {} chamadas, {} retentativas, {} falhas, {} recusadas pelo circuito (circuito {})",
+                asaasClient.getChamadas(), asaasClient.getRetentativas(), asaasClient.getFalhas(), asaasClient.getRecusadas(),
+                asaasClient.isCircuitoAberto() ? "aberto" : "fechado");
+        CepCache cep = cepService.getCache();
+        log.info("{METRICAS} CEP: {} em cache, {} acertos, {} cargas, {} consultas compartilhadas, {} consultas externas, {} falhas externas",
+                cep.getSize(), cep.getHits(), cep.getMisses(), cep.getCompartilhadas(), cepService.getConsultasExternas(), cepService.getFalhasExternas());
+        log.info("{METRICAS} relatórios: {} modelos em cache, {} acertos, {} carregamentos",
+                ReportCache.getSize(), ReportCache.getHits(), ReportCache.getMisses());
+        if(replicaDataSource!=null)
+            log.info("{METRICAS} {}", replicaDataSource);
+    }
 }
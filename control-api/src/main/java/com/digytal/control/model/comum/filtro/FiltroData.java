@@ -7,11 +7,15 @@ import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Data
-public class FiltroData {
+@EqualsAndHashCode(callSuper = true)
+public class FiltroData extends FiltroPagina {
     @JsonFormat(pattern = "yyyy-MM-dd")
     @JsonSerialize(using = LocalDateSerializer.class)
     @JsonDeserialize(using = LocalDateDeserializer.class)
@@ -22,5 +26,10 @@ public class FiltroData {
     @JsonDeserialize(using = LocalDateDeserializer.class)
     @Schema(description = "data final do lançamento",type = "characters", example= "2023-11-14",requiredMode = Schema.RequiredMode.REQUIRED)
     private LocalDate dataFinal;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    @Schema(description = "data/hora do último registro recebido, para paginação por chave",type = "characters", example= "2023-10-02T14:30:00")
+    private LocalDateTime aposDataHora;
+    @Schema(description = "identificador do último registro recebido, para paginação por chave",type = "numeric", example= "1520")
+    private Integer aposId;
 
 }
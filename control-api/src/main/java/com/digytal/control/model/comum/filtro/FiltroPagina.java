@@ -0,0 +1,12 @@
+package com.digytal.control.model.comum.filtro;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class FiltroPagina {
+    @Schema(description = "número da página, iniciando em 1",type = "numeric", example= "1")
+    private Integer pageIndex;
+    @Schema(description = "quantidade de registros por página",type = "numeric", example= "50")
+    private Integer pageSize;
+}
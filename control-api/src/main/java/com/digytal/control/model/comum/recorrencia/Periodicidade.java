@@ -3,6 +3,8 @@ package com.digytal.control.model.comum.recorrencia;
 import com.digytal.control.infra.persistence.EnumConverter;
 import com.digytal.control.infra.persistence.EnumerateId;
 
+import java.time.LocalDate;
+
 public enum Periodicidade implements EnumerateId {
     DIARIA("D","Diária",1),
     SEMANAL("S","Semanal",7),
@@ -10,7 +12,7 @@ public enum Periodicidade implements EnumerateId {
     MENSAL("M","Mensal",1),
     BIMESTRAL("B","Bimestral",2),
     TRIMESTRAL("T","Trimestral",3),
-    QUADRIMESTRAL("Q","Quadrimestral",4),
+    QUADRIMESTRAL("U","Quadrimestral",4),
     SEMESTRAL("R","Semestral",6),
     ANUAL("A","Anual",1);
     private String id;
@@ -26,6 +28,23 @@ public enum Periodicidade implements EnumerateId {
         return dias;
     }
 
+    /**
+     * Data da ocorrência de número informado (0 é a própria data inicial), sempre calculada a partir da data
+     * inicial para que os meses curtos não desloquem o dia das ocorrências seguintes (31/01, 28/02, 31/03).
+     */
+    public LocalDate ocorrencia(LocalDate dataInicial, int numero) {
+        switch (this) {
+            case DIARIA:
+            case SEMANAL:
+            case QUINZENAL:
+                return dataInicial.plusDays((long) dias * numero);
+            case ANUAL:
+                return dataInicial.plusYears((long) dias * numero);
+            default:
+                return dataInicial.plusMonths((long) dias * numero);
+        }
+    }
+
     public String getId() {
         return id;
     }
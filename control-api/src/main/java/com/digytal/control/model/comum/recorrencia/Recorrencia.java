@@ -2,12 +2,37 @@ package com.digytal.control.model.comum.recorrencia;
 
 import lombok.Data;
 
-import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.time.LocalDate;
 
 @Data
+@Embeddable
 public class Recorrencia {
+    @Column(name = "periodicidade")
     private Periodicidade periodicidade;
+    @Column(name = "dt_inicial")
+    private LocalDate dataInicial;
+    @Column(name = "repeticoes_total")
     private Integer repeticoesTotal;
-    private Integer repeticoesRealizadas;
-    private LocalDateTime dataProximaOcorrencia;
+    @Column(name = "repeticoes_realizadas")
+    private Integer repeticoesRealizadas = 0;
+    //nula quando a recorrência foi encerrada
+    @Column(name = "dt_proxima_ocorrencia")
+    private LocalDate dataProximaOcorrencia;
+
+    public boolean isEncerrada() {
+        return dataProximaOcorrencia == null;
+    }
+
+    public void iniciar() {
+        repeticoesRealizadas = 0;
+        dataProximaOcorrencia = dataInicial;
+    }
+
+    public void avancar() {
+        repeticoesRealizadas++;
+        dataProximaOcorrencia = repeticoesTotal != null && repeticoesRealizadas >= repeticoesTotal ? null
+                : periodicidade.ocorrencia(dataInicial, repeticoesRealizadas);
+    }
 }
@@ -1,13 +1,16 @@
 package com.digytal.control.model.consulta.produto;
 
+import com.digytal.control.model.comum.filtro.FiltroPagina;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 @Data
+@EqualsAndHashCode(callSuper = true)
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(name = "Filtro de produtos", description = "Filtrar produtos do sistema")
-public class ProdutoFiltro {
+public class ProdutoFiltro extends FiltroPagina {
     private String nome;
     private Integer categoria;
     private Integer marca;
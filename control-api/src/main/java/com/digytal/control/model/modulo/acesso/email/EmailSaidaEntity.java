@@ -0,0 +1,33 @@
+package com.digytal.control.model.modulo.acesso.email;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(schema = "apl_acesso", name = "tab_email_saida")
+@Data
+public class EmailSaidaEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Setter(AccessLevel.NONE)
+    private Long id;
+    private String remetente;
+    private String destinatario;
+    private String titulo;
+    private String corpo;
+    private boolean html;
+    private EmailSaidaStatus status = EmailSaidaStatus.PENDENTE;
+    private Integer tentativas = 0;
+    @Column(name = "dt_criacao")
+    private LocalDateTime dataCriacao = LocalDateTime.now();
+    @Column(name = "dt_proxima_tentativa")
+    private LocalDateTime dataProximaTentativa = dataCriacao;
+    @Column(name = "dt_envio")
+    private LocalDateTime dataEnvio;
+    @Column(name = "ultimo_erro")
+    private String ultimoErro;
+}
@@ -0,0 +1,35 @@
+package com.digytal.control.model.modulo.acesso.email;
+
+import com.digytal.control.infra.persistence.EnumConverter;
+import com.digytal.control.infra.persistence.EnumerateId;
+
+public enum EmailSaidaStatus implements EnumerateId {
+    PENDENTE("P","Pendente"),
+    ENVIADO("E","Enviado"),
+    FALHA("F","Falha");
+    private String id;
+    private String descricao;
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+    private EmailSaidaStatus(String id, String descricao){
+        this.id = id;
+        this.descricao=descricao;
+    }
+    @Override
+    public String getUpper() {
+        return descricao.toUpperCase();
+    }
+
+    @javax.persistence.Converter(autoApply = true)
+    public static class Converter extends EnumConverter<EmailSaidaStatus, String> {
+        public Converter() {
+            super(EmailSaidaStatus.class);
+        }
+    }
+}
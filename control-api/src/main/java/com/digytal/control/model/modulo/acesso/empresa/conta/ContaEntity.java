@@ -21,6 +21,8 @@ public class ContaEntity {
     @Column(name = "empresa_id")
     private Integer empresa;
     private String legenda;
+    //alterado somente pelo ContaRepository.movimentarSaldo
+    @Column(updatable = false)
     private Double saldo;
     @Column(name = "banco_id")
     private Integer banco;
@@ -0,0 +1,17 @@
+package com.digytal.control.model.modulo.financeiro.conta;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(name = "Extrato da conta")
+public class ContaExtratoResponse {
+    private Integer conta;
+    @Schema(description = "saldo ao final do dia anterior ao período")
+    private ContaSaldoResponse saldoAnterior;
+    @Schema(description = "saldo ao final do período")
+    private ContaSaldoResponse saldoFinal;
+    private List<ContaMovimentoResponse> movimentos;
+}
@@ -0,0 +1,34 @@
+package com.digytal.control.model.modulo.financeiro.conta;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(schema = "apl_financeiro", name = "tab_conta_movimento")
+@Data
+public class ContaMovimentoEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tab_conta_movimento_id_seq")
+    @SequenceGenerator(name = "tab_conta_movimento_id_seq", schema = "apl_financeiro", sequenceName = "tab_conta_movimento_id_seq", allocationSize = 50)
+    @Setter(AccessLevel.NONE)
+    private Long id;
+    @Column(name = "conta_id", updatable = false)
+    private Integer conta;
+    @Column(name = "pagamento_id", updatable = false)
+    private Integer pagamento;
+    @Column(name = "cpt_data", updatable = false)
+    private LocalDateTime dataHora;
+    @Column(name = "cpt_dia", updatable = false)
+    private LocalDate dia;
+    @Column(updatable = false)
+    private String descricao;
+    @Column(updatable = false)
+    private Double valor;
+    @Column(updatable = false)
+    private Double saldo;
+}
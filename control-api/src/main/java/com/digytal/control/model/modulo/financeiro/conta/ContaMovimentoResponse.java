@@ -0,0 +1,24 @@
+package com.digytal.control.model.modulo.financeiro.conta;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(name = "Movimento da conta")
+public class ContaMovimentoResponse {
+    private Long id;
+    @Schema(description = "pagamento que originou o movimento")
+    private Integer pagamento;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    private LocalDateTime dataHora;
+    private String descricao;
+    private Double valor;
+    @Schema(description = "saldo da conta após o movimento")
+    private Double saldo;
+}
@@ -0,0 +1,27 @@
+package com.digytal.control.model.modulo.financeiro.conta;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Entity
+@Table(schema = "apl_financeiro", name = "tab_conta_saldo")
+@IdClass(ContaSaldoEntity.Chave.class)
+@Data
+public class ContaSaldoEntity {
+    @Id
+    @Column(name = "conta_id")
+    private Integer conta;
+    @Id
+    @Column(name = "cpt_dia")
+    private LocalDate dia;
+    private Double saldo;
+
+    @Data
+    public static class Chave implements Serializable {
+        private Integer conta;
+        private LocalDate dia;
+    }
+}
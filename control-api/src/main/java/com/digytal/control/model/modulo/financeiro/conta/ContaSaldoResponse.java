@@ -0,0 +1,25 @@
+package com.digytal.control.model.modulo.financeiro.conta;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@Schema(name = "Saldo da conta ao final do dia")
+public class ContaSaldoResponse {
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    @JsonSerialize(using = LocalDateSerializer.class)
+    private LocalDate dia;
+    private Double saldo;
+
+    public static ContaSaldoResponse of(LocalDate dia, Double saldo) {
+        ContaSaldoResponse instance = new ContaSaldoResponse();
+        instance.dia = dia;
+        instance.saldo = saldo;
+        return instance;
+    }
+}
@@ -2,12 +2,19 @@ package com.digytal.control.model.modulo.financeiro.pagamento;
 
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoValor;
 import com.digytal.control.model.modulo.financeiro.Movimento;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 import javax.persistence.*;
 @Entity
 @Table(schema = "apl_financeiro", name = "tab_pagamento")
 @Data
 public class PagamentoEntity extends Movimento {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tab_pagamento_id_seq")
+    @SequenceGenerator(name = "tab_pagamento_id_seq", schema = "apl_financeiro", sequenceName = "tab_pagamento_id_seq", allocationSize = 50)
+    @Setter(AccessLevel.NONE)
+    private Integer id;
     @Column(name = "conta_id")
     private Integer conta;
     @Embedded
@@ -1,9 +1,12 @@
 package com.digytal.control.model.modulo.financeiro.pagamento.response;
 
 import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PagamentoResumo {
 	private List<PagamentoResponse> pagamentos;
 	private Double saldo;
@@ -11,4 +14,5 @@ public class PagamentoResumo {
 	private List<PagamentoResponse> receitas;
 	private Double totalDespesas;
 	private List<PagamentoResponse> despesas;
+	private List<PagamentoResumoDiario> dias;
 }
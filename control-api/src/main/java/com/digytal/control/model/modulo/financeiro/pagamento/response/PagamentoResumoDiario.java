@@ -0,0 +1,21 @@
+package com.digytal.control.model.modulo.financeiro.pagamento.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class PagamentoResumoDiario {
+	@JsonFormat(pattern = "yyyy-MM-dd")
+	@JsonSerialize(using = LocalDateSerializer.class)
+	@JsonDeserialize(using = LocalDateDeserializer.class)
+	private LocalDate dia;
+	private Double totalReceitas = 0.0;
+	private Double totalDespesas = 0.0;
+	private Double saldo = 0.0;
+}
@@ -2,7 +2,9 @@ package com.digytal.control.model.modulo.financeiro.parcelamento;
 
 import com.digytal.control.model.modulo.financeiro.Movimento;
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 
 import javax.persistence.*;
 import java.util.List;
@@ -11,6 +13,11 @@ import java.util.List;
 @Table(schema = "apl_financeiro", name = "tab_parcelamento")
 @Data
 public class ParcelamentoEntity extends Movimento {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tab_parcelamento_id_seq")
+    @SequenceGenerator(name = "tab_parcelamento_id_seq", schema = "apl_financeiro", sequenceName = "tab_parcelamento_id_seq", allocationSize = 50)
+    @Setter(AccessLevel.NONE)
+    private Integer id;
     @Embedded
     private ParcelamentoDetalhe detalhe;
     @OneToMany(cascade = CascadeType.PERSIST)
@@ -0,0 +1,34 @@
+package com.digytal.control.model.modulo.financeiro.parcelamento.boleto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de uma execução da conciliação de boletos com a Asaas.
+ */
+@Data
+public class ConciliacaoResumo {
+    private LocalDate dataInicial;
+    private LocalDate dataFinal;
+    private LocalDateTime inicio;
+    private long duracao;
+    private int empresas;
+    private int boletos;
+    private int consultas;
+    private int compensados;
+    //já compensados pelo webhook ou alterados desde a listagem
+    private int ignorados;
+    private int pendentes;
+    private int falhas;
+    private List<String> erros = new ArrayList<>();
+
+    @Override
+    public String toString() {
+        return String.format("Conciliação de %s a %s: %d boletos de %d empresas, %d consultas, %d compensados, %d ignorados, %d pendentes, %d falhas em %d ms",
+                dataInicial, dataFinal, boletos, empresas, consultas, compensados, ignorados, pendentes, falhas, duracao);
+    }
+}
@@ -14,7 +14,8 @@ import javax.persistence.*;
 @Data
 public class ParcelaEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tab_parcelamento_parcela_id_seq")
+    @SequenceGenerator(name = "tab_parcelamento_parcela_id_seq", schema = "apl_financeiro", sequenceName = "tab_parcelamento_parcela_id_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     private Integer id;
     private String descricao;
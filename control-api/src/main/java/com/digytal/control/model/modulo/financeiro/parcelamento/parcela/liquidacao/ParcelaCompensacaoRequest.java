@@ -0,0 +1,20 @@
+package com.digytal.control.model.modulo.financeiro.parcelamento.parcela.liquidacao;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ParcelaCompensacaoRequest extends ParcelaPagamentoRequest {
+    @Schema(description="identificador da parcela", required = true,example = "1520")
+    private Integer parcela;
+
+    public static ParcelaCompensacaoRequest of(Integer parcela, ParcelaPagamentoRequest pagamento) {
+        ParcelaCompensacaoRequest instance = new ParcelaCompensacaoRequest();
+        instance.parcela = parcela;
+        instance.setValor(pagamento.getValor());
+        instance.setMeioPagamento(pagamento.getMeioPagamento());
+        return instance;
+    }
+}
@@ -21,7 +21,8 @@ import java.util.List;
 @Data
 public class TransacaoEntity{
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tab_transacao_id_seq")
+    @SequenceGenerator(name = "tab_transacao_id_seq", schema = "apl_financeiro", sequenceName = "tab_transacao_id_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     private Integer id;
     @Column(name = "nr_documento")
@@ -0,0 +1,32 @@
+package com.digytal.control.model.modulo.financeiro.transacao.lote;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "Resultado da linha do lote")
+public class TransacaoLoteItem {
+    @Schema(description = "posição da linha no arquivo, iniciando em 1")
+    private Integer linha;
+    @Schema(description = "identificador da transação incluída")
+    private Integer transacao;
+    private String numeroDocumento;
+    @Schema(description = "motivo da rejeição da linha")
+    private String mensagem;
+
+    public static TransacaoLoteItem incluido(int linha, Integer transacao, String numeroDocumento) {
+        TransacaoLoteItem instance = new TransacaoLoteItem();
+        instance.linha = linha;
+        instance.transacao = transacao;
+        instance.numeroDocumento = numeroDocumento;
+        return instance;
+    }
+    public static TransacaoLoteItem rejeitado(int linha, String mensagem) {
+        TransacaoLoteItem instance = new TransacaoLoteItem();
+        instance.linha = linha;
+        instance.mensagem = mensagem;
+        return instance;
+    }
+}
@@ -0,0 +1,25 @@
+package com.digytal.control.model.modulo.financeiro.transacao.lote;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(name = "Resultado da importação de lançamentos em lote")
+public class TransacaoLoteResponse {
+    private int total;
+    private int incluidos;
+    private int rejeitados;
+    private List<TransacaoLoteItem> itens = new ArrayList<>();
+
+    public void adicionar(TransacaoLoteItem item) {
+        total++;
+        if (item.getMensagem() == null)
+            incluidos++;
+        else
+            rejeitados++;
+        itens.add(item);
+    }
+}
@@ -12,7 +12,8 @@ import javax.persistence.*;
 @Data
 public class TransacaoRateioEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tab_transacao_rateio_id_seq")
+    @SequenceGenerator(name = "tab_transacao_rateio_id_seq", schema = "apl_financeiro", sequenceName = "tab_transacao_rateio_id_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     private Integer id;
     @Column(name = "meio_pagto")
@@ -0,0 +1,33 @@
+package com.digytal.control.model.modulo.financeiro.transacao.recorrente;
+
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.Participante;
+import com.digytal.control.model.comum.recorrencia.Recorrencia;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.Aplicacao;
+import lombok.Data;
+
+import javax.persistence.*;
+
+@Entity
+@Table(schema = "apl_financeiro", name = "tab_transacao_recorrente")
+@Data
+public class TransacaoRecorrenteEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    private AplicacaoTipo tipo;
+    private String titulo;
+    private String descricao;
+    private String observacao;
+    private Double valor;
+    @Column(name = "meio_pagto")
+    private MeioPagamento meioPagamento;
+    @Embedded
+    private Participante partes;
+    @Embedded
+    private Aplicacao aplicacao;
+    @Embedded
+    private Recorrencia recorrencia = new Recorrencia();
+    private boolean ativo = true;
+}
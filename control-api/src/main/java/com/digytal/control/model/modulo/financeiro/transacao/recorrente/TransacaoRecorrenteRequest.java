@@ -0,0 +1,32 @@
+package com.digytal.control.model.modulo.financeiro.transacao.recorrente;
+
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.recorrencia.Periodicidade;
+import com.digytal.control.model.modulo.financeiro.transacao.Transacao;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDate;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Schema(name = "Requisição de lançamento recorrente", description = "Modelo gerado automaticamente como lançamento a cada ocorrência")
+public class TransacaoRecorrenteRequest extends Transacao {
+    @Schema(description = "valor de cada ocorrência", type = "numeric", requiredMode = Schema.RequiredMode.REQUIRED, example = "1500.00")
+    private Double valor;
+    @Schema(description = "meio de pagamento de cada ocorrência", example = "PIX", requiredMode = Schema.RequiredMode.REQUIRED)
+    private MeioPagamento meioPagamento;
+    @Schema(description = "Área, departamento ou setor", type = "numeric", example = "1")
+    private Integer area;
+    @Schema(description = "idetificador único da natureza do lançamento", type = "numeric", example = "1")
+    private Integer natureza;
+    @Schema(description = "identificador único do cadastro", type = "numeric", example = "1")
+    private Integer cadastro;
+    @Schema(description = "periodicidade das ocorrências", example = "MENSAL", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Periodicidade periodicidade;
+    @Schema(description = "data da primeira ocorrência", type = "date", example = "2023-01-05", requiredMode = Schema.RequiredMode.REQUIRED)
+    private LocalDate dataInicial;
+    @Schema(description = "quantidade de ocorrências, sem limite quando não informada", type = "numeric", example = "12")
+    private Integer repeticoesTotal;
+}
@@ -0,0 +1,20 @@
+package com.digytal.control.model.modulo.financeiro.transacao.recorrente;
+
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.recorrencia.Recorrencia;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(name = "Lançamento recorrente")
+public class TransacaoRecorrenteResponse {
+    private Integer id;
+    private AplicacaoTipo tipo;
+    private String titulo;
+    private String descricao;
+    private Double valor;
+    private MeioPagamento meioPagamento;
+    private Recorrencia recorrencia;
+    private boolean ativo;
+}
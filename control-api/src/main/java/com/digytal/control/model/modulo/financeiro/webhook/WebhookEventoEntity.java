@@ -0,0 +1,33 @@
+package com.digytal.control.model.modulo.financeiro.webhook;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(schema = "apl_financeiro", name = "tab_webhook_evento")
+@Data
+public class WebhookEventoEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Setter(AccessLevel.NONE)
+    private Long id;
+    private String provedor;
+    @Column(name = "evento_id")
+    private String eventoId;
+    private String evento;
+    private String payload;
+    private WebhookEventoStatus status;
+    private Integer tentativas;
+    @Column(name = "dt_recebimento")
+    private LocalDateTime dataRecebimento;
+    @Column(name = "dt_proxima_tentativa")
+    private LocalDateTime dataProximaTentativa;
+    @Column(name = "dt_processamento")
+    private LocalDateTime dataProcessamento;
+    @Column(name = "ultimo_erro")
+    private String ultimoErro;
+}
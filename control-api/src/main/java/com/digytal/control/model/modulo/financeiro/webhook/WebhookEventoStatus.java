@@ -0,0 +1,35 @@
+package com.digytal.control.model.modulo.financeiro.webhook;
+
+import com.digytal.control.infra.persistence.EnumConverter;
+import com.digytal.control.infra.persistence.EnumerateId;
+
+public enum WebhookEventoStatus implements EnumerateId {
+    PENDENTE("P","Pendente"),
+    CONCLUIDO("C","Concluído"),
+    FALHA("F","Falha");
+    private String id;
+    private String descricao;
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+    private WebhookEventoStatus(String id, String descricao){
+        this.id = id;
+        this.descricao=descricao;
+    }
+    @Override
+    public String getUpper() {
+        return descricao.toUpperCase();
+    }
+
+    @javax.persistence.Converter(autoApply = true)
+    public static class Converter extends EnumConverter<WebhookEventoStatus, String> {
+        public Converter() {
+            super(WebhookEventoStatus.class);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.digytal.control.model.modulo.param.ibge;
+
+import lombok.Data;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(schema = "apl_param", name = "tab_ibge")
+@Data
+public class IbgeEntity {
+    @Id
+    private Integer id;
+    private String nome;
+    private String sigla;
+    @Column(name = "uf_id")
+    private Integer ufId;
+    @Column(name = "uf_nome")
+    private String ufNome;
+    @Column(name = "uf_sigla")
+    private String ufSigla;
+    private Integer prioridade;
+    @Column(name = "nome_oficial")
+    private String nomeOficial;
+}
@@ -0,0 +1,12 @@
+package com.digytal.control.model.modulo.param.ibge;
+
+import lombok.Data;
+
+@Data
+public class MunicipioResponse {
+    private Integer ibge;
+    private String nome;
+    private String uf;
+    private String estado;
+    private Integer ufIbge;
+}
@@ -0,0 +1,39 @@
+package com.digytal.control.repository.modulo.acesso;
+
+import com.digytal.control.model.modulo.acesso.email.EmailSaidaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface EmailSaidaRepository extends JpaRepository<EmailSaidaEntity, Long> {
+    //próximo lote pendente; outro nó que esteja reservando ao mesmo tempo pula as linhas travadas aqui
+    @Query(value = "SELECT * FROM apl_acesso.tab_email_saida WHERE status = 'P' AND dt_proxima_tentativa <= now() " +
+            "ORDER BY dt_proxima_tentativa, id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailSaidaEntity> travarPendentes(@Param("limite") int limite);
+
+    //reserva os e-mails travados por um prazo; se o nó cair durante o envio, voltam a ficar disponíveis
+    @Modifying
+    @Query(value = "UPDATE apl_acesso.tab_email_saida SET tentativas = tentativas + 1, " +
+            "dt_proxima_tentativa = now() + make_interval(secs => :reserva) WHERE id IN (:ids)", nativeQuery = true)
+    int reservar(@Param("ids") List<Long> ids, @Param("reserva") int reserva);
+
+    @Modifying
+    @Query(value = "UPDATE apl_acesso.tab_email_saida SET status = 'E', dt_envio = now(), ultimo_erro = null WHERE id IN (:ids)", nativeQuery = true)
+    int concluir(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE apl_acesso.tab_email_saida SET status = :status, ultimo_erro = :erro, " +
+            "dt_proxima_tentativa = now() + make_interval(secs => :espera) WHERE id = :id", nativeQuery = true)
+    int falhar(@Param("id") Long id, @Param("status") String status, @Param("erro") String erro, @Param("espera") int espera);
+
+    //profundidade da fila, incluindo os que aguardam nova tentativa
+    @Query(value = "SELECT count(*) FROM apl_acesso.tab_email_saida WHERE status = 'P'", nativeQuery = true)
+    long contarPendentes();
+
+    @Modifying
+    @Query(value = "DELETE FROM apl_acesso.tab_email_saida WHERE status = 'E' AND dt_envio < now() - make_interval(days => :dias)", nativeQuery = true)
+    int removerEnviados(@Param("dias") int dias);
+}
@@ -2,10 +2,31 @@ package com.digytal.control.repository.modulo.acesso.empresa;
 
 import com.digytal.control.model.modulo.acesso.empresa.conta.ContaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 public interface ContaRepository extends JpaRepository<ContaEntity, Integer> {
+    //crédito sempre aplica, débito só quando há saldo; retorna o novo saldo ou null quando o saldo é insuficiente
+    String MOVIMENTAR_SALDO = "UPDATE apl_acesso.tab_conta SET saldo = saldo + CAST(:valor AS numeric) " +
+            "WHERE id = :id AND (CAST(:valor AS numeric) >= 0 OR saldo + CAST(:valor AS numeric) >= 0) RETURNING saldo";
+
+    /**
+     * Executado como consulta, sem @Modifying: o UPDATE ... RETURNING devolve o saldo em um result set, e o
+     * @Modifying executaria como update e devolveria só a quantidade de linhas. O @Transactional participa da
+     * transação de quem chama, como o PagamentoService, e abre uma própria quando chamado isoladamente. O UPDATE
+     * não passa pelo contexto de persistência: uma ContaEntity já carregada na transação continua com o saldo anterior.
+     */
+    @Transactional
+    @Query(value = MOVIMENTAR_SALDO, nativeQuery = true)
+    Double movimentarSaldo(@Param("id") Integer id, @Param("valor") Double valor);
+    //saldo atual com a linha da conta travada até o fim da transação
+    @Query(value = "SELECT saldo FROM apl_acesso.tab_conta WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Double travarSaldo(@Param("id") Integer id);
+    @Query("SELECT e.id FROM ContaEntity e ORDER BY e.id")
+    List<Integer> listarIds();
     List<ContaEntity> findByEmpresa(Integer empresa);
     boolean existsByAgenciaAndNumeroAndContaCredito(String agencia,String numero,  boolean contaCredito);
 
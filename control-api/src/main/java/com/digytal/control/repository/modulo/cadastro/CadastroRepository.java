@@ -12,6 +12,7 @@ public interface CadastroRepository extends JpaRepository<CadastroEntity, Intege
     boolean existsByCpfCnpjAndOrganizacao(String cpfCnpj, Integer organizacao);
     boolean existsByEmailAndOrganizacao(String email,Integer organizacao);
     Optional<CadastroEntity> findByOrganizacaoAndCpfCnpj(Integer organizacao, String cpfCnpj);
-    @Query("SELECT e FROM CadastroEntity e WHERE (e.perfil.cliente=:cliente OR e.perfil.fornecedor=:fornecedor) AND (e.organizacao=:organizacao  AND e.localiza LIKE %:nome% )ORDER BY e.nomeFantasia")
-    List<CadastroEntity> consultar(@Param("organizacao") Integer organizacao, @Param("cliente") boolean cliente, @Param("fornecedor") boolean fornecedor, @Param("nome") String nome);
+    @Query(value = "SELECT e.* FROM apl_cadastro.tab_cadastro e WHERE (e.is_cliente = :cliente OR e.is_fornecedor = :fornecedor) AND e.organizacao_id = :organizacao " +
+            "AND e.localiza LIKE CONCAT('%', :nome, '%') ORDER BY similarity(e.localiza, :nome) DESC, e.nome_fantasia LIMIT :limite", nativeQuery = true)
+    List<CadastroEntity> consultar(@Param("organizacao") Integer organizacao, @Param("cliente") boolean cliente, @Param("fornecedor") boolean fornecedor, @Param("nome") String nome, @Param("limite") int limite);
 }
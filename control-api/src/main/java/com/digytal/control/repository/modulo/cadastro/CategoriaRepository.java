@@ -3,6 +3,7 @@ package com.digytal.control.repository.modulo.cadastro;
 import com.digytal.control.model.modulo.cadastro.produto.categoria.CategoriaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,5 +14,7 @@ public interface CategoriaRepository extends JpaRepository<CategoriaEntity,Integ
     List<CategoriaEntity> listar(Integer organizacao, String nome);
     List<CategoriaEntity> findByOrganizacaoAndNomeContaining(Integer organizacao, String nome);
 
-    List<CategoriaEntity> findByOrganizacaoAndLocalizaContaining(Integer organizacao, String nome);
+    @Query(value = "SELECT e.* FROM apl_cadastro.tab_categoria e WHERE e.organizacao_id = :organizacao AND e.localiza LIKE CONCAT('%', :nome, '%') " +
+            "ORDER BY similarity(e.localiza, :nome) DESC, e.localiza LIMIT :limite", nativeQuery = true)
+    List<CategoriaEntity> localizar(@Param("organizacao") Integer organizacao, @Param("nome") String nome, @Param("limite") int limite);
 }
@@ -3,10 +3,14 @@ package com.digytal.control.repository.modulo.cadastro;
 
 import com.digytal.control.model.modulo.cadastro.produto.marca.MarcaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 @Repository
 public interface MarcaRepository extends JpaRepository<MarcaEntity, Integer>{
-    List<MarcaEntity> findByOrganizacaoAndLocalizaContaining(Integer organizacao, String nome);
+    @Query(value = "SELECT e.* FROM apl_cadastro.tab_marca e WHERE e.organizacao_id = :organizacao AND e.localiza LIKE CONCAT('%', :nome, '%') " +
+            "ORDER BY similarity(e.localiza, :nome) DESC, e.localiza LIMIT :limite", nativeQuery = true)
+    List<MarcaEntity> localizar(@Param("organizacao") Integer organizacao, @Param("nome") String nome, @Param("limite") int limite);
 }
@@ -3,11 +3,15 @@ package com.digytal.control.repository.modulo.cadastro;
 
 import com.digytal.control.model.modulo.cadastro.produto.modelo.ModeloEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 @Repository
 public interface ModeloRepositoty extends JpaRepository<ModeloEntity, Integer> {
     List<ModeloEntity> findByOrganizacaoAndNomeContaining(Integer organizacao, String nome);
-    List<ModeloEntity> findByOrganizacaoAndLocalizaContaining(Integer organizacao, String nome);
+    @Query(value = "SELECT e.* FROM apl_cadastro.tab_modelo e WHERE e.organizacao_id = :organizacao AND e.localiza LIKE CONCAT('%', :nome, '%') " +
+            "ORDER BY similarity(e.localiza, :nome) DESC, e.localiza LIMIT :limite", nativeQuery = true)
+    List<ModeloEntity> localizar(@Param("organizacao") Integer organizacao, @Param("nome") String nome, @Param("limite") int limite);
 }
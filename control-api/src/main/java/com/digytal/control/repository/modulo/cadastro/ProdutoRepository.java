@@ -1,12 +1,17 @@
 package com.digytal.control.repository.modulo.cadastro;
 
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.model.consulta.produto.ProdutoFiltro;
 import com.digytal.control.model.modulo.cadastro.produto.ProdutoEntity;
 import com.digytal.control.model.modulo.cadastro.produto.ProdutoResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface ProdutoRepository extends JpaRepository<ProdutoEntity, Integer> {
-    List<ProdutoEntity> findByOrganizacaoAndLocalizaContaining(Integer organizacao, String nome);
-    List<ProdutoResponse> pesquisar(Integer organizacao, ProdutoFiltro filtro);
+    @Query(value = "SELECT e.* FROM apl_cadastro.tab_produto e WHERE e.organizacao_id = :organizacao AND e.localiza LIKE CONCAT('%', :nome, '%') " +
+            "ORDER BY similarity(e.localiza, :nome) DESC, e.localiza LIMIT :limite", nativeQuery = true)
+    List<ProdutoEntity> localizar(@Param("organizacao") Integer organizacao, @Param("nome") String nome, @Param("limite") int limite);
+    PageRecord<ProdutoResponse> pesquisar(Integer organizacao, ProdutoFiltro filtro);
 }
@@ -3,6 +3,7 @@ package com.digytal.control.repository.modulo.cadastro;
 import com.digytal.control.infra.business.BusinessException;
 import com.digytal.control.infra.business.ErroNaoMapeadoException;
 import com.digytal.control.infra.persistence.QueryRepository;
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.infra.sql.StringSQL;
 import com.digytal.control.model.consulta.produto.ProdutoFiltro;
 import com.digytal.control.model.modulo.cadastro.produto.ProdutoResponse;
@@ -16,16 +17,19 @@ import java.util.Map;
 @Repository
 @Slf4j
 public class ProdutoRepositoryImpl extends QueryRepository {
-    public List<ProdutoResponse> pesquisar(Integer organizacao, ProdutoFiltro filtro){
-        return pesquisar(organizacao,  elaborarSql(null, null), filtro,"e.nome");
+    private static final String SELECT = elaborarSql(null, null);
+    public PageRecord<ProdutoResponse> pesquisar(Integer organizacao, ProdutoFiltro filtro){
+        return pesquisar(organizacao,  SELECT, filtro,"e.nome, e.id");
     }
-    private List<ProdutoResponse> pesquisar(Integer organizacao, String select, ProdutoFiltro filtro, String orderBy){
+    private PageRecord<ProdutoResponse> pesquisar(Integer organizacao, String select, ProdutoFiltro filtro, String orderBy){
         try {
             StringSQL sql = new StringSQL();
             sql.select(select);
 
             Map<String, Object> filters = new LinkedHashMap<>();
             filters.put("organizacao", organizacao);
+            filters.put("pageIndex", filtro.getPageIndex());
+            filters.put("pageSize", filtro.getPageSize());
 
             sql.setFilters(filters)
                     .where("e.organizacao").equal("organizacao").integer();
@@ -47,8 +51,7 @@ public class ProdutoRepositoryImpl extends QueryRepository {
                 sql.and("e.modelo").equal("modelo").integer();
             }
             sql.orderBy(orderBy);
-            List<ProdutoResponse> lista = search(sql, ProdutoResponse.class);
-            return lista;
+            return searchPage(sql, ProdutoResponse.class, true);
         }catch (BusinessException ex){
             log.warn(BusinessException.logMessage(ex));
             throw ex;
@@ -57,7 +60,7 @@ public class ProdutoRepositoryImpl extends QueryRepository {
             throw new ErroNaoMapeadoException();
         }
     }
-    private String elaborarSql(String campos, String tabelas){
+    private static String elaborarSql(String campos, String tabelas){
         StringBuilder select = new StringBuilder();
         select.append(" SELECT e.id as id, e.nome as nome, e.nomeAbreviado as nomeAbreviado, e.valor as valor, e.taxaLiquidacao as taxaLiquidacao, e.atualizaSaldo as atualizaSaldo, " +
                 " e.interno as interno, e.servico as servico, " +
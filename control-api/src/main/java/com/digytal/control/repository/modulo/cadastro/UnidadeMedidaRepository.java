@@ -2,12 +2,16 @@ package com.digytal.control.repository.modulo.cadastro;
 
 import com.digytal.control.model.modulo.cadastro.produto.unidademedida.UnidadeMedidaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UnidadeMedidaRepository extends JpaRepository<UnidadeMedidaEntity, Integer> {
-    List<UnidadeMedidaEntity> findByOrganizacaoAndLocalizaContaining(Integer organizacao, String nome);
+    @Query(value = "SELECT e.* FROM apl_cadastro.tab_unid_medida e WHERE e.organizacao_id = :organizacao AND e.localiza LIKE CONCAT('%', :nome, '%') " +
+            "ORDER BY similarity(e.localiza, :nome) DESC, e.localiza LIMIT :limite", nativeQuery = true)
+    List<UnidadeMedidaEntity> localizar(@Param("organizacao") Integer organizacao, @Param("nome") String nome, @Param("limite") int limite);
     List<UnidadeMedidaEntity> findByOrganizacaoAndEmbalagem(Integer organizacao, boolean embalagem);
     boolean existsByOrganizacaoAndId(Integer organizacao, Integer id);
     Optional<UnidadeMedidaEntity> findByOrganizacaoAndId(Integer organizacao, Integer id);
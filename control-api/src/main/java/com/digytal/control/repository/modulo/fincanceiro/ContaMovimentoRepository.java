@@ -0,0 +1,17 @@
+package com.digytal.control.repository.modulo.fincanceiro;
+
+import com.digytal.control.model.modulo.financeiro.conta.ContaMovimentoEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ContaMovimentoRepository extends JpaRepository<ContaMovimentoEntity, Long> {
+    //o id vem de uma sequência em blocos por instância, não segue a ordem de gravação
+    List<ContaMovimentoEntity> findByContaAndDiaBetweenOrderByDiaAscDataHoraAscIdAsc(Integer conta, LocalDate diaInicial, LocalDate diaFinal);
+
+    @Query("SELECT COALESCE(SUM(e.valor), 0) FROM ContaMovimentoEntity e WHERE e.conta = :conta AND e.dia > :diaInicial AND e.dia <= :diaFinal")
+    Double somarMovimentos(@Param("conta") Integer conta, @Param("diaInicial") LocalDate diaInicial, @Param("diaFinal") LocalDate diaFinal);
+}
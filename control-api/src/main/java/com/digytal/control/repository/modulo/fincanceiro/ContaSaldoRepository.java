@@ -0,0 +1,32 @@
+package com.digytal.control.repository.modulo.fincanceiro;
+
+import com.digytal.control.model.modulo.financeiro.conta.ContaSaldoEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ContaSaldoRepository extends JpaRepository<ContaSaldoEntity, ContaSaldoEntity.Chave> {
+    ContaSaldoEntity findFirstByContaAndDiaLessThanEqualOrderByDiaDesc(Integer conta, LocalDate dia);
+    ContaSaldoEntity findFirstByContaOrderByDia(Integer conta);
+    List<ContaSaldoEntity> findByContaAndDiaBetweenOrderByDia(Integer conta, LocalDate diaInicial, LocalDate diaFinal);
+
+    //movimento com data anterior a saldos já fechados
+    @Modifying
+    @Query("UPDATE ContaSaldoEntity s SET s.saldo = s.saldo + :valor WHERE s.conta = :conta AND s.dia >= :dia")
+    int ajustarSaldos(@Param("conta") Integer conta, @Param("dia") LocalDate dia, @Param("valor") Double valor);
+
+    //último saldo anterior ao dia somado aos movimentos desde então, somente quando a conta tem movimento no período
+    @Modifying
+    @Query(value = "INSERT INTO apl_financeiro.tab_conta_saldo (conta_id, cpt_dia, saldo) " +
+            "SELECT c.id, :dia, COALESCE(s.saldo, 0) + m.valor FROM apl_acesso.tab_conta c " +
+            "LEFT JOIN LATERAL (SELECT x.saldo, x.cpt_dia FROM apl_financeiro.tab_conta_saldo x WHERE x.conta_id = c.id AND x.cpt_dia < :dia ORDER BY x.cpt_dia DESC LIMIT 1) s ON true " +
+            "CROSS JOIN LATERAL (SELECT sum(y.valor) AS valor FROM apl_financeiro.tab_conta_movimento y WHERE y.conta_id = c.id " +
+            "AND y.cpt_dia > COALESCE(s.cpt_dia, CAST('-infinity' AS date)) AND y.cpt_dia <= :dia) m " +
+            "WHERE c.id = :conta AND m.valor IS NOT NULL " +
+            "ON CONFLICT (conta_id, cpt_dia) DO UPDATE SET saldo = EXCLUDED.saldo", nativeQuery = true)
+    int fecharSaldo(@Param("conta") Integer conta, @Param("dia") LocalDate dia);
+}
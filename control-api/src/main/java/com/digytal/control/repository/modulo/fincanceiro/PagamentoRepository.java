@@ -1,13 +1,25 @@
 package com.digytal.control.repository.modulo.fincanceiro;
 
+import com.digytal.control.infra.sql.PageRecord;
+import com.digytal.control.model.comum.MeioPagamento;
 import com.digytal.control.model.consulta.lancamento.PagamentoFiltro;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
 import com.digytal.control.model.modulo.financeiro.pagamento.PagamentoEntity;
 import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResponse;
+import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResumoDiario;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PagamentoRepository extends JpaRepository<PagamentoEntity, Integer> {
-    List<PagamentoResponse> pesquisar(Integer empresa, PagamentoFiltro filtro);
-    List<PagamentoResponse> pesquisarCompleto(Integer empresa, PagamentoFiltro filtro);
+    PageRecord<PagamentoResponse> pesquisar(Integer empresa, PagamentoFiltro filtro);
+    PageRecord<PagamentoResponse> pesquisarCompleto(Integer empresa, PagamentoFiltro filtro);
+    List<PagamentoResponse> listarCompleto(Integer empresa, PagamentoFiltro filtro);
+    void exportar(Integer empresa, PagamentoFiltro filtro, Consumer<PagamentoResponse> consumer);
+    void acumularResumoDiario(Integer empresa, LocalDate dia, AplicacaoTipo tipo, MeioPagamento meioPagamento, Integer conta, Double valor, int quantidade);
+    List<PagamentoResumoDiario> resumirDiario(Integer empresa, PagamentoFiltro filtro);
+    List<Object[]> listarDiasResumo(LocalDate diaInicial, LocalDate diaFinal);
+    int reconstruirResumoDiario(Integer empresa, LocalDate dia);
 }
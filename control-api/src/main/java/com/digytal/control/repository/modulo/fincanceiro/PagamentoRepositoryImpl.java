@@ -3,67 +3,73 @@ package com.digytal.control.repository.modulo.fincanceiro;
 import com.digytal.control.infra.business.BusinessException;
 import com.digytal.control.infra.business.ErroNaoMapeadoException;
 import com.digytal.control.infra.persistence.QueryRepository;
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.infra.sql.StringSQL;
+import com.digytal.control.infra.utils.Calculos;
+import com.digytal.control.model.comum.MeioPagamento;
 import com.digytal.control.model.consulta.lancamento.PagamentoFiltro;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
 import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResponse;
+import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResumoDiario;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.Query;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Repository
 @Slf4j
 public class PagamentoRepositoryImpl extends QueryRepository {
+    private static final String SELECT = elaborarSql(null, null);
+    private static final String SELECT_COMPLETO = elaborarSqlCompleto();
+    //trava consultiva por empresa/dia (chaves: empresa e dia em epochDay): a acumulação a toma compartilhada e a
+    //reconstrução exclusiva, então só a reconstrução do mesmo dia espera pelos lançamentos, e vice-versa
+    private static final String RESUMO_ACUMULAR = "WITH trava AS (SELECT 1 FROM pg_advisory_xact_lock_shared(:empresa, :chave)) " +
+            "INSERT INTO apl_financeiro.tab_pagamento_resumo_diario AS r " +
+            "(empresa_id, cpt_dia, tipo, meio_pagto, conta_id, vl_informado, qt_pagamentos) " +
+            "SELECT :empresa, :dia, :tipo, :meioPagamento, :conta, :valor, :quantidade FROM trava " +
+            "ON CONFLICT (empresa_id, cpt_dia, tipo, meio_pagto, conta_id) " +
+            "DO UPDATE SET vl_informado = r.vl_informado + EXCLUDED.vl_informado, qt_pagamentos = r.qt_pagamentos + EXCLUDED.qt_pagamentos";
+    private static final String RESUMO_TRAVAR = "SELECT count(*) FROM pg_advisory_xact_lock(:empresa, :chave)";
+    private static final String RESUMO_DIAS = "SELECT r.empresa_id, r.cpt_dia FROM apl_financeiro.tab_pagamento_resumo_diario r " +
+            "WHERE r.cpt_dia BETWEEN :diaInicial AND :diaFinal " +
+            "UNION SELECT t.part_empresa_id, t.cpt_dia FROM apl_financeiro.tab_pagamento p INNER JOIN apl_financeiro.tab_transacao t ON p.transacao_id = t.id " +
+            "WHERE t.cpt_dia BETWEEN :diaInicial AND :diaFinal ORDER BY 2, 1";
+    private static final String RESUMO_RECONSTRUIR = "INSERT INTO apl_financeiro.tab_pagamento_resumo_diario " +
+            "(empresa_id, cpt_dia, tipo, meio_pagto, conta_id, vl_informado, qt_pagamentos) " +
+            "SELECT t.part_empresa_id, t.cpt_dia, t.tipo, p.meio_pagto, p.conta_id, sum(p.vl_informado), count(*) " +
+            "FROM apl_financeiro.tab_pagamento p INNER JOIN apl_financeiro.tab_transacao t ON p.transacao_id = t.id " +
+            "WHERE t.part_empresa_id = :empresa AND t.cpt_dia = :dia " +
+            "GROUP BY t.part_empresa_id, t.cpt_dia, t.tipo, p.meio_pagto, p.conta_id";
 
-    public List<PagamentoResponse> pesquisar(Integer empresa, PagamentoFiltro filtro){
-        return pesquisar(empresa, filtro, elaborarSql(null, null),"t.data.dataHora");
+    public PageRecord<PagamentoResponse> pesquisar(Integer empresa, PagamentoFiltro filtro){
+        return pesquisar(empresa, filtro, SELECT, true);
     }
-    public List<PagamentoResponse> pesquisarCompleto(Integer empresa, PagamentoFiltro filtro){
+    public PageRecord<PagamentoResponse> pesquisarCompleto(Integer empresa, PagamentoFiltro filtro){
+        return pesquisar(empresa, filtro, SELECT_COMPLETO, true);
+    }
+    public List<PagamentoResponse> listarCompleto(Integer empresa, PagamentoFiltro filtro){
+        return pesquisar(empresa, filtro, SELECT_COMPLETO, false).getRecords();
+    }
+    private static String elaborarSqlCompleto(){
         StringBuilder novosCampos = new StringBuilder("c.id as cadastro_id, n.id as natureza_id, n.id as natureza_identificador, n.nome as natureza_descricao, ");
-        novosCampos.append("a.id as area_id, a.id as area_identificador, a.nome as area_descricao, ");
+        novosCampos.append("a.id as area_id, a.id as area_identificador, a.nome as area_descricao ");
 
-        StringBuilder joins = new StringBuilder("INNER JOIN AplicacaoEntity n ON t.aplicacao.natureza = n.id");
+        StringBuilder joins = new StringBuilder("INNER JOIN AplicacaoEntity n ON t.aplicacao.natureza = n.id ");
         joins.append("INNER JOIN AplicacaoEntity a ON t.aplicacao.area = a.id ");
 
-        String select = elaborarSql(novosCampos.toString(), joins.toString());
-
-        return pesquisar(empresa, filtro, select ,"t.data.dataHora");
+        return elaborarSql(novosCampos.toString(), joins.toString());
     }
-    private List<PagamentoResponse> pesquisar(Integer empresa, PagamentoFiltro filtro, String select, String orderBy){
+    private PageRecord<PagamentoResponse> pesquisar(Integer empresa, PagamentoFiltro filtro, String select, boolean perPage){
         try {
-            StringSQL sql = new StringSQL();
-            sql.select(select);
-            Map<String, Object> filters = new LinkedHashMap<>();
-            filters.put("empresa", empresa);
-            filters.put("diaInicial", filtro.getDataInicial());
-            filters.put("diaFinal", filtro.getDataFinal());
-
-            sql.setFilters(filters)
-                    .where("t.partes.empresa").equal("empresa").integer()
-                    .and("t.data.dia").greaterThanEqual("diaInicial").localDate()
-                    .and("t.data.dia").lessThanEquals("diaFinal").localDate();
-
-            if (filtro.getMeioPagamento() != null) {
-                filters.put("meioPagamento", filtro.getMeioPagamento());
-                sql.and("e.meioPagamento").equal("meioPagamento").enumeration();
-            }
-            if (filtro.getTipo() != null) {
-                filters.put("tipo", filtro.getTipo());
-                sql.and("t.tipo").equal("tipo").enumeration();
-            }
-            if (filtro.getConta() != null) {
-                filters.put("conta", filtro.getConta());
-                sql.and("e.conta").equal("conta").integer();
-            }
-            if (filtro.getCadastro() != null) {
-                filters.put("cadastro", filtro.getCadastro());
-                sql.and("t.partes.cadastro").equal("cadastro").integer();
-            }
-            sql.orderBy(orderBy);
-            List<PagamentoResponse> lista = search(sql, PagamentoResponse.class);
-            return lista;
+            return searchPage(elaborarConsulta(empresa, filtro, select, perPage), PagamentoResponse.class, perPage);
         }catch (BusinessException ex){
             log.warn(BusinessException.logMessage(ex));
             throw ex;
@@ -72,7 +78,54 @@ public class PagamentoRepositoryImpl extends QueryRepository {
             throw new ErroNaoMapeadoException();
         }
     }
-    private String elaborarSql(String campos, String tabelas){
+    public void exportar(Integer empresa, PagamentoFiltro filtro, Consumer<PagamentoResponse> consumer){
+        try {
+            scroll(elaborarConsulta(empresa, filtro, SELECT, false), PagamentoResponse.class, consumer);
+        }catch (BusinessException ex){
+            log.warn(BusinessException.logMessage(ex));
+            throw ex;
+        }catch (Exception ex){
+            log.error("Erro ao tentar exportar os registros",ex);
+            throw new ErroNaoMapeadoException();
+        }
+    }
+    private StringSQL elaborarConsulta(Integer empresa, PagamentoFiltro filtro, String select, boolean perPage){
+        StringSQL sql = new StringSQL();
+        sql.select(select);
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("empresa", empresa);
+        filters.put("diaInicial", filtro.getDataInicial());
+        filters.put("diaFinal", filtro.getDataFinal());
+        filters.put("pageIndex", filtro.getPageIndex());
+        filters.put("pageSize", filtro.getPageSize());
+
+        sql.setFilters(filters)
+                .where("t.partes.empresa").equal("empresa").integer()
+                .and("t.data.dia").greaterThanEqual("diaInicial").localDate()
+                .and("t.data.dia").lessThanEquals("diaFinal").localDate();
+
+        if (filtro.getMeioPagamento() != null) {
+            filters.put("meioPagamento", filtro.getMeioPagamento());
+            sql.and("e.meioPagamento").equal("meioPagamento").enumeration();
+        }
+        if (filtro.getTipo() != null) {
+            filters.put("tipo", filtro.getTipo());
+            sql.and("t.tipo").equal("tipo").enumeration();
+        }
+        if (filtro.getConta() != null) {
+            filters.put("conta", filtro.getConta());
+            sql.and("e.conta").equal("conta").integer();
+        }
+        if (filtro.getCadastro() != null) {
+            filters.put("cadastro", filtro.getCadastro());
+            sql.and("t.partes.cadastro").equal("cadastro").integer();
+        }
+        if (perPage)
+            sql.seek("t.data.dataHora", "e.id", filtro.getAposDataHora(), filtro.getAposId());
+        sql.orderBy("t.data.dataHora, e.id");
+        return sql;
+    }
+    private static String elaborarSql(String campos, String tabelas){
         StringBuilder select = new StringBuilder();
         select.append(" SELECT e.id as id, t.numeroDocumento as numeroDocumento, e.id as numeroTransacao, t.titulo as titulo, e.descricao as descricao, t.tipo as tipo, t.data as data, " +
                 " e.meioPagamento as meioPagamento, t.observacao as observacao, e.valor as valor, c.cpfCnpj as cadastro_identificador, c.nomeFantasia as cadastro_descricao ");
@@ -85,4 +138,85 @@ public class PagamentoRepositoryImpl extends QueryRepository {
 
         return select.toString();
     }
+    public void acumularResumoDiario(Integer empresa, LocalDate dia, AplicacaoTipo tipo, MeioPagamento meioPagamento, Integer conta, Double valor, int quantidade){
+        entityManager.createNativeQuery(RESUMO_ACUMULAR)
+                .setParameter("empresa", empresa)
+                .setParameter("chave", (int) dia.toEpochDay())
+                .setParameter("dia", dia)
+                .setParameter("tipo", tipo.getId())
+                .setParameter("meioPagamento", meioPagamento.getId())
+                .setParameter("conta", conta)
+                .setParameter("valor", valor)
+                .setParameter("quantidade", quantidade)
+                .executeUpdate();
+    }
+    public List<PagamentoResumoDiario> resumirDiario(Integer empresa, PagamentoFiltro filtro){
+        try {
+            StringBuilder sql = new StringBuilder("SELECT r.cpt_dia, r.tipo, sum(r.vl_informado) FROM apl_financeiro.tab_pagamento_resumo_diario r ");
+            sql.append("WHERE r.empresa_id = :empresa AND r.cpt_dia BETWEEN :diaInicial AND :diaFinal ");
+            if (filtro.getMeioPagamento() != null)
+                sql.append("AND r.meio_pagto = :meioPagamento ");
+            if (filtro.getTipo() != null)
+                sql.append("AND r.tipo = :tipo ");
+            if (filtro.getConta() != null)
+                sql.append("AND r.conta_id = :conta ");
+            sql.append("GROUP BY r.cpt_dia, r.tipo ORDER BY r.cpt_dia");
+
+            Query query = entityManager.createNativeQuery(sql.toString())
+                    .setParameter("empresa", empresa)
+                    .setParameter("diaInicial", filtro.getDataInicial())
+                    .setParameter("diaFinal", filtro.getDataFinal());
+            if (filtro.getMeioPagamento() != null)
+                query.setParameter("meioPagamento", filtro.getMeioPagamento().getId());
+            if (filtro.getTipo() != null)
+                query.setParameter("tipo", filtro.getTipo().getId());
+            if (filtro.getConta() != null)
+                query.setParameter("conta", filtro.getConta());
+
+            List<PagamentoResumoDiario> dias = new ArrayList<>();
+            PagamentoResumoDiario atual = null;
+            for (Object row : query.getResultList()) {
+                Object[] colunas = (Object[]) row;
+                LocalDate dia = ((Date) colunas[0]).toLocalDate();
+                if (atual == null || !atual.getDia().equals(dia)) {
+                    atual = new PagamentoResumoDiario();
+                    atual.setDia(dia);
+                    dias.add(atual);
+                }
+                Double valor = ((BigDecimal) colunas[2]).doubleValue();
+                if (AplicacaoTipo.RECEITA.getId().equals(colunas[1].toString()))
+                    atual.setTotalReceitas(valor);
+                else
+                    atual.setTotalDespesas(valor);
+                atual.setSaldo(Calculos.subtrair(atual.getTotalReceitas(), atual.getTotalDespesas()));
+            }
+            return dias;
+        }catch (BusinessException ex){
+            log.warn(BusinessException.logMessage(ex));
+            throw ex;
+        }catch (Exception ex){
+            log.error("Erro ao tentar consultar o resumo diário",ex);
+            throw new ErroNaoMapeadoException();
+        }
+    }
+    public List<Object[]> listarDiasResumo(LocalDate diaInicial, LocalDate diaFinal){
+        return entityManager.createNativeQuery(RESUMO_DIAS)
+                .setParameter("diaInicial", diaInicial)
+                .setParameter("diaFinal", diaFinal)
+                .getResultList();
+    }
+    public int reconstruirResumoDiario(Integer empresa, LocalDate dia){
+        entityManager.createNativeQuery(RESUMO_TRAVAR)
+                .setParameter("empresa", empresa)
+                .setParameter("chave", (int) dia.toEpochDay())
+                .getSingleResult();
+        entityManager.createNativeQuery("DELETE FROM apl_financeiro.tab_pagamento_resumo_diario WHERE empresa_id = :empresa AND cpt_dia = :dia")
+                .setParameter("empresa", empresa)
+                .setParameter("dia", dia)
+                .executeUpdate();
+        return entityManager.createNativeQuery(RESUMO_RECONSTRUIR)
+                .setParameter("empresa", empresa)
+                .setParameter("dia", dia)
+                .executeUpdate();
+    }
 }
@@ -3,14 +3,40 @@ package com.digytal.control.repository.modulo.fincanceiro;
 
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import javax.persistence.LockModeType;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface ParcelaRepository extends JpaRepository<ParcelaEntity, Integer> {
     @Query("SELECT e FROM ParcelaEntity e WHERE e.boleto.solicitado=true AND e.boleto.status='E' and e.detalhe.dataVencimento BETWEEN :dataInicial AND :dataFinal ")
     List<ParcelaEntity> listarParcelasBoleto(@Param("dataInicial") LocalDate dataInicial,@Param("dataFinal") LocalDate dataFinal);
 
+    //parcela, número do boleto na Asaas e empresa dos boletos em aberto, agrupados por empresa para a conciliação
+    @Query("SELECT p.id, p.boleto.numeroAutorizacao, t.partes.empresa, p.parcelamento FROM ParcelaEntity p, ParcelamentoEntity pc, TransacaoEntity t " +
+            "WHERE pc.id = p.parcelamento AND t.id = pc.transacao AND p.boleto.solicitado=true AND p.boleto.status='E' " +
+            "AND p.detalhe.dataVencimento BETWEEN :dataInicial AND :dataFinal ORDER BY t.partes.empresa, p.parcelamento, p.id")
+    List<Object[]> listarBoletosConciliacao(@Param("dataInicial") LocalDate dataInicial, @Param("dataFinal") LocalDate dataFinal);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ParcelaEntity e WHERE e.id = :id")
+    ParcelaEntity travar(@Param("id") Integer id);
+
+    //travadas na ordem dos ids, a mesma em qualquer lote: lotes simultâneos não se bloqueiam em ciclo
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ParcelaEntity e WHERE e.id IN :ids ORDER BY e.id")
+    List<ParcelaEntity> travar(@Param("ids") Collection<Integer> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ParcelaEntity e WHERE e.boleto.numeroAutorizacao = :numeroAutorizacao")
+    ParcelaEntity travarPorNumeroAutorizacao(@Param("numeroAutorizacao") String numeroAutorizacao);
+
     ParcelaEntity findByBoletoNumeroAutorizacao(String numeroAutorizacao);
+
+    @Query("SELECT t.partes.empresa FROM ParcelaEntity p, ParcelamentoEntity pm, TransacaoEntity t " +
+            "WHERE p.boleto.numeroAutorizacao = :numeroAutorizacao AND pm.id = p.parcelamento AND t.id = pm.transacao")
+    Integer buscarEmpresaPorNumeroAutorizacao(@Param("numeroAutorizacao") String numeroAutorizacao);
 }
@@ -1,14 +1,30 @@
 package com.digytal.control.repository.modulo.fincanceiro;
 
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.model.consulta.lancamento.LancamentoFiltro;
 import com.digytal.control.model.modulo.financeiro.parcelamento.ParcelamentoEntity;
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaResponse;
 import com.digytal.control.model.modulo.financeiro.parcelamento.response.ParcelamentoResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ParcelamentoRepository extends JpaRepository<ParcelamentoEntity, Integer> {
-    public List<ParcelamentoResponse> pesquisar(Integer empresa, LancamentoFiltro filtro);
+    //o saldo do parcelamento é atualizado por parcela: compensações simultâneas de parcelas diferentes esperam aqui
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ParcelamentoEntity e WHERE e.id = :id")
+    ParcelamentoEntity travar(@Param("id") Integer id);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ParcelamentoEntity e WHERE e.id IN :ids ORDER BY e.id")
+    List<ParcelamentoEntity> travar(@Param("ids") Collection<Integer> ids);
+    public PageRecord<ParcelamentoResponse> pesquisar(Integer empresa, LancamentoFiltro filtro);
     List<ParcelaResponse> listarParcelas(Integer parcelamento);
+    void exportar(Integer empresa, LancamentoFiltro filtro, Consumer<ParcelamentoResponse> consumer);
 }
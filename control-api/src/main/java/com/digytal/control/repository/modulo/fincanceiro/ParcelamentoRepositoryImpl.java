@@ -3,6 +3,7 @@ package com.digytal.control.repository.modulo.fincanceiro;
 import com.digytal.control.infra.business.BusinessException;
 import com.digytal.control.infra.business.ErroNaoMapeadoException;
 import com.digytal.control.infra.persistence.QueryRepository;
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.infra.sql.StringSQL;
 import com.digytal.control.model.consulta.lancamento.LancamentoFiltro;
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaResponse;
@@ -13,33 +14,21 @@ import org.springframework.stereotype.Repository;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Repository
 @Slf4j
 public class ParcelamentoRepositoryImpl extends QueryRepository {
-    public List<ParcelamentoResponse> pesquisar(Integer empresa, LancamentoFiltro filtro){
-        return pesquisar(empresa, filtro, elaborarSql(null, null),"t.data.dataHora");
+    private static final String SELECT = elaborarSql(null, null);
+    public PageRecord<ParcelamentoResponse> pesquisar(Integer empresa, LancamentoFiltro filtro){
+        return pesquisar(empresa, filtro, SELECT);
     }
     public List<ParcelamentoResponse> pesquisarCompleto(Integer empresa, LancamentoFiltro filtro){
         return null;
     }
-    private List<ParcelamentoResponse> pesquisar(Integer empresa, LancamentoFiltro filtro, String select, String orderBy){
+    private PageRecord<ParcelamentoResponse> pesquisar(Integer empresa, LancamentoFiltro filtro, String select){
         try {
-            StringSQL sql = new StringSQL();
-            sql.select(select);
-            Map<String, Object> filters = new LinkedHashMap<>();
-            filters.put("empresa", empresa);
-            filters.put("diaInicial", filtro.getDataInicial());
-            filters.put("diaFinal", filtro.getDataFinal());
-
-            sql.setFilters(filters)
-                    .where("t.partes.empresa").equal("empresa").integer()
-                    .and("t.data.dia").greaterThanEqual("diaInicial").localDate()
-                    .and("t.data.dia").lessThanEquals("diaFinal").localDate();
-
-            sql.orderBy(orderBy);
-            List<ParcelamentoResponse> lista = search(sql, ParcelamentoResponse.class);
-            return lista;
+            return searchPage(elaborarConsulta(empresa, filtro, select, true), ParcelamentoResponse.class, true);
         }catch (BusinessException ex){
             log.warn(BusinessException.logMessage(ex));
             throw ex;
@@ -48,7 +37,38 @@ public class ParcelamentoRepositoryImpl extends QueryRepository {
             throw new ErroNaoMapeadoException();
         }
     }
-    private String elaborarSql(String campos, String tabelas){
+    public void exportar(Integer empresa, LancamentoFiltro filtro, Consumer<ParcelamentoResponse> consumer){
+        try {
+            scroll(elaborarConsulta(empresa, filtro, SELECT, false), ParcelamentoResponse.class, consumer);
+        }catch (BusinessException ex){
+            log.warn(BusinessException.logMessage(ex));
+            throw ex;
+        }catch (Exception ex){
+            log.error("Erro ao tentar exportar os registros",ex);
+            throw new ErroNaoMapeadoException();
+        }
+    }
+    private StringSQL elaborarConsulta(Integer empresa, LancamentoFiltro filtro, String select, boolean perPage){
+        StringSQL sql = new StringSQL();
+        sql.select(select);
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("empresa", empresa);
+        filters.put("diaInicial", filtro.getDataInicial());
+        filters.put("diaFinal", filtro.getDataFinal());
+        filters.put("pageIndex", filtro.getPageIndex());
+        filters.put("pageSize", filtro.getPageSize());
+
+        sql.setFilters(filters)
+                .where("t.partes.empresa").equal("empresa").integer()
+                .and("t.data.dia").greaterThanEqual("diaInicial").localDate()
+                .and("t.data.dia").lessThanEquals("diaFinal").localDate();
+
+        if (perPage)
+            sql.seek("t.data.dataHora", "e.id", filtro.getAposDataHora(), filtro.getAposId());
+        sql.orderBy("t.data.dataHora, e.id");
+        return sql;
+    }
+    private static String elaborarSql(String campos, String tabelas){
         StringBuilder select = new StringBuilder();
         select.append(" SELECT e.id as id, t.numeroDocumento as numeroDocumento, e.id as numeroTransacao, " +
                 " t.titulo as titulo, e.descricao as descricao, t.tipo as tipo, t.data as data, e.detalhe as detalhe, " +
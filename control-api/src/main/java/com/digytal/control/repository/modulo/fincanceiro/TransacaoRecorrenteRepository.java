@@ -0,0 +1,35 @@
+package com.digytal.control.repository.modulo.fincanceiro;
+
+import com.digytal.control.model.modulo.financeiro.transacao.recorrente.TransacaoRecorrenteEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TransacaoRecorrenteRepository extends JpaRepository<TransacaoRecorrenteEntity, Integer> {
+    List<TransacaoRecorrenteEntity> findByPartesEmpresaOrderById(Integer empresa);
+
+    //próximo bloco de modelos vencidos pelo índice parcial (dt_proxima_ocorrencia, id), continuando após a última chave lida
+    @Query(value = "SELECT id, dt_proxima_ocorrencia FROM apl_financeiro.tab_transacao_recorrente " +
+            "WHERE ativo AND dt_proxima_ocorrencia <= :dia AND (dt_proxima_ocorrencia, id) > (:aposData, :aposId) " +
+            "ORDER BY dt_proxima_ocorrencia, id LIMIT :limite", nativeQuery = true)
+    List<Object[]> listarPendentes(@Param("dia") LocalDate dia, @Param("aposData") LocalDate aposData, @Param("aposId") Integer aposId, @Param("limite") int limite);
+
+    //trava o modelo até o fim da transação; outro nó que já o esteja gerando faz com que seja ignorado aqui
+    @Query(value = "SELECT * FROM apl_financeiro.tab_transacao_recorrente WHERE id = :id AND ativo AND dt_proxima_ocorrencia <= :dia " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    TransacaoRecorrenteEntity travarPendente(@Param("id") Integer id, @Param("dia") LocalDate dia);
+
+    @Modifying
+    @Query(value = "INSERT INTO apl_financeiro.tab_transacao_recorrente_ocorrencia (recorrente_id, dt_ocorrencia) VALUES (:id, :dia) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int registrarOcorrencia(@Param("id") Integer id, @Param("dia") LocalDate dia);
+
+    @Modifying
+    @Query(value = "UPDATE apl_financeiro.tab_transacao_recorrente_ocorrencia SET transacao_id = :transacao " +
+            "WHERE recorrente_id = :id AND dt_ocorrencia = :dia", nativeQuery = true)
+    int vincularTransacao(@Param("id") Integer id, @Param("dia") LocalDate dia, @Param("transacao") Integer transacao);
+}
@@ -1,13 +1,16 @@
 package com.digytal.control.repository.modulo.fincanceiro;
 
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.model.consulta.lancamento.TransacaoFiltro;
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.List;
+import java.util.function.Consumer;
+
 
 public interface TransacaoRepository extends JpaRepository<TransacaoEntity, Integer> {
-    List<TransacaoResponse> pesquisar(Integer empresa, TransacaoFiltro filtro);
-    List<TransacaoResponse> pesquisarCompleto(Integer empresa, TransacaoFiltro filtro);
+    PageRecord<TransacaoResponse> pesquisar(Integer empresa, TransacaoFiltro filtro);
+    PageRecord<TransacaoResponse> pesquisarCompleto(Integer empresa, TransacaoFiltro filtro);
+    void exportar(Integer empresa, TransacaoFiltro filtro, Consumer<TransacaoResponse> consumer);
 }
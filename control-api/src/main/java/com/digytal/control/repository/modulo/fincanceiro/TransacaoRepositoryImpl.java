@@ -3,6 +3,7 @@ package com.digytal.control.repository.modulo.fincanceiro;
 import com.digytal.control.infra.business.BusinessException;
 import com.digytal.control.infra.business.ErroNaoMapeadoException;
 import com.digytal.control.infra.persistence.QueryRepository;
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.infra.sql.StringSQL;
 import com.digytal.control.model.consulta.lancamento.PagamentoFiltro;
 import com.digytal.control.model.consulta.lancamento.TransacaoFiltro;
@@ -14,47 +15,32 @@ import org.springframework.stereotype.Repository;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Repository
 @Slf4j
 public class TransacaoRepositoryImpl extends QueryRepository {
-    public List<TransacaoResponse> pesquisar(Integer empresa, TransacaoFiltro filtro){
-        return pesquisar(empresa, elaborarSql(null, null),filtro, "e.data.dataHora");
+    private static final String SELECT = elaborarSql(null, null);
+    private static final String SELECT_COMPLETO = elaborarSqlCompleto();
+    public PageRecord<TransacaoResponse> pesquisar(Integer empresa, TransacaoFiltro filtro){
+        return pesquisar(empresa, SELECT,filtro);
     }
-    public List<TransacaoResponse> pesquisarCompleto(Integer empresa, TransacaoFiltro filtro){
+    public PageRecord<TransacaoResponse> pesquisarCompleto(Integer empresa, TransacaoFiltro filtro){
+        return pesquisar(empresa, SELECT_COMPLETO, filtro);
+    }
+    private static String elaborarSqlCompleto(){
         StringBuilder novosCampos = new StringBuilder("n.id as natureza_id, n.id as natureza_identificador, n.nome as natureza_descricao, ");
         novosCampos.append("a.id as area_id, a.id as area_identificador, a.nome as area_descricao ");
 
         StringBuilder joins = new StringBuilder("INNER JOIN AplicacaoEntity n ON e.aplicacao.natureza = n.id ");
         joins.append("INNER JOIN AplicacaoEntity a ON e.aplicacao.area = a.id ");
 
-        String select = elaborarSql(novosCampos.toString(), joins.toString());
-
-        return pesquisar(empresa,  select , filtro,"e.data.dataHora");
+        return elaborarSql(novosCampos.toString(), joins.toString());
     }
 
-    private List<TransacaoResponse> pesquisar(Integer empresa, String select, TransacaoFiltro filtro, String orderBy) {
+    private PageRecord<TransacaoResponse> pesquisar(Integer empresa, String select, TransacaoFiltro filtro) {
         try {
-            StringSQL sql = new StringSQL();
-            sql.select(select);
-            Map<String, Object> filters = new LinkedHashMap<>();
-            filters.put("empresa", empresa);
-            filters.put("diaInicial", filtro.getDataInicial());
-            filters.put("diaFinal", filtro.getDataFinal());
-
-            sql.setFilters(filters)
-                    .where("e.partes.empresa").equal("empresa").integer()
-                    .and("e.data.dia").greaterThanEqual("diaInicial").localDate()
-                    .and("e.data.dia").lessThanEquals("diaFinal").localDate();
-
-            if (filtro.getTipo() != null) {
-                filters.put("tipo", filtro.getTipo());
-                sql.and("e.tipo").equal("tipo").enumeration();
-            }
-
-            sql.orderBy(orderBy);
-            List<TransacaoResponse> lista = search(sql, TransacaoResponse.class);
-            return lista;
+            return searchPage(elaborarConsulta(empresa, select, filtro, true), TransacaoResponse.class, true);
         }catch (BusinessException ex){
             log.warn(BusinessException.logMessage(ex));
             throw ex;
@@ -63,8 +49,44 @@ public class TransacaoRepositoryImpl extends QueryRepository {
             throw new ErroNaoMapeadoException();
         }
     }
+    public void exportar(Integer empresa, TransacaoFiltro filtro, Consumer<TransacaoResponse> consumer){
+        try {
+            scroll(elaborarConsulta(empresa, SELECT_COMPLETO, filtro, false), TransacaoResponse.class, consumer);
+        }catch (BusinessException ex){
+            log.warn(BusinessException.logMessage(ex));
+            throw ex;
+        }catch (Exception ex){
+            log.error("Erro ao tentar exportar os registros",ex);
+            throw new ErroNaoMapeadoException();
+        }
+    }
+    private StringSQL elaborarConsulta(Integer empresa, String select, TransacaoFiltro filtro, boolean perPage){
+        StringSQL sql = new StringSQL();
+        sql.select(select);
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("empresa", empresa);
+        filters.put("diaInicial", filtro.getDataInicial());
+        filters.put("diaFinal", filtro.getDataFinal());
+        filters.put("pageIndex", filtro.getPageIndex());
+        filters.put("pageSize", filtro.getPageSize());
+
+        sql.setFilters(filters)
+                .where("e.partes.empresa").equal("empresa").integer()
+                .and("e.data.dia").greaterThanEqual("diaInicial").localDate()
+                .and("e.data.dia").lessThanEquals("diaFinal").localDate();
+
+        if (filtro.getTipo() != null) {
+            filters.put("tipo", filtro.getTipo());
+            sql.and("e.tipo").equal("tipo").enumeration();
+        }
+
+        if (perPage)
+            sql.seek("e.data.dataHora", "e.id", filtro.getAposDataHora(), filtro.getAposId());
+        sql.orderBy("e.data.dataHora, e.id");
+        return sql;
+    }
 
-    private String elaborarSql(String campos, String tabelas) {
+    private static String elaborarSql(String campos, String tabelas) {
         StringBuilder select = new StringBuilder();
         select.append(" SELECT e.id as id, e.numeroDocumento as numeroDocumento, e.titulo as titulo, e.descricao as descricao, e.tipo as tipo, e.data as data, " +
                 " e.observacao as observacao, e.valor as valor, c.id as cadastro_id, c.cpfCnpj as cadastro_identificador, c.nomeFantasia as cadastro_descricao  ");
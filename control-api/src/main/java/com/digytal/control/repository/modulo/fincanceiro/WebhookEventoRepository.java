@@ -0,0 +1,41 @@
+package com.digytal.control.repository.modulo.fincanceiro;
+
+import com.digytal.control.model.modulo.financeiro.webhook.WebhookEventoEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface WebhookEventoRepository extends JpaRepository<WebhookEventoEntity, Long> {
+    //o evento repetido pelo provedor (mesmo provedor e id) é ignorado
+    String REGISTRAR = "INSERT INTO apl_financeiro.tab_webhook_evento (provedor, evento_id, evento, payload) " +
+            "VALUES (:provedor, :eventoId, :evento, :payload) ON CONFLICT (provedor, evento_id) DO NOTHING";
+    //próximo lote pendente; outro nó que esteja reservando ao mesmo tempo pula as linhas travadas aqui
+    String TRAVAR_PENDENTES = "SELECT * FROM apl_financeiro.tab_webhook_evento WHERE status = 'P' AND dt_proxima_tentativa <= now() " +
+            "ORDER BY dt_proxima_tentativa, id LIMIT :limite FOR UPDATE SKIP LOCKED";
+
+    @Modifying
+    @Query(value = REGISTRAR, nativeQuery = true)
+    int registrar(@Param("provedor") String provedor, @Param("eventoId") String eventoId, @Param("evento") String evento,
+                  @Param("payload") String payload);
+
+    @Query(value = TRAVAR_PENDENTES, nativeQuery = true)
+    List<WebhookEventoEntity> travarPendentes(@Param("limite") int limite);
+
+    //reserva os eventos travados por um prazo; se o nó cair durante o processamento, voltam a ficar disponíveis
+    @Modifying
+    @Query(value = "UPDATE apl_financeiro.tab_webhook_evento SET tentativas = tentativas + 1, " +
+            "dt_proxima_tentativa = now() + make_interval(secs => :reserva) WHERE id IN (:ids)", nativeQuery = true)
+    int reservar(@Param("ids") List<Long> ids, @Param("reserva") int reserva);
+
+    @Modifying
+    @Query(value = "UPDATE apl_financeiro.tab_webhook_evento SET status = :status, dt_processamento = now(), ultimo_erro = :erro, " +
+            "dt_proxima_tentativa = now() + make_interval(secs => :espera) WHERE id = :id", nativeQuery = true)
+    int finalizar(@Param("id") Long id, @Param("status") String status, @Param("erro") String erro, @Param("espera") int espera);
+
+    @Modifying
+    @Query(value = "DELETE FROM apl_financeiro.tab_webhook_evento WHERE status = 'C' AND dt_processamento < now() - make_interval(days => :dias)", nativeQuery = true)
+    int removerConcluidos(@Param("dias") int dias);
+}
@@ -0,0 +1,7 @@
+package com.digytal.control.repository.modulo.param;
+
+import com.digytal.control.model.modulo.param.ibge.IbgeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IbgeRepository extends JpaRepository<IbgeEntity, Integer> {
+}
@@ -8,10 +8,14 @@ import java.time.temporal.ChronoUnit;
 
 public class AbstractConsultaService extends AbstractService{
     private final int DIAS_INTERVALO = 31;
+    protected final int DIAS_INTERVALO_EXPORTACAO = 366;
     protected void validarPeriodoData(FiltroData filtro){
+        validarPeriodoData(filtro, DIAS_INTERVALO);
+    }
+    protected void validarPeriodoData(FiltroData filtro, int diasIntervalo){
         filtro.setDataInicial(filtro.getDataInicial()==null ? LocalDate.now() : filtro.getDataInicial());
         filtro.setDataFinal(filtro.getDataFinal()==null ? LocalDate.now().withDayOfMonth(filtro.getDataInicial().getMonth().length(filtro.getDataInicial().isLeapYear())) : filtro.getDataFinal()); ;
-        if(ChronoUnit.DAYS.between(filtro.getDataInicial(), filtro.getDataFinal()) > DIAS_INTERVALO)
-            throw new ParametroInvalidoException("O intervalo de datas ultrapassou os 31 dias");
+        if(ChronoUnit.DAYS.between(filtro.getDataInicial(), filtro.getDataFinal()) > diasIntervalo)
+            throw new ParametroInvalidoException(String.format("O intervalo de datas ultrapassou os %d dias", diasIntervalo));
     }
 }
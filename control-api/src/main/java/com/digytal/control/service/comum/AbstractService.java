@@ -15,6 +15,8 @@ import java.util.UUID;
 
 @Slf4j
 public abstract class AbstractService {
+    //quantidade máxima de registros retornados nas buscas por nome (localiza)
+    protected static final int LIMITE_BUSCA = 50;
     @Autowired
     protected RequestInfo requestInfo;
     @Autowired
@@ -54,6 +56,9 @@ public abstract class AbstractService {
         return participante;
     }
     public String gerarLocalizador(){
+        //fora de uma requisição (Jobs) não há credencial: recusa em vez de gravar "null.null.null"
+        if(requestInfo.getEmpresa()==null)
+            throw new IllegalStateException("Localizador solicitado sem usuário autenticado");
         return String.format("%d.%d.%d.%s",requestInfo.getOrganizacao(),requestInfo.getEmpresa(),requestInfo.getUsuario(), UUID.randomUUID().toString().substring(0, 4));
     }
     protected static String normalizar(String ... campos){
@@ -34,6 +34,13 @@ import static com.digytal.control.infra.commons.validation.Attributes.*;
 
 @Service
 public class CadastroFactory extends AbstractService {
+    private static final Validations NOME_OBRIGATORIO = Validations.build(NOME_FANTASIA).notEmpty();
+    private static final Validations TAMANHO_NOME = Validations.build(NOME_FANTASIA).rangeLen(2,80);
+    private static final Validations TAMANHO_SOBRENOME = Validations.build(SOBRENOME_SOCIAL).rangeLen(2,80);
+    private static final Validations TAMANHO_EMAIL = Validations.build(EMAIL).rangeLen(10, 80);
+    private static final Validations TAMANHO_NUMERO_ENDERECO = Validations.build(NUMERO).maxLen(8);
+    private static final Definitions CEP_DIGITOS = Definitions.build().onlyDigits(CEP);
+    private static final Definitions EMAIL_MINUSCULO = Definitions.build().lowerCase(EMAIL);
     @Autowired
     protected EmpresaRepository empresaRepository;
     @Autowired
@@ -65,14 +72,14 @@ public class CadastroFactory extends AbstractService {
     }
 
     public EntidadeCadastral build(CadastroCompletoRequest request){
-        Validations.build(NOME_FANTASIA).notEmpty().check(request);
+        NOME_OBRIGATORIO.check(request);
         request.setSobrenomeSocial(Definition.seNuloOuVazio(request.getSobrenomeSocial(), request.getNomeFantasia()));
 
-        Validations.build(NOME_FANTASIA).rangeLen(2,80).check(request);
-        Validations.build(SOBRENOME_SOCIAL).rangeLen(2,80).check(request);
+        TAMANHO_NOME.check(request);
+        TAMANHO_SOBRENOME.check(request);
 
         if(Validation.isNotEmpty(request.getEmail())) {
-            Validations.build(EMAIL).rangeLen(10, 80).check(request);
+            TAMANHO_EMAIL.check(request);
             if(!Validation.email(request.getEmail()))
                 throw new EmailInvalidoException();
         }
@@ -83,12 +90,12 @@ public class CadastroFactory extends AbstractService {
         }
 
         if(request.getEndereco()!=null && Validation.isNotEmpty(request.getEndereco().getCep())) {
-            Definitions.build().onlyDigits(CEP).define(request.getEndereco());
-            Validations.build(NUMERO).maxLen(8).check(request.getEndereco());
+            CEP_DIGITOS.define(request.getEndereco());
+            TAMANHO_NUMERO_ENDERECO.check(request.getEndereco());
         }else
             request.setEndereco(enderecoPadrao());
 
-        Definitions.build().lowerCase(EMAIL).define(request);
+        EMAIL_MINUSCULO.define(request);
 
         Endereco endereco = cepService.obterEndereco(request.getEndereco().getCep());
 
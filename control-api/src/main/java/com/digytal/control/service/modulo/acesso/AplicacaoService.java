@@ -25,6 +25,7 @@ import static com.digytal.control.infra.commons.validation.Entities.APLICACAO_EN
 @Service
 @Slf4j
 public class AplicacaoService extends AbstractService {
+    private static final Validations VALIDAR_NOME = Validations.build(NOME).notEmpty().minLen(2).maxLen(50);
     @Autowired
     private AplicacaoRepository repository;
     public List<AplicacaoResponse> listarAreas(String nome){
@@ -60,7 +61,7 @@ public class AplicacaoService extends AbstractService {
     private Integer incluir(AplicacaoRequest request, AplicacaoTipo tipo, boolean area, boolean natureza){
         try{
 
-        Validations.build(NOME).notEmpty().minLen(2).maxLen(50).check(request);
+        VALIDAR_NOME.check(request);
 
         AplicacaoEntity entity = new AplicacaoEntity();
         entity.setOrganizacao(requestInfo.getOrganizacao());
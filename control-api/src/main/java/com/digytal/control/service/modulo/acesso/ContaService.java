@@ -1,5 +1,6 @@
 package com.digytal.control.service.modulo.acesso;
 
+import com.digytal.control.infra.business.CampoObrigatorioException;
 import com.digytal.control.infra.business.RegistroDuplicadoException;
 import com.digytal.control.infra.business.RegistroIncompativelException;
 import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
@@ -31,6 +32,9 @@ import static com.digytal.control.infra.commons.validation.Entities.*;
 
 @Service
 public class ContaService extends AbstractService {
+    private static final Validations CAMPOS_OBRIGATORIOS = Validations.build(AGENCIA, NUMERO, LEGENDA, BANCO).notEmpty();
+    private static final Validations FATURA_OBRIGATORIOS = Validations.build(DIA_VENCIMENTO, DIAS_INTERVALO).notEmpty();
+    private static final Validations FORMA_PAGAMENTO_OBRIGATORIOS = Validations.build(MEIO_PAGAMENTO).notEmpty();
     @Autowired
     private ContaRepository repository;
     @Autowired
@@ -82,12 +86,12 @@ public class ContaService extends AbstractService {
         return gravar( null, request);
     }
     private Integer gravar(Integer id, ContaRequest request){
-        Validations.build(AGENCIA, NUMERO, LEGENDA, BANCO).notEmpty().check(request);
+        CAMPOS_OBRIGATORIOS.check(request);
         if (request.isContaCredito()) {
             if (request.getFatura() == null)
                 throw new RegistroIncompativelException("É necessário informar os campos dia intervalo e dia de vencimento para contas do tipo CRÉDITO");
 
-            Validations.build(DIA_VENCIMENTO, DIAS_INTERVALO).notEmpty().check(request.getFatura());
+            FATURA_OBRIGATORIOS.check(request.getFatura());
         }
         ContaEntity entity = null;
         if (id != null) {
@@ -110,7 +114,10 @@ public class ContaService extends AbstractService {
     }
     @Transactional
     public Integer incluirFormaPagamento(Integer conta, FormaPagamentoCadastroRequest request){
-        Validations.build(CONTA, MEIO_PAGAMENTO).check(request);
+        //a conta vem do caminho, não da requisição
+        if (conta == null)
+            throw new CampoObrigatorioException(CONTA);
+        FORMA_PAGAMENTO_OBRIGATORIOS.check(request);
 
         if(request.getMeioPagamento() == MeioPagamento.COMPENSACAO || request.getMeioPagamento() == MeioPagamento.SALDO){
             throw new RegistroIncompativelException("Este meio de pagamento não pode ser utilizado nesta funcionalidade");
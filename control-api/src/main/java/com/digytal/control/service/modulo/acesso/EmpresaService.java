@@ -9,6 +9,7 @@ import com.digytal.control.infra.security.jwt.JwtCreator;
 import com.digytal.control.infra.security.jwt.JwtObject;
 import com.digytal.control.infra.security.jwt.SecurityConfig;
 import com.digytal.control.infra.utils.Textos;
+import com.digytal.control.integracao.asaas.AsaasCredenciais;
 import com.digytal.control.model.modulo.acesso.empresa.EmpresaEntity;
 import com.digytal.control.model.modulo.acesso.empresa.EmpresaIntegracao;
 import com.digytal.control.model.modulo.acesso.empresa.EmpresaRequest;
@@ -17,15 +18,27 @@ import com.digytal.control.model.comum.EntidadeCadastral;
 import com.digytal.control.model.comum.endereco.Endereco;
 import com.digytal.control.service.comum.CadastroFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.digytal.control.infra.commons.validation.Attributes.*;
 
 @Service
 public class EmpresaService extends CadastroFactory {
+    @Autowired
+    private AsaasCredenciais asaasCredenciais;
+    @Value("${empresa.cabecalho.validade:600000}")
+    private long validadeCabecalho;
+    //cabeçalho dos relatórios por empresa
+    private final Map<Integer, Cabecalho> cabecalhos = new ConcurrentHashMap<>();
     public List<EmpresaSimplificadaResponse> listarUsuarioEmpresas(){
         return empresaRepository.listarEmpresas(requestInfo.getUsuario());
     }
@@ -35,18 +48,21 @@ public class EmpresaService extends CadastroFactory {
         empresaEntity.getIntegracao().setAsaasToken(token);
         empresaEntity.getIntegracao().setContaEmpresa(true);
         empresaRepository.save(empresaEntity);
+        asaasCredenciais.invalidar(empresaEntity.getId());
     }
     @Transactional
     public void alterarAsaasWebhookToken(String webhookToken){
         EmpresaEntity empresaEntity = buscarEntity(requestInfo.getEmpresa());
         empresaEntity.getIntegracao().setAsaasWebhookToken(webhookToken);
         empresaRepository.save(empresaEntity);
+        asaasCredenciais.invalidar(empresaEntity.getId());
     }
     @Transactional
     public void alterarAsaasTaxaBoleto(Double taxaEmissaoBoleto){
         EmpresaEntity empresaEntity = buscarEntity(requestInfo.getEmpresa());
         empresaEntity.getIntegracao().setAsaasTaxaEmissaoBoleto(taxaEmissaoBoleto);
         empresaRepository.save(empresaEntity);
+        asaasCredenciais.invalidar(empresaEntity.getId());
     }
 
     private EmpresaEntity buscarEntity(Integer id){
@@ -98,9 +114,19 @@ public class EmpresaService extends CadastroFactory {
         entity.setCpfCnpj(cpfCnpj);
         entity.setIncompleto(false);
         empresaRepository.save(entity);
+        if(id!=null)
+            invalidarCabecalho(id);
         return entity.getId();
     }
     public String gerarCabecalho(Integer empresa){
+        Cabecalho cabecalho = cabecalhos.get(empresa);
+        if(cabecalho==null || System.currentTimeMillis() - cabecalho.montadoEm > validadeCabecalho){
+            cabecalho = new Cabecalho(montarCabecalho(empresa));
+            cabecalhos.put(empresa, cabecalho);
+        }
+        return cabecalho.texto;
+    }
+    private String montarCabecalho(Integer empresa){
         EmpresaResponse response = buscar(empresa);
         StringBuilder cabecalho = new StringBuilder();
         cabecalho.append(response.getNomeFantasia() + "\n");
@@ -112,4 +138,25 @@ public class EmpresaService extends CadastroFactory {
 
         return cabecalho.toString();
     }
+    //remove já e de novo ao final da transação, para não guardar o valor lido antes do commit
+    private void invalidarCabecalho(Integer empresa){
+        cabecalhos.remove(empresa);
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cabecalhos.remove(empresa);
+                }
+            });
+        }
+    }
+
+    private static final class Cabecalho {
+        private final String texto;
+        private final long montadoEm = System.currentTimeMillis();
+
+        private Cabecalho(String texto) {
+            this.texto = texto;
+        }
+    }
 }
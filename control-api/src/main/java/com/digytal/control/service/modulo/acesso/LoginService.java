@@ -26,6 +26,7 @@ import static com.digytal.control.infra.commons.validation.Attributes.*;
 
 @Service
 public class LoginService {
+    private static final Validations CAMPOS_OBRIGATORIOS = Validations.build(USUARIO, SENHA).notEmpty();
     @Autowired
     private UsuarioRepository repository;
     @Autowired
@@ -35,7 +36,7 @@ public class LoginService {
     private PasswordEncoder encoder;
 
     public SessaoResponse autenticar(LoginRequest login){
-        Validations.build(USUARIO, SENHA).notEmpty().check(login);
+        CAMPOS_OBRIGATORIOS.check(login);
 
         String username = login.getUsuario().toLowerCase();
         UsuarioEntity entity = repository.findByLogin(username);
@@ -70,9 +70,9 @@ public class CadastroService extends CadastroFactory {
         return entity.getId();
     }
     public List<CadastroResponse> consultar(CadastroTipo tipo, String nome){
-        nome = Objects.toString(nome,"").toUpperCase();
+        nome = normalizar(Objects.toString(nome,""));
         CadastroPerfil perfil = definirPerfil(tipo);
-        List<CadastroResponse> response = repository.consultar(requestInfo.getOrganizacao(), perfil.isCliente(), perfil.isFornecedor(), nome).stream().map(this::convert).collect(Collectors.toList());
+        List<CadastroResponse> response = repository.consultar(requestInfo.getOrganizacao(), perfil.isCliente(), perfil.isFornecedor(), nome, LIMITE_BUSCA).stream().map(this::convert).collect(Collectors.toList());
         return response;
     }
     public CadastroResponse buscar(String cpfCnpj){
@@ -30,6 +30,9 @@ import static com.digytal.control.infra.commons.validation.Attributes.*;
 @Service
 @Slf4j
 public class CategoriaService extends AbstractService {
+    private static final Validations VALIDAR_NOME = Validations.build(NOME).notEmpty().minLen(2).maxLen(30);
+    private static final Validations VALIDAR_NOME_ABREVIADO = Validations.build(NOME_ABREVIADO).minLen(2).maxLen(20);
+    private static final Validations VALIDAR_SIGLA = Validations.build(SIGLA).minLen(2).maxLen(6);
     @Autowired
     private CategoriaRepository repository;
     @Autowired
@@ -47,9 +50,9 @@ public class CategoriaService extends AbstractService {
             request.setNomeAbreviado(Definition.seNuloOuVazio(request.getNomeAbreviado(), request.getNome(), 20));
             request.setSigla(Definition.seNuloOuVazio(request.getSigla(), request.getNome(), 6));
 
-            Validations.build(NOME).notEmpty().minLen(2).maxLen(30).check(request);
-            Validations.build(NOME_ABREVIADO).minLen(2).maxLen(20).check(request);
-            Validations.build(SIGLA).minLen(2).maxLen(6).check(request);
+            VALIDAR_NOME.check(request);
+            VALIDAR_NOME_ABREVIADO.check(request);
+            VALIDAR_SIGLA.check(request);
 
             CategoriaEntity entity = Optional.ofNullable(id).isPresent() ? repository.findById(id).
                     orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.CATEGORIA_ENTITY, ID))
@@ -70,7 +73,7 @@ public class CategoriaService extends AbstractService {
     }
     public List<CategoriaResponse> consultar(String nome) {
         nome = normalizar(Objects.toString(nome, ""));
-        List<CategoriaEntity> list = repository.findByOrganizacaoAndLocalizaContaining(requestInfo.getOrganizacao(), nome);
+        List<CategoriaEntity> list = repository.localizar(requestInfo.getOrganizacao(), nome, LIMITE_BUSCA);
         List<CategoriaResponse> response = list.stream().map(this::convert).collect(Collectors.toList());
         if (response.isEmpty()) {
             throw new RegistroNaoLocalizadoException(Entities.CATEGORIA_ENTITY, NOME);
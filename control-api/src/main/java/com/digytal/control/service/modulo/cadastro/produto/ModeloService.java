@@ -29,6 +29,9 @@ import static com.digytal.control.infra.commons.validation.Attributes.*;
 @Service
 @Slf4j
 public class ModeloService extends AbstractService {
+    private static final Validations VALIDAR_NOME = Validations.build(NOME).notEmpty().minLen(2).maxLen(30);
+    private static final Validations VALIDAR_NOME_ABREVIADO = Validations.build(NOME_ABREVIADO).minLen(2).maxLen(20);
+    private static final Validations VALIDAR_SIGLA = Validations.build(SIGLA).minLen(2).maxLen(6);
     @Autowired
     private ModeloRepositoty repository;
     @Autowired
@@ -49,9 +52,9 @@ public class ModeloService extends AbstractService {
             request.setNomeAbreviado(Definition.seNuloOuVazio(request.getNomeAbreviado(), request.getNome(), 20));
             request.setSigla(Definition.seNuloOuVazio(request.getSigla(), request.getNome(), 6));
 
-            Validations.build(NOME).notEmpty().minLen(2).maxLen(30).check(request);
-            Validations.build(NOME_ABREVIADO).minLen(2).maxLen(20).check(request);
-            Validations.build(SIGLA).minLen(2).maxLen(6).check(request);
+            VALIDAR_NOME.check(request);
+            VALIDAR_NOME_ABREVIADO.check(request);
+            VALIDAR_SIGLA.check(request);
 
             ModeloEntity entity = Optional.ofNullable(id).isPresent() ? repository.findById(id)
                     .orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.MODELO_ENTITY, ID))
@@ -74,7 +77,7 @@ public class ModeloService extends AbstractService {
     }
     public List<ModeloResponse> consultar(String nome) {
         nome = normalizar(Objects.toString(nome, ""));
-        List<ModeloEntity> list = repository.findByOrganizacaoAndLocalizaContaining(requestInfo.getOrganizacao(), nome);
+        List<ModeloEntity> list = repository.localizar(requestInfo.getOrganizacao(), nome, LIMITE_BUSCA);
         List<ModeloResponse> response = list.stream().map(this::convert).collect(Collectors.toList());
         if (response.isEmpty()) {
             throw new RegistroNaoLocalizadoException(Entities.MODELO_ENTITY, NOME);
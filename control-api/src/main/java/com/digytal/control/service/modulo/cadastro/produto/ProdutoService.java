@@ -4,6 +4,7 @@ import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
 import com.digytal.control.infra.commons.definition.Definition;
 import com.digytal.control.infra.commons.validation.Entities;
 import com.digytal.control.infra.commons.validation.Validations;
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.infra.utils.Calculos;
 import com.digytal.control.model.comum.Associacao;
 import com.digytal.control.model.consulta.lancamento.PagamentoFiltro;
@@ -32,6 +33,11 @@ import static com.digytal.control.infra.commons.validation.Attributes.*;
 
 @Service
 public class ProdutoService extends AbstractService {
+    private static final Validations CAMPOS_OBRIGATORIOS = Validations.build(NOME, VALOR, UNIDADE_MEDIDA).notEmpty();
+    private static final Validations TAMANHO_NOME = Validations.build(NOME).minLen(2).maxLen(50);
+    private static final Validations TAMANHO_NOME_ABREVIADO = Validations.build(NOME_ABREVIADO).maxLen(25);
+    private static final Validations TAMANHO_DESCRICAO = Validations.build(DESCRICAO).maxLen(150);
+    private static final Validations TAMANHO_CODIGOS = Validations.build(SKU, CODIGO_BARRAS).maxLen(15);
     @Autowired
     private ProdutoRepository repository;
 
@@ -51,7 +57,7 @@ public class ProdutoService extends AbstractService {
 
     @Transactional
     private Integer gravar(Integer id, ProdutoRequest request) {
-        Validations.build(NOME, VALOR, UNIDADE_MEDIDA).notEmpty().check(request);
+        CAMPOS_OBRIGATORIOS.check(request);
 
         request.setNomeAbreviado(Definition.seNuloOuVazio(request.getNomeAbreviado(),request.getNome(),25));
         request.setDescricao(Definition.seNuloOuVazio(request.getDescricao(),request.getNome()));
@@ -59,10 +65,10 @@ public class ProdutoService extends AbstractService {
         request.setSku(Definition.seNulo(request.getSku()));
         request.setTaxaLiquidacao(Calculos.seNuloZera(request.getTaxaLiquidacao()));
 
-        Validations.build(NOME).minLen(2).maxLen(50).check(request);
-        Validations.build(NOME_ABREVIADO).maxLen(25).check(request);
-        Validations.build(DESCRICAO).maxLen(150).check(request);
-        Validations.build(SKU, CODIGO_BARRAS).maxLen(15).check(request);
+        TAMANHO_NOME.check(request);
+        TAMANHO_NOME_ABREVIADO.check(request);
+        TAMANHO_DESCRICAO.check(request);
+        TAMANHO_CODIGOS.check(request);
 
         globalRepository.existsMarca(request.getMarca());
         globalRepository.existsModelo(request.getModelo());
@@ -92,7 +98,7 @@ public class ProdutoService extends AbstractService {
     }
     public List<ProdutoResponse> consultar(String nome) {
         nome = normalizar(Objects.toString(nome, ""));
-        List<ProdutoEntity> list = repository.findByOrganizacaoAndLocalizaContaining(requestInfo.getOrganizacao(), nome);
+        List<ProdutoEntity> list = repository.localizar(requestInfo.getOrganizacao(), nome, LIMITE_BUSCA);
         List<ProdutoResponse> response = list.stream().map(this::convert).collect(Collectors.toList());
         if (response.isEmpty()) {
             throw new RegistroNaoLocalizadoException(Entities.PRODUTO_ENTITY, NOME);
@@ -118,7 +124,9 @@ public class ProdutoService extends AbstractService {
         }).collect(Collectors.toList());
 
     }
-    public List<ProdutoResponse> pesquisar(ProdutoFiltro filtro){
+    public PageRecord<ProdutoResponse> pesquisar(ProdutoFiltro filtro){
+        if (filtro.getNome() != null)
+            filtro.setNome(normalizar(filtro.getNome()));
         return repository.pesquisar(requestInfo.getOrganizacao(), filtro);
     }
 }
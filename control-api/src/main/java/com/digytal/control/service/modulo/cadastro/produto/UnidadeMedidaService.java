@@ -27,6 +27,9 @@ import static com.digytal.control.infra.commons.validation.Attributes.*;
 @Service
 @Slf4j
 public class UnidadeMedidaService extends AbstractService {
+    private static final Validations VALIDAR_SIGLA = Validations.build(SIGLA).notEmpty().maxLen(8);
+    private static final Validations VALIDAR_NOME = Validations.build(NOME).notEmpty().minLen(2).maxLen(25);
+    private static final Validations TAMANHO_DESCRICAO = Validations.build(DESCRICAO).maxLen(100);
     @Autowired
     private UnidadeMedidaRepository repository;
 
@@ -43,9 +46,9 @@ public class UnidadeMedidaService extends AbstractService {
         try {
             request.setDescricao(Definition.seNuloOuVazio(request.getDescricao(), request.getNome(), 25));
 
-            Validations.build(SIGLA).notEmpty().maxLen(8).check(request);
-            Validations.build(NOME).notEmpty().minLen(2).maxLen(25).check(request);
-            Validations.build(DESCRICAO).maxLen(100).check(request);
+            VALIDAR_SIGLA.check(request);
+            VALIDAR_NOME.check(request);
+            TAMANHO_DESCRICAO.check(request);
             UnidadeMedidaEntity entity = Optional.ofNullable(id).isPresent() ? repository.findById(id).orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.UNIDADE_MEDIDA_ENTITY, ID)) : new UnidadeMedidaEntity(requestInfo.getOrganizacao());
             BeanUtils.copyProperties(request, entity);
             entity.setConteudo(Calculos.seNuloOuZero(request.getConteudo(), 1.0));
@@ -62,7 +65,7 @@ public class UnidadeMedidaService extends AbstractService {
     }
     public List<UnidadeMedidaResponse> consultar(String nome) {
         nome = normalizar(Objects.toString(nome, ""));
-        List<UnidadeMedidaEntity> list = repository.findByOrganizacaoAndLocalizaContaining(requestInfo.getOrganizacao(), nome);
+        List<UnidadeMedidaEntity> list = repository.localizar(requestInfo.getOrganizacao(), nome, LIMITE_BUSCA);
         List<UnidadeMedidaResponse> response = list.stream().map(this::convert).collect(Collectors.toList());
         if (response.isEmpty()) {
             throw new RegistroNaoLocalizadoException(Entities.UNIDADE_MEDIDA_ENTITY, NOME);
@@ -4,7 +4,7 @@ import com.digytal.control.infra.business.RegistroIncompativelException;
 import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
 import com.digytal.control.infra.commons.validation.Attributes;
 import com.digytal.control.infra.commons.validation.Entities;
-import com.digytal.control.infra.utils.Calculos;
+import com.digytal.control.infra.utils.Money;
 import com.digytal.control.model.comum.RegistroData;
 import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
 import com.digytal.control.model.modulo.cadastro.produto.ProdutoEntity;
@@ -50,8 +50,9 @@ public abstract class ContratoService extends AbstractService {
         valor.setDescontoItens(calculoItem.getItensTotalDesconto());
         valor.setDescontoManual(request.getValorDescontoManual());
         valor.setAcrescimoPagamento(0.0);
-        valor.setAplicado(Calculos.aplicarEscala(Calculos.ESCALA4, request.getValorAplicado()));
-        valor.setAcrescimoPagamento(request.getFormasPagamento().stream().mapToDouble(p -> Calculos.subtrair(Calculos.ESCALA4, p.getValorPago(), p.getValorOriginal())).sum());
+        valor.setAplicado(Money.of(request.getValorAplicado()).toDouble());
+        valor.setAcrescimoPagamento(request.getFormasPagamento().stream().map(p -> Money.of(p.getValorPago()).subtrair(Money.of(p.getValorOriginal())))
+                .reduce(Money.ZERO, Money::somar).toDouble());
         entity.setValor(valor);
         //conferirValores(valor, calculo.getItensTotalAplicado() );
         processarTransacao(tipo.getAplicacao(), request);
@@ -73,25 +74,36 @@ public abstract class ContratoService extends AbstractService {
 
         ContratoCalculoItem calculo = new ContratoCalculoItem();
 
+        Money totalPrevisto = Money.ZERO;
+        Money totalAplicado = Money.ZERO;
+        Money totalAcrescimo = Money.ZERO;
+        Money totalDesconto = Money.ZERO;
         List<ContratoItemEntity> list = new ArrayList<>();
-        itens.stream().forEach(i->{
+        for (ContratoItemRequest i : itens) {
             ContratoItemEntity item = new ContratoItemEntity();
             item.setDescricao(i.getDescricao());
             item.setProduto(produtoItem(i.getProduto()));
-            item.setQuantidade(Calculos.aplicarEscala(Calculos.ESCALA4,i.getQuantidade()));
-            item.setValorUnitario(Calculos.aplicarEscala(Calculos.ESCALA4,i.getValorUnitario()));
-            item.setValorAplicado(Calculos.aplicarEscala(Calculos.ESCALA4,i.getValorAplicado()));
-            item.setValorPrevisto(Calculos.multiplicar(Calculos.ESCALA4,item.getProduto().getPreco(), i.getQuantidade()) );
-            Double variacao = Calculos.subtrair(Calculos.ESCALA4,item.getValorAplicado(),item.getValorPrevisto());
-            item.setValorVariacao(variacao);
-            calculo.setItensTotalPrevisto(Calculos.somar(Calculos.ESCALA4,calculo.getItensTotalPrevisto(), item.getValorPrevisto()));
-            calculo.setItensTotalAplicado(Calculos.somar(Calculos.ESCALA4,calculo.getItensTotalAplicado(), item.getValorAplicado()));
-            if (Calculos.compararMenorQue(variacao, 0.0))
-                calculo.setItensTotalDesconto(Math.abs(Calculos.somar(Calculos.ESCALA4,calculo.getItensTotalDesconto(), variacao)));
+            Money quantidade = Money.of(i.getQuantidade());
+            Money aplicado = Money.of(i.getValorAplicado());
+            Money previsto = Money.of(item.getProduto().getPreco()).multiplicar(quantidade);
+            Money variacao = aplicado.subtrair(previsto);
+            item.setQuantidade(quantidade.toDouble());
+            item.setValorUnitario(Money.of(i.getValorUnitario()).toDouble());
+            item.setValorAplicado(aplicado.toDouble());
+            item.setValorPrevisto(previsto.toDouble());
+            item.setValorVariacao(variacao.toDouble());
+            totalPrevisto = totalPrevisto.somar(previsto);
+            totalAplicado = totalAplicado.somar(aplicado);
+            if (variacao.isNegativo())
+                totalDesconto = totalDesconto.somar(variacao).abs();
             else
-                calculo.setItensTotalAcrescimo(Calculos.somar(Calculos.ESCALA4,calculo.getItensTotalAcrescimo(), variacao));
+                totalAcrescimo = totalAcrescimo.somar(variacao);
             list.add(item);
-        });
+        }
+        calculo.setItensTotalPrevisto(totalPrevisto.toDouble());
+        calculo.setItensTotalAplicado(totalAplicado.toDouble());
+        calculo.setItensTotalAcrescimo(totalAcrescimo.toDouble());
+        calculo.setItensTotalDesconto(totalDesconto.toDouble());
         calculo.setItens(list);
         return calculo;
     }
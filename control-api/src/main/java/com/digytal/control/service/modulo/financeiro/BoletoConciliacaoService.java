@@ -0,0 +1,196 @@
+package com.digytal.control.service.modulo.financeiro;
+
+import com.digytal.control.infra.utils.TokenBucket;
+import com.digytal.control.integracao.asaas.IntegradorPagamento;
+import com.digytal.control.integracao.asaas.model.BoletoResponse;
+import com.digytal.control.model.modulo.financeiro.parcelamento.boleto.ConciliacaoResumo;
+import com.digytal.control.repository.modulo.fincanceiro.ParcelaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conciliação dos boletos emitidos com a Asaas. Em vez de consultar boleto a boleto, lista de uma vez as
+ * cobranças recebidas de cada empresa no período (respeitando o limite de requisições da empresa) e compensa
+ * só as parcelas pagas, em um pool limitado de threads. Cada parcela é compensada na sua própria transação:
+ * a falha de uma é registrada no resumo e não interrompe as demais. As parcelas do mesmo parcelamento ficam
+ * na mesma tarefa, pois a compensação atualiza o saldo do parcelamento (que também é travado na compensação,
+ * já que o webhook pode compensar outra parcela do mesmo parcelamento ao mesmo tempo). Cada execução registra
+ * no log o seu resumo e os totais acumulados.
+ */
+@Service
+@Slf4j
+public class BoletoConciliacaoService {
+    @Value("${boleto.conciliacao.workers:4}")
+    private int workers;
+    @Value("${boleto.conciliacao.requisicoes-por-segundo:2}")
+    private double requisicoesPorSegundo;
+    @Value("${boleto.conciliacao.rajada:5}")
+    private int rajada;
+    @Autowired
+    private ParcelaRepository parcelaRepository;
+    @Autowired
+    private IntegradorPagamento integrador;
+    @Autowired
+    private BoletoService boletoService;
+
+    private final Map<Integer, TokenBucket> limites = new ConcurrentHashMap<>();
+    private final AtomicLong execucoes = new AtomicLong();
+    private final AtomicLong compensados = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong tempoListagens = new AtomicLong();
+    private volatile ConciliacaoResumo ultimaExecucao;
+
+    public ConciliacaoResumo conciliar(LocalDate dataInicial, LocalDate dataFinal) {
+        long inicio = System.currentTimeMillis();
+        ConciliacaoResumo resumo = new ConciliacaoResumo();
+        resumo.setDataInicial(dataInicial);
+        resumo.setDataFinal(dataFinal);
+        resumo.setInicio(LocalDateTime.now());
+
+        //empresa -> parcelamento -> boletos (parcela, número do boleto, empresa, parcelamento)
+        Map<Integer, Map<Integer, List<Object[]>>> empresas = new LinkedHashMap<>();
+        List<Object[]> boletos = parcelaRepository.listarBoletosConciliacao(dataInicial, dataFinal);
+        for (Object[] boleto : boletos)
+            empresas.computeIfAbsent((Integer) boleto[2], e -> new LinkedHashMap<>())
+                    .computeIfAbsent((Integer) boleto[3], p -> new ArrayList<>()).add(boleto);
+        resumo.setBoletos(boletos.size());
+        resumo.setEmpresas(empresas.size());
+
+        AtomicInteger compensadas = new AtomicInteger();
+        AtomicInteger ignoradas = new AtomicInteger();
+        AtomicInteger falhadas = new AtomicInteger();
+        Queue<String> erros = new ConcurrentLinkedQueue<>();
+        int pendentes = 0;
+        int consultas = 0;
+        ThreadPoolExecutor executor = novoExecutor();
+        try {
+            Map<Integer, Future<Map<String, BoletoResponse>>> recebidos = new LinkedHashMap<>();
+            for (Integer empresa : empresas.keySet())
+                recebidos.put(empresa, executor.submit(() -> listarRecebidos(empresa, dataInicial, dataFinal)));
+
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (Map.Entry<Integer, Map<Integer, List<Object[]>>> empresa : empresas.entrySet()) {
+                Map<String, BoletoResponse> pagos;
+                try {
+                    pagos = recebidos.get(empresa.getKey()).get();
+                    consultas++;
+                } catch (ExecutionException ex) {
+                    int quantidade = empresa.getValue().values().stream().mapToInt(List::size).sum();
+                    falhadas.addAndGet(quantidade);
+                    erros.add(String.format("Empresa %d: %s", empresa.getKey(), ex.getCause().getMessage()));
+                    log.warn("{CONCILIACAO} não foi possível listar os recebimentos da empresa {}: {}", empresa.getKey(), ex.getCause().getMessage());
+                    continue;
+                }
+                for (List<Object[]> parcelamento : empresa.getValue().values()) {
+                    List<Object[]> pagas = new ArrayList<>();
+                    for (Object[] boleto : parcelamento) {
+                        if (pagos.containsKey(boleto[1]))
+                            pagas.add(boleto);
+                        else
+                            pendentes++;
+                    }
+                    if (!pagas.isEmpty())
+                        tarefas.add(executor.submit(() -> compensar(pagas, pagos, compensadas, ignoradas, falhadas, erros)));
+                }
+            }
+            for (Future<?> tarefa : tarefas)
+                tarefa.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            erros.add("Conciliação interrompida");
+        } catch (ExecutionException ex) {
+            //compensar trata as falhas de cada parcela, aqui só chegam erros inesperados
+            erros.add(ex.getCause().toString());
+        } finally {
+            executor.shutdown();
+        }
+
+        resumo.setConsultas(consultas);
+        resumo.setCompensados(compensadas.get());
+        resumo.setIgnorados(ignoradas.get());
+        resumo.setPendentes(pendentes);
+        resumo.setFalhas(falhadas.get());
+        resumo.setErros(new ArrayList<>(erros));
+        resumo.setDuracao(System.currentTimeMillis() - inicio);
+        execucoes.incrementAndGet();
+        compensados.addAndGet(compensadas.get());
+        falhas.addAndGet(falhadas.get());
+        ultimaExecucao = resumo;
+        log.info("{CONCILIACAO} {}. Acumulado: {} execuções, {} compensados, {} falhas, {} ms em listagens na Asaas",
+                resumo, getExecucoes(), getCompensados(), getFalhas(), getTempoListagens());
+        return resumo;
+    }
+    private Map<String, BoletoResponse> listarRecebidos(Integer empresa, LocalDate dataInicial, LocalDate dataFinal) {
+        TokenBucket limite = limites.computeIfAbsent(empresa, e -> new TokenBucket(rajada, requisicoesPorSegundo));
+        long antes = System.nanoTime();
+        List<BoletoResponse> recebidos = integrador.listarRecebidos(empresa, dataInicial, dataFinal, limite);
+        tempoListagens.addAndGet(System.nanoTime() - antes);
+        Map<String, BoletoResponse> porId = new HashMap<>();
+        for (BoletoResponse recebido : recebidos)
+            porId.put(recebido.getId(), recebido);
+        return porId;
+    }
+    private void compensar(List<Object[]> boletos, Map<String, BoletoResponse> pagos, AtomicInteger compensadas,
+                           AtomicInteger ignoradas, AtomicInteger falhadas, Queue<String> erros) {
+        for (Object[] boleto : boletos) {
+            Integer parcela = (Integer) boleto[0];
+            try {
+                if (boletoService.compensarRecebido(parcela, pagos.get(boleto[1])))
+                    compensadas.incrementAndGet();
+                else
+                    ignoradas.incrementAndGet();
+            } catch (RuntimeException ex) {
+                falhadas.incrementAndGet();
+                erros.add(String.format("Parcela %d (boleto %s): %s", parcela, boleto[1], ex.getMessage()));
+                log.warn("{CONCILIACAO} não foi possível compensar a parcela {}: {}", parcela, ex.getMessage());
+            }
+        }
+    }
+    //fila limitada: quando cheia, quem envia executa a tarefa, segurando a leitura em vez de acumular memória
+    private ThreadPoolExecutor novoExecutor() {
+        AtomicInteger numero = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(workers * 4),
+                r -> {
+                    Thread thread = new Thread(r, "conciliacao-boleto-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public long getExecucoes() {
+        return execucoes.get();
+    }
+    public long getCompensados() {
+        return compensados.get();
+    }
+    public long getFalhas() {
+        return falhas.get();
+    }
+    //tempo total das listagens na Asaas, incluindo a espera pelo limite de requisições
+    public long getTempoListagens() {
+        return TimeUnit.NANOSECONDS.toMillis(tempoListagens.get());
+    }
+    public ConciliacaoResumo getUltimaExecucao() {
+        return ultimaExecucao;
+    }
+}
@@ -6,6 +6,7 @@ import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
 import com.digytal.control.infra.commons.validation.Entities;
 import com.digytal.control.infra.commons.validation.Validation;
 import com.digytal.control.infra.utils.Calculos;
+import com.digytal.control.integracao.asaas.AsaasCredencial;
 import com.digytal.control.integracao.asaas.IntegradorPagamento;
 import com.digytal.control.integracao.asaas.model.BoletoRequest;
 import com.digytal.control.integracao.asaas.model.BoletoResponse;
@@ -34,6 +35,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.LocalDate;
 import static com.digytal.control.infra.commons.validation.Attributes.ID;
 import static com.digytal.control.infra.commons.validation.Attributes.NUMERO_AUTORIZACAO;
@@ -73,7 +76,7 @@ public class BoletoService extends AbstractService {
         return gerarBoleto(cadastro, parcela, dataVencimento, valor, empresa);
     }
     private BoletoResponse gerarBoleto(CadastroEntity cadastro, ParcelaEntity parcela, LocalDate dataVencimento, Double valor , Integer empresa){
-        integrador.atualizarCredenciamento(empresa);
+        AsaasCredencial credencial = integrador.obterCredenciamento(empresa);
         ParcelaBoleto boleto = parcela.getBoleto();
         if(boleto.isSolicitado() && boleto.getStatus()==ParcelaBoletoStatus.EMITIDO){
             BoletoResponse response = new BoletoResponse();
@@ -81,9 +84,9 @@ public class BoletoService extends AbstractService {
         }
         parcela.getBoleto().setSolicitado(true);
         parcela.getBoleto().setStatus(ParcelaBoletoStatus.SOLICITADO);
-        parcela.getBoleto().setTipoRepasse(integrador.isContaEmpresa() ? "R" : "P");// Receber / Pagar
+        parcela.getBoleto().setTipoRepasse(credencial.isContaEmpresa() ? "R" : "P");// Receber / Pagar
         parcela.getBoleto().setValorOriginal(valor);
-        parcela.getBoleto().setValorTaxaImpressao(integrador.getTaxaEmissaoBoleto());
+        parcela.getBoleto().setValorTaxaImpressao(credencial.getTaxaEmissaoBoleto());
         parcela.getBoleto().setValorImpresso(Calculos.somar(valor, parcela.getBoleto().getValorTaxaImpressao()));
         parcela.getDetalhe().setDataVencimento(dataVencimento);
 
@@ -122,89 +125,74 @@ public class BoletoService extends AbstractService {
         }
         return response;
     }
+    /**
+     * Confere o token recebido no webhook com o da empresa dona da cobrança, antes de o evento ser aceito.
+     * Retorna false quando a cobrança não pertence a nenhuma parcela.
+     */
     @Transactional
-    public String compensarViaWebhook(String accessToken, PagamentoEvent evento){
+    public boolean validarWebhook(String accessToken, String numeroAutorizacao){
+        Integer empresa = parcelaRepository.buscarEmpresaPorNumeroAutorizacao(numeroAutorizacao);
+        if(empresa==null)
+            return false;
+        String esperado = integrador.obterCredenciamento(empresa).getWebHookAccessToken();
+        if(accessToken==null || !MessageDigest.isEqual(esperado.getBytes(StandardCharsets.UTF_8), accessToken.getBytes(StandardCharsets.UTF_8)))
+            throw new ParametroInvalidoException("Não foi possível validar o token obtido na requisição do pagamento " + numeroAutorizacao);
+        return true;
+    }
+    //o token já foi conferido no recebimento do evento (validarWebhook)
+    @Transactional
+    public String compensarViaWebhook(PagamentoEvent evento){
         if(evento.getEvent().equals("PAYMENT_RECEIVED")){
             log.info("Obtendo um evento de recebimento de pagamento");
-            ParcelaEntity parcelaEntity = parcelaRepository.findByBoletoNumeroAutorizacao(evento.getPayment().getId());
+            ParcelaEntity parcelaEntity = parcelaRepository.travarPorNumeroAutorizacao(evento.getPayment().getId());
             if(parcelaEntity==null)
                 throw new RegistroNaoLocalizadoException(Entities.PARCELA,NUMERO_AUTORIZACAO);
-            return compensar(true, accessToken, parcelaEntity);
+            return compensar(parcelaEntity);
         }
         return "";
     }
     @Transactional
     public String compensar(Integer parcela){
         log.info("Obtendo um evento de recebimento de pagamento");
-        ParcelaEntity parcelaEntity = parcelaRepository.findById(parcela).orElseThrow(()-> new RegistroNaoLocalizadoException(Entities.PARCELA,ID));
-        return compensar(false, null, parcelaEntity);
+        ParcelaEntity parcelaEntity = parcelaRepository.travar(parcela);
+        if(parcelaEntity==null)
+            throw new RegistroNaoLocalizadoException(Entities.PARCELA,ID);
+        return compensar(parcelaEntity);
 
     }
+    /**
+     * Compensa a parcela com a cobrança já consultada em lote pela conciliação, sem nova chamada à Asaas.
+     * A parcela é travada e conferida de novo, pois o webhook pode tê-la compensado nesse meio tempo, e o
+     * parcelamento também, pois o webhook pode estar compensando outra parcela dele.
+     */
     @Transactional
-    public String compensarViaJob(ParcelaEntity parcelaEntity){
-        log.info("Obtendo um evento de recebimento de pagamento");
-        return compensar(false, null, parcelaEntity);
+    public boolean compensarRecebido(Integer parcelaId, BoletoResponse response){
+        ParcelaEntity parcela = parcelaRepository.travar(parcelaId);
+        if(parcela==null || parcela.getQuitacao()==null || parcela.getQuitacao().isEfetuada()
+                || parcela.getBoleto()==null || parcela.getBoleto().getStatus()!=ParcelaBoletoStatus.EMITIDO)
+            return false;
+        ParcelamentoEntity parcelamento = parcelamentoRepository.travar(parcela.getParcelamento());
+        if(parcelamento==null)
+            throw new RegistroNaoLocalizadoException(Entities.PARCELAMENTO, ID);
+        TransacaoEntity transacaoEntity = transacaoRepository.findById(parcelamento.getTransacao()).orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.LANCAMENTO, ID));
+        liquidar(parcela, parcelamento, transacaoEntity, response);
+        return true;
     }
-    private String compensar(boolean webHook, String accessToken, ParcelaEntity parcela){
+    private String compensar(ParcelaEntity parcela){
         String email = "gleyson@digytal.com.br";
         if(parcela.getQuitacao()!=null && !parcela.getQuitacao().isEfetuada()){
 
             if(parcela.getBoleto()!=null && parcela.getBoleto().getStatus() == ParcelaBoletoStatus.EMITIDO ) {
-                ParcelamentoEntity parcelamento = parcelamentoRepository.findById(parcela.getParcelamento()).orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.PARCELAMENTO, ID));
-                TransacaoEntity transacaoEntity = transacaoRepository.findById(parcelamento.getTransacao()).orElse(null);
-                integrador.atualizarCredenciamento(transacaoEntity.getPartes().getEmpresa());
-                email = integrador.getEmail();
-                if (webHook && (integrador.getWebHookAccessToken() != null || integrador.getWebHookAccessToken().trim().length() > 0)) {
-                    if (!integrador.getWebHookAccessToken().equals(accessToken))
-                        throw new ParametroInvalidoException("Não foi possível validar o token obtido na requisição do pagamento " + parcela.getBoleto().getNumeroAutorizacao());
-                }
+                ParcelamentoEntity parcelamento = parcelamentoRepository.travar(parcela.getParcelamento());
+                if(parcelamento==null)
+                    throw new RegistroNaoLocalizadoException(Entities.PARCELAMENTO, ID);
+                TransacaoEntity transacaoEntity = transacaoRepository.findById(parcelamento.getTransacao()).orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.LANCAMENTO, ID));
+                AsaasCredencial credencial = integrador.obterCredenciamento(transacaoEntity.getPartes().getEmpresa());
+                email = credencial.getEmail();
 
                 BoletoResponse response = integrador.obterBoleto(transacaoEntity.getPartes().getEmpresa(), parcela.getBoleto().getNumeroAutorizacao());
-                if (response != null && response.getStatus().equals("RECEIVED")) {
-                    ParcelaBoleto boleto = parcela.getBoleto();
-                    Double valorAmortizado = boleto.getValorOriginal();
-
-                    boleto.setDataCompensacao(response.getPaymentDate());
-                    boleto.setDataPagamento(response.getClientPaymentDate());
-                    boleto.setValorCompensado(response.getNetValue());
-                    boleto.setStatus(ParcelaBoletoStatus.PAGO);
-                    boleto.setTipoCompensacao(response.getBillingType());
-
-                    FormaPagamentoRequest rateio = new FormaPagamentoRequest();
-                    rateio.setMeioPagamento(MeioPagamento.BOLETO);
-                    rateio.setTaxaPagamento(0.0);
-                    rateio.setValorOriginal(valorAmortizado);
-                    rateio.setValorPago(valorAmortizado);
-                    String descricao = String.format("Comp.Aut.Bol Parc.:%d/%d - asaas", parcelamento.getId(), parcela.getId());
-                    pagamentoService.criarPagamentoParcelamento(transacaoEntity.getTipo(), rateio, descricao, parcelamento.getId(), transacaoEntity);
-
-                    //atualiza o valor da parcela o total do parcelamento
-                    parcelamento.getDetalhe().setValorAmortizado(Calculos.somar(parcelamento.getDetalhe().getValorAmortizado(), valorAmortizado));
-                    parcelamento.getDetalhe().setValorAtual(Math.abs(Calculos.subtrair(parcelamento.getDetalhe().getValorAtual(), valorAmortizado)));
-                    parcelamentoRepository.save(parcelamento);
-
-                    parcela.getDetalhe().setValorAmortizado(Calculos.somar(parcela.getDetalhe().getValorAmortizado(), valorAmortizado));
-
-                    parcela.getDetalhe().setValorAtual(Calculos.subtrair(parcela.getDetalhe().getValorAtual(), valorAmortizado));
-                    parcela.getQuitacao().setEfetuada(Calculos.compararIgualZero(parcela.getDetalhe().getValorAtual()));
-                    parcela.getQuitacao().setData(parcela.getQuitacao().isEfetuada() ? LocalDate.now() : null);
-                    parcelaRepository.save(parcela);
-
-                    FormaPagamentoEntity formaPagamento = formaPagamentoRepository.findByEmpresaAndMeioPagamentoAndNumeroParcelas(transacaoEntity.getPartes().getEmpresa(), MeioPagamento.BOLETO, 1);
-                    //etapa de gerar a linha de pagamento
-                    ParcelaPagamentoEntity pagamento = new ParcelaPagamentoEntity();
-                    pagamento.setData(LocalDate.now());
-                    pagamento.setCompetencia(RegistroData.periodo(pagamento.getData()));
-                    pagamento.setContaBanco(formaPagamento.getConta());
-                    pagamento.setParcela(parcela.getId());
-                    pagamento.setParcelamento(parcelamento.getId());
-                    pagamento.setBoletoValorOriginal(boleto.getValorImpresso());
-                    pagamento.setValor(valorAmortizado);
-                    pagamento.setMeioPagamento(MeioPagamento.BOLETO);// COMPENSACAO
-                    pagamento.setUsuario(1);
-                    pagamento.setBoletoNumeroAutorizacao(boleto.getNumeroAutorizacao());
-                    parcelaPagamentoRepository.save(pagamento);
-                }
+                if (response != null && response.getStatus().equals("RECEIVED"))
+                    liquidar(parcela, parcelamento, transacaoEntity, response);
             }
 
         }else{
@@ -215,5 +203,50 @@ public class BoletoService extends AbstractService {
         return email;
         //return String.format("Parc./N°: %d/%d Nosso Número: %s, R$ Valor: %.2f - Status: %s\n", parcela.getId(), parcela.getDetalhe().getNumeroParcela(), response.getNossoNumero(), response.getValue(), response.getStatus());
     }
+    private void liquidar(ParcelaEntity parcela, ParcelamentoEntity parcelamento, TransacaoEntity transacaoEntity, BoletoResponse response){
+        ParcelaBoleto boleto = parcela.getBoleto();
+        Double valorAmortizado = boleto.getValorOriginal();
+
+        boleto.setDataCompensacao(response.getPaymentDate());
+        boleto.setDataPagamento(response.getClientPaymentDate());
+        boleto.setValorCompensado(response.getNetValue());
+        boleto.setStatus(ParcelaBoletoStatus.PAGO);
+        boleto.setTipoCompensacao(response.getBillingType());
+
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(MeioPagamento.BOLETO);
+        rateio.setTaxaPagamento(0.0);
+        rateio.setValorOriginal(valorAmortizado);
+        rateio.setValorPago(valorAmortizado);
+        String descricao = String.format("Comp.Aut.Bol Parc.:%d/%d - asaas", parcelamento.getId(), parcela.getId());
+        pagamentoService.criarPagamentoParcelamento(transacaoEntity.getTipo(), rateio, descricao, parcelamento.getId(), transacaoEntity);
+
+        //atualiza o valor da parcela o total do parcelamento
+        parcelamento.getDetalhe().setValorAmortizado(Calculos.somar(parcelamento.getDetalhe().getValorAmortizado(), valorAmortizado));
+        parcelamento.getDetalhe().setValorAtual(Math.abs(Calculos.subtrair(parcelamento.getDetalhe().getValorAtual(), valorAmortizado)));
+        parcelamentoRepository.save(parcelamento);
+
+        parcela.getDetalhe().setValorAmortizado(Calculos.somar(parcela.getDetalhe().getValorAmortizado(), valorAmortizado));
+
+        parcela.getDetalhe().setValorAtual(Calculos.subtrair(parcela.getDetalhe().getValorAtual(), valorAmortizado));
+        parcela.getQuitacao().setEfetuada(Calculos.compararIgualZero(parcela.getDetalhe().getValorAtual()));
+        parcela.getQuitacao().setData(parcela.getQuitacao().isEfetuada() ? LocalDate.now() : null);
+        parcelaRepository.save(parcela);
+
+        FormaPagamentoEntity formaPagamento = formaPagamentoRepository.findByEmpresaAndMeioPagamentoAndNumeroParcelas(transacaoEntity.getPartes().getEmpresa(), MeioPagamento.BOLETO, 1);
+        //etapa de gerar a linha de pagamento
+        ParcelaPagamentoEntity pagamento = new ParcelaPagamentoEntity();
+        pagamento.setData(LocalDate.now());
+        pagamento.setCompetencia(RegistroData.periodo(pagamento.getData()));
+        pagamento.setContaBanco(formaPagamento.getConta());
+        pagamento.setParcela(parcela.getId());
+        pagamento.setParcelamento(parcelamento.getId());
+        pagamento.setBoletoValorOriginal(boleto.getValorImpresso());
+        pagamento.setValor(valorAmortizado);
+        pagamento.setMeioPagamento(MeioPagamento.BOLETO);// COMPENSACAO
+        pagamento.setUsuario(1);
+        pagamento.setBoletoNumeroAutorizacao(boleto.getNumeroAutorizacao());
+        parcelaPagamentoRepository.save(pagamento);
+    }
 
 }
@@ -0,0 +1,63 @@
+package com.digytal.control.service.modulo.financeiro;
+
+import com.digytal.control.model.modulo.financeiro.conta.ContaMovimentoEntity;
+import com.digytal.control.model.modulo.financeiro.pagamento.PagamentoEntity;
+import com.digytal.control.repository.modulo.acesso.empresa.ContaRepository;
+import com.digytal.control.repository.modulo.fincanceiro.ContaMovimentoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.ContaSaldoRepository;
+import com.digytal.control.service.comum.AbstractService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Service
+@Slf4j
+public class ContaMovimentoService extends AbstractService {
+    @Autowired
+    private ContaMovimentoRepository repository;
+    @Autowired
+    private ContaSaldoRepository saldoRepository;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Registra o movimento já aplicado ao saldo da conta (ContaRepository.movimentarSaldo), junto com o saldo resultante.
+     * O dia é o da transação; os fechamentos a partir dele recebem o valor, inclusive o do próprio dia quando já fechado.
+     * Quem chama já travou a linha da conta ao movimentar o saldo, o que o serializa com o fechamento da mesma conta.
+     */
+    public void registrar(PagamentoEntity pagamento, Double saldo, LocalDate dia){
+        ContaMovimentoEntity entity = new ContaMovimentoEntity();
+        entity.setConta(pagamento.getConta());
+        entity.setPagamento(pagamento.getId());
+        entity.setDataHora(LocalDateTime.now());
+        entity.setDia(dia);
+        entity.setDescricao(pagamento.getDescricao());
+        entity.setValor(pagamento.getValor().getValorOperacional());
+        entity.setSaldo(saldo);
+        repository.save(entity);
+        saldoRepository.ajustarSaldos(entity.getConta(), dia, entity.getValor());
+    }
+    /**
+     * Fecha o saldo do dia conta a conta, cada uma em uma transação própria com a linha da conta travada
+     * (ContaRepository.travarSaldo): um lançamento em andamento na conta termina antes do fechamento, e os seguintes
+     * esperam por ele e ajustam o dia já fechado. Nenhum movimento fica fora do saldo fechado.
+     */
+    public int fecharSaldos(LocalDate dia){
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        int contas = 0;
+        for (Integer conta : contaRepository.listarIds())
+            contas += transacao.execute(status -> {
+                contaRepository.travarSaldo(conta);
+                return saldoRepository.fecharSaldo(conta, dia);
+            });
+        log.info("Saldos das contas fechados em {}: {} contas com movimento", dia, contas);
+        return contas;
+    }
+}
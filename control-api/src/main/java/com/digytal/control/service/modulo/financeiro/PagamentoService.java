@@ -1,10 +1,11 @@
 package com.digytal.control.service.modulo.financeiro;
 import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
 import com.digytal.control.infra.business.SaldoInsuficienteException;
+import com.digytal.control.infra.commons.validation.Attributes;
 import com.digytal.control.infra.commons.validation.Entities;
+import com.digytal.control.infra.utils.Money;
 import com.digytal.control.model.comum.MeioPagamento;
 import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
-import com.digytal.control.model.modulo.acesso.empresa.conta.ContaEntity;
 import com.digytal.control.model.modulo.acesso.empresa.pagamento.FormaPagamentoEntity;
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoValor;
@@ -16,8 +17,20 @@ import com.digytal.control.service.comum.AbstractService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import static com.digytal.control.infra.commons.validation.Attributes.ID;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 @Service
 @Slf4j
@@ -26,38 +39,107 @@ public class PagamentoService extends AbstractService {
     private ContaRepository contaRepository;
     @Autowired
     private PagamentoRepository repository;
+    @Autowired
+    private ContaMovimentoService movimentoService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Transactional
     public void criarPagamentoParcelamento(AplicacaoTipo tipo, FormaPagamentoRequest rateio, String descricao, Integer parcelamento, TransacaoEntity transacao){
-        PagamentoEntity entity = criarPagamento(tipo, transacao.getPartes().getCadastro(), rateio, descricao, transacao.getPartes().getEmpresa());
+        PagamentoEntity entity = novoPagamento(tipo, transacao.getPartes().getCadastro(), rateio, descricao);
         entity.setParcelamento(parcelamento);
         entity.setTransacao(transacao.getId());
-        repository.save(entity);
+        gravarPagamento(tipo, entity, transacao.getPartes().getEmpresa(), transacao.getData().getDia());
     }
-    private void gravarPagamento(AplicacaoTipo tipo, Integer cadastro, FormaPagamentoRequest rateio, String descricao,Integer empresa){
-        PagamentoEntity pagamento = criarPagamento(tipo,cadastro, rateio, descricao,empresa);
-        repository.save(pagamento);
+    @Transactional
+    public PagamentoEntity criarPagamento(AplicacaoTipo tipo, Integer cadastro, FormaPagamentoRequest rateio, String descricao,Integer empresa, LocalDate dia){
+        PagamentoEntity entity = novoPagamento(tipo, cadastro, rateio, descricao);
+        gravarPagamento(tipo, entity, empresa, dia);
+        return  entity;
     }
-    public PagamentoEntity criarPagamento(AplicacaoTipo tipo, Integer cadastro, FormaPagamentoRequest rateio, String descricao,Integer empresa){
-        Double valor = rateio.getValorPago();
-        MeioPagamento meioPagamento = rateio.getMeioPagamento();
+    PagamentoEntity novoPagamento(AplicacaoTipo tipo, Integer cadastro, FormaPagamentoRequest rateio, String descricao){
         PagamentoEntity entity = new PagamentoEntity();
         entity.setDescricao(descricao);
-        entity.setMeioPagamento(meioPagamento);
-        atualizarSaldoConta(tipo, meioPagamento, valor, entity, empresa);
+        entity.setMeioPagamento(rateio.getMeioPagamento());
+        entity.setValor(TransacaoValor.of(tipo, rateio.getValorPago()));
         entity.setCadastro(cadastro);
-        return  entity;
+        return entity;
     }
-    private void atualizarSaldoConta(AplicacaoTipo tipo, MeioPagamento meioPagamento, Double valor, PagamentoEntity entity, Integer empresa){
-        FormaPagamentoEntity formaPagamento = consultarFormaPagamento(empresa, meioPagamento);
-
-        ContaEntity conta = contaRepository.findById(formaPagamento.getConta()).orElseThrow(()-> new RegistroNaoLocalizadoException(Entities.EMPRESA_CONTA_ENTITY, ID));
-        if(tipo == AplicacaoTipo.DESPESA &&  valor > conta.getSaldo())
+    private void gravarPagamento(AplicacaoTipo tipo, PagamentoEntity entity, Integer empresa, LocalDate dia){
+        Double saldo = atualizarSaldoConta(entity, empresa);
+        repository.save(entity);
+        movimentoService.registrar(entity, saldo, dia);
+        repository.acumularResumoDiario(empresa, dia, tipo, entity.getMeioPagamento(), entity.getConta(), entity.getValor().getValorInformado(), 1);
+    }
+    /**
+     * Contabiliza pagamentos já persistidos em grupo (importação em lote, compensação de várias parcelas):
+     * um UPDATE de saldo por conta e um acúmulo por chave do resumo diário, em vez de um por pagamento.
+     * O saldo é conferido movimento a movimento, na ordem da lista, com a conta travada: um débito que
+     * deixaria o saldo negativo naquele ponto é recusado, como no lançamento individual, mesmo que um
+     * crédito posterior cubra a diferença. A conta de cada pagamento já deve estar definida; a transação
+     * de origem fornece tipo, empresa e dia. As contas são travadas em ordem de id, a mesma em qualquer lote:
+     * lotes simultâneos com as mesmas contas em ordem diferente esperam um pelo outro em vez de cair em deadlock.
+     */
+    @Transactional
+    public void contabilizarPagamentos(List<PagamentoEntity> pagamentos, Function<PagamentoEntity, TransacaoEntity> origem){
+        Map<Integer, List<PagamentoEntity>> contas = new TreeMap<>();
+        Map<List<Object>, Money> resumos = new LinkedHashMap<>();
+        Map<List<Object>, Integer> quantidades = new HashMap<>();
+        for (PagamentoEntity pagamento : pagamentos) {
+            TransacaoEntity transacao = origem.apply(pagamento);
+            contas.computeIfAbsent(pagamento.getConta(), c -> new ArrayList<>()).add(pagamento);
+            List<Object> chave = Arrays.asList(transacao.getPartes().getEmpresa(), transacao.getData().getDia(), transacao.getTipo(), pagamento.getMeioPagamento(), pagamento.getConta());
+            resumos.merge(chave, Money.of(pagamento.getValor().getValorInformado()), Money::somar);
+            quantidades.merge(chave, 1, Integer::sum);
+        }
+        for (Map.Entry<Integer, List<PagamentoEntity>> conta : contas.entrySet()) {
+            Double saldoAtual = contaRepository.travarSaldo(conta.getKey());
+            if(saldoAtual==null)
+                throw new RegistroNaoLocalizadoException(Entities.EMPRESA_CONTA_ENTITY, Attributes.ID);
+            Money saldo = Money.of(saldoAtual);
+            List<Money> saldos = new ArrayList<>(conta.getValue().size());
+            for (PagamentoEntity pagamento : conta.getValue()) {
+                Money valor = Money.of(pagamento.getValor().getValorOperacional());
+                saldo = saldo.somar(valor);
+                if(valor.isNegativo() && saldo.isNegativo())
+                    throw new SaldoInsuficienteException();
+                saldos.add(saldo);
+            }
+            Double saldoFinal = contaRepository.movimentarSaldo(conta.getKey(), saldo.subtrair(Money.of(saldoAtual)).toDouble());
+            if(saldoFinal==null)
+                throw new SaldoInsuficienteException();
+            for (int i = 0; i < saldos.size(); i++) {
+                PagamentoEntity pagamento = conta.getValue().get(i);
+                movimentoService.registrar(pagamento, saldos.get(i).toDouble(), origem.apply(pagamento).getData().getDia());
+            }
+        }
+        resumos.forEach((chave, valor) -> repository.acumularResumoDiario((Integer) chave.get(0), (LocalDate) chave.get(1),
+                (AplicacaoTipo) chave.get(2), (MeioPagamento) chave.get(3), (Integer) chave.get(4), valor.toDouble(), quantidades.get(chave)));
+    }
+    /**
+     * Recalcula o resumo diário do período a partir dos pagamentos, corrigindo divergências e servindo de carga para períodos antigos.
+     * Cada empresa/dia é recalculado em uma transação própria, com a trava consultiva daquele dia: os lançamentos
+     * dos demais dias e empresas seguem sem espera.
+     */
+    public int reconstruirResumoDiario(LocalDate diaInicial, LocalDate diaFinal){
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        int dias = 0;
+        int registros = 0;
+        for (Object[] dia : repository.listarDiasResumo(diaInicial, diaFinal)) {
+            Integer empresa = ((Number) dia[0]).intValue();
+            LocalDate data = ((Date) dia[1]).toLocalDate();
+            registros += transacao.execute(status -> repository.reconstruirResumoDiario(empresa, data));
+            dias++;
+        }
+        log.info("Resumo diário de pagamentos reconstruído entre {} e {}: {} dias, {} registros", diaInicial, diaFinal, dias, registros);
+        return registros;
+    }
+    private Double atualizarSaldoConta(PagamentoEntity entity, Integer empresa){
+        FormaPagamentoEntity formaPagamento = consultarFormaPagamento(empresa, entity.getMeioPagamento());
+        entity.setConta(formaPagamento.getConta());
+        Double saldo = contaRepository.movimentarSaldo(formaPagamento.getConta(), entity.getValor().getValorOperacional());
+        if(saldo==null)
             throw new SaldoInsuficienteException();
-
-        entity.setValor(TransacaoValor.of(tipo, valor));
-        entity.setConta(conta.getId());
-        conta.setSaldo(conta.getSaldo() + entity.getValor().getValorOperacional());
-
-        contaRepository.save(conta);
+        return saldo;
     }
 
 }
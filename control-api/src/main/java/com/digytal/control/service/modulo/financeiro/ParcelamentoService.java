@@ -1,10 +1,12 @@
 package com.digytal.control.service.modulo.financeiro;
 
+import com.digytal.control.infra.business.CampoObrigatorioException;
 import com.digytal.control.infra.business.RegistroIncompativelException;
 import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
 import com.digytal.control.infra.commons.validation.Entities;
 import com.digytal.control.infra.commons.validation.Validation;
 import com.digytal.control.infra.utils.Calculos;
+import com.digytal.control.infra.utils.Money;
 import com.digytal.control.model.comum.MeioPagamento;
 import com.digytal.control.model.comum.RegistroData;
 import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
@@ -12,25 +14,33 @@ import com.digytal.control.model.modulo.acesso.empresa.pagamento.FormaPagamentoE
 import com.digytal.control.model.modulo.financeiro.parcelamento.ParcelamentoEntity;
 import com.digytal.control.model.modulo.financeiro.parcelamento.ParcelamentoDetalhe;
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
+import com.digytal.control.model.modulo.financeiro.pagamento.PagamentoEntity;
+import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.liquidacao.ParcelaCompensacaoRequest;
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.liquidacao.ParcelaPagamentoEntity;
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.liquidacao.ParcelaPagamentoRequest;
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
 import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaParcelamentoRequest;
 import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
 import com.digytal.control.repository.modulo.acesso.empresa.FormaPagamentoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.PagamentoRepository;
 import com.digytal.control.repository.modulo.fincanceiro.ParcelaPagamentoRepository;
 import com.digytal.control.repository.modulo.fincanceiro.ParcelaRepository;
 import com.digytal.control.repository.modulo.fincanceiro.ParcelamentoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.TransacaoRepository;
 import com.digytal.control.service.comum.AbstractService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.digytal.control.infra.commons.validation.Attributes.ID;
 import static com.digytal.control.infra.utils.Calculos.ESCALA2;
@@ -46,11 +56,15 @@ public class ParcelamentoService extends AbstractService {
 
     @Autowired
     private ParcelaRepository parcelaRepository;
-    public ParcelamentoEntity criarParcelamento(AplicacaoTipo tipo, Integer cadastro, FormaPagamentoRequest rateio, String descricao) {
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+    public ParcelamentoEntity criarParcelamento(AplicacaoTipo tipo, Integer cadastro, FormaPagamentoRequest rateio, String descricao, Integer empresa) {
         ParcelamentoEntity entity = new ParcelamentoEntity();
         entity.setDescricao(descricao);
         MeioPagamento meioPagamento = rateio.getMeioPagamento();
-        FormaPagamentoEntity formaPagamento = formaPagamentoRepository.findByEmpresaAndMeioPagamentoAndNumeroParcelas(requestInfo.getEmpresa(),meioPagamento,1);
+        FormaPagamentoEntity formaPagamento = formaPagamentoRepository.findByEmpresaAndMeioPagamentoAndNumeroParcelas(empresa,meioPagamento,1);
         if(formaPagamento==null)
             throw new RegistroIncompativelException("O meio de pagamento " + meioPagamento.getDescricao() + " não se encontra vinculado a nenhuma conta empresa");
 
@@ -71,9 +85,9 @@ public class ParcelamentoService extends AbstractService {
         return  parcelamento;
     }
     private List<ParcelaEntity> parcelar(Double valor, FormaParcelamentoRequest parcelamento){
-        BigDecimal valorReal= BigDecimal.valueOf(valor);
         Integer numeroParcelas = parcelamento.getNumeroParcelas();
-        BigDecimal valorParcela = valorReal.divide(BigDecimal.valueOf(numeroParcelas),4, RoundingMode.HALF_EVEN);
+        //a diferença do arredondamento fica na última parcela
+        List<Money> valores = Money.of(valor).parcelar(numeroParcelas);
         List<ParcelaEntity> parcelas = new ArrayList<>();
 
         Integer diaVencimento = parcelamento.getDataPrimeiroVencimento().getDayOfMonth();
@@ -90,13 +104,7 @@ public class ParcelamentoService extends AbstractService {
             ParcelamentoDetalhe parcelamentoValor = parcela.getDetalhe();
             parcelamentoValor.setDataVencimento(dataVencimento);
             parcelamentoValor.setNumeroParcela(p);
-
-            if(p<numeroParcelas){
-                valorReal = valorReal.subtract(Calculos.aplicarEscala(valorParcela));
-                parcelamentoValor.setValorOriginal(Calculos.aplicarEscala(valorParcela).doubleValue());
-            }else
-                parcelamentoValor.setValorOriginal(Calculos.aplicarEscala(valorReal).doubleValue());
-
+            parcelamentoValor.setValorOriginal(valores.get(p - 1).toDouble());
             parcelamentoValor.setValorAtual(parcelamentoValor.getValorOriginal());
 
             parcelas.add(parcela);
@@ -114,46 +122,95 @@ public class ParcelamentoService extends AbstractService {
     }
     @Transactional
     public void realizarCompensacao(Integer id, List<ParcelaPagamentoRequest> requests){
-        for(ParcelaPagamentoRequest request: requests){
-            ParcelaPagamentoRequest pagamento = new ParcelaPagamentoRequest();
-            pagamento.setMeioPagamento(request.getMeioPagamento());
-            pagamento.setValor(request.getValor());
+        realizarCompensacao(requests.stream().map(r -> ParcelaCompensacaoRequest.of(id, r)).collect(Collectors.toList()));
+    }
+    /**
+     * Compensa várias parcelas em uma única transação: parcelas, parcelamentos e transações são lidos em poucas
+     * consultas (IN), os registros alterados são gravados em lote e o saldo de cada conta é ajustado uma única vez.
+     * Pagamentos da mesma parcela são aplicados na ordem informada. O lote inteiro é conferido antes da primeira
+     * amortização: parcela, parcelamento ou transação inexistente (ou de outra empresa) recusa o lote todo.
+     * Parcelas e depois parcelamentos são travados em ordem de id, como no BoletoService.compensar (parcela antes do
+     * parcelamento), e a quitação é conferida já com a trava: um webhook ou conciliação simultâneo não quita duas vezes.
+     */
+    @Transactional
+    public void realizarCompensacao(List<ParcelaCompensacaoRequest> requests){
+        for(ParcelaCompensacaoRequest request: requests){
+            if(request.getParcela() == null)
+                throw new CampoObrigatorioException("Parcela");
+            if(request.getMeioPagamento() == null)
+                throw new CampoObrigatorioException("Meio de Pagamento");
+            if(request.getValor() == null)
+                throw new CampoObrigatorioException("Valor");
             if(request.getMeioPagamento() == MeioPagamento.CREDITO)
                 throw new RegistroIncompativelException("Não é permitido pagar uma parcela com a forma de pagamento CREDITO");
-
-            realizarCompensacao(id,pagamento,pagamento.getMeioPagamento());
+            if(!request.getMeioPagamento().isInstantaneo())
+                throw new RegistroIncompativelException("O Meio de Pagamento selecionado não pode ser utilizado para a confirmação do pagamento");
+            if(Calculos.compararMenorQueZero(request.getValor()))
+                throw new RegistroIncompativelException("O valor recebido não pode ser negativo");
+        }
+        Map<Integer, ParcelaEntity> parcelas = parcelaRepository.travar(requests.stream().map(ParcelaCompensacaoRequest::getParcela).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(ParcelaEntity::getId, Function.identity()));
+        Map<Integer, ParcelamentoEntity> parcelamentos = parcelamentoRepository.travar(parcelas.values().stream().map(ParcelaEntity::getParcelamento).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(ParcelamentoEntity::getId, Function.identity()));
+        Map<Integer, TransacaoEntity> transacoes = transacaoRepository.findAllById(parcelamentos.values().stream().map(ParcelamentoEntity::getTransacao).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(TransacaoEntity::getId, Function.identity()));
+        for(ParcelaCompensacaoRequest request: requests){
+            ParcelaEntity parcela = parcelas.get(request.getParcela());
+            if(parcela==null)
+                throw new RegistroNaoLocalizadoException(Entities.PARCELA, ID);
+            if(parcela.getQuitacao().isEfetuada())
+                throw new RegistroIncompativelException("Esta parcela já está com status quitada, N° " + parcela.getDetalhe().getNumeroParcela());
+            ParcelamentoEntity parcelamento = parcelamentos.get(parcela.getParcelamento());
+            if(parcelamento==null)
+                throw new RegistroNaoLocalizadoException(Entities.LANCAMENTO, ID);
+            TransacaoEntity transacao = transacoes.get(parcelamento.getTransacao());
+            if(transacao==null || !Objects.equals(transacao.getPartes().getEmpresa(), requestInfo.getEmpresa()))
+                throw new RegistroNaoLocalizadoException(Entities.LANCAMENTO, ID);
+        }
+        Map<List<Object>, FormaPagamentoEntity> formas = new HashMap<>();
+
+        List<ParcelaPagamentoEntity> liquidacoes = new ArrayList<>();
+        List<PagamentoEntity> pagamentos = new ArrayList<>();
+        for(ParcelaCompensacaoRequest request: requests){
+            ParcelaEntity parcela = parcelas.get(request.getParcela());
+            ParcelamentoEntity parcelamento = parcelamentos.get(parcela.getParcelamento());
+            TransacaoEntity transacao = transacoes.get(parcelamento.getTransacao());
+            FormaPagamentoEntity formaPagamento = formas.computeIfAbsent(Arrays.asList(transacao.getPartes().getEmpresa(), request.getMeioPagamento()),
+                    k -> consultarFormaPagamento(transacao.getPartes().getEmpresa(), request.getMeioPagamento()));
+
+            liquidacoes.add(amortizar(parcela, parcelamento, request, formaPagamento));
+
+            FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+            rateio.setTaxaPagamento(0.0);
+            rateio.setValorPago(request.getValor());
+            rateio.setValorOriginal(request.getValor());
+            rateio.setMeioPagamento(request.getMeioPagamento());
+
+            String descricao = String.format("%s Prct/Prcl %d/%d", (transacao.getTipo() == AplicacaoTipo.DESPESA?"Pagto.":"Recto."), parcelamento.getId(), parcela.getDetalhe().getNumeroParcela());
+            PagamentoEntity pagamento = pagamentoService.novoPagamento(transacao.getTipo(), transacao.getPartes().getCadastro(), rateio, descricao);
+            pagamento.setParcelamento(parcelamento.getId());
+            pagamento.setTransacao(transacao.getId());
+            pagamento.setConta(formaPagamento.getConta());
+            pagamentos.add(pagamento);
         }
+        parcelaPagamentoRepository.saveAll(liquidacoes);
+        parcelamentoRepository.saveAll(parcelamentos.values());
+        parcelaRepository.saveAll(parcelas.values());
+        pagamentoRepository.saveAll(pagamentos);
+        pagamentoService.contabilizarPagamentos(pagamentos, p -> transacoes.get(p.getTransacao()));
     }
     @Autowired
     private PagamentoService pagamentoService;
-    private void realizarCompensacao(Integer id, ParcelaPagamentoRequest request, MeioPagamento meioPagamento){
-
-        if(!meioPagamento.isInstantaneo())
-            throw new RegistroIncompativelException("O Meio de Pagamento selecionado não pode ser utilizado para a confirmação do pagamento");
-
-
-        ParcelaEntity parcela = parcelaRepository.findById(id)
-                .orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.PARCELA, ID));
-
-        ParcelamentoEntity parcelamento = parcelamentoRepository.findById(parcela.getParcelamento())
-                .orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.LANCAMENTO, ID));
-
-
-        TransacaoEntity transacao = globalRepository.findById(TransacaoEntity.class, parcelamento.getTransacao());
-        FormaPagamentoEntity formaPagamento = consultarFormaPagamento(transacao.getPartes().getEmpresa(), meioPagamento);
-
+    private ParcelaPagamentoEntity amortizar(ParcelaEntity parcela, ParcelamentoEntity parcelamento, ParcelaPagamentoRequest request, FormaPagamentoEntity formaPagamento){
         if(parcelamento.getMeioPagamento()== MeioPagamento.CREDITO)
             throw new RegistroIncompativelException("Não é permitida a compensão manual de parcela de Cartão de Crédito");
 
         if(parcela.getQuitacao().isEfetuada())
             throw new RegistroIncompativelException("Esta parcela já está com status quitada, N° " + parcela.getDetalhe().getNumeroParcela());
 
-        if(Calculos.compararMenorQueZero(request.getValor()))
-            throw new RegistroIncompativelException("O valor recebido não pode ser negativo");
+        Money valor = Money.of(request.getValor()).arredondar(ESCALA2);
 
-        Double valor = Calculos.aplicarEscala(request.getValor());
-
-        if(Calculos.compararMenorQue(parcela.getDetalhe().getValorAtual(), valor))
+        if(Money.of(parcela.getDetalhe().getValorAtual()).menorQue(valor))
             throw new RegistroIncompativelException("O valor recebido precisa ser igual ou inferior ao valor atual");
 
         //etapa de gerar a linha de pagamento
@@ -162,35 +219,22 @@ public class ParcelamentoService extends AbstractService {
         pagamento.setCompetencia(RegistroData.periodo(pagamento.getData()));
         pagamento.setContaBanco(formaPagamento.getConta());
 
-        pagamento.setParcela(id);
+        pagamento.setParcela(parcela.getId());
         pagamento.setParcelamento(parcelamento.getId());
-        pagamento.setValor(valor);
+        pagamento.setValor(valor.toDouble());
         pagamento.setMeioPagamento(request.getMeioPagamento());
         pagamento.setUsuario(requestInfo.getUsuario());
-        parcelaPagamentoRepository.save(pagamento);
 
         //atualiza o valor da parcela o total do parcelamento
-        parcelamento.getDetalhe().setValorAmortizado( Calculos.somar(ESCALA2, parcelamento.getDetalhe().getValorAmortizado(), valor ));
-        parcelamento.getDetalhe().setValorAtual(Math.abs(Calculos.subtrair(ESCALA2, parcelamento.getDetalhe().getValorAtual(), valor)));
-        parcelamentoRepository.save(parcelamento);
+        parcelamento.getDetalhe().setValorAmortizado(Money.of(parcelamento.getDetalhe().getValorAmortizado()).somar(valor).arredondar(ESCALA2).toDouble());
+        parcelamento.getDetalhe().setValorAtual(Money.of(parcelamento.getDetalhe().getValorAtual()).subtrair(valor).arredondar(ESCALA2).abs().toDouble());
 
-        parcela.getDetalhe().setValorAmortizado( Calculos.somar(ESCALA2, parcela.getDetalhe().getValorAmortizado(), valor));
-        parcela.getDetalhe().setValorAtual(Math.abs( Calculos.subtrair(ESCALA2, parcela.getDetalhe().getValorAtual(), valor)));
+        parcela.getDetalhe().setValorAmortizado(Money.of(parcela.getDetalhe().getValorAmortizado()).somar(valor).arredondar(ESCALA2).toDouble());
+        parcela.getDetalhe().setValorAtual(Money.of(parcela.getDetalhe().getValorAtual()).subtrair(valor).arredondar(ESCALA2).abs().toDouble());
 
         parcela.getQuitacao().setEfetuada(Validation.isZero(parcela.getDetalhe().getValorAtual()));
         parcela.getQuitacao().setData(parcela.getQuitacao().isEfetuada()?LocalDate.now():null);
-        parcelaRepository.save(parcela);
-
-
-        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
-        rateio.setTaxaPagamento(0.0);
-        rateio.setValorPago(request.getValor());
-        rateio.setValorOriginal(request.getValor());
-        rateio.setMeioPagamento(request.getMeioPagamento());
-
-        String descricao = String.format("%s Prct/Prcl %d/%d", (transacao.getTipo() == AplicacaoTipo.DESPESA?"Pagto.":"Recto."), parcelamento.getId(), parcela.getDetalhe().getNumeroParcela());
-        pagamentoService.criarPagamentoParcelamento(transacao.getTipo(), rateio, descricao,parcelamento.getId(), transacao);
-
+        return pagamento;
     }
 
-}
\ No newline at end of file
+}
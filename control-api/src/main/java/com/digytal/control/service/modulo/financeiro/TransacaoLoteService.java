@@ -0,0 +1,253 @@
+package com.digytal.control.service.modulo.financeiro;
+
+import com.digytal.control.infra.business.BusinessException;
+import com.digytal.control.infra.business.RegistroIncompativelException;
+import com.digytal.control.infra.commons.definition.Definition;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.Participante;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.acesso.empresa.pagamento.FormaPagamentoEntity;
+import com.digytal.control.model.modulo.financeiro.pagamento.PagamentoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.lote.TransacaoLoteItem;
+import com.digytal.control.model.modulo.financeiro.transacao.lote.TransacaoLoteResponse;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.repository.modulo.acesso.empresa.AplicacaoRepository;
+import com.digytal.control.repository.modulo.acesso.empresa.FormaPagamentoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.TransacaoRepository;
+import com.digytal.control.service.comum.AbstractService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de lançamentos em lote. As linhas são lidas em blocos de tamanho fixo; cada bloco é validado em paralelo
+ * e gravado em uma única transação, com insert em lote e um ajuste de saldo por conta. Se o bloco falhar na gravação
+ * (ex.: saldo insuficiente), suas linhas são reprocessadas uma a uma pelo {@link TransacaoService#incluir} para
+ * identificar quais foram rejeitadas.
+ */
+@Service
+@Slf4j
+public class TransacaoLoteService extends AbstractService {
+    @Value("${financeiro.lote.tamanho-bloco:500}")
+    private int tamanhoBloco;
+    @Value("${financeiro.lote.limite-linhas:100000}")
+    private int limiteLinhas;
+    @Autowired
+    private TransacaoRepository repository;
+    @Autowired
+    private TransacaoService transacaoService;
+    @Autowired
+    private PagamentoService pagamentoService;
+    @Autowired
+    private ParcelamentoService parcelamentoService;
+    @Autowired
+    private AplicacaoRepository aplicacaoRepository;
+    @Autowired
+    private FormaPagamentoRepository formaPagamentoRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TransacaoLoteResponse importar(AplicacaoTipo tipo, Iterator<TransacaoRequest> requests){
+        Lote lote = new Lote(tipo);
+        TransacaoLoteResponse response = new TransacaoLoteResponse();
+        List<Linha> bloco = new ArrayList<>(tamanhoBloco);
+        int numero = 0;
+        long inicio = System.currentTimeMillis();
+        while (true) {
+            Linha linha = new Linha(++numero);
+            try {
+                if (!requests.hasNext())
+                    break;
+                if (numero > limiteLinhas) {
+                    linha.erro = String.format("O lote ultrapassou o limite de %d linhas, as demais não foram lidas", limiteLinhas);
+                    bloco.add(linha);
+                    break;
+                }
+                linha.request = requests.next();
+            } catch (BusinessException ex) {
+                linha.erro = ex.getMessage();
+            } catch (RuntimeException ex) {
+                //conteúdo malformado, não há como sincronizar a leitura das linhas seguintes
+                linha.erro = "Conteúdo inválido, as demais linhas não foram lidas: " + ex.getMessage();
+                bloco.add(linha);
+                break;
+            }
+            bloco.add(linha);
+            if (bloco.size() == tamanhoBloco) {
+                processar(lote, bloco, response);
+                bloco.clear();
+            }
+        }
+        processar(lote, bloco, response);
+        log.info("Lote de {} com {} linhas processado em {} ms: {} incluídas e {} rejeitadas", tipo.getDescricao(),
+                response.getTotal(), System.currentTimeMillis() - inicio, response.getIncluidos(), response.getRejeitados());
+        return response;
+    }
+    private void processar(Lote lote, List<Linha> bloco, TransacaoLoteResponse response){
+        if (bloco.isEmpty())
+            return;
+        bloco.parallelStream().filter(Linha::isValida).forEach(Linha::validar);
+        bloco.stream().filter(Linha::isValida).forEach(l -> resolver(lote, l));
+
+        List<Linha> validas = bloco.stream().filter(Linha::isValida).collect(Collectors.toList());
+        if (!validas.isEmpty()) {
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> gravar(lote, validas));
+            } catch (RuntimeException ex) {
+                log.warn("Bloco de {} linhas do lote não gravado ({}), reprocessando linha a linha", validas.size(), ex.getMessage());
+                entityManager.clear();
+                validas.forEach(l -> incluir(lote, l));
+            }
+        }
+        entityManager.clear();
+        for (Linha linha : bloco) {
+            response.adicionar(linha.erro != null ? TransacaoLoteItem.rejeitado(linha.numero, linha.erro)
+                    : TransacaoLoteItem.incluido(linha.numero, linha.entity.getId(), linha.entity.getNumeroDocumento()));
+        }
+    }
+    //consultas ao banco feitas uma única vez por lote: natureza principal, contas dos meios de pagamento e cadastros
+    private void resolver(Lote lote, Linha linha){
+        try {
+            TransacaoRequest request = linha.request;
+            if (request.getNatureza() == null) {
+                if (lote.naturezaPrincipal == null)
+                    lote.naturezaPrincipal = aplicacaoRepository.buscarNaturezaPrincipal(requestInfo.getOrganizacao(), lote.tipo).getId();
+                request.setNatureza(lote.naturezaPrincipal);
+            }
+            for (FormaPagamentoRequest rateio : request.getFormasPagamento()) {
+                if (rateio.getMeioPagamento().isInstantaneo() && lote.contaPorMeio(rateio.getMeioPagamento()) == null)
+                    throw new RegistroIncompativelException("O meio de pagamento " + rateio.getMeioPagamento().getDescricao() + " não se encontra vinculado a nenhuma conta empresa");
+            }
+            Integer cadastro = request.getCadastro() == 0 ? 1 : request.getCadastro();
+            String erroCadastro = lote.cadastros.get(cadastro);
+            if (erroCadastro == null) {
+                try {
+                    globalRepository.existsCadastro(cadastro);
+                    erroCadastro = "";
+                } catch (BusinessException ex) {
+                    erroCadastro = ex.getMessage();
+                }
+                lote.cadastros.put(cadastro, erroCadastro);
+            }
+            if (!erroCadastro.isEmpty())
+                throw new RegistroIncompativelException(erroCadastro);
+            request.setCadastro(cadastro);
+        } catch (BusinessException ex) {
+            linha.erro = ex.getMessage();
+        } catch (RuntimeException ex) {
+            log.error("Erro ao preparar a linha {} do lote", linha.numero, ex);
+            linha.erro = "Erro não mapeado ao incluir o lançamento";
+        }
+    }
+    private void gravar(Lote lote, List<Linha> linhas){
+        List<TransacaoEntity> entities = new ArrayList<>(linhas.size());
+        for (Linha linha : linhas) {
+            TransacaoRequest request = linha.request;
+            TransacaoEntity entity = transacaoService.novaTransacao(lote.tipo, request, lote.participante(request.getCadastro()), request.getNatureza());
+            for (FormaPagamentoRequest rateio : request.getFormasPagamento()) {
+                if (rateio.getMeioPagamento().isInstantaneo()) {
+                    PagamentoEntity pagamento = pagamentoService.novoPagamento(lote.tipo, request.getCadastro(), rateio, entity.getTitulo());
+                    pagamento.setConta(lote.contaPorMeio(rateio.getMeioPagamento()));
+                    entity.getPagamentos().add(pagamento);
+                } else {
+                    entity.getParcelamentos().add(parcelamentoService.criarParcelamento(lote.tipo, request.getCadastro(), rateio, entity.getTitulo(), entity.getPartes().getEmpresa()));
+                }
+                entity.getRateios().add(transacaoService.novoRateio(rateio));
+            }
+            linha.entity = entity;
+            entities.add(entity);
+        }
+        repository.saveAll(entities);
+        Map<PagamentoEntity, TransacaoEntity> origem = new IdentityHashMap<>();
+        entities.forEach(t -> t.getPagamentos().forEach(p -> origem.put(p, t)));
+        pagamentoService.contabilizarPagamentos(entities.stream().flatMap(t -> t.getPagamentos().stream()).collect(Collectors.toList()), origem::get);
+    }
+    private void incluir(Lote lote, Linha linha){
+        try {
+            linha.entity = transacaoService.incluir(lote.tipo, linha.request);
+        } catch (BusinessException ex) {
+            linha.erro = ex.getMessage();
+        } catch (RuntimeException ex) {
+            log.error("Erro ao incluir a linha {} do lote", linha.numero, ex);
+            linha.erro = "Erro não mapeado ao incluir o lançamento";
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private class Lote {
+        private final AplicacaoTipo tipo;
+        private final Map<MeioPagamento, Integer> contas = new EnumMap<>(MeioPagamento.class);
+        //vazio quando o cadastro existe, senão a mensagem de erro
+        private final Map<Integer, String> cadastros = new HashMap<>();
+        private Integer naturezaPrincipal;
+
+        private Lote(AplicacaoTipo tipo) {
+            this.tipo = tipo;
+        }
+        private Integer contaPorMeio(MeioPagamento meioPagamento) {
+            if (!contas.containsKey(meioPagamento)) {
+                FormaPagamentoEntity forma = formaPagamentoRepository.findByEmpresaAndMeioPagamentoAndNumeroParcelas(requestInfo.getEmpresa(), meioPagamento, 1);
+                contas.put(meioPagamento, forma == null ? null : forma.getConta());
+            }
+            return contas.get(meioPagamento);
+        }
+        private Participante participante(Integer cadastro) {
+            Participante participante = new Participante();
+            participante.setOrganizacao(requestInfo.getOrganizacao());
+            participante.setEmpresa(requestInfo.getEmpresa());
+            participante.setUsuario(requestInfo.getUsuario());
+            participante.setCadastro(cadastro);
+            return participante;
+        }
+    }
+
+    private static class Linha {
+        private final int numero;
+        private TransacaoRequest request;
+        private TransacaoEntity entity;
+        private String erro;
+
+        private Linha(int numero) {
+            this.numero = numero;
+        }
+        private boolean isValida() {
+            return erro == null && request != null;
+        }
+        //mesmas regras do TransacaoService.incluir, os conjuntos de regras são imutáveis e podem ser usados em paralelo
+        private void validar() {
+            try {
+                TransacaoService.CAMPOS_OBRIGATORIOS.check(request);
+                request.setCadastro(Definition.seNulo(request.getCadastro(), 1));
+                TransacaoService.TAMANHO_TITULO.check(request);
+                TransacaoService.TAMANHO_DESCRICAO.check(request);
+                TransacaoService.TAMANHO_OBSERVACAO.check(request);
+                TransacaoService.conferirValores(request);
+            } catch (BusinessException ex) {
+                erro = ex.getMessage();
+            } catch (RuntimeException ex) {
+                //registro malformado, ex.: item nulo na lista de formas de pagamento
+                log.error("Erro ao validar a linha {} do lote", numero, ex);
+                erro = "Erro não mapeado ao incluir o lançamento";
+            }
+        }
+    }
+}
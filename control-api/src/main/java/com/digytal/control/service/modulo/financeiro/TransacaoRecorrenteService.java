@@ -0,0 +1,164 @@
+package com.digytal.control.service.modulo.financeiro;
+
+import com.digytal.control.infra.business.RegistroIncompativelException;
+import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
+import com.digytal.control.infra.commons.definition.Definition;
+import com.digytal.control.infra.commons.validation.Entities;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.Aplicacao;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.recorrente.TransacaoRecorrenteEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.recorrente.TransacaoRecorrenteRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.recorrente.TransacaoRecorrenteResponse;
+import com.digytal.control.repository.modulo.acesso.empresa.AplicacaoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.TransacaoRecorrenteRepository;
+import com.digytal.control.service.comum.AbstractService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.digytal.control.infra.commons.validation.Attributes.*;
+
+@Service
+@Slf4j
+public class TransacaoRecorrenteService extends AbstractService {
+    @Value("${financeiro.recorrencia.tamanho-bloco:200}")
+    private int tamanhoBloco;
+    @Autowired
+    private TransacaoRecorrenteRepository repository;
+    @Autowired
+    private AplicacaoRepository aplicacaoRepository;
+    @Autowired
+    private TransacaoService transacaoService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Transactional
+    public Integer incluir(AplicacaoTipo tipo, TransacaoRecorrenteRequest request){
+        TransacaoService.CAMPOS_OBRIGATORIOS.check(request);
+        TransacaoService.TAMANHO_TITULO.check(request);
+        TransacaoService.TAMANHO_DESCRICAO.check(request);
+        TransacaoService.TAMANHO_OBSERVACAO.check(request);
+        if(request.getPeriodicidade()==null || request.getMeioPagamento()==null)
+            throw new RegistroIncompativelException("A periodicidade e o meio de pagamento são obrigatórios no lançamento recorrente");
+        request.setDataInicial(Definition.seNulo(request.getDataInicial(), LocalDate.now()));
+        if(request.getDataInicial().isBefore(LocalDate.now()))
+            throw new RegistroIncompativelException("A data inicial do lançamento recorrente não pode ser anterior à data atual");
+        //mesmas regras de valor e meio de pagamento do lançamento avulso
+        TransacaoService.conferirValores(novoLancamento(request.getValor(), request.getMeioPagamento()));
+
+        TransacaoRecorrenteEntity entity = new TransacaoRecorrenteEntity();
+        BeanUtils.copyProperties(request, entity);
+        entity.setTipo(tipo);
+        entity.setTitulo(Definition.seNuloOuVazio(request.getTitulo(), request.getDescricao(), 40));
+        entity.setPartes(definirParticipantes(request.getCadastro()));
+        Aplicacao aplicacao = new Aplicacao();
+        aplicacao.setArea(Definition.seNulo(request.getArea(), 1));
+        aplicacao.setNatureza(request.getNatureza() != null ? request.getNatureza()
+                : aplicacaoRepository.buscarNaturezaPrincipal(requestInfo.getOrganizacao(), tipo).getId());
+        entity.setAplicacao(aplicacao);
+        entity.getRecorrencia().setPeriodicidade(request.getPeriodicidade());
+        entity.getRecorrencia().setDataInicial(request.getDataInicial());
+        entity.getRecorrencia().setRepeticoesTotal(request.getRepeticoesTotal());
+        entity.getRecorrencia().iniciar();
+        repository.save(entity);
+        return entity.getId();
+    }
+    public List<TransacaoRecorrenteResponse> listar(){
+        return repository.findByPartesEmpresaOrderById(requestInfo.getEmpresa()).stream().map(e -> {
+            TransacaoRecorrenteResponse response = new TransacaoRecorrenteResponse();
+            BeanUtils.copyProperties(e, response);
+            return response;
+        }).collect(Collectors.toList());
+    }
+    @Transactional
+    public boolean encerrar(Integer id){
+        TransacaoRecorrenteEntity entity = repository.findById(id).orElseThrow(() -> new RegistroNaoLocalizadoException(Entities.LANCAMENTO, ID));
+        checarIntegridadeEmpresarial(entity.getPartes().getEmpresa());
+        entity.setAtivo(false);
+        repository.save(entity);
+        return true;
+    }
+
+    /**
+     * Gera os lançamentos das ocorrências vencidas até o dia. Os modelos são lidos em blocos pelo índice da próxima
+     * ocorrência e cada modelo é gerado em uma transação própria, travado com SKIP LOCKED: vários nós podem executar
+     * ao mesmo tempo e um modelo com erro não impede os demais (volta a ser tentado na próxima execução).
+     */
+    public int gerarOcorrencias(LocalDate dia){
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        LocalDate aposData = LocalDate.of(1900, 1, 1);
+        Integer aposId = 0;
+        int geradas = 0;
+        int falhas = 0;
+        List<Object[]> pendentes;
+        do {
+            pendentes = repository.listarPendentes(dia, aposData, aposId, tamanhoBloco);
+            for (Object[] pendente : pendentes) {
+                Integer id = ((Number) pendente[0]).intValue();
+                try {
+                    geradas += transacao.execute(status -> gerarOcorrencias(id, dia));
+                } catch (RuntimeException ex) {
+                    falhas++;
+                    log.warn("Não foi possível gerar as ocorrências do lançamento recorrente {}: {}", id, ex.getMessage());
+                }
+                aposId = id;
+                aposData = ((Date) pendente[1]).toLocalDate();
+            }
+        } while (pendentes.size() == tamanhoBloco);
+        log.info("Lançamentos recorrentes até {}: {} ocorrências geradas, {} modelos com erro", dia, geradas, falhas);
+        return geradas;
+    }
+    private int gerarOcorrencias(Integer id, LocalDate dia){
+        TransacaoRecorrenteEntity modelo = repository.travarPendente(id, dia);
+        if (modelo == null)
+            return 0;
+        int geradas = 0;
+        //mais de uma ocorrência quando o Job ficou dias sem executar
+        while (!modelo.getRecorrencia().isEncerrada() && !modelo.getRecorrencia().getDataProximaOcorrencia().isAfter(dia)) {
+            LocalDate ocorrencia = modelo.getRecorrencia().getDataProximaOcorrencia();
+            if (repository.registrarOcorrencia(id, ocorrencia) == 1) {
+                TransacaoEntity entity = transacaoService.incluir(modelo.getTipo(), novoLancamento(modelo, ocorrencia), modelo.getPartes(), modelo.getAplicacao().getNatureza());
+                repository.vincularTransacao(id, ocorrencia, entity.getId());
+                geradas++;
+            }
+            modelo.getRecorrencia().avancar();
+        }
+        repository.save(modelo);
+        return geradas;
+    }
+    private TransacaoRequest novoLancamento(TransacaoRecorrenteEntity modelo, LocalDate ocorrencia){
+        TransacaoRequest request = novoLancamento(modelo.getValor(), modelo.getMeioPagamento());
+        request.setNumeroDocumento(String.format("REC.%d.%s", modelo.getId(), ocorrencia));
+        request.setTitulo(modelo.getTitulo());
+        request.setDescricao(modelo.getDescricao());
+        request.setObservacao(modelo.getObservacao());
+        request.setData(ocorrencia);
+        request.setArea(modelo.getAplicacao().getArea());
+        TransacaoService.conferirValores(request);
+        return request;
+    }
+    private TransacaoRequest novoLancamento(Double valor, MeioPagamento meioPagamento){
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(meioPagamento);
+        rateio.setValorPago(valor);
+        TransacaoRequest request = new TransacaoRequest();
+        request.setValor(valor);
+        request.setFormasPagamento(Collections.singletonList(rateio));
+        return request;
+    }
+}
@@ -1,13 +1,15 @@
 package com.digytal.control.service.modulo.financeiro;
 
 
+import com.digytal.control.infra.business.CampoObrigatorioException;
 import com.digytal.control.infra.business.RegistroIncompativelException;
 import com.digytal.control.infra.commons.definition.Definition;
 import com.digytal.control.infra.commons.validation.Validations;
 import com.digytal.control.infra.utils.Calculos;
+import com.digytal.control.infra.utils.Money;
 import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.Participante;
 import com.digytal.control.model.comum.RegistroData;
-import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoEntity;
 import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
 import com.digytal.control.model.modulo.financeiro.Aplicacao;
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoValor;
@@ -33,6 +35,10 @@ import static com.digytal.control.infra.commons.validation.Attributes.*;
 
 @Service
 public  class TransacaoService extends AbstractService {
+    static final Validations CAMPOS_OBRIGATORIOS = Validations.build(DESCRICAO, VALOR).notEmpty();
+    static final Validations TAMANHO_TITULO = Validations.build(TITULO).maxLen(40);
+    static final Validations TAMANHO_DESCRICAO = Validations.build(DESCRICAO).maxLen(200);
+    static final Validations TAMANHO_OBSERVACAO = Validations.build(OBSERVACAO).maxLen(100);
     @Autowired
     private TransacaoRepository repository;
     @Autowired
@@ -47,81 +53,99 @@ public  class TransacaoService extends AbstractService {
     private ParcelamentoService parcelamentoService;
 
     @Transactional
-    public void incluir(AplicacaoTipo tipo, TransacaoRequest request){
+    public TransacaoEntity incluir(AplicacaoTipo tipo, TransacaoRequest request){
 
-        Validations.build(DESCRICAO, VALOR).notEmpty().check(request);
+        CAMPOS_OBRIGATORIOS.check(request);
         request.setCadastro(Definition.seNulo(request.getCadastro(),1));
-        Validations.build(TITULO).maxLen(40).check(request);
-        Validations.build(DESCRICAO).maxLen(200).check(request);
-        Validations.build(OBSERVACAO).maxLen(100).check(request);
+        TAMANHO_TITULO.check(request);
+        TAMANHO_DESCRICAO.check(request);
+        TAMANHO_OBSERVACAO.check(request);
+        conferirValores(request);
 
+        Integer natureza = request.getNatureza();
+        if(natureza==null)
+            natureza = aplicacaoRepository.buscarNaturezaPrincipal(requestInfo.getOrganizacao(), tipo).getId();
+
+        return incluir(tipo, request, definirParticipantes(request.getCadastro()), natureza);
+    }
+    /**
+     * Inclusão com participantes e natureza já definidos, sem depender do RequestInfo (ex.: lançamentos recorrentes
+     * gerados pelo Job). O request já deve ter passado pelas validações e pelo {@link #conferirValores}.
+     */
+    @Transactional
+    public TransacaoEntity incluir(AplicacaoTipo tipo, TransacaoRequest request, Participante partes, Integer natureza){
+        TransacaoEntity entity = novaTransacao(tipo, request, partes, natureza);
+        Integer cadastro = entity.getPartes().getCadastro();
+        for (FormaPagamentoRequest rateio : request.getFormasPagamento()) {
+            if (rateio.getMeioPagamento().isInstantaneo()) {
+                entity.getPagamentos().add(pagamentoService.criarPagamento(tipo, cadastro, rateio, entity.getTitulo(),entity.getPartes().getEmpresa(), entity.getData().getDia()));
+            }else{
+                entity.getParcelamentos().add(parcelamentoService.criarParcelamento(tipo, cadastro, rateio,entity.getTitulo(), entity.getPartes().getEmpresa()));
+            }
+            entity.getRateios().add(novoRateio(rateio));
+        }
+        repository.save(entity);
+        return entity;
+    }
+    TransacaoEntity novaTransacao(AplicacaoTipo tipo, TransacaoRequest request, Participante partes, Integer natureza){
         TransacaoEntity entity = new TransacaoEntity();
         entity.setTipo(tipo);
         entity.setTitulo(Definition.seNuloOuVazio(request.getTitulo(), request.getDescricao(),40));
         entity.setDescricao(request.getDescricao());
         entity.setObservacao(request.getObservacao());
-        entity.setNumeroDocumento(Definition.seNuloOuVazio(request.getNumeroDocumento(), gerarLocalizador()));
+        //o localizador lê a credencial da requisição: só é gerado sem número informado (o Job informa o seu)
+        entity.setNumeroDocumento(Definition.seNulo(request.getNumeroDocumento()).isBlank() ? gerarLocalizador() : request.getNumeroDocumento());
         entity.setData(RegistroData.of(request.getData()));
-        entity.setPartes(definirParticipantes(request.getCadastro()));
+        entity.setPartes(partes);
         entity.setValor(TransacaoValor.of(tipo, request.getValor()));
-        entity.setObservacao(request.getObservacao());
         Aplicacao aplicacao = new Aplicacao();
         aplicacao.setArea(Definition.seNulo(request.getArea(), 1));
-
-        if(request.getNatureza()==null) {
-            AplicacaoEntity aplicacaoEntity = aplicacaoRepository.buscarNaturezaPrincipal(requestInfo.getOrganizacao(), tipo);
-            aplicacao.setNatureza(aplicacaoEntity.getId());
-        }else
-            aplicacao.setNatureza(request.getNatureza());
-
+        aplicacao.setNatureza(natureza);
         entity.setAplicacao(aplicacao);
-
+        return entity;
+    }
+    TransacaoRateioEntity novoRateio(FormaPagamentoRequest rateio){
+        TransacaoRateioEntity rateioEntity = new TransacaoRateioEntity();
+        BeanUtils.copyProperties(rateio,rateioEntity);
+        if(rateio.getParcelamento()!=null) {
+            Double numeroParcela = rateio.getParcelamento().getNumeroParcelas()==null ? 1.0 : Double.valueOf(rateio.getParcelamento().getNumeroParcelas().toString());
+            numeroParcela = Calculos.seNuloOuZero(numeroParcela, 1.0);
+
+            Double valorParcela = Money.of(rateio.getValorPago()).dividir(numeroParcela.longValue()).toDouble();
+            BeanUtils.copyProperties(rateio.getParcelamento(), rateioEntity.getParcelamento());
+            rateioEntity.getParcelamento().setValorParcela(valorParcela);
+        }
+        return rateioEntity;
+    }
+    /**
+     * Confere o valor e o rateio de pagamento, completando os valores padrão. Não consulta o banco
+     * nem o RequestInfo, podendo ser executado em paralelo na importação em lote.
+     */
+    static void conferirValores(TransacaoRequest request){
         if( Calculos.compararIgualMenorZero(request.getValor()))
             throw new RegistroIncompativelException("O valor do pagamento não pode ser menor ou igual a zero");
 
         definirPagamentoPadrao(request);
-        Integer cadastro = entity.getPartes().getCadastro();
+        Money total = Money.ZERO;
         for (FormaPagamentoRequest rateio : request.getFormasPagamento()) {
-            if (Arrays.stream(new MeioPagamento[]{MeioPagamento.SALDO, MeioPagamento.COMPENSACAO}).anyMatch(rateio.getMeioPagamento()::equals))
+            if (rateio.getMeioPagamento()==null || Arrays.stream(new MeioPagamento[]{MeioPagamento.SALDO, MeioPagamento.COMPENSACAO}).anyMatch(rateio.getMeioPagamento()::equals))
                 throw new RegistroIncompativelException("Não é permitido utilizar este meio de pagamento");
+            if (rateio.getValorPago()==null)
+                throw new CampoObrigatorioException("Valor Pago");
 
             rateio.setValorOriginal(Calculos.seNuloOuZero(rateio.getValorOriginal(), rateio.getValorPago()));
             rateio.setTaxaPagamento(Calculos.seNuloZera(rateio.getTaxaPagamento()));
-            if (rateio.getMeioPagamento().isInstantaneo()) {
-                entity.getPagamentos().add(pagamentoService.criarPagamento(tipo, cadastro, rateio, entity.getTitulo(),entity.getPartes().getEmpresa()));
-            }else{
-                entity.getParcelamentos().add(parcelamentoService.criarParcelamento(tipo, cadastro, rateio,entity.getTitulo()));
-            }
-
-            TransacaoRateioEntity rateioEntity = new TransacaoRateioEntity();
-            BeanUtils.copyProperties(rateio,rateioEntity);
-            if(rateio.getParcelamento()!=null) {
-                Double numeroParcela = rateio.getParcelamento().getNumeroParcelas()==null ? 1.0 : Double.valueOf(rateio.getParcelamento().getNumeroParcelas().toString());
-                numeroParcela = Calculos.seNuloOuZero(numeroParcela, 1.0);
-
-                Double valorParcela = Calculos.dividir(Calculos.ESCALA4, rateio.getValorPago(), numeroParcela);
-                BeanUtils.copyProperties(rateio.getParcelamento(), rateioEntity.getParcelamento());
-                rateioEntity.getParcelamento().setValorParcela(valorParcela);
-
-            }
-            entity.getRateios().add(rateioEntity);
+            total = total.somar(Money.of(rateio.getValorPago()));
         }
-
-        Double totalPagamentos = Calculos.aplicarEscala4(entity.getPagamentos().stream().mapToDouble(f -> f.getValor().getValorInformado()).sum());
-        Double totalParcelamentos = Calculos.aplicarEscala4(entity.getParcelamentos().stream().mapToDouble(f -> f.getDetalhe().getValorOriginal()).sum());
-        Double total = Calculos.somar(Calculos.ESCALA4, totalPagamentos, totalParcelamentos);
-
-        if ( ! Calculos.compararIgualdade(total, request.getValor()))
+        if ( ! total.equals(Money.of(request.getValor())))
             throw new RegistroIncompativelException("Os valores informados no rateiro de pagamento diferem do valor total");
-
-        repository.save(entity);
     }
-    private void definirPagamentoPadrao(TransacaoRequest request){
+    private static void definirPagamentoPadrao(TransacaoRequest request){
         if(request.getFormasPagamento()==null || request.getFormasPagamento().size()==0){
             request.setFormasPagamento(definirPagamentoPadrao(request.getValor()));
         }
     }
-    private List<FormaPagamentoRequest> definirPagamentoPadrao(Double valor){
+    private static List<FormaPagamentoRequest> definirPagamentoPadrao(Double valor){
         FormaPagamentoRequest rateio = new FormaPagamentoRequest();
         rateio.setMeioPagamento(MeioPagamento.DINHEIRO);
         rateio.setValorPago(valor);
@@ -0,0 +1,229 @@
+package com.digytal.control.service.modulo.financeiro;
+
+import com.digytal.control.infra.business.BusinessException;
+import com.digytal.control.infra.business.IntegracaoException;
+import com.digytal.control.infra.business.ParametroInvalidoException;
+import com.digytal.control.infra.email.Message;
+import com.digytal.control.infra.email.SendEmail;
+import com.digytal.control.integracao.asaas.model.PagamentoEvent;
+import com.digytal.control.model.modulo.financeiro.webhook.WebhookEventoEntity;
+import com.digytal.control.model.modulo.financeiro.webhook.WebhookEventoStatus;
+import com.digytal.control.repository.modulo.fincanceiro.WebhookEventoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Entrada dos webhooks. O controller confere o token do evento com o da empresa dona da cobrança, grava o evento
+ * (um por provedor e id, o reenvio do provedor é ignorado) e responde; eventos sem ação ou de cobranças
+ * desconhecidas são respondidos sem gravar, e o token não é gravado. O Job reserva os pendentes em lotes com
+ * FOR UPDATE SKIP LOCKED, o que permite mais de um nó, e os processa em um pool de threads. A compensação e a
+ * conclusão do evento são gravadas na mesma transação. Erros de negócio (ex.: parcela não localizada) não mudam
+ * com novas tentativas e deixam o evento como FALHA na hora; os demais voltam para a fila com espera crescente
+ * até esgotar as tentativas.
+ */
+@Service
+@Slf4j
+public class WebhookEventoService {
+    public static final String ASAAS = "ASAAS";
+    private static final String PAGAMENTO_RECEBIDO = "PAYMENT_RECEIVED";
+    private static final String EMAIL_PADRAO = "gleyson@digytal.com.br";
+
+    @Value("${webhook.evento.lote:20}")
+    private int lote;
+    @Value("${webhook.evento.workers:4}")
+    private int workers;
+    @Value("${webhook.evento.reserva:120}")
+    private int reserva;
+    @Value("${webhook.evento.tentativas:8}")
+    private int tentativas;
+    @Value("${webhook.evento.backoff:30}")
+    private int backoff;
+    @Value("${webhook.evento.backoff-maximo:3600}")
+    private int backoffMaximo;
+    @Autowired
+    private WebhookEventoRepository repository;
+    @Autowired
+    private BoletoService boletoService;
+    @Autowired
+    private SendEmail sendEmail;
+    @Autowired
+    private ObjectMapper mapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transacao;
+    private ExecutorService executor;
+    private final AtomicLong recebidos = new AtomicLong();
+    private final AtomicLong repetidos = new AtomicLong();
+    private final AtomicLong ignorados = new AtomicLong();
+    private final AtomicLong processados = new AtomicLong();
+    private final AtomicLong retentativas = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+
+    @PostConstruct
+    public void iniciar() {
+        transacao = new TransactionTemplate(transactionManager);
+        AtomicInteger numero = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "webhook-evento-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    /**
+     * Confere e grava o evento recebido; devolve false quando ele já havia sido recebido ou não precisa ser
+     * processado. Um token inválido gera ParametroInvalidoException e o evento não é gravado.
+     */
+    public boolean registrar(String provedor, String payload, String accessToken) {
+        JsonNode evento;
+        try {
+            evento = mapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new ParametroInvalidoException("Conteúdo do webhook");
+        }
+        String tipo = evento.path("event").asText("");
+        String pagamento = evento.path("payment").path("id").asText("");
+        if (ASAAS.equals(provedor) && (!PAGAMENTO_RECEBIDO.equals(tipo) || !boletoService.validarWebhook(accessToken, pagamento))) {
+            ignorados.incrementAndGet();
+            log.info("{WEBHOOK} evento {} da cobrança {} ignorado: sem ação ou cobrança desconhecida", tipo, pagamento);
+            return false;
+        }
+        //sem id do evento, o mesmo tipo de evento para o mesmo pagamento é considerado repetido
+        String eventoId = evento.hasNonNull("id") ? evento.get("id").asText() : tipo + ":" + pagamento;
+        boolean novo = transacao.execute(s -> repository.registrar(provedor, eventoId, tipo, payload)) == 1;
+        (novo ? recebidos : repetidos).incrementAndGet();
+        return novo;
+    }
+
+    //processa lotes enquanto houver pendentes; devolve quantos eventos foram processados
+    public int processarPendentes() throws InterruptedException {
+        int total = 0;
+        List<WebhookEventoEntity> eventos;
+        do {
+            eventos = transacao.execute(s -> reservar());
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (WebhookEventoEntity evento : eventos)
+                tarefas.add(executor.submit(() -> processar(evento)));
+            for (Future<?> tarefa : tarefas) {
+                try {
+                    tarefa.get();
+                } catch (ExecutionException ex) {
+                    log.error("{WEBHOOK} erro inesperado no processamento", ex.getCause());
+                }
+            }
+            total += eventos.size();
+        } while (eventos.size() == lote);
+        return total;
+    }
+    private List<WebhookEventoEntity> reservar() {
+        List<WebhookEventoEntity> eventos = repository.travarPendentes(lote);
+        if (!eventos.isEmpty())
+            repository.reservar(eventos.stream().map(WebhookEventoEntity::getId).collect(Collectors.toList()), reserva);
+        return eventos;
+    }
+    private void processar(WebhookEventoEntity evento) {
+        int tentativa = evento.getTentativas() + 1;
+        try {
+            String email = transacao.execute(s -> {
+                String destino = tratar(evento);
+                repository.finalizar(evento.getId(), WebhookEventoStatus.CONCLUIDO.getId(), null, 0);
+                return destino;
+            });
+            processados.incrementAndGet();
+            if (email != null && !email.isEmpty())
+                notificar(email, "Compensação de Pagamentos", "Pagamento Compensado com Sucesso " + pagamento(evento));
+        } catch (RuntimeException ex) {
+            String erro = ex.getMessage() == null ? ex.toString() : ex.getMessage();
+            erro = erro.length() > 500 ? erro.substring(0, 500) : erro;
+            if (tentativa >= tentativas || definitivo(ex)) {
+                falhas.incrementAndGet();
+                final String mensagem = erro;
+                transacao.executeWithoutResult(s -> repository.finalizar(evento.getId(), WebhookEventoStatus.FALHA.getId(), mensagem, 0));
+                log.error("{WEBHOOK} evento {} {} descartado após {} tentativas: {}", evento.getProvedor(), evento.getEventoId(), tentativa, erro);
+                notificar(EMAIL_PADRAO, "Compensação de Pagamentos - ERRO", erro);
+            } else {
+                retentativas.incrementAndGet();
+                final String mensagem = erro;
+                transacao.executeWithoutResult(s -> repository.finalizar(evento.getId(), WebhookEventoStatus.PENDENTE.getId(), mensagem, espera(tentativa)));
+                log.warn("{WEBHOOK} evento {} {} falhou na tentativa {}: {}", evento.getProvedor(), evento.getEventoId(), tentativa, erro);
+            }
+        }
+    }
+    //erro de negócio, exceto falha na chamada ao provedor: o mesmo evento falharia de novo
+    private static boolean definitivo(RuntimeException ex) {
+        return ex instanceof BusinessException && !(ex instanceof IntegracaoException);
+    }
+    private String tratar(WebhookEventoEntity evento) {
+        if (!ASAAS.equals(evento.getProvedor()))
+            return null;
+        try {
+            PagamentoEvent pagamento = mapper.readValue(evento.getPayload(), PagamentoEvent.class);
+            return boletoService.compensarViaWebhook(pagamento);
+        } catch (JsonProcessingException e) {
+            throw new ParametroInvalidoException("Conteúdo do webhook");
+        }
+    }
+    //segundos até a próxima tentativa: dobra a cada tentativa, com até 20% a mais para espalhar os reenvios
+    private int espera(int tentativa) {
+        long espera = Math.min(backoffMaximo, (long) backoff << Math.min(tentativa - 1, 20));
+        return (int) (espera + ThreadLocalRandom.current().nextLong(espera / 5 + 1));
+    }
+    private String pagamento(WebhookEventoEntity evento) {
+        try {
+            return mapper.readTree(evento.getPayload()).path("payment").path("id").asText("");
+        } catch (JsonProcessingException e) {
+            return "";
+        }
+    }
+    private void notificar(String email, String titulo, String corpo) {
+        Message message = new Message();
+        message.setTo(email);
+        message.setTitle(titulo);
+        message.setBody(corpo);
+        sendEmail.send(message);
+    }
+
+    public long getRecebidos() {
+        return recebidos.get();
+    }
+    public long getRepetidos() {
+        return repetidos.get();
+    }
+    public long getIgnorados() {
+        return ignorados.get();
+    }
+    public long getProcessados() {
+        return processados.get();
+    }
+    public long getRetentativas() {
+        return retentativas.get();
+    }
+    public long getFalhas() {
+        return falhas.get();
+    }
+}
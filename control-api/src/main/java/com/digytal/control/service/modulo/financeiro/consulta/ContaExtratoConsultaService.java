@@ -0,0 +1,81 @@
+package com.digytal.control.service.modulo.financeiro.consulta;
+
+import com.digytal.control.infra.business.RegistroIncompativelException;
+import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
+import com.digytal.control.infra.utils.Calculos;
+import com.digytal.control.model.comum.filtro.FiltroData;
+import com.digytal.control.model.modulo.acesso.empresa.conta.ContaEntity;
+import com.digytal.control.model.modulo.financeiro.conta.ContaExtratoResponse;
+import com.digytal.control.model.modulo.financeiro.conta.ContaMovimentoResponse;
+import com.digytal.control.model.modulo.financeiro.conta.ContaSaldoEntity;
+import com.digytal.control.model.modulo.financeiro.conta.ContaSaldoResponse;
+import com.digytal.control.repository.modulo.acesso.empresa.ContaRepository;
+import com.digytal.control.repository.modulo.fincanceiro.ContaMovimentoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.ContaSaldoRepository;
+import com.digytal.control.service.comum.AbstractConsultaService;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.digytal.control.infra.commons.validation.Attributes.ID;
+import static com.digytal.control.infra.commons.validation.Entities.CONTA_BANCO_ENTITY;
+
+@Service
+@Transactional(readOnly = true)
+public class ContaExtratoConsultaService extends AbstractConsultaService {
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private ContaMovimentoRepository movimentoRepository;
+    @Autowired
+    private ContaSaldoRepository saldoRepository;
+
+    public ContaSaldoResponse consultarSaldo(Integer conta, LocalDate dia){
+        checarConta(conta);
+        dia = dia == null ? LocalDate.now() : dia;
+        return ContaSaldoResponse.of(dia, calcularSaldo(conta, dia));
+    }
+    public ContaExtratoResponse extrato(Integer conta, FiltroData filtro){
+        checarConta(conta);
+        validarPeriodoData(filtro);
+        LocalDate diaAnterior = filtro.getDataInicial().minusDays(1);
+        ContaExtratoResponse response = new ContaExtratoResponse();
+        response.setConta(conta);
+        response.setSaldoAnterior(ContaSaldoResponse.of(diaAnterior, calcularSaldo(conta, diaAnterior)));
+        response.setMovimentos(movimentoRepository.findByContaAndDiaBetweenOrderByDiaAscDataHoraAscIdAsc(conta, filtro.getDataInicial(), filtro.getDataFinal())
+                .stream().map(e -> {
+                    ContaMovimentoResponse item = new ContaMovimentoResponse();
+                    BeanUtils.copyProperties(e, item);
+                    return item;
+                }).collect(Collectors.toList()));
+        //o saldo de cada movimento é o da conta na gravação: com lançamentos retroativos, o último da lista não é o saldo do período
+        response.setSaldoFinal(ContaSaldoResponse.of(filtro.getDataFinal(), calcularSaldo(conta, filtro.getDataFinal())));
+        return response;
+    }
+    public List<ContaSaldoResponse> historico(Integer conta, FiltroData filtro){
+        checarConta(conta);
+        validarPeriodoData(filtro, DIAS_INTERVALO_EXPORTACAO);
+        return saldoRepository.findByContaAndDiaBetweenOrderByDia(conta, filtro.getDataInicial(), filtro.getDataFinal())
+                .stream().map(s -> ContaSaldoResponse.of(s.getDia(), s.getSaldo())).collect(Collectors.toList());
+    }
+    //último fechamento até o dia somado aos movimentos posteriores, sem varrer o razão desde o início
+    private Double calcularSaldo(Integer conta, LocalDate dia){
+        ContaSaldoEntity fechamento = saldoRepository.findFirstByContaAndDiaLessThanEqualOrderByDiaDesc(conta, dia);
+        if(fechamento != null)
+            return Calculos.aplicarEscala4(fechamento.getSaldo() + movimentoRepository.somarMovimentos(conta, fechamento.getDia(), dia));
+        ContaSaldoEntity primeiro = saldoRepository.findFirstByContaOrderByDia(conta);
+        if(primeiro != null)
+            throw new RegistroIncompativelException("O histórico de saldos desta conta inicia em " + primeiro.getDia());
+        //conta criada após a implantação do razão, começa com saldo zero
+        return Calculos.aplicarEscala4(movimentoRepository.somarMovimentos(conta, LocalDate.of(1900, 1, 1), dia));
+    }
+    private void checarConta(Integer conta){
+        ContaEntity entity = contaRepository.findById(conta).orElseThrow(()-> new RegistroNaoLocalizadoException(CONTA_BANCO_ENTITY, ID));
+        checarIntegridadeEmpresarial(entity.getEmpresa());
+    }
+}
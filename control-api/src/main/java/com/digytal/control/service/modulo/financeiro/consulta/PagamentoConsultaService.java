@@ -1,36 +1,57 @@
 package com.digytal.control.service.modulo.financeiro.consulta;
 
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.infra.utils.Calculos;
 import com.digytal.control.model.consulta.lancamento.PagamentoFiltro;
 import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
 import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResponse;
 import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResumo;
+import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResumoDiario;
 import com.digytal.control.service.comum.AbstractConsultaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.digytal.control.repository.modulo.fincanceiro.PagamentoRepository;
 import com.digytal.control.service.modulo.acesso.ContaService;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
+@Transactional(readOnly = true)
 public class PagamentoConsultaService extends AbstractConsultaService {
     @Autowired
     private PagamentoRepository repository;
     @Autowired
     private ContaService contaService;
-    public List<PagamentoResponse> pesquisar(PagamentoFiltro filtro){
+    public PageRecord<PagamentoResponse> pesquisar(PagamentoFiltro filtro){
         validarPeriodoData(filtro);
         return repository.pesquisar(requestInfo.getEmpresa(), filtro);
     }
-    public List<PagamentoResponse> pesquisarCompleto(PagamentoFiltro filtro){
+    public PageRecord<PagamentoResponse> pesquisarCompleto(PagamentoFiltro filtro){
         validarPeriodoData(filtro);
         return repository.pesquisarCompleto(requestInfo.getEmpresa(), filtro);
     }
     public PagamentoResumo resumir(PagamentoFiltro filtro){
+        return resumir(filtro, false);
+    }
+    public PagamentoResumo resumir(PagamentoFiltro filtro, boolean detalhado){
         validarPeriodoData(filtro);
-        List<PagamentoResponse> pagamentos = pesquisarCompleto(filtro);
+        //o resumo diário não guarda o cadastro, este filtro continua sendo totalizado a partir dos pagamentos
+        if (detalhado || filtro.getCadastro() != null)
+            return resumirPagamentos(filtro);
+
+        List<PagamentoResumoDiario> dias = repository.resumirDiario(requestInfo.getEmpresa(), filtro);
+        PagamentoResumo resumo = new PagamentoResumo();
+        resumo.setDias(dias);
+        resumo.setTotalReceitas(Calculos.aplicarEscala4(dias.stream().mapToDouble(PagamentoResumoDiario::getTotalReceitas).sum()));
+        resumo.setTotalDespesas(Calculos.aplicarEscala4(dias.stream().mapToDouble(PagamentoResumoDiario::getTotalDespesas).sum()));
+        resumo.setSaldo(Calculos.subtrair(resumo.getTotalReceitas(), resumo.getTotalDespesas()));
+        return resumo;
+    }
+    private PagamentoResumo resumirPagamentos(PagamentoFiltro filtro){
+        List<PagamentoResponse> pagamentos = repository.listarCompleto(requestInfo.getEmpresa(), filtro);
         List<PagamentoResponse> receitas = pagamentos.stream().filter(p-> AplicacaoTipo.RECEITA == p.getTipo()).collect(Collectors.toList());
         List<PagamentoResponse> despesas = pagamentos.stream().filter(p-> AplicacaoTipo.DESPESA == p.getTipo()).collect(Collectors.toList());
 
@@ -43,4 +64,8 @@ public class PagamentoConsultaService extends AbstractConsultaService {
         resumo.setSaldo(Calculos.subtrair(resumo.getTotalReceitas(), resumo.getTotalDespesas()));
         return resumo;
     }
+    public void exportar(PagamentoFiltro filtro, Consumer<PagamentoResponse> consumer){
+        validarPeriodoData(filtro, DIAS_INTERVALO_EXPORTACAO);
+        repository.exportar(requestInfo.getEmpresa(), filtro, consumer);
+    }
 }
@@ -1,5 +1,6 @@
 package com.digytal.control.service.modulo.financeiro.consulta;
 
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.model.consulta.lancamento.LancamentoFiltro;
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaResponse;
 import com.digytal.control.model.modulo.financeiro.parcelamento.response.ParcelamentoResponse;
@@ -7,14 +8,17 @@ import com.digytal.control.repository.modulo.fincanceiro.ParcelamentoRepository;
 import com.digytal.control.service.comum.AbstractConsultaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
+@Transactional(readOnly = true)
 public class ParcelamentoConsultaService extends AbstractConsultaService {
     @Autowired
     private ParcelamentoRepository repository;
-    public List<ParcelamentoResponse> pesquisar(LancamentoFiltro filtro){
+    public PageRecord<ParcelamentoResponse> pesquisar(LancamentoFiltro filtro){
         validarPeriodoData(filtro);
         return repository.pesquisar(requestInfo.getEmpresa(), filtro);
     }
@@ -22,5 +26,8 @@ public class ParcelamentoConsultaService extends AbstractConsultaService {
     public List<ParcelaResponse> listarParcelas(Integer parcelamento) {
         return repository.listarParcelas(parcelamento);
     }
-
+    public void exportar(LancamentoFiltro filtro, Consumer<ParcelamentoResponse> consumer){
+        validarPeriodoData(filtro, DIAS_INTERVALO_EXPORTACAO);
+        repository.exportar(requestInfo.getEmpresa(), filtro, consumer);
+    }
 }
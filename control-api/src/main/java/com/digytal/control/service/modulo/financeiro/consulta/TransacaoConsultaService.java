@@ -1,24 +1,31 @@
 package com.digytal.control.service.modulo.financeiro.consulta;
 
+import com.digytal.control.infra.sql.PageRecord;
 import com.digytal.control.model.consulta.lancamento.TransacaoFiltro;
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoResponse;
 import com.digytal.control.repository.modulo.fincanceiro.TransacaoRepository;
 import com.digytal.control.service.comum.AbstractConsultaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 @Service
+@Transactional(readOnly = true)
 public class TransacaoConsultaService extends AbstractConsultaService {
     @Autowired
     private TransacaoRepository repository;
-    public List<TransacaoResponse> pesquisar(TransacaoFiltro filtro){
+    public PageRecord<TransacaoResponse> pesquisar(TransacaoFiltro filtro){
         validarPeriodoData(filtro);
         return repository.pesquisar(requestInfo.getEmpresa(), filtro);
     }
-    public List<TransacaoResponse> pesquisarCompleto(TransacaoFiltro filtro){
+    public PageRecord<TransacaoResponse> pesquisarCompleto(TransacaoFiltro filtro){
         validarPeriodoData(filtro);
         return repository.pesquisarCompleto(requestInfo.getEmpresa(), filtro);
     }
+    public void exportar(TransacaoFiltro filtro, Consumer<TransacaoResponse> consumer){
+        validarPeriodoData(filtro, DIAS_INTERVALO_EXPORTACAO);
+        repository.exportar(requestInfo.getEmpresa(), filtro, consumer);
+    }
 }
@@ -0,0 +1,139 @@
+package com.digytal.control.service.modulo.param;
+
+import com.digytal.control.model.modulo.param.cep.CepEntity;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache (LRU) dos CEPs já resolvidos, na frente da tab_cep e da consulta externa. Os CEPs inválidos também
+ * ficam no cache, por um prazo menor. Consultas simultâneas do mesmo CEP ausente esperam uma única carga.
+ * Cada chamada recebe a sua própria cópia da entidade.
+ */
+public class CepCache {
+    private final int maxSize;
+    private final long validade;
+    private final long validadeNegativa;
+    private final Map<String, Entrada> cache;
+    private final Map<String, CompletableFuture<CepEntity>> carregando = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong compartilhadas = new AtomicLong();
+
+    //validades em milissegundos
+    public CepCache(int maxSize, long validade, long validadeNegativa) {
+        this.maxSize = maxSize;
+        this.validade = validade;
+        this.validadeNegativa = validadeNegativa;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, Entrada>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > CepCache.this.maxSize;
+            }
+        });
+    }
+
+    public CepEntity get(String cep, Function<String, CepEntity> carregador) {
+        Entrada entrada = cache.get(cep);
+        if (entrada != null) {
+            if (entrada.expiraEm > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return copiar(entrada.cep);
+            }
+            cache.remove(cep, entrada);
+        }
+        misses.incrementAndGet();
+        CompletableFuture<CepEntity> carga = new CompletableFuture<>();
+        CompletableFuture<CepEntity> emAndamento = carregando.putIfAbsent(cep, carga);
+        if (emAndamento != null) {
+            compartilhadas.incrementAndGet();
+            return copiar(aguardar(emAndamento));
+        }
+        try {
+            CepEntity entity = carregador.apply(cep);
+            //o CEP padrão devolvido no lugar do CEP pedido (modo offline) não fica no cache
+            if (cep.equals(entity.getCep()))
+                put(cep, entity);
+            carga.complete(entity);
+            return copiar(entity);
+        } catch (RuntimeException | Error ex) {
+            //a falha não fica no cache: quem estava esperando recebe o erro e a próxima chamada tenta de novo
+            carga.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            carregando.remove(cep, carga);
+        }
+    }
+    //CEPs válidos pelo prazo normal, inválidos pelo prazo negativo
+    public void put(String cep, CepEntity entity) {
+        long prazo = entity.isValido() ? validade : validadeNegativa;
+        cache.put(cep, new Entrada(copiar(entity), System.currentTimeMillis() + prazo));
+    }
+    private static CepEntity aguardar(CompletableFuture<CepEntity> carga) {
+        boolean interrompida = false;
+        try {
+            while (true) {
+                try {
+                    return carga.get();
+                } catch (InterruptedException e) {
+                    interrompida = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException)
+                        throw (RuntimeException) e.getCause();
+                    if (e.getCause() instanceof Error)
+                        throw (Error) e.getCause();
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrompida)
+                Thread.currentThread().interrupt();
+        }
+    }
+    static CepEntity copiar(CepEntity origem) {
+        CepEntity cep = new CepEntity();
+        cep.setCep(origem.getCep());
+        cep.setLogradouro(origem.getLogradouro());
+        cep.setBairro(origem.getBairro());
+        cep.setComplemento(origem.getComplemento());
+        cep.setLocalidade(origem.getLocalidade());
+        cep.setEstado(origem.getEstado());
+        cep.setUf(origem.getUf());
+        cep.setIbge(origem.getIbge());
+        cep.setValido(origem.isValido());
+        return cep;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+    public long getMisses() {
+        return misses.get();
+    }
+    //chamadas que aguardaram a carga iniciada por outra thread em vez de repetir a consulta
+    public long getCompartilhadas() {
+        return compartilhadas.get();
+    }
+    public int getSize() {
+        return cache.size();
+    }
+    public void clear() {
+        cache.clear();
+    }
+
+    private static final class Entrada {
+        private final CepEntity cep;
+        private final long expiraEm;
+
+        private Entrada(CepEntity cep, long expiraEm) {
+            this.cep = cep;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.digytal.control.service.modulo.param;
+
+import com.digytal.control.infra.export.RecordReader;
+import com.digytal.control.model.modulo.param.cep.Uf;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Carga da base local de CEPs (CSV com separador ';' e cabeçalho cep;logradouro;complemento;bairro;localidade;uf;ibge)
+ * na tab_cep. O arquivo é lido em streaming e gravado em blocos: cada bloco vai por COPY para uma tabela temporária
+ * e de lá para a tab_cep com INSERT ... ON CONFLICT, atualizando os CEPs já existentes.
+ * Com cep.carga.arquivo informado, a carga roda ao iniciar a aplicação.
+ */
+@Service
+@Slf4j
+public class CepCargaService {
+    private static final String COLUNAS = "cep, logradouro, complemento, bairro, localidade, estado, uf, ibge, is_valido";
+    @Value("${cep.carga.arquivo:}")
+    private String arquivo;
+    @Value("${cep.carga.bloco:50000}")
+    private int bloco;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private CepService cepService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void importarNaInicializacao() {
+        if (arquivo == null || arquivo.isBlank())
+            return;
+        Path path = Paths.get(arquivo);
+        if (!Files.isReadable(path)) {
+            log.warn("Arquivo de carga de CEPs não encontrado: {}", path);
+            return;
+        }
+        try (InputStream input = Files.newInputStream(path)) {
+            importar(input);
+        } catch (Exception ex) {
+            log.error("{ERRO} na carga de CEPs do arquivo {}", path, ex);
+        }
+    }
+
+    //devolve a quantidade de CEPs gravados
+    public int importar(InputStream input) throws SQLException, IOException {
+        long inicio = System.currentTimeMillis();
+        int total = 0;
+        int ignorados = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement st = connection.createStatement()) {
+                st.execute("CREATE TEMP TABLE IF NOT EXISTS tmp_cep_carga (LIKE apl_param.tab_cep) ON COMMIT DELETE ROWS");
+                CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+                RecordReader reader = RecordReader.csv(input);
+                StringBuilder linhas = new StringBuilder();
+                int quantidade = 0;
+                while (reader.hasNext()) {
+                    if (!linha(reader.next(), linhas)) {
+                        ignorados++;
+                        continue;
+                    }
+                    if (++quantidade == bloco) {
+                        total += gravar(connection, st, copy, linhas);
+                        linhas.setLength(0);
+                        quantidade = 0;
+                    }
+                }
+                if (quantidade > 0)
+                    total += gravar(connection, st, copy, linhas);
+            } catch (SQLException | IOException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        cepService.limparCache();
+        log.info("Carga de CEPs: {} gravados, {} ignorados em {} ms", total, ignorados, System.currentTimeMillis() - inicio);
+        return total;
+    }
+    private static int gravar(Connection connection, Statement st, CopyManager copy, StringBuilder linhas) throws SQLException, IOException {
+        copy.copyIn("COPY tmp_cep_carga (" + COLUNAS + ") FROM STDIN", new StringReader(linhas.toString()));
+        //o mesmo CEP repetido no bloco não pode ser atualizado duas vezes pelo mesmo INSERT
+        int gravados = st.executeUpdate("INSERT INTO apl_param.tab_cep (" + COLUNAS + ") " +
+                "SELECT DISTINCT ON (cep) " + COLUNAS + " FROM tmp_cep_carga ORDER BY cep " +
+                "ON CONFLICT (cep) DO UPDATE SET logradouro = excluded.logradouro, complemento = excluded.complemento, " +
+                "bairro = excluded.bairro, localidade = excluded.localidade, estado = excluded.estado, uf = excluded.uf, " +
+                "ibge = excluded.ibge, is_valido = excluded.is_valido");
+        connection.commit();
+        return gravados;
+    }
+
+    /**
+     * Acrescenta o registro no formato texto do COPY (colunas separadas por tab). Devolve false, sem acrescentar,
+     * quando o CEP ou a UF forem inválidos.
+     */
+    static boolean linha(Map<String, String> registro, StringBuilder linhas) {
+        String cep = registro.getOrDefault("cep", "").replaceAll("\\D", "");
+        if (cep.isEmpty() || cep.length() > 8)
+            return false;
+        Uf uf;
+        try {
+            uf = Uf.valueOf(registro.getOrDefault("uf", "").trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        String ibge = registro.getOrDefault("ibge", "").replaceAll("\\D", "");
+        linhas.append(String.format("%08d", Integer.parseInt(cep))).append('\t');
+        texto(linhas, registro.get("logradouro"), 80).append('\t');
+        texto(linhas, registro.get("complemento"), 60).append('\t');
+        texto(linhas, registro.get("bairro"), 80).append('\t');
+        texto(linhas, registro.get("localidade"), 80).append('\t');
+        linhas.append(uf.getNome()).append('\t');
+        linhas.append(uf.name()).append('\t');
+        linhas.append(ibge.isEmpty() || ibge.length() > 9 ? "\\N" : ibge).append('\t');
+        linhas.append("t\n");
+        return true;
+    }
+    private static StringBuilder texto(StringBuilder linhas, String valor, int tamanho) {
+        if (valor == null)
+            return linhas.append("\\N");
+        valor = valor.trim();
+        if (valor.length() > tamanho)
+            valor = valor.substring(0, tamanho);
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '\\': linhas.append("\\\\"); break;
+                case '\t': linhas.append("\\t"); break;
+                case '\n': linhas.append("\\n"); break;
+                case '\r': linhas.append("\\r"); break;
+                default: linhas.append(c);
+            }
+        }
+        return linhas;
+    }
+}
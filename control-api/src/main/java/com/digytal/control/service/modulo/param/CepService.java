@@ -9,21 +9,72 @@ import com.digytal.control.model.modulo.param.cep.CepEntity;
 import com.digytal.control.model.modulo.param.cep.CepResponse;
 import com.digytal.control.model.modulo.param.cep.Uf;
 import com.digytal.control.repository.modulo.param.CepRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static com.digytal.control.infra.commons.validation.Attributes.*;
 
+/**
+ * Resolve o CEP pelo cache em memória, depois pela tab_cep (que pode ser carregada em lote pelo
+ * CepCargaService) e só então pela consulta externa. Com o modo offline, ou por um tempo depois de uma falha
+ * da consulta externa, o CEP não encontrado resolve para o CEP padrão, sem ser gravado.
+ */
 @Service
+@Slf4j
 public class CepService {
+    private static final Definitions CEP_DIGITOS = Definitions.build().onlyDigits(CEP);
+    @Value("${cep.cache.tamanho:20000}")
+    private int tamanhoCache;
+    @Value("${cep.cache.validade:86400}")
+    private long validade;
+    @Value("${cep.cache.validade-negativa:600}")
+    private long validadeNegativa;
+    @Value("${cep.externo.url:https://viacep.com.br/ws/{cep}/json/}")
+    private String url;
+    @Value("${cep.externo.timeout:3000}")
+    private int timeout;
+    @Value("${cep.externo.espera:60}")
+    private int espera;
+    @Value("${cep.offline:false}")
+    private boolean offline;
     @Autowired
     private CepRepository repository;
-    @Transactional
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CepCache cache;
+    private RestTemplate client;
+    private TransactionTemplate gravacao;
+    private volatile long indisponivelAte;
+    private final AtomicLong consultasExternas = new AtomicLong();
+    private final AtomicLong falhasExternas = new AtomicLong();
+
+    @PostConstruct
+    public void iniciar() {
+        cache = new CepCache(tamanhoCache, validade * 1000, validadeNegativa * 1000);
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(timeout);
+        factory.setReadTimeout(timeout);
+        client = new RestTemplate(factory);
+        //o CEP gravado não depende da transação de quem consultou, como antes com o REQUIRES_NEW
+        gravacao = new TransactionTemplate(transactionManager);
+        gravacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
     public Endereco obterEndereco(String cep){
         CepEntity entity = obterCep(cep);
         Endereco endereco = new Endereco();
@@ -35,7 +86,6 @@ public class CepService {
         endereco.setCidade(cidade);
         return endereco;
     }
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public CepEntity obterCep(String cep){
         if(cep ==null)
             return criarCepPadrao();
@@ -45,35 +95,56 @@ public class CepService {
         cep = String.format("%08d", Integer.valueOf(cep.replaceAll("\\D","")));
         if(cep.length() > 8)
             throw new TamanhoMaximoException("Cep", 8);
+        return cache.get(cep, this::carregar);
+    }
+    private CepEntity carregar(String cep){
         CepEntity entity = repository.findById(cep).orElse(null);
-        if(entity==null){
-            entity = new CepEntity();
-            CepResponse cepResponse = consultar(cep);
-            BeanUtils.copyProperties(cepResponse, entity);
-            entity.setEstado(Uf.valueOf(cepResponse.getUf().toUpperCase()).getNome());
-            entity.setValido(cepResponse.isValido());
-            repository.save(entity);
-        }
+        if(entity!=null)
+            return entity;
+        if(isOffline())
+            return criarCepPadrao();
+        CepResponse cepResponse = consultar(cep);
+        if(cepResponse==null)
+            return criarCepPadrao();
+        entity = new CepEntity();
+        BeanUtils.copyProperties(cepResponse, entity);
+        entity.setEstado(Uf.valueOf(cepResponse.getUf().toUpperCase()).getNome());
+        entity.setValido(cepResponse.isValido());
+        gravar(entity);
         return entity;
     }
+    //pela entidade: os campos nulos do CEP inválido são gravados com o tipo da coluna
+    private void gravar(CepEntity entity){
+        try{
+            gravacao.executeWithoutResult(s -> {
+                if(!repository.existsById(entity.getCep()))
+                    repository.saveAndFlush(entity);
+            });
+        }catch (DataIntegrityViolationException ex){
+            //outro nó gravou o mesmo CEP ao mesmo tempo
+            log.debug("CEP {} já gravado: {}", entity.getCep(), ex.getMessage());
+        }
+    }
+    //null quando o serviço externo não respondeu
     private CepResponse consultar(String cep){
+        consultasExternas.incrementAndGet();
         try{
-            RestTemplate client = new RestTemplate();
-            String url = "https://viacep.com.br/ws/{cep}/json/";
             CepResponse codigoPostal = client.getForObject(url, CepResponse.class, cep);
             codigoPostal.setValido(codigoPostal.getCep()!=null);
             if(codigoPostal.isValido()){
                 //Definitions.build().upperNormalize(LOGRADOURO, COMPLEMENTO, BAIRRO,UF,LOCALIDADE).define(codigoPostal);
-                Definitions.build().onlyDigits(CEP).define(codigoPostal);
+                CEP_DIGITOS.define(codigoPostal);
             }else {
                 codigoPostal.setCep(cep);
                 codigoPostal.setUf(Uf.BR.name());
                 codigoPostal.setLocalidade(Uf.BR.getNome());
             }
             return codigoPostal;
-        }catch (ResourceAccessException ex){
-            //ex.printStackTrace();
-            return criarCepPadrao();
+        }catch (ResourceAccessException | HttpServerErrorException ex){
+            falhasExternas.incrementAndGet();
+            indisponivelAte = System.currentTimeMillis() + espera * 1000L;
+            log.warn("Consulta externa de CEP indisponível, usando somente a base local por {}s: {}", espera, ex.getMessage());
+            return null;
         }
     }
     private CepResponse criarCepPadrao(){
@@ -89,4 +160,21 @@ public class CepService {
         response.setLogradouro("");
         return response;
     }
+
+    public boolean isOffline() {
+        return offline || System.currentTimeMillis() < indisponivelAte;
+    }
+    //depois de uma carga em lote os CEPs antes inválidos podem existir na base
+    public void limparCache() {
+        cache.clear();
+    }
+    public CepCache getCache() {
+        return cache;
+    }
+    public long getConsultasExternas() {
+        return consultasExternas.get();
+    }
+    public long getFalhasExternas() {
+        return falhasExternas.get();
+    }
 }
@@ -0,0 +1,194 @@
+package com.digytal.control.service.modulo.param;
+
+import com.digytal.control.model.modulo.param.ibge.IbgeEntity;
+import com.digytal.control.model.modulo.param.ibge.MunicipioResponse;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice imutável dos municípios da tab_ibge em vetores paralelos, ordenados pelo nome sem acento: sem um
+ * objeto por município, a busca por prefixo é uma busca binária seguida de uma varredura contígua. Cada
+ * UF guarda as posições dos seus municípios, também na ordem do nome, e o código IBGE tem o seu próprio
+ * vetor ordenado para a consulta por código.
+ */
+public final class MunicipioIndice {
+    private final int[] codigos;
+    private final String[] chaves;
+    private final String[] nomes;
+    private final byte[] ufs;
+    private final String[] ufSiglas;
+    private final String[] ufNomes;
+    private final int[] ufCodigos;
+    private final int[][] porUf;
+    private final int[] codigosOrdenados;
+    private final int[] posicoesPorCodigo;
+    private final String versao;
+
+    public MunicipioIndice(List<IbgeEntity> municipios) {
+        int total = municipios.size();
+        //a chave é calculada uma vez por município, não a cada comparação
+        String[] chavesOriginais = new String[total];
+        Integer[] ordem = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            chavesOriginais[i] = chave(nome(municipios.get(i)));
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, Comparator.comparing((Integer i) -> chavesOriginais[i]).thenComparing(i -> municipios.get(i).getId()));
+        codigos = new int[total];
+        chaves = new String[total];
+        nomes = new String[total];
+        ufs = new byte[total];
+        Map<String, Integer> ufIndice = new LinkedHashMap<>();
+        List<IbgeEntity> ufDados = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            IbgeEntity municipio = municipios.get(ordem[i]);
+            codigos[i] = municipio.getId();
+            nomes[i] = nome(municipio);
+            chaves[i] = chavesOriginais[ordem[i]];
+            Integer uf = ufIndice.get(municipio.getUfSigla());
+            if (uf == null) {
+                uf = ufIndice.size();
+                ufIndice.put(municipio.getUfSigla(), uf);
+                ufDados.add(municipio);
+            }
+            ufs[i] = uf.byteValue();
+        }
+        ufSiglas = new String[ufDados.size()];
+        ufNomes = new String[ufDados.size()];
+        ufCodigos = new int[ufDados.size()];
+        int[] quantidades = new int[ufDados.size()];
+        for (int u = 0; u < ufDados.size(); u++) {
+            ufSiglas[u] = ufDados.get(u).getUfSigla().toUpperCase(Locale.ROOT);
+            ufNomes[u] = ufDados.get(u).getUfNome();
+            ufCodigos[u] = ufDados.get(u).getUfId();
+        }
+        for (byte uf : ufs)
+            quantidades[uf]++;
+        porUf = new int[ufDados.size()][];
+        for (int u = 0; u < porUf.length; u++)
+            porUf[u] = new int[quantidades[u]];
+        int[] preenchidos = new int[porUf.length];
+        for (int i = 0; i < total; i++)
+            porUf[ufs[i]][preenchidos[ufs[i]]++] = i;
+
+        Integer[] porCodigo = new Integer[total];
+        for (int i = 0; i < total; i++)
+            porCodigo[i] = i;
+        Arrays.sort(porCodigo, Comparator.comparingInt(i -> codigos[i]));
+        codigosOrdenados = new int[total];
+        posicoesPorCodigo = new int[total];
+        long hash = 17;
+        for (int i = 0; i < total; i++) {
+            codigosOrdenados[i] = codigos[porCodigo[i]];
+            posicoesPorCodigo[i] = porCodigo[i];
+            hash = hash * 31 + codigos[porCodigo[i]];
+            hash = hash * 31 + nomes[porCodigo[i]].hashCode();
+        }
+        versao = total + "-" + Long.toHexString(hash);
+    }
+
+    /**
+     * Municípios cujo nome começa com o texto informado (sem diferenciar acentos e maiúsculas), na ordem do
+     * nome, opcionalmente só de uma UF.
+     */
+    public List<MunicipioResponse> buscar(String prefixo, String uf, int limite) {
+        String chave = chave(prefixo == null ? "" : prefixo);
+        int[] posicoes = null;
+        if (uf != null && !uf.isBlank()) {
+            int u = uf(uf);
+            if (u < 0)
+                return Collections.emptyList();
+            posicoes = porUf[u];
+        }
+        int tamanho = posicoes == null ? chaves.length : posicoes.length;
+        //primeira posição com chave >= prefixo
+        int inicio = 0;
+        int fim = tamanho;
+        while (inicio < fim) {
+            int meio = (inicio + fim) >>> 1;
+            if (chaves[posicao(posicoes, meio)].compareTo(chave) < 0)
+                inicio = meio + 1;
+            else
+                fim = meio;
+        }
+        List<MunicipioResponse> encontrados = new ArrayList<>(Math.min(limite, 32));
+        for (int i = inicio; i < tamanho && encontrados.size() < limite; i++) {
+            int p = posicao(posicoes, i);
+            if (!chaves[p].startsWith(chave))
+                break;
+            encontrados.add(response(p));
+        }
+        return encontrados;
+    }
+    public MunicipioResponse obter(int codigo) {
+        int i = Arrays.binarySearch(codigosOrdenados, codigo);
+        return i < 0 ? null : response(posicoesPorCodigo[i]);
+    }
+    public List<MunicipioResponse> listar(String uf) {
+        int u = uf(uf);
+        if (u < 0)
+            return Collections.emptyList();
+        List<MunicipioResponse> municipios = new ArrayList<>(porUf[u].length);
+        for (int p : porUf[u])
+            municipios.add(response(p));
+        return municipios;
+    }
+
+    private static int posicao(int[] posicoes, int i) {
+        return posicoes == null ? i : posicoes[i];
+    }
+    private int uf(String sigla) {
+        String valor = sigla.trim().toUpperCase(Locale.ROOT);
+        for (int u = 0; u < ufSiglas.length; u++) {
+            if (ufSiglas[u].equals(valor))
+                return u;
+        }
+        return -1;
+    }
+    private MunicipioResponse response(int p) {
+        MunicipioResponse response = new MunicipioResponse();
+        response.setIbge(codigos[p]);
+        response.setNome(nomes[p]);
+        response.setUf(ufSiglas[ufs[p]]);
+        response.setEstado(ufNomes[ufs[p]]);
+        response.setUfIbge(ufCodigos[ufs[p]]);
+        return response;
+    }
+    private static String nome(IbgeEntity municipio) {
+        return municipio.getNomeOficial() == null || municipio.getNomeOficial().isBlank() ? municipio.getNome() : municipio.getNomeOficial();
+    }
+    //sem acentos, maiúsculo e com um único espaço entre as palavras; chamada a cada busca, por isso sem regex
+    static String chave(String texto) {
+        String semAcento = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(semAcento.length());
+        boolean espaco = false;
+        for (int i = 0; i < semAcento.length(); i++) {
+            char c = semAcento.charAt(i);
+            if (Character.isWhitespace(c)) {
+                espaco = sb.length() > 0;
+            } else if (c < 128) {
+                if (espaco)
+                    sb.append(' ');
+                espaco = false;
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    public int getTamanho() {
+        return codigos.length;
+    }
+    //muda quando o conteúdo da tab_ibge muda; usada como ETag
+    public String getVersao() {
+        return versao;
+    }
+}
@@ -0,0 +1,56 @@
+package com.digytal.control.service.modulo.param;
+
+import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
+import com.digytal.control.model.modulo.param.ibge.MunicipioResponse;
+import com.digytal.control.repository.modulo.param.IbgeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Municípios do IBGE. A tab_ibge é lida uma única vez, na primeira consulta, e as consultas seguintes são
+ * respondidas pelo MunicipioIndice em memória.
+ */
+@Service
+@Slf4j
+public class MunicipioService {
+    @Value("${municipio.busca.limite-maximo:50}")
+    private int limiteMaximo;
+    @Autowired
+    private IbgeRepository repository;
+    private volatile MunicipioIndice indice;
+
+    public List<MunicipioResponse> buscar(String nome, String uf, Integer limite){
+        int quantidade = limite == null || limite <= 0 ? 20 : Math.min(limite, limiteMaximo);
+        return getIndice().buscar(nome, uf, quantidade);
+    }
+    public MunicipioResponse obter(Integer ibge){
+        MunicipioResponse municipio = getIndice().obter(ibge);
+        if(municipio==null)
+            throw new RegistroNaoLocalizadoException();
+        return municipio;
+    }
+    public List<MunicipioResponse> listar(String uf){
+        return getIndice().listar(uf);
+    }
+    //para quando a tab_ibge for alterada sem reiniciar a aplicação
+    public synchronized void recarregar(){
+        long inicio = System.currentTimeMillis();
+        indice = new MunicipioIndice(repository.findAll());
+        log.info("Índice de municípios carregado: {} municípios em {} ms", indice.getTamanho(), System.currentTimeMillis() - inicio);
+    }
+    public MunicipioIndice getIndice(){
+        MunicipioIndice atual = indice;
+        if(atual == null){
+            synchronized (this){
+                if(indice == null)
+                    recarregar();
+                atual = indice;
+            }
+        }
+        return atual;
+    }
+}
@@ -1,11 +1,21 @@
 package com.digytal.control.webservice;
 
 import com.digytal.control.infra.business.ParametroInvalidoException;
+import com.digytal.control.infra.export.ExportFormat;
+import com.digytal.control.infra.export.RecordReader;
+import com.digytal.control.infra.export.RecordWriter;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 public class AbstractResource {
     @Autowired
@@ -19,4 +29,43 @@ public class AbstractResource {
         }
         return (T) filtro;
     }
+    public RecordWriter exportacao(String nome, ExportFormat formato, HttpServletResponse response){
+        return RecordWriter.of(formato, () -> {
+            response.setContentType(formato.getContentType() + ";charset=UTF-8");
+            response.setHeader("Content-Disposition", String.format("attachment; filename=%s.%s", nome, formato.getExtension()));
+            try {
+                return response.getOutputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, mapper);
+    }
+    /**
+     * Lê os registros de uma importação sob demanda: um array JSON ou NDJSON, ou um CSV com cabeçalho
+     * no formato da exportação. No CSV as colunas são convertidas pelos nomes dos atributos e o complemento
+     * recebe a linha original para preencher o que não é atributo simples; uma linha inválida gera
+     * ParametroInvalidoException somente para ela.
+     */
+    public <T> Iterator<T> importacao(ExportFormat formato, InputStream input, Class<T> classe, BiConsumer<Map<String, String>, T> complemento) throws IOException {
+        if (ExportFormat.CSV != formato)
+            return mapper.readerFor(classe).readValues(input);
+        RecordReader reader = RecordReader.csv(input);
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+            @Override
+            public T next() {
+                Map<String, String> linha = reader.next();
+                try {
+                    T registro = mapper.convertValue(linha, classe);
+                    complemento.accept(linha, registro);
+                    return registro;
+                } catch (IllegalArgumentException e) {
+                    throw new ParametroInvalidoException("Linha com valores inválidos: " + e.getMessage());
+                }
+            }
+        };
+    }
 }
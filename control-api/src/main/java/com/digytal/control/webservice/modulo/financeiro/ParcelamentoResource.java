@@ -4,6 +4,7 @@ package com.digytal.control.webservice.modulo.financeiro;
 import com.digytal.control.infra.http.response.Response;
 import com.digytal.control.infra.http.response.ResponseFactory;
 import com.digytal.control.integracao.asaas.model.BoletoResponse;
+import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.liquidacao.ParcelaCompensacaoRequest;
 import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.liquidacao.ParcelaPagamentoRequest;
 import com.digytal.control.service.modulo.financeiro.BoletoService;
 import com.digytal.control.service.modulo.financeiro.ParcelamentoService;
@@ -27,6 +28,12 @@ public class ParcelamentoResource {
         service.realizarCompensacao(id,request);
         return ResponseFactory.create(true,"Pagamento realizado com sucesso");
     }
+    @PostMapping("/parcelas/pagamento")
+    @ResponseStatus( HttpStatus.CREATED )
+    public Response realizarCompensacao(@RequestBody List<ParcelaCompensacaoRequest> request){
+        service.realizarCompensacao(request);
+        return ResponseFactory.create(true,String.format("Pagamento de %d parcela(s) realizado com sucesso", request.stream().map(ParcelaCompensacaoRequest::getParcela).distinct().count()));
+    }
     @PatchMapping("/parcelas/{parcela}/valor/{valorBoleto}/boleto")
     public Response gerarBoleto(@PathVariable("parcela") Integer parcela, @PathVariable("valorBoleto") Double valorBoleto){
         BoletoResponse response = boletoService.gerarBoleto(parcela, valorBoleto);
@@ -0,0 +1,32 @@
+package com.digytal.control.webservice.modulo.financeiro;
+
+import com.digytal.control.infra.http.response.Response;
+import com.digytal.control.infra.http.response.ResponseFactory;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.transacao.recorrente.TransacaoRecorrenteRequest;
+import com.digytal.control.service.modulo.financeiro.TransacaoRecorrenteService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/transacoes/recorrentes")
+@Tag(name = "Recursos referente a lançamentos recorrentes")
+public class TransacaoRecorrenteResource {
+    @Autowired
+    private TransacaoRecorrenteService service;
+    @GetMapping
+    public Response listar(){
+        return ResponseFactory.ok(service.listar(),"Consulta realizada com sucesso");
+    }
+    @PostMapping("/tipo/{tipo}")
+    @ResponseStatus(code = HttpStatus.CREATED)
+    public Response incluir(@PathVariable("tipo") AplicacaoTipo tipo, @RequestBody TransacaoRecorrenteRequest request){
+        return ResponseFactory.create(service.incluir(tipo, request),"Lançamento recorrente incluído com sucesso");
+    }
+    @PatchMapping("/{id}/encerrar")
+    public Response encerrar(@PathVariable("id") Integer id){
+        return ResponseFactory.ok(service.encerrar(id),"Lançamento recorrente encerrado com sucesso");
+    }
+}
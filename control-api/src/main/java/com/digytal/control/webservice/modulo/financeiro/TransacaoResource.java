@@ -1,24 +1,43 @@
 package com.digytal.control.webservice.modulo.financeiro;
 
+import com.digytal.control.infra.export.ExportFormat;
 import com.digytal.control.infra.http.response.Response;
 import com.digytal.control.infra.http.response.ResponseFactory;
 import com.digytal.control.infra.http.response.ResponseMessage;
+import com.digytal.control.model.comum.MeioPagamento;
 import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
 import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.lote.TransacaoLoteResponse;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.service.modulo.financeiro.TransacaoLoteService;
 import com.digytal.control.service.modulo.financeiro.TransacaoService;
+import com.digytal.control.webservice.AbstractResource;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 @RestController
 @RequestMapping("/transacoes")
 @Tag(name = "Recursos referente a lancamento")
-public class TransacaoResource {
+public class TransacaoResource extends AbstractResource {
+    private static final List<MediaType> LOTE_FORMATOS = Arrays.asList(MediaType.APPLICATION_JSON,
+            MediaType.valueOf(ExportFormat.NDJSON.getContentType()), MediaType.valueOf(ExportFormat.CSV.getContentType()));
     @Autowired
     private TransacaoService service;
+    @Autowired
+    private TransacaoLoteService loteService;
     @ApiResponses(value = {
             @ApiResponse(responseCode = ResponseMessage.R201),
             @ApiResponse(responseCode = ResponseMessage.R400),
@@ -61,6 +80,30 @@ public class TransacaoResource {
         incluirPagamento(tipo,request);
         return ResponseFactory.create(true,String.format("%s de %,.2f realizada com sucesso", tipo.getDescricao(), request.getValor()));
     }
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = ResponseMessage.R200),
+            @ApiResponse(responseCode = ResponseMessage.R400),
+            @ApiResponse(responseCode = ResponseMessage.R401),
+            @ApiResponse(responseCode = ResponseMessage.R403),
+            @ApiResponse(responseCode = ResponseMessage.R500),
+    })
+    @PostMapping("/lote/{tipo}")
+    public Response importarLote(@PathVariable("tipo") AplicacaoTipo tipo, @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, HttpServletRequest request) throws IOException, HttpMediaTypeNotSupportedException {
+        //CSV: data;valor;descricao;titulo;numeroDocumento;observacao;cadastro;natureza;area;meioPagamento (pagamento único do valor total)
+        //sem Content-Type ou com valor inválido o Spring responde 400 antes de chegar aqui; formato não suportado, 415
+        if (LOTE_FORMATOS.stream().noneMatch(contentType::isCompatibleWith))
+            throw new HttpMediaTypeNotSupportedException(contentType, LOTE_FORMATOS);
+        ExportFormat formato = contentType.isCompatibleWith(MediaType.valueOf(ExportFormat.CSV.getContentType())) ? ExportFormat.CSV : ExportFormat.NDJSON;
+        TransacaoLoteResponse response = loteService.importar(tipo, importacao(formato, request.getInputStream(), TransacaoRequest.class, (linha, transacao) -> {
+            if (linha.containsKey("meioPagamento")) {
+                FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+                rateio.setMeioPagamento(MeioPagamento.valueOf(linha.get("meioPagamento").trim().toUpperCase()));
+                rateio.setValorPago(transacao.getValor());
+                transacao.setFormasPagamento(Collections.singletonList(rateio));
+            }
+        }));
+        return ResponseFactory.ok(response, String.format("%d lançamentos incluídos e %d rejeitados", response.getIncluidos(), response.getRejeitados()));
+    }
     private void incluirPagamento(AplicacaoTipo tipo, TransacaoRequest request){
         service.incluir(tipo, request);
     }
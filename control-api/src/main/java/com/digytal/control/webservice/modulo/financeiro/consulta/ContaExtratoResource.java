@@ -0,0 +1,32 @@
+package com.digytal.control.webservice.modulo.financeiro.consulta;
+
+import com.digytal.control.infra.http.response.Response;
+import com.digytal.control.infra.http.response.ResponseFactory;
+import com.digytal.control.model.comum.filtro.FiltroData;
+import com.digytal.control.service.modulo.financeiro.consulta.ContaExtratoConsultaService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/consultas/contas")
+@Tag(name = "Recursos referente ao extrato e histórico de saldos das contas")
+public class ContaExtratoResource {
+    @Autowired
+    private ContaExtratoConsultaService service;
+    @GetMapping("/{id}/extrato")
+    public Response extrato(@PathVariable("id") Integer id, FiltroData filtro){
+        return ResponseFactory.ok(service.extrato(id, filtro),"Consulta realizada com sucesso!");
+    }
+    @GetMapping("/{id}/saldos")
+    public Response historico(@PathVariable("id") Integer id, FiltroData filtro){
+        return ResponseFactory.ok(service.historico(id, filtro),"Consulta realizada com sucesso!");
+    }
+    @GetMapping("/{id}/saldo")
+    public Response consultarSaldo(@PathVariable("id") Integer id, @RequestParam(value = "dia", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dia){
+        return ResponseFactory.ok(service.consultarSaldo(id, dia),"Consulta realizada com sucesso!");
+    }
+}
@@ -1,5 +1,7 @@
 package com.digytal.control.webservice.modulo.financeiro.consulta;
 
+import com.digytal.control.infra.export.ExportFormat;
+import com.digytal.control.infra.export.RecordWriter;
 import com.digytal.control.infra.http.response.Response;
 import com.digytal.control.infra.http.response.ResponseFactory;
 import com.digytal.control.model.consulta.lancamento.PagamentoFiltro;
@@ -10,6 +12,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Objects;
 
 @RestController
@@ -26,4 +30,10 @@ public class PagamentoConsultaResource extends AbstractResource {
     public Response pesquisarPagamentosCompleto(PagamentoFiltro filtro ){
         return ResponseFactory.ok(service.pesquisarCompleto(filtro),"Consulta realizada com sucesso!");
     }
+    @GetMapping("/export")
+    public void exportar(PagamentoFiltro filtro, @RequestParam(value = "formato", defaultValue = "NDJSON") ExportFormat formato, HttpServletResponse response) throws IOException {
+        RecordWriter writer = exportacao("pagamentos", formato, response);
+        service.exportar(filtro, writer::write);
+        writer.flush();
+    }
 }
@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -17,7 +18,7 @@ public class PagamentoResumoDiarioResource {
     @Autowired
     private PagamentoConsultaService service;
     @GetMapping()
-    public Response exibirResumoDiario(){
-        return ResponseFactory.ok(service.resumir(new PagamentoFiltro()),"Consulta realizada com sucesso!");
+    public Response exibirResumoDiario(@RequestParam(defaultValue = "false") boolean detalhado){
+        return ResponseFactory.ok(service.resumir(new PagamentoFiltro(), detalhado),"Consulta realizada com sucesso!");
     }
 }
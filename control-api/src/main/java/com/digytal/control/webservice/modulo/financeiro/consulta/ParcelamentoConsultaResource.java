@@ -1,21 +1,28 @@
 package com.digytal.control.webservice.modulo.financeiro.consulta;
 
+import com.digytal.control.infra.export.ExportFormat;
+import com.digytal.control.infra.export.RecordWriter;
 import com.digytal.control.infra.http.response.Response;
 import com.digytal.control.infra.http.response.ResponseFactory;
 import com.digytal.control.model.consulta.lancamento.LancamentoFiltro;
 import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
 import com.digytal.control.service.modulo.financeiro.consulta.ParcelamentoConsultaService;
+import com.digytal.control.webservice.AbstractResource;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/consultas/parcelamentos")
 @Tag(name = "Recursos referente a consultas de parcelamentos")
-public class ParcelamentoConsultaResource {
+public class ParcelamentoConsultaResource extends AbstractResource {
     @Autowired
     private ParcelamentoConsultaService service;
     @GetMapping
@@ -36,4 +43,10 @@ public class ParcelamentoConsultaResource {
     public Response consultarPacelas(@PathVariable("parcelamento") Integer parcelamento){
         return ResponseFactory.ok(service.listarParcelas(parcelamento),"Consulta realizada com sucesso!");
     }
+    @GetMapping("/export")
+    public void exportar(LancamentoFiltro filtro, @RequestParam(value = "formato", defaultValue = "NDJSON") ExportFormat formato, HttpServletResponse response) throws IOException {
+        RecordWriter writer = exportacao("parcelamentos", formato, response);
+        service.exportar(filtro, writer::write);
+        writer.flush();
+    }
 }
@@ -1,5 +1,7 @@
 package com.digytal.control.webservice.modulo.financeiro.consulta;
 
+import com.digytal.control.infra.export.ExportFormat;
+import com.digytal.control.infra.export.RecordWriter;
 import com.digytal.control.infra.http.response.Response;
 import com.digytal.control.infra.http.response.ResponseFactory;
 import com.digytal.control.model.consulta.lancamento.PagamentoFiltro;
@@ -7,18 +9,22 @@ import com.digytal.control.model.consulta.lancamento.TransacaoFiltro;
 import com.digytal.control.service.modulo.financeiro.TransacaoService;
 import com.digytal.control.service.modulo.financeiro.consulta.PagamentoConsultaService;
 import com.digytal.control.service.modulo.financeiro.consulta.TransacaoConsultaService;
+import com.digytal.control.webservice.AbstractResource;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Objects;
 
 @RestController
 @RequestMapping("/consultas/transacoes")
 @Tag(name = "Recursos referente a consulta de transações")
-public class TransacaoConsultaResource {
+public class TransacaoConsultaResource extends AbstractResource {
     @Autowired
     private TransacaoConsultaService service;
     @GetMapping()
@@ -29,4 +35,10 @@ public class TransacaoConsultaResource {
     public Response pesquisarCompleta(TransacaoFiltro filtro ){
         return ResponseFactory.ok(service.pesquisarCompleto(filtro),"Pesquisa realizada com sucesso!");
     }
+    @GetMapping("/export")
+    public void exportar(TransacaoFiltro filtro, @RequestParam(value = "formato", defaultValue = "NDJSON") ExportFormat formato, HttpServletResponse response) throws IOException {
+        RecordWriter writer = exportacao("transacoes", formato, response);
+        service.exportar(filtro, writer::write);
+        writer.flush();
+    }
 }
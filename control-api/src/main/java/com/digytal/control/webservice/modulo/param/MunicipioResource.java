@@ -0,0 +1,53 @@
+package com.digytal.control.webservice.modulo.param;
+
+import com.digytal.control.infra.http.response.Response;
+import com.digytal.control.infra.http.response.ResponseFactory;
+import com.digytal.control.service.modulo.param.MunicipioService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Os municípios mudam raramente: as respostas levam ETag (a versão do índice) e podem ficar no cache do
+ * navegador; com o If-None-Match da mesma versão a resposta é 304, sem corpo.
+ */
+@RestController
+@RequestMapping("/municipios")
+@Tag(name = "Recursos referente aos municípios (IBGE)")
+public class MunicipioResource {
+    @Autowired
+    private MunicipioService service;
+    @GetMapping
+    public ResponseEntity<Response> buscar(@RequestParam(value = "nome", required = false) String nome,
+                                           @RequestParam(value = "uf", required = false) String uf,
+                                           @RequestParam(value = "limite", required = false) Integer limite, WebRequest request){
+        return cacheavel(request, () -> ResponseFactory.ok(service.buscar(nome, uf, limite),"Consulta realizada com sucesso"));
+    }
+    @GetMapping("/{ibge}")
+    public ResponseEntity<Response> obter(@PathVariable("ibge") Integer ibge, WebRequest request){
+        return cacheavel(request, () -> ResponseFactory.ok(service.obter(ibge),"Consulta realizada com sucesso"));
+    }
+    @GetMapping("/uf/{uf}")
+    public ResponseEntity<Response> listar(@PathVariable("uf") String uf, WebRequest request){
+        return cacheavel(request, () -> ResponseFactory.ok(service.listar(uf),"Consulta realizada com sucesso"));
+    }
+    private ResponseEntity<Response> cacheavel(WebRequest request, Supplier<Response> response){
+        String etag = "\"" + service.getIndice().getVersao() + "\"";
+        if(request.checkNotModified(etag))
+            return null;
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                .eTag(etag)
+                .body(response.get());
+    }
+}
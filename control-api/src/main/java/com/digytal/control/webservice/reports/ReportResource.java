@@ -1,20 +1,23 @@
 package com.digytal.control.webservice.reports;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.digytal.control.infra.config.RequestInfo;
 import com.digytal.control.infra.report.ReportGenerator;
 import com.digytal.control.service.modulo.acesso.EmpresaService;
 
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+
 //https://www.tutorialspoint.com/jasper_reports/jasper_report_parameters.htm
 @Component
 public abstract class ReportResource {
@@ -36,10 +39,15 @@ public abstract class ReportResource {
 		if(subReports!=null)
 			generator.setSubReports(subReports);
         generator.setData(registros);
-        
-        byte[] content= generator.generateStream();
-        
-        ByteArrayInputStream fis = new ByteArrayInputStream(content);
+        //preenchido aqui, para um erro ainda virar a resposta de erro; o PDF é escrito direto na resposta, sem cópia em memória
+        JasperPrint print = generator.fill();
+        StreamingResponseBody body = output -> {
+            try {
+                generator.export(print, output);
+            } catch (JRException e) {
+                throw new IOException(e);
+            }
+        };
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Content-Disposition", String.format("inline; filename=%s-%s.pdf", nomeRelatorio, horario) );
@@ -47,7 +55,7 @@ public abstract class ReportResource {
                 .ok()
                 .headers(headers)
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(new InputStreamResource(fis));
+                .body(body);
 	}
 
 }
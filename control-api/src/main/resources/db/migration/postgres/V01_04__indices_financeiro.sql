@@ -0,0 +1,38 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_financeiro						DESCRIÇÃO: Índices secundários alinhados às consultas dos repositórios (*RepositoryImpl) e jobs
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+-- TransacaoRepositoryImpl / PagamentoRepositoryImpl / ParcelamentoRepositoryImpl: empresa + período (cpt_dia) e ordenação (cpt_data, id)
+CREATE INDEX ix_financeiro_transacao_empresa_dia                ON apl_financeiro.tab_transacao                 (part_empresa_id, cpt_dia);
+CREATE INDEX ix_financeiro_transacao_empresa_data               ON apl_financeiro.tab_transacao                 (part_empresa_id, cpt_data, id);
+CREATE INDEX ix_financeiro_transacao_cadastro                   ON apl_financeiro.tab_transacao                 (part_cadastro_id);
+
+CREATE INDEX ix_financeiro_transacao_rateio_transacao           ON apl_financeiro.tab_transacao_rateio          (transacao_id);
+
+CREATE INDEX ix_financeiro_pagamento_transacao                  ON apl_financeiro.tab_pagamento                 (transacao_id);
+CREATE INDEX ix_financeiro_pagamento_conta                      ON apl_financeiro.tab_pagamento                 (conta_id);
+CREATE INDEX ix_financeiro_pagamento_parcelamento               ON apl_financeiro.tab_pagamento                 (parcelamento_id);
+CREATE INDEX ix_financeiro_pagamento_cadastro                   ON apl_financeiro.tab_pagamento                 (cadastro_id);
+
+CREATE INDEX ix_financeiro_parcelamento_transacao               ON apl_financeiro.tab_parcelamento              (transacao_id);
+
+-- ParcelamentoRepositoryImpl.listarParcelas: parcelas do parcelamento ordenadas pelo número
+CREATE INDEX ix_financeiro_parcela_parcelamento                 ON apl_financeiro.tab_parcelamento_parcela      (parc_lancto_id, num_parcela);
+-- ParcelaRepository.listarParcelasBoleto: somente boletos solicitados e emitidos (status 'E')
+CREATE INDEX ix_financeiro_parcela_boleto_emitido               ON apl_financeiro.tab_parcelamento_parcela      (dt_vencto)                 WHERE bol_is_solicitado AND bol_status = 'E';
+-- ParcelaRepository.findByBoletoNumeroAutorizacao (webhook)
+CREATE INDEX ix_financeiro_parcela_boleto_autorizacao           ON apl_financeiro.tab_parcelamento_parcela      (bol_nr_autorizacao)        WHERE bol_nr_autorizacao IS NOT NULL;
+-- parcelas em aberto (não quitadas) por vencimento
+CREATE INDEX ix_financeiro_parcela_aberta                       ON apl_financeiro.tab_parcelamento_parcela      (parc_lancto_id, dt_vencto) WHERE NOT quit_is_efetuada;
+
+CREATE INDEX ix_financeiro_parcela_pagto_parcela                ON apl_financeiro.tab_parcelamento_parcela_pagto (parcela_id);
+CREATE INDEX ix_financeiro_parcela_pagto_parcelamento           ON apl_financeiro.tab_parcelamento_parcela_pagto (parcelamento_id);
+
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_acesso / apl_cadastro			DESCRIÇÃO: Índices das chaves de organização e empresa usadas nos filtros
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+CREATE INDEX ix_acessos_conta_empresa                           ON apl_acesso.tab_conta                         (empresa_id);
+CREATE INDEX ix_cadastros_cadastro_organizacao                  ON apl_cadastro.tab_cadastro                    (organizacao_id);
+-- ProdutoRepositoryImpl.pesquisar: organização ordenada por nome
+CREATE INDEX ix_cadastros_produto_organizacao_nome              ON apl_cadastro.tab_produto                     (organizacao_id, nome, id);
@@ -0,0 +1,12 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_cadastro						DESCRIÇÃO: Índices trigrama (pg_trgm) para as buscas por substring na coluna localiza
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX ix_cadastros_cadastro_localiza_trgm                ON apl_cadastro.tab_cadastro                    USING gin (localiza gin_trgm_ops);
+CREATE INDEX ix_cadastros_produto_localiza_trgm                 ON apl_cadastro.tab_produto                     USING gin (localiza gin_trgm_ops);
+CREATE INDEX ix_cadastros_marca_localiza_trgm                   ON apl_cadastro.tab_marca                       USING gin (localiza gin_trgm_ops);
+CREATE INDEX ix_cadastros_modelo_localiza_trgm                  ON apl_cadastro.tab_modelo                      USING gin (localiza gin_trgm_ops);
+CREATE INDEX ix_cadastros_categoria_localiza_trgm               ON apl_cadastro.tab_categoria                   USING gin (localiza gin_trgm_ops);
+CREATE INDEX ix_cadastros_unid_medida_localiza_trgm             ON apl_cadastro.tab_unid_medida                 USING gin (localiza gin_trgm_ops);
@@ -0,0 +1,25 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_financeiro						DESCRIÇÃO: Sequências com incremento 50 (pooled) no lugar do serial, permitindo insert em lote pelo Hibernate
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+-- O Hibernate (otimizador pooled) reserva um bloco de 50 ids por nextval e trata o valor retornado como o fim do bloco,
+-- por isso a sequência é posicionada no maior id existente antes de alterar o incremento.
+-- O default do serial é removido para que todas as inserções usem o mesmo critério de reserva.
+
+SELECT setval('apl_financeiro.tab_transacao_id_seq', GREATEST((SELECT max(id) FROM apl_financeiro.tab_transacao), 1));
+SELECT setval('apl_financeiro.tab_transacao_rateio_id_seq', GREATEST((SELECT max(id) FROM apl_financeiro.tab_transacao_rateio), 1));
+SELECT setval('apl_financeiro.tab_pagamento_id_seq', GREATEST((SELECT max(id) FROM apl_financeiro.tab_pagamento), 1));
+SELECT setval('apl_financeiro.tab_parcelamento_id_seq', GREATEST((SELECT max(id) FROM apl_financeiro.tab_parcelamento), 1));
+SELECT setval('apl_financeiro.tab_parcelamento_parcela_id_seq', GREATEST((SELECT max(id) FROM apl_financeiro.tab_parcelamento_parcela), 1));
+
+ALTER SEQUENCE apl_financeiro.tab_transacao_id_seq                     INCREMENT BY 50;
+ALTER SEQUENCE apl_financeiro.tab_transacao_rateio_id_seq              INCREMENT BY 50;
+ALTER SEQUENCE apl_financeiro.tab_pagamento_id_seq                     INCREMENT BY 50;
+ALTER SEQUENCE apl_financeiro.tab_parcelamento_id_seq                  INCREMENT BY 50;
+ALTER SEQUENCE apl_financeiro.tab_parcelamento_parcela_id_seq          INCREMENT BY 50;
+
+ALTER TABLE apl_financeiro.tab_transacao                        ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE apl_financeiro.tab_transacao_rateio                 ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE apl_financeiro.tab_pagamento                        ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE apl_financeiro.tab_parcelamento                     ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE apl_financeiro.tab_parcelamento_parcela             ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,24 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_financeiro						DESCRIÇÃO: Totais diários de pagamentos por empresa, tipo, meio de pagamento e conta (mantidos pelo PagamentoService)
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+CREATE TABLE apl_financeiro.tab_pagamento_resumo_diario (
+	empresa_id                  int4                            NOT NULL,
+	cpt_dia                     date                            NOT NULL,
+	tipo                        char(1)                         NOT NULL,
+	meio_pagto                  char(1)                         NOT NULL,
+	conta_id                    int4                            NOT NULL,
+	vl_informado                numeric(15,4)                   NOT NULL,
+	qt_pagamentos               int4                            NOT NULL,
+
+	CONSTRAINT pk_financeiro_pagamento_resumo_diario            PRIMARY KEY (empresa_id, cpt_dia, tipo, meio_pagto, conta_id),
+	CONSTRAINT fk_financeiro_pagamento_resumo_diario_empresa    FOREIGN KEY (empresa_id)                 REFERENCES apl_acesso.tab_empresa(id),
+	CONSTRAINT fk_financeiro_pagamento_resumo_diario_conta      FOREIGN KEY (conta_id)                   REFERENCES apl_acesso.tab_conta(id)
+);
+
+-- carga inicial a partir dos pagamentos existentes (a mesma consulta é usada pela reconstrução do Job)
+INSERT INTO apl_financeiro.tab_pagamento_resumo_diario (empresa_id, cpt_dia, tipo, meio_pagto, conta_id, vl_informado, qt_pagamentos)
+SELECT t.part_empresa_id, t.cpt_dia, t.tipo, p.meio_pagto, p.conta_id, sum(p.vl_informado), count(*)
+  FROM apl_financeiro.tab_pagamento p
+ INNER JOIN apl_financeiro.tab_transacao t ON p.transacao_id = t.id
+ GROUP BY t.part_empresa_id, t.cpt_dia, t.tipo, p.meio_pagto, p.conta_id;
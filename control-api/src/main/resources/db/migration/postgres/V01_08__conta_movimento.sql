@@ -0,0 +1,50 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_financeiro						DESCRIÇÃO: Movimentos das contas (somente inclusão) e saldos diários para consulta de saldo em uma data e extrato
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+CREATE SEQUENCE apl_financeiro.tab_conta_movimento_id_seq INCREMENT BY 50;
+
+CREATE TABLE apl_financeiro.tab_conta_movimento (
+	id                          int8                            NOT NULL,
+	conta_id                    int4                            NOT NULL,
+	pagamento_id                int4                                NULL,
+	cpt_data                    timestamp                       NOT NULL,
+	cpt_dia                     date                            NOT NULL,
+	descricao                   varchar(80)                     NOT NULL,
+	valor                       numeric(13,4)                   NOT NULL,
+	saldo                       numeric(13,4)                   NOT NULL,
+
+	CONSTRAINT pk_financeiro_conta_movimento                    PRIMARY KEY (id),
+	CONSTRAINT fk_financeiro_conta_movimento_conta              FOREIGN KEY (conta_id)                   REFERENCES apl_acesso.tab_conta(id),
+	CONSTRAINT fk_financeiro_conta_movimento_pagamento          FOREIGN KEY (pagamento_id)               REFERENCES apl_financeiro.tab_pagamento(id) DEFERRABLE INITIALLY DEFERRED
+);
+ALTER SEQUENCE apl_financeiro.tab_conta_movimento_id_seq OWNED BY apl_financeiro.tab_conta_movimento.id;
+
+CREATE INDEX ix_financeiro_conta_movimento_conta_dia            ON apl_financeiro.tab_conta_movimento           (conta_id, cpt_dia, cpt_data, id);
+
+-- saldo da conta ao final do dia, gravado pelo Job para os dias com movimento
+CREATE TABLE apl_financeiro.tab_conta_saldo (
+	conta_id                    int4                            NOT NULL,
+	cpt_dia                     date                            NOT NULL,
+	saldo                       numeric(13,4)                   NOT NULL,
+
+	CONSTRAINT pk_financeiro_conta_saldo                        PRIMARY KEY (conta_id, cpt_dia),
+	CONSTRAINT fk_financeiro_conta_saldo_conta                  FOREIGN KEY (conta_id)                   REFERENCES apl_acesso.tab_conta(id)
+);
+
+-- saldo de abertura ao final de ontem: o saldo atual sem os pagamentos de transações de hoje em diante
+INSERT INTO apl_financeiro.tab_conta_saldo (conta_id, cpt_dia, saldo)
+SELECT c.id, CURRENT_DATE - 1, c.saldo - COALESCE(sum(p.vl_operacional), 0)
+  FROM apl_acesso.tab_conta c
+  LEFT JOIN apl_financeiro.tab_pagamento p ON p.conta_id = c.id
+   AND EXISTS (SELECT 1 FROM apl_financeiro.tab_transacao t WHERE t.id = p.transacao_id AND t.cpt_dia >= CURRENT_DATE)
+ GROUP BY c.id, c.saldo;
+
+-- os pagamentos excluídos da abertura entram no razão como movimentos do dia da transação
+INSERT INTO apl_financeiro.tab_conta_movimento (id, conta_id, pagamento_id, cpt_data, cpt_dia, descricao, valor, saldo)
+SELECT nextval('apl_financeiro.tab_conta_movimento_id_seq'), p.conta_id, p.id, t.cpt_data, t.cpt_dia, p.descricao, p.vl_operacional,
+       s.saldo + sum(p.vl_operacional) OVER (PARTITION BY p.conta_id ORDER BY t.cpt_dia, t.cpt_data, p.id)
+  FROM apl_financeiro.tab_pagamento p
+ INNER JOIN apl_financeiro.tab_transacao t ON t.id = p.transacao_id
+ INNER JOIN apl_financeiro.tab_conta_saldo s ON s.conta_id = p.conta_id
+ WHERE t.cpt_dia >= CURRENT_DATE;
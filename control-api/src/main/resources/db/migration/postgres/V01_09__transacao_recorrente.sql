@@ -0,0 +1,46 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_financeiro						DESCRIÇÃO: Modelos de lançamentos recorrentes e ocorrências já geradas (uma por modelo e data)
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+CREATE TABLE apl_financeiro.tab_transacao_recorrente (
+	id                          serial4                         NOT NULL,
+	tipo                        char(1)                         NOT NULL,
+	titulo                      varchar(40)                     NOT NULL,
+	descricao                   varchar(200)                    NOT NULL,
+	observacao                  varchar(100)                        NULL,
+	valor                       numeric(13,4)                   NOT NULL,
+	meio_pagto                  char(1)                         NOT NULL,
+	part_cadastro_id            int4                            NOT NULL,
+	part_empresa_id             int4                            NOT NULL,
+	part_organizacao_id         int4                            NOT NULL,
+	part_usuario_id             int4                            NOT NULL,
+	aplic_area                  int4                            NOT NULL,
+	aplic_natureza              int4                            NOT NULL,
+	periodicidade               char(1)                         NOT NULL,
+	dt_inicial                  date                            NOT NULL,
+	dt_proxima_ocorrencia       date                                NULL,
+	repeticoes_total            int4                                NULL,
+	repeticoes_realizadas       int4                            NOT NULL DEFAULT 0,
+	ativo                       bool                            NOT NULL DEFAULT true,
+
+	CONSTRAINT pk_financeiro_transacao_recorrente               PRIMARY KEY (id),
+	CONSTRAINT fk_financeiro_transacao_recorrente_empresa       FOREIGN KEY (part_empresa_id)            REFERENCES apl_acesso.tab_empresa(id),
+	CONSTRAINT fk_financeiro_transacao_recorrente_cadastro      FOREIGN KEY (part_cadastro_id)           REFERENCES apl_cadastro.tab_cadastro(id),
+	CONSTRAINT fk_financeiro_transacao_recorrente_natureza      FOREIGN KEY (aplic_natureza)             REFERENCES apl_acesso.tab_aplicacao(id),
+	CONSTRAINT ck_financeiro_transacao_recorrente_tipo          CHECK (tipo                              in ('R','D'))
+);
+
+-- somente os modelos ativos, na ordem em que o Job os seleciona
+CREATE INDEX ix_financeiro_transacao_recorrente_proxima         ON apl_financeiro.tab_transacao_recorrente      (dt_proxima_ocorrencia, id) WHERE ativo;
+
+-- a chave primária garante uma única transação por modelo e data, mesmo com reprocessamento ou mais de um nó
+CREATE TABLE apl_financeiro.tab_transacao_recorrente_ocorrencia (
+	recorrente_id               int4                            NOT NULL,
+	dt_ocorrencia               date                            NOT NULL,
+	transacao_id                int4                                NULL,
+	cpt_data                    timestamp                       NOT NULL DEFAULT now(),
+
+	CONSTRAINT pk_financeiro_transacao_recorrente_ocorrencia    PRIMARY KEY (recorrente_id, dt_ocorrencia),
+	CONSTRAINT fk_financeiro_transacao_recorrente_ocorrencia    FOREIGN KEY (recorrente_id)              REFERENCES apl_financeiro.tab_transacao_recorrente(id),
+	CONSTRAINT fk_financeiro_transacao_recorrente_transacao     FOREIGN KEY (transacao_id)               REFERENCES apl_financeiro.tab_transacao(id) DEFERRABLE INITIALLY DEFERRED
+);
@@ -0,0 +1,25 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_financeiro						DESCRIÇÃO: Entrada dos webhooks (gravados na chegada e processados pelo Job), um registro por provedor e evento
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+CREATE TABLE apl_financeiro.tab_webhook_evento (
+	id                          bigserial                       NOT NULL,
+	provedor                    varchar(20)                     NOT NULL,
+	evento_id                   varchar(100)                    NOT NULL,
+	evento                      varchar(60)                     NOT NULL,
+	access_token                varchar(200)                        NULL,
+	payload                     text                            NOT NULL,
+	status                      char(1)                         NOT NULL DEFAULT 'P',
+	tentativas                  int4                            NOT NULL DEFAULT 0,
+	dt_recebimento              timestamp                       NOT NULL DEFAULT now(),
+	dt_proxima_tentativa        timestamp                       NOT NULL DEFAULT now(),
+	dt_processamento            timestamp                           NULL,
+	ultimo_erro                 varchar(500)                        NULL,
+
+	CONSTRAINT pk_financeiro_webhook_evento                     PRIMARY KEY (id),
+	CONSTRAINT uk_financeiro_webhook_evento                     UNIQUE (provedor, evento_id),
+	CONSTRAINT ck_financeiro_webhook_evento_status              CHECK (status                            in ('P','C','F'))
+);
+
+-- somente os pendentes, na ordem em que os workers os reservam
+CREATE INDEX ix_financeiro_webhook_evento_pendente              ON apl_financeiro.tab_webhook_evento            (dt_proxima_tentativa, id) WHERE status = 'P';
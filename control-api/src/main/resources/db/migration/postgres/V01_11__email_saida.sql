@@ -0,0 +1,24 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_acesso						DESCRIÇÃO: Caixa de saída dos e-mails (gravados junto com a operação e enviados em lotes pelo Job)
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+CREATE TABLE apl_acesso.tab_email_saida (
+	id                          bigserial                       NOT NULL,
+	remetente                   varchar(100)                        NULL,
+	destinatario                varchar(200)                    NOT NULL,
+	titulo                      varchar(200)                    NOT NULL,
+	corpo                       text                            NOT NULL,
+	html                        bool                            NOT NULL DEFAULT false,
+	status                      char(1)                         NOT NULL DEFAULT 'P',
+	tentativas                  int4                            NOT NULL DEFAULT 0,
+	dt_criacao                  timestamp                       NOT NULL DEFAULT now(),
+	dt_proxima_tentativa        timestamp                       NOT NULL DEFAULT now(),
+	dt_envio                    timestamp                           NULL,
+	ultimo_erro                 varchar(500)                        NULL,
+
+	CONSTRAINT pk_acesso_email_saida                            PRIMARY KEY (id),
+	CONSTRAINT ck_acesso_email_saida_status                     CHECK (status                            in ('P','E','F'))
+);
+
+-- somente os pendentes, na ordem em que são reservados para envio
+CREATE INDEX ix_acesso_email_saida_pendente                     ON apl_acesso.tab_email_saida                   (dt_proxima_tentativa, id) WHERE status = 'P';
@@ -0,0 +1,9 @@
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+-- MÓDULO : apl_financeiro						DESCRIÇÃO: O token do webhook passa a ser conferido no recebimento e deixa de ser gravado
+-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------
+
+-- pendentes gravados antes da conferência no recebimento não são compensados sem o token; a conciliação diária dos boletos os compensa
+UPDATE apl_financeiro.tab_webhook_evento SET status = 'F', dt_processamento = now(), ultimo_erro = 'Recebido sem a conferência do token'
+WHERE status = 'P';
+
+ALTER TABLE apl_financeiro.tab_webhook_evento DROP COLUMN access_token;
@@ -0,0 +1,148 @@
+import com.digytal.control.infra.business.IntegracaoException;
+import com.digytal.control.integracao.asaas.AsaasClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exercita o AsaasClient contra um servidor HTTP local que responde com a sequência de status (e atrasos)
+ * programada em cada teste.
+ */
+public class AsaasClientTest {
+    private HttpServer server;
+    private final Queue<int[]> respostas = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requisicoes = new AtomicInteger();
+    private AsaasClient client;
+    //thread interrompida pelo servidor nas respostas marcadas
+    private volatile Thread interrompida;
+
+    @BeforeEach
+    public void iniciar() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requisicoes.incrementAndGet();
+            //status, atraso em ms e marca de interrupção, 200 quando não houver mais nada programado
+            int[] resposta = respostas.poll();
+            int status = resposta == null ? 200 : resposta[0];
+            if (resposta != null && resposta.length > 2)
+                interrompida.interrupt();
+            try {
+                if (resposta != null && resposta.length > 1)
+                    Thread.sleep(resposta[1]);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] corpo = ("{\"token\":\"" + exchange.getRequestHeaders().getFirst("access_token") + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, corpo.length);
+            exchange.getResponseBody().write(corpo);
+            exchange.close();
+        });
+        server.start();
+
+        AsaasClient.Configuracao configuracao = new AsaasClient.Configuracao();
+        configuracao.setLeituraTimeout(300);
+        configuracao.setTentativas(3);
+        configuracao.setBackoff(10);
+        configuracao.setFalhasCircuito(2);
+        configuracao.setEsperaCircuito(200);
+        client = new AsaasClient("http://localhost:" + server.getAddress().getPort() + "/api/v3/", configuracao);
+    }
+
+    @AfterEach
+    public void parar() throws Exception {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void consultaRepeteEmErro5xx(){
+        respostas.add(new int[]{503});
+        respostas.add(new int[]{502});
+        String corpo = client.get("token-empresa", String.class, "/payments?id={id}", "pay_1");
+        Assertions.assertTrue(corpo.contains("token-empresa"));
+        Assertions.assertEquals(3, requisicoes.get());
+        Assertions.assertEquals(2, client.getRetentativas());
+    }
+
+    @Test
+    public void consultaRepeteAposTempoDeLeitura(){
+        respostas.add(new int[]{200, 600});
+        Assertions.assertNotNull(client.get("t", String.class, "/customers?id={id}", "cus_1"));
+        Assertions.assertEquals(2, requisicoes.get());
+    }
+
+    @Test
+    public void inclusaoNaoRepeteDepoisDeEnviada(){
+        respostas.add(new int[]{500});
+        Assertions.assertThrows(HttpServerErrorException.class, () -> client.post("t", "{}", String.class, "/payments"));
+        Assertions.assertEquals(1, requisicoes.get());
+        respostas.add(new int[]{200, 600});
+        Assertions.assertThrows(ResourceAccessException.class, () -> client.post("t", "{}", String.class, "/payments"));
+        Assertions.assertEquals(2, requisicoes.get());
+    }
+
+    @Test
+    public void erro4xxNaoRepeteNemAbreCircuito(){
+        for (int i = 0; i < 3; i++) {
+            respostas.add(new int[]{400});
+            Assertions.assertThrows(HttpClientErrorException.class, () -> client.post("t", "{}", String.class, "/payments"));
+        }
+        Assertions.assertEquals(3, requisicoes.get());
+        Assertions.assertFalse(client.isCircuitoAberto());
+    }
+
+    @Test
+    public void circuitoAbreEFechaAposEspera() throws Exception {
+        for (int i = 0; i < 6; i++)
+            respostas.add(new int[]{500});
+        Assertions.assertThrows(HttpServerErrorException.class, () -> client.get("t", String.class, "/payments"));
+        Assertions.assertThrows(HttpServerErrorException.class, () -> client.get("t", String.class, "/payments"));
+        Assertions.assertTrue(client.isCircuitoAberto());
+        Assertions.assertEquals(6, requisicoes.get());
+
+        //aberto: recusa sem chamar o servidor
+        Assertions.assertThrows(IntegracaoException.class, () -> client.get("t", String.class, "/payments"));
+        Assertions.assertEquals(6, requisicoes.get());
+        Assertions.assertEquals(1, client.getRecusadas());
+
+        //depois da espera a chamada de teste passa e fecha o circuito
+        Thread.sleep(250);
+        Assertions.assertNotNull(client.get("t", String.class, "/payments"));
+        Assertions.assertFalse(client.isCircuitoAberto());
+    }
+
+    @Test
+    public void chamadaDeTesteInterrompidaLiberaOCircuito() throws Exception {
+        for (int i = 0; i < 6; i++)
+            respostas.add(new int[]{500});
+        Assertions.assertThrows(HttpServerErrorException.class, () -> client.get("t", String.class, "/payments"));
+        Assertions.assertThrows(HttpServerErrorException.class, () -> client.get("t", String.class, "/payments"));
+        Assertions.assertTrue(client.isCircuitoAberto());
+
+        //a chamada de teste recebe 500 e é interrompida na espera antes da nova tentativa
+        Thread.sleep(250);
+        interrompida = Thread.currentThread();
+        respostas.add(new int[]{500, 0, 1});
+        Assertions.assertThrows(IntegracaoException.class, () -> client.get("t", String.class, "/payments"));
+        Assertions.assertTrue(Thread.interrupted());
+        Assertions.assertEquals(7, requisicoes.get());
+
+        //a próxima chamada faz um novo teste em vez de ser recusada
+        Assertions.assertNotNull(client.get("t", String.class, "/payments"));
+        Assertions.assertFalse(client.isCircuitoAberto());
+        Assertions.assertEquals(0, client.getRecusadas());
+    }
+}
@@ -0,0 +1,83 @@
+import com.digytal.control.ControlApiApplication;
+import com.digytal.control.infra.config.TenantContext;
+import com.digytal.control.infra.security.jwt.Credencial;
+import com.digytal.control.infra.security.jwt.JwtObject;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.parcelamento.boleto.ParcelaBoletoStatus;
+import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaParcelamentoRequest;
+import com.digytal.control.repository.modulo.fincanceiro.ParcelaRepository;
+import com.digytal.control.service.modulo.financeiro.TransacaoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base dos testes que sobem a aplicação contra um banco PostgreSQL (as migrações são aplicadas na subida) e
+ * exercitam os serviços e repositórios reais. A requisição simulada é do usuário, empresa e organização 1
+ * da carga inicial (V01_03). Os dados gravados pelos testes não são removidos: use um banco de testes. Cada
+ * teste anota @EnabledIfEnvironmentVariable, que não é herdada.
+ *
+ * EXPLAIN_DATABASE_URL=jdbc:postgresql://localhost:5432/control_db mvn test
+ */
+@SpringBootTest(classes = ControlApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=${EXPLAIN_DATABASE_URL}",
+        "spring.datasource.username=${EXPLAIN_DATABASE_USER:postgres}",
+        "spring.datasource.password=${EXPLAIN_DATABASE_PASSWORD:postgres}",
+        //os webhooks gravados pelos testes são processados pelo próprio teste, não pelo Job
+        "webhook.evento.intervalo=3600000"})
+public abstract class BancoTest {
+    @Autowired
+    protected TransacaoService transacaoService;
+    @Autowired
+    protected ParcelaRepository parcelaRepository;
+
+    @BeforeEach
+    public void autenticar() {
+        TenantContext.set(Credencial.of(JwtObject.builder().subject("teste").usuario(1).empresa(1).organizacao(1)
+                .issuedAt().expirationHours(1)));
+    }
+
+    @AfterEach
+    public void sair() {
+        TenantContext.clear();
+    }
+
+    //receita no boleto com as parcelas já emitidas na Asaas, como depois do BoletoService.gerarBoleto
+    protected List<ParcelaEntity> emitirBoletos(int parcelas, double valor) {
+        FormaParcelamentoRequest parcelamento = new FormaParcelamentoRequest();
+        parcelamento.setNumeroParcelas(parcelas);
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(MeioPagamento.BOLETO);
+        rateio.setValorPago(valor);
+        rateio.setParcelamento(parcelamento);
+        TransacaoRequest request = new TransacaoRequest();
+        request.setTitulo("BOLETO TESTE");
+        request.setDescricao("BOLETO TESTE");
+        request.setValor(valor);
+        request.setFormasPagamento(Collections.singletonList(rateio));
+        TransacaoEntity transacao = transacaoService.incluir(AplicacaoTipo.RECEITA, request);
+
+        List<ParcelaEntity> emitidas = new ArrayList<>();
+        for (ParcelaEntity parcela : transacao.getParcelamentos().get(0).getParcelas()) {
+            ParcelaEntity entity = parcelaRepository.findById(parcela.getId()).get();
+            entity.getBoleto().setSolicitado(true);
+            entity.getBoleto().setStatus(ParcelaBoletoStatus.EMITIDO);
+            entity.getBoleto().setNumeroAutorizacao("pay_" + UUID.randomUUID().toString().substring(0, 12));
+            entity.getBoleto().setValorOriginal(entity.getDetalhe().getValorAtual());
+            entity.getBoleto().setValorImpresso(entity.getDetalhe().getValorAtual());
+            emitidas.add(parcelaRepository.save(entity));
+        }
+        return emitidas;
+    }
+}
@@ -0,0 +1,68 @@
+import com.digytal.control.integracao.asaas.model.BoletoResponse;
+import com.digytal.control.model.modulo.financeiro.parcelamento.ParcelamentoEntity;
+import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
+import com.digytal.control.repository.modulo.fincanceiro.ParcelamentoRepository;
+import com.digytal.control.service.modulo.financeiro.BoletoService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compensação de parcelas do mesmo parcelamento ao mesmo tempo (conciliação e webhook): o parcelamento é travado,
+ * então o valor amortizado soma todas as parcelas compensadas.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class BoletoConciliacaoTest extends BancoTest {
+    @Autowired
+    private BoletoService boletoService;
+    @Autowired
+    private ParcelamentoRepository parcelamentoRepository;
+
+    @Test
+    public void parcelasDoMesmoParcelamentoEmParalelo() throws Exception {
+        List<ParcelaEntity> parcelas = emitirBoletos(4, 400.0);
+        Integer parcelamento = parcelas.get(0).getParcelamento();
+        ParcelamentoEntity antes = parcelamentoRepository.findById(parcelamento).get();
+
+        CyclicBarrier largada = new CyclicBarrier(parcelas.size());
+        ExecutorService executor = Executors.newFixedThreadPool(parcelas.size());
+        try {
+            List<Future<Boolean>> compensadas = new ArrayList<>();
+            for (ParcelaEntity parcela : parcelas)
+                compensadas.add(executor.submit(() -> {
+                    largada.await();
+                    return boletoService.compensarRecebido(parcela.getId(), recebido(parcela));
+                }));
+            for (Future<Boolean> compensada : compensadas)
+                Assertions.assertTrue(compensada.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        ParcelamentoEntity depois = parcelamentoRepository.findById(parcelamento).get();
+        Assertions.assertEquals(antes.getDetalhe().getValorAmortizado() + 400.0, depois.getDetalhe().getValorAmortizado(), 0.0001);
+        Assertions.assertEquals(0.0, depois.getDetalhe().getValorAtual(), 0.0001);
+        //de novo: já compensadas
+        Assertions.assertFalse(boletoService.compensarRecebido(parcelas.get(0).getId(), recebido(parcelas.get(0))));
+    }
+
+    private static BoletoResponse recebido(ParcelaEntity parcela) {
+        BoletoResponse response = new BoletoResponse();
+        response.setId(parcela.getBoleto().getNumeroAutorizacao());
+        response.setStatus("RECEIVED");
+        response.setBillingType("BOLETO");
+        response.setNetValue(parcela.getBoleto().getValorOriginal());
+        response.setPaymentDate(LocalDate.now());
+        response.setClientPaymentDate(LocalDate.now());
+        return response;
+    }
+}
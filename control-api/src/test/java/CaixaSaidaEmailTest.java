@@ -0,0 +1,140 @@
+import com.digytal.control.infra.email.EmailTemplate;
+import com.digytal.control.infra.email.EnvioEmailLote;
+import com.digytal.control.model.modulo.acesso.email.EmailSaidaEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envio em lote da caixa de saída contra um servidor SMTP local mínimo, que recusa os destinatários
+ * com "recusado" no endereço, e a renderização dos modelos HTML.
+ */
+public class CaixaSaidaEmailTest {
+    private ServerSocket server;
+    private Thread servidor;
+    private final AtomicInteger conexoes = new AtomicInteger();
+    private final Queue<String> recebidas = new ConcurrentLinkedQueue<>();
+    private JavaMailSenderImpl mailSender;
+
+    @BeforeEach
+    public void iniciar() throws Exception {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        servidor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try (Socket socket = server.accept()) {
+                    conexoes.incrementAndGet();
+                    atender(socket);
+                } catch (Exception e) {
+                    //servidor encerrado
+                }
+            }
+        });
+        servidor.setDaemon(true);
+        servidor.start();
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(server.getLocalPort());
+    }
+
+    @AfterEach
+    public void parar() throws Exception {
+        server.close();
+        servidor.join(1000);
+    }
+
+    @Test
+    public void loteEmUmaConexao(){
+        List<EmailSaidaEntity> emails = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            emails.add(email(i == 2 ? "recusado@teste.com" : "usuario" + i + "@teste.com", "Título " + i));
+        Map<EmailSaidaEntity, String> falhas = new EnvioEmailLote(mailSender).enviar(emails);
+
+        Assertions.assertEquals(1, conexoes.get());
+        Assertions.assertEquals(4, recebidas.size());
+        Assertions.assertEquals(1, falhas.size());
+        Assertions.assertTrue(falhas.containsKey(emails.get(2)));
+    }
+
+    @Test
+    public void servidorIndisponivelFalhaTodos() throws Exception {
+        server.close();
+        List<EmailSaidaEntity> emails = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            emails.add(email("usuario" + i + "@teste.com", "Título " + i));
+        Map<EmailSaidaEntity, String> falhas = new EnvioEmailLote(mailSender).enviar(emails);
+        Assertions.assertEquals(3, falhas.size());
+    }
+
+    @Test
+    public void modeloCompilado(){
+        EmailTemplate template = EmailTemplate.compilar("<p>Olá ${nome},</p><a href=\"${url}\">${url}</a>${ausente}.");
+        Map<String, Object> valores = new HashMap<>();
+        valores.put("nome", "Ana <b>");
+        valores.put("url", "http://x/?a=1&b=2");
+        Assertions.assertEquals("<p>Olá Ana &lt;b&gt;,</p><a href=\"http://x/?a=1&amp;b=2\">http://x/?a=1&amp;b=2</a>.", template.render(valores));
+
+        String html = EmailTemplate.carregar("email/novo-acesso.html").render(Map.of("nome", "Ana", "token", "123", "login", "ana"));
+        Assertions.assertTrue(html.contains("<p>Token: 123 </p>"), html);
+        Assertions.assertFalse(html.contains("${"), html);
+    }
+
+    private static EmailSaidaEntity email(String destinatario, String titulo) {
+        EmailSaidaEntity email = new EmailSaidaEntity();
+        email.setRemetente("sistema@teste.com");
+        email.setDestinatario(destinatario);
+        email.setTitulo(titulo);
+        email.setCorpo("<p>corpo</p>");
+        email.setHtml(true);
+        return email;
+    }
+
+    //o suficiente do protocolo SMTP para o JavaMail: sem autenticação e sem STARTTLS
+    private void atender(Socket socket) throws Exception {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        responder(out, "220 localhost SMTP");
+        String linha;
+        while ((linha = in.readLine()) != null) {
+            String comando = linha.toUpperCase();
+            if (comando.startsWith("EHLO") || comando.startsWith("HELO")) {
+                responder(out, "250-localhost");
+                responder(out, "250 8BITMIME");
+            } else if (comando.startsWith("RCPT")) {
+                responder(out, comando.contains("RECUSADO") ? "550 destinatario recusado" : "250 OK");
+            } else if (comando.startsWith("DATA")) {
+                responder(out, "354 fim com .");
+                StringBuilder corpo = new StringBuilder();
+                while (!".".equals(linha = in.readLine()))
+                    corpo.append(linha).append('\n');
+                recebidas.add(corpo.toString());
+                responder(out, "250 OK");
+            } else if (comando.startsWith("QUIT")) {
+                responder(out, "221 tchau");
+                return;
+            } else {
+                responder(out, "250 OK");
+            }
+        }
+    }
+    private static void responder(PrintWriter out, String resposta) {
+        out.print(resposta + "\r\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,91 @@
+import com.digytal.control.model.modulo.param.cep.CepEntity;
+import com.digytal.control.service.modulo.param.CepCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache de CEPs sem banco: consultas simultâneas do mesmo CEP com uma única carga, prazo menor para CEP
+ * inválido e o que não deve ficar no cache.
+ */
+public class CepCacheTest {
+    private static final int THREADS = 16;
+
+    @Test
+    public void cargaUnicaParaConsultasSimultaneas() throws Exception {
+        CepCache cache = new CepCache(100, 60_000, 1_000);
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<CepEntity>> tarefas = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                return cache.get("01001000", c -> {
+                    cargas.incrementAndGet();
+                    dormir(200);
+                    return cep(c, true);
+                });
+            }));
+        }
+        largada.countDown();
+        for (Future<CepEntity> tarefa : tarefas)
+            Assertions.assertEquals("SP", tarefa.get().getUf());
+        executor.shutdown();
+
+        Assertions.assertEquals(1, cargas.get());
+        Assertions.assertEquals(THREADS - 1, cache.getCompartilhadas());
+        //cada chamada recebe uma cópia
+        Assertions.assertNotSame(tarefas.get(0).get(), tarefas.get(1).get());
+        cache.get("01001000", c -> Assertions.fail("deveria vir do cache"));
+        Assertions.assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void cepInvalidoExpiraAntes() throws Exception {
+        CepCache cache = new CepCache(100, 60_000, 100);
+        AtomicInteger cargas = new AtomicInteger();
+        cache.get("00000001", c -> { cargas.incrementAndGet(); return cep(c, false); });
+        cache.get("00000001", c -> { cargas.incrementAndGet(); return cep(c, false); });
+        Assertions.assertEquals(1, cargas.get());
+        Thread.sleep(150);
+        cache.get("00000001", c -> { cargas.incrementAndGet(); return cep(c, false); });
+        Assertions.assertEquals(2, cargas.get());
+    }
+
+    @Test
+    public void falhaEPadraoNaoFicamNoCache(){
+        CepCache cache = new CepCache(2, 60_000, 60_000);
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.get("01001000", c -> { throw new IllegalStateException("fora do ar"); }));
+        //CEP padrão no lugar do pedido (offline)
+        Assertions.assertEquals("99999999", cache.get("01001000", c -> cep("99999999", false)).getCep());
+        Assertions.assertEquals(0, cache.getSize());
+
+        cache.get("01001000", c -> cep(c, true));
+        cache.get("01001001", c -> cep(c, true));
+        cache.get("01001002", c -> cep(c, true));
+        Assertions.assertEquals(2, cache.getSize());
+    }
+
+    private static CepEntity cep(String numero, boolean valido) {
+        CepEntity cep = new CepEntity();
+        cep.setCep(numero);
+        cep.setUf(valido ? "SP" : "BR");
+        cep.setValido(valido);
+        return cep;
+    }
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
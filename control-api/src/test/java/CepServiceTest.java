@@ -0,0 +1,82 @@
+import com.digytal.control.model.modulo.param.cep.CepEntity;
+import com.digytal.control.repository.modulo.param.CepRepository;
+import com.digytal.control.service.modulo.param.CepService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * CEP consultado no serviço externo (simulado localmente) e gravado na tab_cep, inclusive o CEP inválido, que
+ * volta sem logradouro, bairro, complemento e ibge.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class CepServiceTest extends BancoTest {
+    private static final String VALIDO = "01001000";
+    private static final String INVALIDO = "99999998";
+    @Autowired
+    private CepService service;
+    @Autowired
+    private CepRepository repository;
+    private HttpServer servidor;
+    private Object url;
+
+    @BeforeEach
+    public void iniciar() throws Exception {
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        servidor.createContext("/ws/", troca -> {
+            String resposta = troca.getRequestURI().getPath().contains(VALIDO)
+                    ? "{\"cep\":\"01001-000\",\"logradouro\":\"Praça da Sé\",\"complemento\":\"lado ímpar\",\"bairro\":\"Sé\",\"localidade\":\"São Paulo\",\"uf\":\"SP\",\"ibge\":\"3550308\"}"
+                    : "{\"erro\":true}";
+            byte[] corpo = resposta.getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(corpo);
+            }
+        });
+        servidor.start();
+        url = ReflectionTestUtils.getField(service, "url");
+        ReflectionTestUtils.setField(service, "url", "http://localhost:" + servidor.getAddress().getPort() + "/ws/{cep}/json/");
+        repository.deleteAllById(Arrays.asList(VALIDO, INVALIDO).stream().filter(repository::existsById).collect(Collectors.toList()));
+        service.limparCache();
+    }
+
+    @AfterEach
+    public void encerrar() {
+        ReflectionTestUtils.setField(service, "url", url);
+        servidor.stop(0);
+    }
+
+    @Test
+    public void cepInvalidoGravado() {
+        CepEntity cep = service.obterCep(INVALIDO);
+        Assertions.assertFalse(cep.isValido());
+        Assertions.assertNull(cep.getLogradouro());
+
+        CepEntity gravado = repository.findById(INVALIDO).get();
+        Assertions.assertFalse(gravado.isValido());
+        Assertions.assertNull(gravado.getIbge());
+        Assertions.assertEquals("BR", gravado.getUf());
+    }
+
+    @Test
+    public void cepValidoGravado() {
+        Assertions.assertEquals("São Paulo", service.obterCep(VALIDO).getLocalidade());
+        CepEntity gravado = repository.findById(VALIDO).get();
+        Assertions.assertTrue(gravado.isValido());
+        Assertions.assertEquals(3550308, gravado.getIbge());
+        //segunda consulta sem nova gravação (e pelo cache)
+        Assertions.assertEquals("Sé", service.obterCep("01001-000").getBairro());
+    }
+}
@@ -0,0 +1,72 @@
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.function.BiConsumer;
+
+/**
+ * Proxy JDK do DataSource dos testes de banco: cada comando (Statement, PreparedStatement ou CallableStatement)
+ * criado pelas conexões avisa o seu observador antes de cada chamada repassada ao comando real. O teste registra o
+ * BeanPostProcessor de {@link #observar(Observador)} como @Bean estático de uma @TestConfiguration.
+ */
+final class ComandosObservados {
+    //cria o observador de um comando; o SQL é o do prepareStatement/prepareCall, nulo no createStatement
+    interface Observador {
+        BiConsumer<Method, Object[]> comando(String sql);
+    }
+
+    private ComandosObservados() {
+    }
+
+    static BeanPostProcessor observar(Observador observador) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource))
+                    return bean;
+                DataSource dataSource = (DataSource) bean;
+                return proxy(DataSource.class, (p, m, a) -> {
+                    Object retorno = invocar(dataSource, m, a);
+                    return retorno instanceof Connection ? conexao((Connection) retorno, observador) : retorno;
+                });
+            }
+        };
+    }
+    private static Connection conexao(Connection connection, Observador observador) {
+        return proxy(Connection.class, (p, m, a) -> {
+            Object retorno = invocar(connection, m, a);
+            String sql = m.getName().startsWith("prepare") ? (String) a[0] : null;
+            if (retorno instanceof CallableStatement)
+                return comando((Statement) retorno, CallableStatement.class, observador.comando(sql));
+            if (retorno instanceof PreparedStatement)
+                return comando((Statement) retorno, PreparedStatement.class, observador.comando(sql));
+            if (retorno instanceof Statement)
+                return comando((Statement) retorno, Statement.class, observador.comando(sql));
+            return retorno;
+        });
+    }
+    private static Statement comando(Statement statement, Class<? extends Statement> tipo, BiConsumer<Method, Object[]> chamada) {
+        return proxy(tipo, (p, m, a) -> {
+            chamada.accept(m, a);
+            return invocar(statement, m, a);
+        });
+    }
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ComandosObservados.class.getClassLoader(), new Class[]{tipo}, handler);
+    }
+    private static Object invocar(Object alvo, Method m, Object[] a) throws Throwable {
+        try {
+            return m.invoke(alvo, a);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
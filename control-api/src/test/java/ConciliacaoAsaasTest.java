@@ -0,0 +1,119 @@
+import com.digytal.control.infra.utils.TokenBucket;
+import com.digytal.control.integracao.asaas.AsaasClient;
+import com.digytal.control.integracao.asaas.model.BoletoResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listagem paginada das cobranças recebidas, como feita pela conciliação de boletos, contra um servidor local
+ * que simula a API de pagamentos da Asaas (com uma falha 5xx no meio), e o limite de requisições por empresa.
+ */
+public class ConciliacaoAsaasTest {
+    private static final int RECEBIDOS = 250;
+    private HttpServer server;
+    private AsaasClient client;
+    private final List<String> consultas = new ArrayList<>();
+    private final AtomicInteger falhar = new AtomicInteger();
+
+    @BeforeEach
+    public void iniciar() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/v3/payments", exchange -> {
+            String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8.name());
+            synchronized (consultas) {
+                consultas.add(query);
+            }
+            if (falhar.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            Map<String, String> params = new HashMap<>();
+            for (String param : query.split("&"))
+                params.put(param.substring(0, param.indexOf('=')), param.substring(param.indexOf('=') + 1));
+            int offset = Integer.parseInt(params.get("offset"));
+            int limit = Integer.parseInt(params.get("limit"));
+            StringBuilder data = new StringBuilder();
+            for (int i = offset; i < Math.min(RECEBIDOS, offset + limit); i++) {
+                if (data.length() > 0)
+                    data.append(',');
+                data.append(String.format("{\"id\":\"pay_%d\",\"status\":\"RECEIVED\",\"netValue\":%d.5,\"paymentDate\":\"2023-10-%02d\",\"novoCampo\":1}", i, i, 1 + i % 28));
+            }
+            byte[] corpo = String.format("{\"object\":\"list\",\"hasMore\":%b,\"totalCount\":%d,\"limit\":%d,\"offset\":%d,\"data\":[%s]}",
+                    offset + limit < RECEBIDOS, RECEBIDOS, limit, offset, data).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, corpo.length);
+            exchange.getResponseBody().write(corpo);
+            exchange.close();
+        });
+        server.start();
+        AsaasClient.Configuracao configuracao = new AsaasClient.Configuracao();
+        configuracao.setBackoff(10);
+        client = new AsaasClient("http://localhost:" + server.getAddress().getPort() + "/api/v3/", configuracao);
+    }
+
+    @AfterEach
+    public void parar() throws Exception {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void listaTodasAsPaginas(){
+        falhar.set(1);
+        TokenBucket limite = new TokenBucket(1, 10);
+        long inicio = System.nanoTime();
+        List<BoletoResponse> recebidos = client.listar("t", BoletoResponse.class, limite,
+                "/payments?status=RECEIVED&dueDate[ge]={inicio}&dueDate[le]={fim}", LocalDate.of(2023, 10, 1), LocalDate.of(2023, 11, 1));
+        long duracao = (System.nanoTime() - inicio) / 1_000_000;
+
+        Assertions.assertEquals(RECEBIDOS, recebidos.size());
+        Assertions.assertEquals("pay_249", recebidos.get(RECEBIDOS - 1).getId());
+        Assertions.assertEquals(LocalDate.of(2023, 10, 2), recebidos.get(1).getPaymentDate());
+        //3 páginas e uma nova tentativa da primeira
+        Assertions.assertEquals(4, consultas.size());
+        Assertions.assertTrue(consultas.get(0).startsWith("status=RECEIVED&dueDate[ge]=2023-10-01&dueDate[le]=2023-11-01&offset=0&limit=100"), consultas.get(0));
+        Assertions.assertTrue(consultas.get(3).endsWith("offset=200&limit=100"), consultas.get(3));
+        //a primeira página usa a ficha disponível, as outras duas aguardam 100 ms cada
+        Assertions.assertTrue(duracao >= 180, "duração " + duracao);
+    }
+
+    @Test
+    public void limiteCompartilhadoEntreThreads() throws Exception {
+        TokenBucket limite = new TokenBucket(2, 50);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        long inicio = System.nanoTime();
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 5; i++)
+                    limite.adquirir();
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas)
+            tarefa.get();
+        executor.shutdown();
+        long duracao = (System.nanoTime() - inicio) / 1_000_000;
+        //20 fichas: 2 imediatas e 18 a 20 ms cada
+        Assertions.assertTrue(duracao >= 340, "duração " + duracao);
+        Assertions.assertTrue(duracao < 2_000, "duração " + duracao);
+    }
+}
@@ -0,0 +1,187 @@
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.filtro.FiltroData;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.acesso.empresa.conta.ContaEntity;
+import com.digytal.control.model.modulo.financeiro.conta.ContaExtratoResponse;
+import com.digytal.control.model.modulo.financeiro.conta.ContaMovimentoResponse;
+import com.digytal.control.model.modulo.financeiro.pagamento.PagamentoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoValor;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.repository.modulo.acesso.empresa.ContaRepository;
+import com.digytal.control.service.modulo.financeiro.ContaMovimentoService;
+import com.digytal.control.service.modulo.financeiro.consulta.ContaExtratoConsultaService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Extrato e saldos da conta 2 (PIX): movimentos na ordem de gravação mesmo com ids de outro bloco da sequência,
+ * saldo final igual ao saldo do dia, lançamento retroativo no dia da transação, lançamento depois do fechamento do
+ * próprio dia e fechamento diário, inclusive com um lançamento da conta em andamento durante o fechamento.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class ContaExtratoTest extends BancoTest {
+    private static final Integer CONTA = 2;
+    @Autowired
+    private ContaExtratoConsultaService consultaService;
+    @Autowired
+    private ContaMovimentoService movimentoService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void extratoDoDia() {
+        LocalDate hoje = LocalDate.now();
+        Double saldoAntes = consultaService.consultarSaldo(CONTA, hoje).getSaldo();
+        Integer pagamento = incluir(hoje, 40.0);
+        //movimento de outra instância: id de um bloco anterior da sequência, gravado depois
+        long outroNo = -ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+        jdbcTemplate.update("INSERT INTO apl_financeiro.tab_conta_movimento (id, conta_id, cpt_data, cpt_dia, descricao, valor, saldo) " +
+                "VALUES (?, ?, ?, ?, 'EXTRATO TESTE', 0, 0)", outroNo, CONTA, LocalDateTime.now().plusSeconds(1), hoje);
+
+        ContaExtratoResponse extrato = consultaService.extrato(CONTA, filtro(hoje, hoje));
+        List<ContaMovimentoResponse> movimentos = extrato.getMovimentos();
+        Assertions.assertEquals(outroNo, movimentos.get(movimentos.size() - 1).getId());
+        Assertions.assertEquals(pagamento, movimentos.get(movimentos.size() - 2).getPagamento());
+        Assertions.assertTrue(isOrdenado(movimentos));
+
+        double valor = movimentos.get(movimentos.size() - 2).getValor();
+        double soma = movimentos.stream().mapToDouble(ContaMovimentoResponse::getValor).sum();
+        Assertions.assertEquals(saldoAntes + valor, extrato.getSaldoFinal().getSaldo(), 0.0001);
+        Assertions.assertEquals(extrato.getSaldoAnterior().getSaldo() + soma, extrato.getSaldoFinal().getSaldo(), 0.0001);
+
+        movimentoService.fecharSaldos(hoje);
+        Double fechado = jdbcTemplate.queryForObject("SELECT saldo FROM apl_financeiro.tab_conta_saldo WHERE conta_id = ? AND cpt_dia = ?", Double.class, CONTA, hoje);
+        Assertions.assertEquals(extrato.getSaldoFinal().getSaldo(), fechado, 0.0001);
+    }
+
+    @Test
+    public void lancamentoRetroativo() {
+        LocalDate hoje = LocalDate.now();
+        LocalDate ontem = hoje.minusDays(1);
+        movimentoService.fecharSaldos(ontem);
+        Double ontemAntes = consultaService.consultarSaldo(CONTA, ontem).getSaldo();
+        Double hojeAntes = consultaService.consultarSaldo(CONTA, hoje).getSaldo();
+
+        Integer pagamento = incluir(ontem, 25.0);
+        Double valor = jdbcTemplate.queryForObject("SELECT valor FROM apl_financeiro.tab_conta_movimento WHERE pagamento_id = ? AND cpt_dia = ?", Double.class, pagamento, ontem);
+
+        //o fechamento de ontem, se já existia, recebe o movimento
+        Assertions.assertEquals(ontemAntes + valor, consultaService.consultarSaldo(CONTA, ontem).getSaldo(), 0.0001);
+        Assertions.assertEquals(hojeAntes + valor, consultaService.consultarSaldo(CONTA, hoje).getSaldo(), 0.0001);
+    }
+
+    @Test
+    public void lancamentoNoDiaJaFechado() {
+        LocalDate hoje = LocalDate.now();
+        movimentoService.fecharSaldos(hoje);
+        Double antes = consultaService.consultarSaldo(CONTA, hoje).getSaldo();
+
+        Integer pagamento = incluir(hoje, 15.0);
+        Double valor = jdbcTemplate.queryForObject("SELECT valor FROM apl_financeiro.tab_conta_movimento WHERE pagamento_id = ?", Double.class, pagamento);
+        Assertions.assertEquals(antes + valor, consultaService.consultarSaldo(CONTA, hoje).getSaldo(), 0.0001);
+    }
+
+    @Test
+    public void fechamentoComLancamentoEmAndamento() throws Exception {
+        LocalDate hoje = LocalDate.now();
+        Integer conta = criarConta();
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.executeWithoutResult(s -> movimentar(conta, 10.0, hoje));
+
+        CountDownLatch movimentado = new CountDownLatch(1);
+        CountDownLatch liberado = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            //lançamento aberto: saldo movimentado e movimento gravado, ainda sem commit
+            Future<?> lancamento = executor.submit(() -> transacao.executeWithoutResult(s -> {
+                movimentar(conta, 50.0, hoje);
+                movimentado.countDown();
+                try {
+                    liberado.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            movimentado.await();
+            Future<?> fechamento = executor.submit(() -> movimentoService.fecharSaldos(hoje));
+            //o fechamento espera a conta; sem a trava terminaria aqui, sem o movimento em aberto
+            Thread.sleep(1000);
+            liberado.countDown();
+            lancamento.get();
+            fechamento.get();
+        } finally {
+            executor.shutdown();
+        }
+        Double fechado = jdbcTemplate.queryForObject("SELECT saldo FROM apl_financeiro.tab_conta_saldo WHERE conta_id = ? AND cpt_dia = ?", Double.class, conta, hoje);
+        Assertions.assertEquals(60.0, fechado, 0.0001);
+        Assertions.assertEquals(60.0, consultaService.consultarSaldo(conta, hoje).getSaldo(), 0.0001);
+    }
+
+    private static boolean isOrdenado(List<ContaMovimentoResponse> movimentos) {
+        Comparator<ContaMovimentoResponse> ordem = Comparator.comparing(ContaMovimentoResponse::getDataHora).thenComparing(ContaMovimentoResponse::getId);
+        for (int i = 1; i < movimentos.size(); i++)
+            if (ordem.compare(movimentos.get(i - 1), movimentos.get(i)) > 0)
+                return false;
+        return true;
+    }
+    private Integer incluir(LocalDate dia, Double valor) {
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(MeioPagamento.PIX);
+        rateio.setValorPago(valor);
+        TransacaoRequest request = new TransacaoRequest();
+        request.setTitulo("EXTRATO TESTE");
+        request.setDescricao("EXTRATO TESTE");
+        request.setData(dia);
+        request.setValor(valor);
+        request.setFormasPagamento(Collections.singletonList(rateio));
+        return transacaoService.incluir(AplicacaoTipo.RECEITA, request).getPagamentos().get(0).getId();
+    }
+    //como o PagamentoService: saldo da conta movimentado (e travado) antes do movimento
+    private void movimentar(Integer conta, Double valor, LocalDate dia) {
+        Double saldo = contaRepository.movimentarSaldo(conta, valor);
+        PagamentoEntity pagamento = new PagamentoEntity();
+        pagamento.setConta(conta);
+        pagamento.setDescricao("FECHAMENTO TESTE");
+        pagamento.setValor(TransacaoValor.of(AplicacaoTipo.RECEITA, valor));
+        movimentoService.registrar(pagamento, saldo, dia);
+    }
+    private Integer criarConta() {
+        ContaEntity entity = new ContaEntity();
+        entity.setNumero(UUID.randomUUID().toString().substring(0, 8));
+        entity.setAgencia("TESTE");
+        entity.setDescricao("CONTA FECHAMENTO TESTE");
+        entity.setLegenda("FECHAMENTO");
+        entity.setEmpresa(1);
+        entity.setBanco(9999);
+        entity.setSaldo(0.0);
+        return contaRepository.save(entity).getId();
+    }
+    private static FiltroData filtro(LocalDate diaInicial, LocalDate diaFinal) {
+        FiltroData filtro = new FiltroData();
+        filtro.setDataInicial(diaInicial);
+        filtro.setDataFinal(diaFinal);
+        return filtro;
+    }
+}
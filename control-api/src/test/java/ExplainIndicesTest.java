@@ -0,0 +1,225 @@
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.consulta.lancamento.LancamentoFiltro;
+import com.digytal.control.model.consulta.lancamento.PagamentoFiltro;
+import com.digytal.control.model.consulta.lancamento.TransacaoFiltro;
+import com.digytal.control.model.consulta.produto.ProdutoFiltro;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.repository.modulo.cadastro.ProdutoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.PagamentoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.ParcelamentoRepository;
+import com.digytal.control.repository.modulo.fincanceiro.TransacaoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Planos das consultas dos repositórios sobre uma carga de dados, com o planejador na configuração padrão: o SQL e
+ * os parâmetros são capturados na execução real (QueryRepository/StringSQL e consultas do Spring Data) e repetidos
+ * com EXPLAIN (FORMAT JSON). Falha quando a tabela filtrada por uma consulta é lida por Seq Scan. A carga (lançamentos e boletos de
+ * 2000 a 2009, produtos de 20 organizações) é clonada de registros incluídos pelos serviços e gravada uma vez por
+ * banco, seguida de VACUUM ANALYZE como o autovacuum deixaria as tabelas.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+@Import(ExplainIndicesTest.Captura.class)
+public class ExplainIndicesTest extends BancoTest {
+    private static final String CARGA = "EXPLAIN CARGA";
+    private static final int LANCAMENTOS = 20000;
+    private static final int BOLETOS = 20000;
+    private static final int PRODUTOS = 20000;
+    private static final int ORGANIZACOES = 20;
+    private static final LocalDate INICIO = LocalDate.of(2004, 3, 1);
+    private static final LocalDate FIM = LocalDate.of(2004, 3, 31);
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final List<Object[]> executadas = Collections.synchronizedList(new ArrayList<>());
+    private static volatile boolean gravando;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+    @Autowired
+    private ParcelamentoRepository parcelamentoRepository;
+    @Autowired
+    private ProdutoRepository produtoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    //registra o SQL e os parâmetros de cada consulta preparada executada enquanto o teste grava
+    @TestConfiguration
+    static class Captura {
+        @Bean
+        public static BeanPostProcessor capturarConsultas() {
+            return ComandosObservados.observar(sql -> {
+                List<Object[]> parametros = new ArrayList<>();
+                return (m, a) -> {
+                    if (m.getName().startsWith("set") && a != null && a.length > 1 && a[0] instanceof Integer)
+                        parametros.add(new Object[]{m, a});
+                    else if (m.getName().equals("clearParameters"))
+                        parametros.clear();
+                    else if (m.getName().equals("executeQuery") && a == null && sql != null && gravando)
+                        executadas.add(new Object[]{sql, new ArrayList<>(parametros)});
+                };
+            });
+        }
+    }
+
+    @BeforeEach
+    public void carregar() {
+        Integer carregados = jdbcTemplate.queryForObject("SELECT count(*) FROM apl_financeiro.tab_transacao WHERE titulo = ?", Integer.class, CARGA);
+        if (carregados > 0)
+            return;
+        Integer lancamento = transacaoService.incluir(AplicacaoTipo.RECEITA, request(10.0, MeioPagamento.DINHEIRO)).getId();
+        List<ParcelaEntity> parcelas = emitirBoletos(3, 300.0);
+        Integer boleto = parcelamentoRepository.findById(parcelas.get(0).getParcelamento()).get().getTransacao();
+        jdbcTemplate.update("UPDATE apl_financeiro.tab_transacao SET titulo = ? WHERE id IN (?, ?)", CARGA, lancamento, boleto);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+            //lançamentos à vista: transação, rateio e pagamento
+            jdbcTemplate.update("WITH n AS (SELECT nextval(pg_get_serial_sequence('apl_financeiro.tab_transacao', 'id')) AS id, DATE '2000-01-01' + g % 3650 AS dia FROM generate_series(1, ?) g), " +
+                    "t AS (INSERT INTO apl_financeiro.tab_transacao SELECT (jsonb_populate_record(x, jsonb_build_object('id', n.id, 'cpt_dia', n.dia, 'cpt_data', n.dia + x.cpt_data::time, " +
+                    "'cpt_ano', extract(year FROM n.dia), 'cpt_mes', extract(month FROM n.dia)))).* FROM apl_financeiro.tab_transacao x, n WHERE x.id = ?), " +
+                    "r AS (INSERT INTO apl_financeiro.tab_transacao_rateio SELECT (jsonb_populate_record(x, jsonb_build_object('id', nextval(pg_get_serial_sequence('apl_financeiro.tab_transacao_rateio', 'id')), 'transacao_id', n.id))).* " +
+                    "FROM apl_financeiro.tab_transacao_rateio x, n WHERE x.transacao_id = ?) " +
+                    "INSERT INTO apl_financeiro.tab_pagamento SELECT (jsonb_populate_record(x, jsonb_build_object('id', nextval(pg_get_serial_sequence('apl_financeiro.tab_pagamento', 'id')), 'transacao_id', n.id))).* " +
+                    "FROM apl_financeiro.tab_pagamento x, n WHERE x.transacao_id = ?", LANCAMENTOS, lancamento, lancamento, lancamento);
+            //boletos: transação, parcelamento e 3 parcelas emitidas, com número de autorização próprio
+            jdbcTemplate.update("WITH n AS (SELECT nextval(pg_get_serial_sequence('apl_financeiro.tab_transacao', 'id')) AS id, nextval(pg_get_serial_sequence('apl_financeiro.tab_parcelamento', 'id')) AS parcelamento, " +
+                    "DATE '2000-01-01' + g % 3650 AS dia FROM generate_series(1, ?) g), " +
+                    "t AS (INSERT INTO apl_financeiro.tab_transacao SELECT (jsonb_populate_record(x, jsonb_build_object('id', n.id, 'cpt_dia', n.dia, 'cpt_data', n.dia + x.cpt_data::time, " +
+                    "'cpt_ano', extract(year FROM n.dia), 'cpt_mes', extract(month FROM n.dia)))).* FROM apl_financeiro.tab_transacao x, n WHERE x.id = ?), " +
+                    "p AS (INSERT INTO apl_financeiro.tab_parcelamento SELECT (jsonb_populate_record(x, jsonb_build_object('id', n.parcelamento, 'transacao_id', n.id, 'dt_vencto', n.dia))).* " +
+                    "FROM apl_financeiro.tab_parcelamento x, n WHERE x.transacao_id = ?) " +
+                    "INSERT INTO apl_financeiro.tab_parcelamento_parcela SELECT (jsonb_populate_record(x, jsonb_build_object('id', nextval(pg_get_serial_sequence('apl_financeiro.tab_parcelamento_parcela', 'id')), " +
+                    "'parc_lancto_id', n.parcelamento, 'dt_vencto', n.dia + 30 * x.num_parcela, 'bol_nr_autorizacao', 'pay_carga_' || n.parcelamento || '_' || x.num_parcela))).* " +
+                    "FROM apl_financeiro.tab_parcelamento_parcela x, n WHERE x.parc_lancto_id = ?", BOLETOS, boleto, boleto, parcelas.get(0).getParcelamento());
+            //produtos da organização 1 e de outras organizações
+            jdbcTemplate.update("WITH o AS (INSERT INTO apl_acesso.tab_organizacao (cpf_cnpj, nome, email) SELECT '00000000000', ? || g, 'carga@digytal.com.br' " +
+                    "FROM generate_series(2, ?) g RETURNING id), ids AS (SELECT array_prepend(1, array_agg(id)) AS ids FROM o) " +
+                    "INSERT INTO apl_cadastro.tab_produto (nome, localiza, vl_produto, saldo, tx_liquidacao, is_excluido, is_servico, is_principal, is_atualiza_saldo, " +
+                    "is_interno, app_is_visivel, app_ordem_visualizacao, unid_medida_id, unid_medida_sigla, organizacao_id) " +
+                    "SELECT 'PRODUTO ' || g, 'PRODUTO ' || g, 1, 0, 0, false, false, false, false, false, true, 0, 1, 'UND', ids[1 + g % ?] FROM generate_series(1, ?) g, ids",
+                    CARGA, ORGANIZACOES, ORGANIZACOES, PRODUTOS);
+        });
+        for (String tabela : Arrays.asList("apl_financeiro.tab_transacao", "apl_financeiro.tab_transacao_rateio", "apl_financeiro.tab_pagamento",
+                "apl_financeiro.tab_parcelamento", "apl_financeiro.tab_parcelamento_parcela", "apl_cadastro.tab_produto"))
+            jdbcTemplate.execute("VACUUM ANALYZE " + tabela);
+    }
+
+    @Test
+    public void consultasPeloIndice() throws Exception {
+        Integer parcelamento = jdbcTemplate.queryForObject("SELECT max(p.id) FROM apl_financeiro.tab_parcelamento p", Integer.class);
+        String autorizacao = jdbcTemplate.queryForObject("SELECT max(bol_nr_autorizacao) FROM apl_financeiro.tab_parcelamento_parcela WHERE bol_nr_autorizacao LIKE 'pay_carga_%'", String.class);
+
+        verificar("tab_transacao", () -> transacaoRepository.pesquisar(1, periodo(new TransacaoFiltro())));
+        PagamentoFiltro pagamentos = periodo(new PagamentoFiltro());
+        pagamentos.setConta(1);
+        verificar("tab_transacao", () -> pagamentoRepository.pesquisar(1, pagamentos));
+        verificar("tab_transacao", () -> parcelamentoRepository.pesquisar(1, periodo(new LancamentoFiltro())));
+        verificar("tab_parcelamento_parcela", () -> parcelamentoRepository.listarParcelas(parcelamento));
+        verificar("tab_parcelamento_parcela", () -> parcelaRepository.listarParcelasBoleto(INICIO, FIM));
+        verificar("tab_parcelamento_parcela", () -> parcelaRepository.findByBoletoNumeroAutorizacao(autorizacao));
+        ProdutoFiltro produtos = new ProdutoFiltro();
+        produtos.setPageIndex(1);
+        produtos.setPageSize(50);
+        verificar("tab_produto", () -> produtoRepository.pesquisar(1, produtos));
+        //busca por substring: só o índice trigrama atende o LIKE '%...%'
+        verificar("tab_produto", "ix_cadastros_produto_localiza_trgm", () -> produtoRepository.localizar(1, "PRODUTO 1234", 20));
+    }
+
+    //a tabela filtrada pela consulta é lida pelo índice em todos os comandos executados (página e contagem);
+    //as tabelas apenas associadas podem ser lidas inteiras quando o planejador julgar mais barato
+    private void verificar(String tabela, Runnable consulta) throws Exception {
+        verificar(tabela, null, consulta);
+    }
+    //com o índice informado, a leitura da tabela precisa passar por ele
+    private void verificar(String tabela, String indice, Runnable consulta) throws Exception {
+        executadas.clear();
+        gravando = true;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(s -> consulta.run());
+        } finally {
+            gravando = false;
+        }
+        Assertions.assertFalse(executadas.isEmpty(), "nenhuma consulta capturada em " + tabela);
+        try (Connection connection = dataSource.getConnection()) {
+            for (Object[] executada : executadas) {
+                JsonNode plano = explicar(connection, (String) executada[0], (List<Object[]>) executada[1]);
+                List<String> leituras = new ArrayList<>();
+                List<String> indices = new ArrayList<>();
+                localizarLeituras(plano, tabela, leituras, indices);
+                Assertions.assertFalse(leituras.isEmpty() || leituras.contains("Seq Scan"),
+                        tabela + " lida por " + leituras + " em: " + executada[0] + "\n" + plano.toPrettyString());
+                if (indice != null)
+                    Assertions.assertTrue(indices.contains(indice), tabela + " lida por " + indices + " em: " + executada[0] + "\n" + plano.toPrettyString());
+            }
+        }
+    }
+    private static JsonNode explicar(Connection connection, String sql, List<Object[]> parametros) throws Exception {
+        try (PreparedStatement st = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+            for (Object[] parametro : parametros)
+                ((Method) parametro[0]).invoke(st, (Object[]) parametro[1]);
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return mapper.readTree(rs.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+    //leituras da tabela e os índices usados por elas, inclusive os do Bitmap Index Scan abaixo do Bitmap Heap Scan
+    private static void localizarLeituras(JsonNode node, String tabela, List<String> leituras, List<String> indices) {
+        boolean leitura = tabela.equals(node.path("Relation Name").asText());
+        if (leitura)
+            leituras.add(node.path("Node Type").asText());
+        if (leitura || node.path("Node Type").asText().startsWith("Bitmap Index"))
+            if (node.has("Index Name"))
+                indices.add(node.path("Index Name").asText());
+        for (JsonNode filho : node.path("Plans"))
+            localizarLeituras(filho, tabela, leituras, indices);
+    }
+    private static <T extends com.digytal.control.model.comum.filtro.FiltroData> T periodo(T filtro) {
+        filtro.setDataInicial(INICIO);
+        filtro.setDataFinal(FIM);
+        filtro.setPageIndex(1);
+        filtro.setPageSize(50);
+        return filtro;
+    }
+    private static TransacaoRequest request(Double valor, MeioPagamento meioPagamento) {
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(meioPagamento);
+        rateio.setValorPago(valor);
+        TransacaoRequest request = new TransacaoRequest();
+        request.setTitulo("EXPLAIN TESTE");
+        request.setDescricao("EXPLAIN TESTE");
+        request.setValor(valor);
+        request.setFormasPagamento(Collections.singletonList(rateio));
+        return request;
+    }
+}
@@ -0,0 +1,109 @@
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaParcelamentoRequest;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gravação de um lançamento parcelado em 48x pelo TransacaoService.incluir, com o lote do Hibernate configurado
+ * (hibernate.jdbc.batch_size) e com o lote desligado na sessão (uma ida ao banco por linha, como com ids IDENTITY).
+ * Confere as idas ao banco de cada lançamento e registra no log os lançamentos gravados por segundo.
+ *
+ * EXPLAIN_DATABASE_URL=jdbc:postgresql://localhost:5432/control_db mvn test -Dtest=InsercaoLoteTest
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+@Import(InsercaoLoteTest.Contagem.class)
+public class InsercaoLoteTest extends BancoTest {
+    private static final Logger log = LoggerFactory.getLogger(InsercaoLoteTest.class);
+    private static final int PARCELAS = 48;
+    private static final int LANCAMENTOS = 100;
+    //inserts mínimos: transação, rateio, parcelamento, pagamento e parcelas
+    private static final int LINHAS = 4 + PARCELAS;
+    private static final AtomicInteger execucoes = new AtomicInteger();
+    private static volatile Thread contando;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    //conta as execuções de comandos (execute, executeUpdate, executeBatch, executeQuery) feitas pela thread do teste
+    @TestConfiguration
+    static class Contagem {
+        @Bean
+        public static BeanPostProcessor contarExecucoes() {
+            return ComandosObservados.observar(sql -> (m, a) -> {
+                if (m.getName().startsWith("execute") && Thread.currentThread() == contando)
+                    execucoes.incrementAndGet();
+            });
+        }
+    }
+
+    @Test
+    public void lancamentoParceladoEmLote() {
+        //aquecimento: planos, metadados e o bloco de ids das sequências
+        for (int i = 0; i < 10; i++) {
+            gravar(null);
+            gravar(1);
+        }
+        int comLote = gravar(null);
+        int semLote = gravar(1);
+        Assertions.assertTrue(semLote >= LINHAS, "sem lote: " + semLote);
+        //as parcelas vão em um único lote: o restante são consultas, saldo e resumo
+        Assertions.assertTrue(comLote <= semLote - PARCELAS + 1, "com lote: " + comLote + ", sem lote: " + semLote);
+
+        double porSegundoSemLote = medir(1);
+        double porSegundoComLote = medir(null);
+        log.info("Lançamento em {}x pelo TransacaoService.incluir: sem lote {} idas ao banco, {} lançamentos/s; com lote {} idas ao banco, {} lançamentos/s",
+                PARCELAS, semLote, Math.round(porSegundoSemLote), comLote, Math.round(porSegundoComLote));
+    }
+
+    private double medir(Integer lote) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < LANCAMENTOS; i++)
+            gravar(lote);
+        return LANCAMENTOS / ((System.nanoTime() - inicio) / 1e9);
+    }
+    //grava um lançamento, incluindo o flush no commit; lote nulo mantém o hibernate.jdbc.batch_size da aplicação
+    private int gravar(Integer lote) {
+        contando = Thread.currentThread();
+        int antes = execucoes.get();
+        TransacaoEntity transacao = new TransactionTemplate(transactionManager).execute(s -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(lote);
+            return transacaoService.incluir(AplicacaoTipo.RECEITA, request());
+        });
+        Assertions.assertEquals(PARCELAS, transacao.getParcelamentos().get(0).getParcelas().size());
+        return execucoes.get() - antes;
+    }
+    private static TransacaoRequest request() {
+        FormaParcelamentoRequest parcelamento = new FormaParcelamentoRequest();
+        parcelamento.setNumeroParcelas(PARCELAS);
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(MeioPagamento.BOLETO);
+        rateio.setValorPago(480.0);
+        rateio.setParcelamento(parcelamento);
+        TransacaoRequest request = new TransacaoRequest();
+        request.setTitulo("LOTE TESTE");
+        request.setDescricao("LOTE TESTE");
+        request.setValor(480.0);
+        request.setFormasPagamento(Collections.singletonList(rateio));
+        return request;
+    }
+}
@@ -0,0 +1,96 @@
+import com.digytal.control.infra.utils.Calculos;
+import com.digytal.control.infra.utils.Money;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Confere o Money contra o Calculos com valores aleatórios de até 4 casas (a escala das colunas do banco),
+ * incluindo empates na conversão de double com 5 casas, e o parcelamento contra valores calculados à mão e contra
+ * o parcelamento original com BigDecimal.
+ */
+public class MoneyTest {
+    private static final int AMOSTRAS = 200_000;
+    private final Random random = new Random(20231018);
+
+    @Test
+    public void conversaoIgualAplicarEscala4(){
+        for (int i = 0; i < AMOSTRAS; i++) {
+            //5 casas para produzir empates na quarta casa
+            double valor = BigDecimal.valueOf(random.nextLong() % 10_000_000_000L, 5).doubleValue();
+            Assertions.assertEquals(Calculos.aplicarEscala4(valor), Money.of(valor).toDouble(), () -> "valor " + valor);
+        }
+        Assertions.assertEquals(0.0, Money.of(0.00005).toDouble());
+        Assertions.assertEquals(0.0002, Money.of(0.00015).toDouble());
+        Assertions.assertEquals(-460.5829, Money.of(-460.58288).toDouble());
+    }
+
+    @Test
+    public void operacoesIguaisCalculos(){
+        for (int i = 0; i < AMOSTRAS; i++) {
+            double a = valor(1_000_000_000L);
+            double b = valor(1_000_000L);
+            Money ma = Money.of(a);
+            Money mb = Money.of(b);
+            String caso = a + " e " + b;
+            Assertions.assertEquals(Calculos.somar(Calculos.ESCALA4, a, b), ma.somar(mb).toDouble(), caso);
+            Assertions.assertEquals(Calculos.subtrair(Calculos.ESCALA4, a, b), ma.subtrair(mb).toDouble(), caso);
+            Assertions.assertEquals(Calculos.multiplicar(Calculos.ESCALA4, a, b), ma.multiplicar(mb).toDouble(), caso);
+            Assertions.assertEquals(Calculos.aplicarEscala(a), ma.arredondar(Calculos.ESCALA2).toDouble(), caso);
+            if (b != 0)
+                Assertions.assertEquals(Calculos.dividir(Calculos.ESCALA4, a, b), ma.dividir(mb).toDouble(), caso);
+            Assertions.assertEquals(Calculos.calcularPorcentagem(ma.toBigDecimal(), mb.toBigDecimal()).doubleValue(), ma.porcentagem(mb).toDouble(), caso);
+        }
+    }
+
+    @Test
+    public void produtoIntermediarioForaDoLong(){
+        Money valor = Money.of(30_000_000.0);
+        Assertions.assertEquals(new BigDecimal("900000000000000.0000"), valor.multiplicar(valor).toBigDecimal());
+        Assertions.assertThrows(ArithmeticException.class, () -> Money.of(900_000_000_000.0).multiplicar(Money.of(900_000_000_000.0)));
+    }
+
+    @Test
+    public void parcelasComRestoNaUltima(){
+        //valores calculados à mão: a diferença do arredondamento vai para a última parcela
+        assertParcelas(Money.of(100.0).parcelar(3), 33.33, 33.33, 33.34);
+        assertParcelas(Money.of(10.0).parcelar(6), 1.67, 1.67, 1.67, 1.67, 1.67, 1.65);
+        assertParcelas(Money.of(1000.0).parcelar(7), 142.86, 142.86, 142.86, 142.86, 142.86, 142.86, 142.84);
+        //0,025 e 0,0125 empatam na segunda casa (HALF_EVEN)
+        assertParcelas(Money.of(0.05).parcelar(2), 0.02, 0.03);
+        assertParcelas(Money.of(0.1).parcelar(8), 0.01, 0.01, 0.01, 0.01, 0.01, 0.01, 0.01, 0.03);
+        assertParcelas(Money.of(480.0).parcelar(1), 480.0);
+        for (int i = 0; i < AMOSTRAS; i++) {
+            double total = Math.abs(valor(100_000_000L));
+            int parcelas = 1 + random.nextInt(48);
+            List<Money> valores = Money.of(total).parcelar(parcelas);
+            Assertions.assertEquals(parcelarCalculos(total, parcelas), valores.stream().map(Money::toDouble).collect(Collectors.toList()),
+                    () -> total + " em " + parcelas);
+        }
+    }
+
+    //parcelamento do ParcelamentoService antes do Money, com BigDecimal e o Calculos
+    private static List<Double> parcelarCalculos(double valor, int parcelas){
+        BigDecimal restante = BigDecimal.valueOf(valor);
+        BigDecimal parcela = Calculos.aplicarEscala(restante.divide(BigDecimal.valueOf(parcelas), Calculos.ESCALA4, RoundingMode.HALF_EVEN));
+        List<Double> valores = new ArrayList<>();
+        for (int p = 1; p < parcelas; p++) {
+            restante = restante.subtract(parcela);
+            valores.add(parcela.doubleValue());
+        }
+        valores.add(Calculos.aplicarEscala(restante).doubleValue());
+        return valores;
+    }
+    private static void assertParcelas(List<Money> valores, double... esperados){
+        Assertions.assertArrayEquals(esperados, valores.stream().mapToDouble(Money::toDouble).toArray());
+    }
+    private double valor(long limite){
+        return BigDecimal.valueOf(random.nextLong() % limite, Calculos.ESCALA4).doubleValue();
+    }
+}
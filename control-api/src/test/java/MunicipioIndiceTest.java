@@ -0,0 +1,61 @@
+import com.digytal.control.model.modulo.param.ibge.IbgeEntity;
+import com.digytal.control.model.modulo.param.ibge.MunicipioResponse;
+import com.digytal.control.service.modulo.param.MunicipioIndice;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Busca por prefixo sem acentos, filtro por UF e consulta por código no índice de municípios, com alguns
+ * municípios reais e o restante gerado até o total do IBGE.
+ */
+public class MunicipioIndiceTest {
+    private static final int MUNICIPIOS = 5570;
+
+    @Test
+    public void buscarPorPrefixo(){
+        MunicipioIndice indice = new MunicipioIndice(municipios());
+        Assertions.assertEquals(MUNICIPIOS, indice.getTamanho());
+
+        List<String> nomes = indice.buscar("sao pa", null, 10).stream().map(MunicipioResponse::getNome).collect(Collectors.toList());
+        Assertions.assertEquals(List.of("São Paulo", "São Paulo das Missões"), nomes);
+        Assertions.assertEquals(List.of("São Paulo"), indice.buscar("SÃO PAULO", "sp", 10).stream().map(MunicipioResponse::getNome).collect(Collectors.toList()));
+        Assertions.assertEquals(List.of("São Paulo das Missões"), indice.buscar("são  paulo", "RS", 10).stream().map(MunicipioResponse::getNome).collect(Collectors.toList()));
+        Assertions.assertEquals(2, indice.buscar("sao", null, 2).size());
+        Assertions.assertTrue(indice.buscar("xyz", null, 10).isEmpty());
+        Assertions.assertTrue(indice.buscar("sao", "ZZ", 10).isEmpty());
+
+        MunicipioResponse bh = indice.obter(3106200);
+        Assertions.assertEquals("Belo Horizonte", bh.getNome());
+        Assertions.assertEquals("MG", bh.getUf());
+        Assertions.assertEquals(31, bh.getUfIbge());
+        Assertions.assertNull(indice.obter(1));
+        Assertions.assertEquals(indice.listar("RJ").size(), indice.buscar("", "RJ", MUNICIPIOS).size());
+        Assertions.assertEquals(indice.getVersao(), new MunicipioIndice(municipios()).getVersao());
+    }
+
+    private static List<IbgeEntity> municipios() {
+        List<IbgeEntity> municipios = new ArrayList<>();
+        municipios.add(municipio(3550308, "São Paulo", 35, "São Paulo", "SP"));
+        municipios.add(municipio(4318903, "São Paulo das Missões", 43, "Rio Grande do Sul", "RS"));
+        municipios.add(municipio(3305208, "São Pedro da Aldeia", 33, "Rio de Janeiro", "RJ"));
+        municipios.add(municipio(3106200, "Belo Horizonte", 31, "Minas Gerais", "MG"));
+        municipios.add(municipio(3304557, "Rio de Janeiro", 33, "Rio de Janeiro", "RJ"));
+        for (int i = municipios.size(); i < MUNICIPIOS; i++)
+            municipios.add(municipio(1_000_000 + i, "Município " + i, 11 + i % 27, "Estado " + i % 27, "U" + (char) ('A' + i % 27)));
+        return municipios;
+    }
+    private static IbgeEntity municipio(int codigo, String nome, int uf, String estado, String sigla) {
+        IbgeEntity municipio = new IbgeEntity();
+        municipio.setId(codigo);
+        municipio.setNome(nome.toUpperCase());
+        municipio.setNomeOficial(nome);
+        municipio.setUfId(uf);
+        municipio.setUfNome(estado);
+        municipio.setUfSigla(sigla);
+        return municipio;
+    }
+}
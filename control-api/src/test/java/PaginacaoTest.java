@@ -0,0 +1,93 @@
+import com.digytal.control.infra.sql.PageRecord;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.consulta.lancamento.TransacaoFiltro;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoResponse;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.service.modulo.financeiro.consulta.TransacaoConsultaService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Paginação das consultas de transações: o total vem da contagem, as páginas por deslocamento e a paginação
+ * por chave (após dataHora/id do último registro) percorrem os mesmos registros na mesma ordem. Os lançamentos
+ * são incluídos em um dia antigo sorteado, só para o teste.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class PaginacaoTest extends BancoTest {
+    private static final int LANCAMENTOS = 7;
+    private static final int PAGINA = 3;
+    @Autowired
+    private TransacaoConsultaService consultaService;
+
+    @Test
+    public void paginasPorDeslocamentoEPorChave(){
+        LocalDate dia = LocalDate.of(1990, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(3650));
+        List<Integer> incluidos = new ArrayList<>();
+        for (int i = 0; i < LANCAMENTOS; i++)
+            incluidos.add(transacaoService.incluir(AplicacaoTipo.RECEITA, request(dia, 10.0 + i)).getId());
+
+        PageRecord<TransacaoResponse> primeira = consultaService.pesquisar(filtro(dia, 1));
+        Assertions.assertEquals(LANCAMENTOS, primeira.getTotalItems());
+        Assertions.assertEquals(PAGINA, primeira.getRecords().size());
+        Assertions.assertEquals(3, primeira.getPages().length);
+
+        List<Integer> porDeslocamento = new ArrayList<>();
+        for (int pagina = 1; pagina <= 3; pagina++)
+            porDeslocamento.addAll(ids(consultaService.pesquisar(filtro(dia, pagina))));
+
+        List<Integer> porChave = new ArrayList<>();
+        TransacaoFiltro filtro = filtro(dia, 1);
+        List<TransacaoResponse> registros;
+        while (!(registros = consultaService.pesquisar(filtro).getRecords()).isEmpty()) {
+            porChave.addAll(ids(registros));
+            TransacaoResponse ultimo = registros.get(registros.size() - 1);
+            filtro = filtro(dia, 1);
+            filtro.setAposDataHora(ultimo.getData().getDataHora());
+            filtro.setAposId(ultimo.getId());
+        }
+
+        Assertions.assertEquals(porDeslocamento, porChave);
+        List<Integer> esperados = new ArrayList<>(incluidos);
+        Collections.sort(esperados);
+        Assertions.assertEquals(esperados, porChave.stream().sorted().collect(Collectors.toList()));
+    }
+
+    private static List<Integer> ids(PageRecord<TransacaoResponse> page) {
+        return ids(page.getRecords());
+    }
+    private static List<Integer> ids(List<TransacaoResponse> registros) {
+        return registros.stream().map(TransacaoResponse::getId).collect(Collectors.toList());
+    }
+    private static TransacaoFiltro filtro(LocalDate dia, int pagina) {
+        TransacaoFiltro filtro = new TransacaoFiltro();
+        filtro.setDataInicial(dia);
+        filtro.setDataFinal(dia);
+        filtro.setTipo(AplicacaoTipo.RECEITA);
+        filtro.setPageIndex(pagina);
+        filtro.setPageSize(PAGINA);
+        return filtro;
+    }
+    private static TransacaoRequest request(LocalDate dia, Double valor) {
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(MeioPagamento.DINHEIRO);
+        rateio.setValorPago(valor);
+        TransacaoRequest request = new TransacaoRequest();
+        request.setTitulo("PAGINACAO TESTE");
+        request.setDescricao("PAGINACAO TESTE");
+        request.setData(dia);
+        request.setValor(valor);
+        request.setFormasPagamento(Collections.singletonList(rateio));
+        return request;
+    }
+}
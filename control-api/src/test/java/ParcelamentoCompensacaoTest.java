@@ -0,0 +1,128 @@
+import com.digytal.control.infra.business.RegistroIncompativelException;
+import com.digytal.control.infra.business.RegistroNaoLocalizadoException;
+import com.digytal.control.infra.config.TenantContext;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.modulo.financeiro.parcelamento.ParcelamentoEntity;
+import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
+import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.liquidacao.ParcelaCompensacaoRequest;
+import com.digytal.control.repository.modulo.fincanceiro.ParcelamentoRepository;
+import com.digytal.control.service.modulo.financeiro.ParcelamentoService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compensação de parcelas em lote: o lote é aplicado inteiro, ou recusado inteiro quando alguma parcela não existe.
+ * Lotes simultâneos sobre as mesmas parcelas não quitam duas vezes nem se bloqueiam em ciclo.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class ParcelamentoCompensacaoTest extends BancoTest {
+    @Autowired
+    private ParcelamentoService parcelamentoService;
+    @Autowired
+    private ParcelamentoRepository parcelamentoRepository;
+
+    @Test
+    public void loteCompensado() {
+        ParcelaEntity primeira = emitirBoletos(3, 300.0).get(0);
+        ParcelaEntity segunda = parcelaRepository.findById(primeira.getId() + 1).get();
+        Integer parcelamento = primeira.getParcelamento();
+        Assertions.assertEquals(parcelamento, segunda.getParcelamento());
+        ParcelamentoEntity antes = parcelamentoRepository.findById(parcelamento).get();
+
+        parcelamentoService.realizarCompensacao(Arrays.asList(
+                compensacao(primeira.getId(), 100.0, MeioPagamento.PIX),
+                compensacao(segunda.getId(), 100.0, MeioPagamento.DINHEIRO)));
+
+        ParcelamentoEntity depois = parcelamentoRepository.findById(parcelamento).get();
+        Assertions.assertEquals(antes.getDetalhe().getValorAmortizado() + 200.0, depois.getDetalhe().getValorAmortizado(), 0.0001);
+        Assertions.assertEquals(antes.getDetalhe().getValorAtual() - 200.0, depois.getDetalhe().getValorAtual(), 0.0001);
+        Assertions.assertTrue(parcelaRepository.findById(primeira.getId()).get().getQuitacao().isEfetuada());
+        Assertions.assertTrue(parcelaRepository.findById(segunda.getId()).get().getQuitacao().isEfetuada());
+    }
+
+    @Test
+    public void loteComParcelaInexistente() {
+        ParcelaEntity parcela = emitirBoletos(1, 100.0).get(0);
+        ParcelamentoEntity antes = parcelamentoRepository.findById(parcela.getParcelamento()).get();
+
+        Assertions.assertThrows(RegistroNaoLocalizadoException.class, () -> parcelamentoService.realizarCompensacao(Arrays.asList(
+                compensacao(parcela.getId(), 100.0, MeioPagamento.PIX),
+                compensacao(Integer.MAX_VALUE, 100.0, MeioPagamento.PIX))));
+
+        ParcelamentoEntity depois = parcelamentoRepository.findById(parcela.getParcelamento()).get();
+        Assertions.assertEquals(antes.getDetalhe().getValorAmortizado(), depois.getDetalhe().getValorAmortizado(), 0.0001);
+        Assertions.assertFalse(parcelaRepository.findById(parcela.getId()).get().getQuitacao().isEfetuada());
+    }
+
+    @Test
+    public void quitacaoSimultanea() throws Exception {
+        ParcelaEntity parcela = emitirBoletos(1, 100.0).get(0);
+        ParcelamentoEntity antes = parcelamentoRepository.findById(parcela.getParcelamento()).get();
+        Double valor = parcela.getDetalhe().getValorAtual();
+
+        List<Future<Boolean>> lotes = executar(
+                () -> quitar(compensacao(parcela.getId(), valor, MeioPagamento.PIX)),
+                () -> quitar(compensacao(parcela.getId(), valor, MeioPagamento.DINHEIRO)));
+        Assertions.assertNotEquals(lotes.get(0).get(), lotes.get(1).get());
+
+        ParcelamentoEntity depois = parcelamentoRepository.findById(parcela.getParcelamento()).get();
+        Assertions.assertEquals(antes.getDetalhe().getValorAmortizado() + valor, depois.getDetalhe().getValorAmortizado(), 0.0001);
+    }
+
+    @Test
+    public void lotesEmOrdemInversa() throws Exception {
+        ParcelaEntity primeira = emitirBoletos(2, 200.0).get(0);
+        ParcelaEntity segunda = parcelaRepository.findById(primeira.getId() + 1).get();
+        ParcelamentoEntity antes = parcelamentoRepository.findById(primeira.getParcelamento()).get();
+
+        //cada lote chega com as parcelas em ordem oposta; sem a trava ordenada um deles cairia em deadlock
+        for (Future<Boolean> lote : executar(
+                () -> quitar(compensacao(primeira.getId(), 10.0, MeioPagamento.PIX), compensacao(segunda.getId(), 10.0, MeioPagamento.PIX)),
+                () -> quitar(compensacao(segunda.getId(), 10.0, MeioPagamento.PIX), compensacao(primeira.getId(), 10.0, MeioPagamento.PIX))))
+            Assertions.assertTrue(lote.get());
+
+        ParcelamentoEntity depois = parcelamentoRepository.findById(primeira.getParcelamento()).get();
+        Assertions.assertEquals(antes.getDetalhe().getValorAmortizado() + 40.0, depois.getDetalhe().getValorAmortizado(), 0.0001);
+    }
+
+    //true quando o lote foi aplicado, false quando recusado por parcela já quitada
+    private boolean quitar(ParcelaCompensacaoRequest... requests) {
+        autenticar();
+        try {
+            parcelamentoService.realizarCompensacao(Arrays.asList(requests));
+            return true;
+        } catch (RegistroIncompativelException ex) {
+            return false;
+        } finally {
+            TenantContext.clear();
+        }
+    }
+    @SafeVarargs
+    private static List<Future<Boolean>> executar(Callable<Boolean>... lotes) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(lotes.length);
+        try {
+            List<Future<Boolean>> futuros = executor.invokeAll(Arrays.asList(lotes));
+            for (Future<Boolean> futuro : futuros)
+                futuro.get();
+            return futuros;
+        } finally {
+            executor.shutdown();
+        }
+    }
+    private static ParcelaCompensacaoRequest compensacao(Integer parcela, Double valor, MeioPagamento meioPagamento) {
+        ParcelaCompensacaoRequest request = new ParcelaCompensacaoRequest();
+        request.setParcela(parcela);
+        request.setValor(valor);
+        request.setMeioPagamento(meioPagamento);
+        return request;
+    }
+}
@@ -0,0 +1,33 @@
+import com.digytal.control.infra.export.RecordReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class RecordReaderTest {
+    private RecordReader ler(String csv) {
+        return RecordReader.csv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void colunasPeloCabecalho() {
+        RecordReader reader = ler("\uFEFFdata;valor;descricao\r\n2023-01-01;10.5;VENDA\r\n\r\n2023-01-02;;\"A;B \"\"C\"\"\nD\"\n");
+        Map<String, String> primeira = reader.next();
+        Assertions.assertEquals("2023-01-01", primeira.get("data"));
+        Assertions.assertEquals("10.5", primeira.get("valor"));
+        Assertions.assertEquals("VENDA", primeira.get("descricao"));
+
+        Map<String, String> segunda = reader.next();
+        Assertions.assertFalse(segunda.containsKey("valor"));
+        Assertions.assertEquals("A;B \"C\"\nD", segunda.get("descricao"));
+        Assertions.assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void arquivoVazio() {
+        Assertions.assertFalse(ler("").hasNext());
+        Assertions.assertFalse(ler("data;valor\n").hasNext());
+    }
+}
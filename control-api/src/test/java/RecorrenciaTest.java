@@ -0,0 +1,40 @@
+import com.digytal.control.model.comum.recorrencia.Periodicidade;
+import com.digytal.control.model.comum.recorrencia.Recorrencia;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+public class RecorrenciaTest {
+    @Test
+    public void mensalMantemODiaDaDataInicial(){
+        Recorrencia recorrencia = new Recorrencia();
+        recorrencia.setPeriodicidade(Periodicidade.MENSAL);
+        recorrencia.setDataInicial(LocalDate.of(2024, 1, 31));
+        recorrencia.iniciar();
+        recorrencia.avancar();
+        Assertions.assertEquals(LocalDate.of(2024, 2, 29), recorrencia.getDataProximaOcorrencia());
+        recorrencia.avancar();
+        Assertions.assertEquals(LocalDate.of(2024, 3, 31), recorrencia.getDataProximaOcorrencia());
+    }
+    @Test
+    public void encerraAoAtingirAsRepeticoes(){
+        Recorrencia recorrencia = new Recorrencia();
+        recorrencia.setPeriodicidade(Periodicidade.QUINZENAL);
+        recorrencia.setDataInicial(LocalDate.of(2024, 1, 1));
+        recorrencia.setRepeticoesTotal(2);
+        recorrencia.iniciar();
+        recorrencia.avancar();
+        Assertions.assertEquals(LocalDate.of(2024, 1, 16), recorrencia.getDataProximaOcorrencia());
+        recorrencia.avancar();
+        Assertions.assertTrue(recorrencia.isEncerrada());
+        Assertions.assertEquals(2, recorrencia.getRepeticoesRealizadas());
+    }
+    @Test
+    public void periodicidadesComIdsDistintos(){
+        Assertions.assertEquals(Periodicidade.values().length,
+                Arrays.stream(Periodicidade.values()).map(Periodicidade::getId).distinct().count());
+        Assertions.assertEquals(LocalDate.of(2024, 5, 1), Periodicidade.QUADRIMESTRAL.ocorrencia(LocalDate.of(2024, 1, 1), 1));
+    }
+}
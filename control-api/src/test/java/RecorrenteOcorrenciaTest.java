@@ -0,0 +1,75 @@
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.recorrencia.Periodicidade;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.transacao.recorrente.TransacaoRecorrenteRequest;
+import com.digytal.control.service.modulo.financeiro.TransacaoRecorrenteService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ocorrências dos lançamentos recorrentes geradas como pelo Job, em uma thread sem credencial: o lançamento recebe
+ * o número de documento da ocorrência e a empresa do modelo, e repetir a execução (inclusive depois de uma queda
+ * que não gravou o avanço do modelo) não duplica o lançamento.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class RecorrenteOcorrenciaTest extends BancoTest {
+    private static final String OCORRENCIAS = "SELECT count(*) FROM apl_financeiro.tab_transacao_recorrente_ocorrencia WHERE recorrente_id = ?";
+    private static final String LANCAMENTOS = "SELECT count(*) FROM apl_financeiro.tab_transacao WHERE nr_documento = ?";
+    @Autowired
+    private TransacaoRecorrenteService recorrenteService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void ocorrenciaGeradaPeloJob() throws Exception {
+        LocalDate hoje = LocalDate.now();
+        Integer modelo = recorrenteService.incluir(AplicacaoTipo.RECEITA, request(hoje));
+        String documento = String.format("REC.%d.%s", modelo, hoje);
+
+        executarJob(hoje);
+        Map<String, Object> lancamento = jdbcTemplate.queryForMap("SELECT t.id, t.part_empresa_id AS empresa_id FROM apl_financeiro.tab_transacao t " +
+                "JOIN apl_financeiro.tab_transacao_recorrente_ocorrencia o ON o.transacao_id = t.id WHERE o.recorrente_id = ? AND o.dt_ocorrencia = ?", modelo, hoje);
+        Assertions.assertEquals(1, ((Number) lancamento.get("empresa_id")).intValue());
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(LANCAMENTOS, Integer.class, documento));
+
+        //nova execução no mesmo dia
+        executarJob(hoje);
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(OCORRENCIAS, Integer.class, modelo));
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(LANCAMENTOS, Integer.class, documento));
+
+        //reinício depois de uma queda que perdeu o avanço do modelo: a ocorrência já registrada não é gerada de novo
+        jdbcTemplate.update("UPDATE apl_financeiro.tab_transacao_recorrente SET dt_proxima_ocorrencia = ? WHERE id = ?", hoje, modelo);
+        executarJob(hoje);
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(OCORRENCIAS, Integer.class, modelo));
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(LANCAMENTOS, Integer.class, documento));
+    }
+
+    //o Job executa em uma thread do agendador, sem TenantContext
+    private void executarJob(LocalDate dia) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> recorrenteService.gerarOcorrencias(dia)).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+    private static TransacaoRecorrenteRequest request(LocalDate dia) {
+        TransacaoRecorrenteRequest request = new TransacaoRecorrenteRequest();
+        request.setTitulo("RECORRENTE TESTE");
+        request.setDescricao("RECORRENTE TESTE");
+        request.setValor(5.0);
+        request.setMeioPagamento(MeioPagamento.DINHEIRO);
+        request.setPeriodicidade(Periodicidade.MENSAL);
+        request.setDataInicial(dia);
+        request.setRepeticoesTotal(3);
+        return request;
+    }
+}
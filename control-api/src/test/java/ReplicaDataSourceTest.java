@@ -0,0 +1,123 @@
+import com.digytal.control.infra.persistence.ReplicaDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class ReplicaDataSourceTest {
+    private final FakeDataSource primaria = new FakeDataSource("primaria");
+    private final FakeDataSource replica = new FakeDataSource("replica");
+    private final ReplicaDataSource dataSource = new ReplicaDataSource(primaria.proxy(), replica.proxy(), 10_000);
+
+    @AfterEach
+    public void limpar(){
+        ReplicaDataSource.marcarLeitura(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void escritaUsaPrimaria() throws Exception {
+        Assertions.assertEquals("primaria", dataSource.getConnection().toString());
+        Assertions.assertEquals(1, dataSource.getConexoesPrimaria());
+    }
+
+    @Test
+    public void transacaoSomenteLeituraUsaReplica() throws Exception {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Assertions.assertEquals("replica", dataSource.getConnection().toString());
+        Assertions.assertEquals(1, dataSource.getConexoesReplica());
+    }
+
+    @Test
+    public void requisicaoDeLeituraComTransacaoDeEscritaUsaPrimaria() throws Exception {
+        ReplicaDataSource.marcarLeitura(true);
+        Assertions.assertEquals("replica", dataSource.getConnection().toString());
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        Assertions.assertEquals("primaria", dataSource.getConnection().toString());
+    }
+
+    @Test
+    public void replicaForaDoArVoltaParaPrimaria() throws Exception {
+        ReplicaDataSource.marcarLeitura(true);
+        replica.fora = true;
+        Assertions.assertEquals("primaria", dataSource.getConnection().toString());
+        Assertions.assertFalse(dataSource.isReplicaDisponivel());
+        Assertions.assertEquals(1, dataSource.getDesviosPrimaria());
+
+        replica.fora = false;
+        dataSource.verificarReplica();
+        Assertions.assertTrue(dataSource.isReplicaDisponivel());
+        Assertions.assertEquals("replica", dataSource.getConnection().toString());
+    }
+
+    @Test
+    public void atrasoAcimaDoLimiteVoltaParaPrimaria() throws Exception {
+        ReplicaDataSource.marcarLeitura(true);
+        replica.atraso = 30_000;
+        dataSource.verificarReplica();
+        Assertions.assertFalse(dataSource.isReplicaDisponivel());
+        Assertions.assertEquals(30_000, dataSource.getAtrasoReplica());
+        Assertions.assertEquals("primaria", dataSource.getConnection().toString());
+
+        replica.atraso = 200;
+        dataSource.verificarReplica();
+        Assertions.assertTrue(dataSource.isReplicaDisponivel());
+    }
+
+    @Test
+    public void credenciaisInformadasSeguemParaODestino() throws Exception {
+        Assertions.assertEquals("primaria", dataSource.getConnection("app", "segredo").toString());
+        Assertions.assertEquals("app", primaria.usuario);
+        ReplicaDataSource.marcarLeitura(true);
+        Assertions.assertEquals("replica", dataSource.getConnection("leitura", "segredo").toString());
+        Assertions.assertEquals("leitura", replica.usuario);
+        Assertions.assertEquals(1, dataSource.getConexoesPrimaria());
+        Assertions.assertEquals(1, dataSource.getConexoesReplica());
+    }
+
+    private static class FakeDataSource {
+        private final String nome;
+        private boolean fora;
+        private long atraso;
+        private String usuario;
+
+        FakeDataSource(String nome) {
+            this.nome = nome;
+        }
+
+        DataSource proxy() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{DataSource.class}, (p, m, a) -> {
+                if (!m.getName().equals("getConnection"))
+                    throw new UnsupportedOperationException(m.getName());
+                if (fora)
+                    throw new SQLException("Connection refused");
+                if (a != null)
+                    usuario = (String) a[0];
+                return proxy(Connection.class);
+            });
+        }
+
+        private Object proxy(Class<?> type) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{type}, (p, m, a) -> {
+                switch (m.getName()) {
+                    case "toString": return nome;
+                    case "createStatement": return proxy(Statement.class);
+                    case "executeQuery": return proxy(ResultSet.class);
+                    case "next": return true;
+                    case "getLong": return atraso;
+                    case "close": return null;
+                    default: throw new UnsupportedOperationException(m.getName());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import com.digytal.control.infra.report.ReportCache;
+import com.digytal.control.infra.report.ReportGenerator;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modelo carregado uma única vez pelo ReportCache (aqui compilado do .jrxml de teste) e PDF exportado
+ * direto no OutputStream informado. A comparação de tempos com o caminho anterior fica no ReportBenchmark.
+ */
+public class ReportCacheTest {
+    private static final String RELATORIO = "lancamentos-teste.jasper";
+
+    @Test
+    public void modeloCarregadoUmaVez() throws Exception {
+        ReportCache.clear();
+        long misses = ReportCache.getMisses();
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+            ReportGenerator generator = ReportGenerator.of(RELATORIO).setData(registros(200));
+            generator.setParameter("EMPRESA_CABECALHO", "EMPRESA TESTE");
+            JasperPrint print = generator.fill();
+            Assertions.assertTrue(print.getPages().size() > 1);
+            generator.export(print, pdf);
+            Assertions.assertTrue(new String(pdf.toByteArray(), 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF"));
+        }
+        Assertions.assertEquals(misses + 1, ReportCache.getMisses());
+        Assertions.assertSame(ReportCache.get(RELATORIO), ReportCache.get(RELATORIO));
+    }
+
+    @Test
+    public void relatorioInexistente(){
+        Assertions.assertThrows(IllegalStateException.class, () -> ReportGenerator.of("inexistente.jasper").fill());
+    }
+
+    private static List<Map<String, ?>> registros(int quantidade) {
+        List<Map<String, ?>> registros = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Map<String, Object> registro = new HashMap<>();
+            registro.put("codigo", i);
+            registro.put("descricao", "Lançamento " + i);
+            registro.put("valor", i * 1.5);
+            registros.add(registro);
+        }
+        return registros;
+    }
+}
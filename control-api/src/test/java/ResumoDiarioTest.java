@@ -0,0 +1,75 @@
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.service.modulo.financeiro.PagamentoService;
+import com.digytal.control.service.modulo.financeiro.TransacaoLoteService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Resumo diário de pagamentos: o acumulado pelos lançamentos (individuais e em lote) é igual ao recalculado pela
+ * reconstrução, e a reconstrução corrige um dia divergente. Os lançamentos são incluídos em um dia antigo sorteado.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class ResumoDiarioTest extends BancoTest {
+    private static final String RESUMO = "SELECT tipo, meio_pagto, conta_id, vl_informado, qt_pagamentos FROM apl_financeiro.tab_pagamento_resumo_diario " +
+            "WHERE empresa_id = 1 AND cpt_dia = ? ORDER BY tipo, meio_pagto, conta_id";
+    @Autowired
+    private PagamentoService pagamentoService;
+    @Autowired
+    private TransacaoLoteService loteService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void acumuladoIgualAoReconstruido() {
+        LocalDate dia = LocalDate.of(1990, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(3650));
+        transacaoService.incluir(AplicacaoTipo.RECEITA, request(dia, 100.0, MeioPagamento.DINHEIRO));
+        transacaoService.incluir(AplicacaoTipo.RECEITA, request(dia, 35.5, MeioPagamento.PIX));
+        transacaoService.incluir(AplicacaoTipo.DESPESA, request(dia, 20.0, MeioPagamento.DINHEIRO));
+        Assertions.assertEquals(2, loteService.importar(AplicacaoTipo.RECEITA, Arrays.asList(
+                request(dia, 10.0, MeioPagamento.DINHEIRO), request(dia, 15.0, MeioPagamento.DINHEIRO)).iterator()).getIncluidos());
+
+        List<Map<String, Object>> acumulado = jdbcTemplate.queryForList(RESUMO, dia);
+        Assertions.assertEquals(3, acumulado.size());
+        Assertions.assertEquals(5, acumulado.stream().mapToInt(r -> ((Number) r.get("qt_pagamentos")).intValue()).sum());
+
+        pagamentoService.reconstruirResumoDiario(dia, dia);
+        Assertions.assertEquals(normalizar(acumulado), normalizar(jdbcTemplate.queryForList(RESUMO, dia)));
+
+        //divergência corrigida pela reconstrução
+        jdbcTemplate.update("UPDATE apl_financeiro.tab_pagamento_resumo_diario SET vl_informado = 0 WHERE empresa_id = 1 AND cpt_dia = ?", dia);
+        pagamentoService.reconstruirResumoDiario(dia.minusDays(1), dia.plusDays(1));
+        Assertions.assertEquals(normalizar(acumulado), normalizar(jdbcTemplate.queryForList(RESUMO, dia)));
+    }
+
+    //numeric volta com a escala da coluna
+    private static List<Map<String, Object>> normalizar(List<Map<String, Object>> linhas) {
+        linhas.forEach(r -> r.put("vl_informado", ((BigDecimal) r.get("vl_informado")).stripTrailingZeros()));
+        return linhas;
+    }
+    private static TransacaoRequest request(LocalDate dia, Double valor, MeioPagamento meioPagamento) {
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(meioPagamento);
+        rateio.setValorPago(valor);
+        TransacaoRequest request = new TransacaoRequest();
+        request.setTitulo("RESUMO TESTE");
+        request.setDescricao("RESUMO TESTE");
+        request.setData(dia);
+        request.setValor(valor);
+        request.setFormasPagamento(Collections.singletonList(rateio));
+        return request;
+    }
+}
@@ -0,0 +1,175 @@
+import com.digytal.control.infra.business.SaldoInsuficienteException;
+import com.digytal.control.infra.config.TenantContext;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.Participante;
+import com.digytal.control.model.comum.RegistroData;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.acesso.empresa.conta.ContaEntity;
+import com.digytal.control.model.modulo.financeiro.pagamento.PagamentoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoValor;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.repository.modulo.acesso.empresa.ContaRepository;
+import com.digytal.control.service.modulo.financeiro.PagamentoService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Movimentações paralelas sobre uma única conta, misturando créditos e débitos, pelo ContaRepository.movimentarSaldo
+ * e pelo TransacaoService: o saldo final é exatamente o inicial somado às movimentações aceitas (sem atualização
+ * perdida), nenhum saldo devolvido fica negativo e os débitos sem saldo são recusados. Lotes com as mesmas contas
+ * em ordem oposta, pelo PagamentoService.contabilizarPagamentos, não caem em deadlock.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class SaldoContaConcorrenciaTest extends BancoTest {
+    private static final int THREADS = 16;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Test
+    public void movimentacaoParalela() throws Exception {
+        Integer conta = criarConta(100.0);
+        AtomicInteger aceito = new AtomicInteger();
+        AtomicInteger recusados = new AtomicInteger();
+        executar(200, () -> {
+            int valor = ThreadLocalRandom.current().nextBoolean() ? 2 : -3;
+            //cada chamada na própria transação, a do @Transactional do repositório
+            Double saldo = contaRepository.movimentarSaldo(conta, (double) valor);
+            if (saldo == null) {
+                recusados.incrementAndGet();
+                return;
+            }
+            Assertions.assertTrue(saldo >= 0, "saldo negativo: " + saldo);
+            aceito.addAndGet(valor);
+        });
+        Assertions.assertTrue(recusados.get() > 0);
+        Assertions.assertEquals(100.0 + aceito.get(), saldo(conta), 0.0001);
+    }
+
+    @Test
+    public void debitoSemSaldo() {
+        Integer conta = criarConta(10.0);
+        Assertions.assertNull(contaRepository.movimentarSaldo(conta, -10.01));
+        Assertions.assertEquals(0.0, contaRepository.movimentarSaldo(conta, -10.0), 0.0001);
+        Assertions.assertEquals(0.0, saldo(conta), 0.0001);
+    }
+
+    @Test
+    public void lancamentosParalelos() throws Exception {
+        //a conta 1 (DINHEIRO) sem taxa: o valor operacional é o próprio valor
+        Double inicial = saldo(1);
+        AtomicInteger aceito = new AtomicInteger();
+        executar(20, () -> {
+            boolean receita = ThreadLocalRandom.current().nextBoolean();
+            int valor = receita ? 2 : 3;
+            try {
+                transacaoService.incluir(receita ? AplicacaoTipo.RECEITA : AplicacaoTipo.DESPESA, request(valor));
+                aceito.addAndGet(receita ? valor : -valor);
+            } catch (SaldoInsuficienteException ex) {
+                //débito recusado sem alterar o saldo
+            }
+        });
+        Double saldo = saldo(1);
+        Assertions.assertEquals(inicial + aceito.get(), saldo, 0.0001);
+        Assertions.assertTrue(saldo >= 0);
+    }
+
+    @Test
+    public void lotesComContasEmOrdemInversa() throws Exception {
+        Integer primeira = criarConta(0.0);
+        Integer segunda = criarConta(0.0);
+        TransacaoEntity origem = origem();
+        AtomicInteger vez = new AtomicInteger();
+        //metade das threads contabiliza primeira e segunda, a outra metade na ordem oposta
+        executar(20, () -> {
+            boolean inversa = vez.incrementAndGet() % 2 == 0;
+            pagamentoService.contabilizarPagamentos(Arrays.asList(
+                    pagamento(inversa ? segunda : primeira), pagamento(inversa ? primeira : segunda)), p -> origem);
+        });
+        Assertions.assertEquals(THREADS * 20, saldo(primeira), 0.0001);
+        Assertions.assertEquals(THREADS * 20, saldo(segunda), 0.0001);
+    }
+
+    //cada thread repete a operação com a credencial da empresa 1; as falhas de asserção voltam pelo Future
+    private void executar(int operacoes, Runnable operacao) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tarefas.add(executor.submit(() -> {
+                    autenticar();
+                    try {
+                        for (int i = 0; i < operacoes; i++)
+                            operacao.run();
+                    } finally {
+                        TenantContext.clear();
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas)
+                tarefa.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    private Integer criarConta(Double saldo) {
+        ContaEntity entity = new ContaEntity();
+        entity.setNumero(UUID.randomUUID().toString().substring(0, 8));
+        entity.setAgencia("TESTE");
+        entity.setDescricao("CONTA CONCORRENCIA TESTE");
+        entity.setLegenda("CONCORRENCIA");
+        entity.setEmpresa(1);
+        entity.setBanco(9999);
+        entity.setSaldo(saldo);
+        return contaRepository.save(entity).getId();
+    }
+    //transação de origem dos pagamentos: tipo, empresa e dia do resumo diário, em um dia antigo fora dos demais testes
+    private static TransacaoEntity origem() {
+        Participante partes = new Participante();
+        partes.setEmpresa(1);
+        TransacaoEntity transacao = new TransacaoEntity();
+        transacao.setTipo(AplicacaoTipo.RECEITA);
+        transacao.setPartes(partes);
+        transacao.setData(RegistroData.of(LocalDate.of(1980, 1, 1)));
+        return transacao;
+    }
+    private static PagamentoEntity pagamento(Integer conta) {
+        PagamentoEntity pagamento = new PagamentoEntity();
+        pagamento.setConta(conta);
+        pagamento.setMeioPagamento(MeioPagamento.PIX);
+        pagamento.setDescricao("CONCORRENCIA TESTE");
+        pagamento.setValor(TransacaoValor.of(AplicacaoTipo.RECEITA, 1.0));
+        return pagamento;
+    }
+    private Double saldo(Integer conta) {
+        return contaRepository.findById(conta).get().getSaldo();
+    }
+    private static TransacaoRequest request(double valor) {
+        FormaPagamentoRequest rateio = new FormaPagamentoRequest();
+        rateio.setMeioPagamento(MeioPagamento.DINHEIRO);
+        rateio.setValorPago(valor);
+        TransacaoRequest request = new TransacaoRequest();
+        request.setTitulo("CONCORRENCIA TESTE");
+        request.setDescricao("CONCORRENCIA TESTE");
+        request.setValor(valor);
+        request.setFormasPagamento(Collections.singletonList(rateio));
+        return request;
+    }
+}
@@ -0,0 +1,60 @@
+import com.digytal.control.infra.sql.StringSQL;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Texto gerado pelo StringSQL com o QueryCache: o mesmo formato com outros valores reaproveita o texto, e cada
+ * formato diferente (condições aplicadas, ordenação, paginação por chave, contagem) gera o seu. A contagem parte
+ * do FROM principal do select.
+ */
+public class StringSQLTest {
+    private static final String SELECT = "SELECT e.id as id FROM PagamentoEntity e";
+
+    @Test
+    public void textoPorFormato(){
+        String periodo = consulta(1, null, null, null).generate();
+        Assertions.assertEquals(SELECT + " WHERE e.empresa = :empresa AND e.dia >= :dia ORDER BY e.dia, e.id", periodo);
+        Assertions.assertSame(periodo, consulta(2, null, null, null).generate());
+
+        Assertions.assertEquals(SELECT + " WHERE e.empresa = :empresa AND e.dia >= :dia AND e.conta = :conta ORDER BY e.dia, e.id",
+                consulta(1, 3, null, null).generate());
+        Assertions.assertEquals(SELECT + " WHERE e.empresa = :empresa AND e.dia >= :dia ORDER BY e.id",
+                consulta(1, null, "e.id", null).generate());
+        Assertions.assertEquals(SELECT + " WHERE e.empresa = :empresa AND e.dia >= :dia AND (e.dataHora > :seekValue OR (e.dataHora = :seekValue AND e.id > :seekId)) ORDER BY e.dia, e.id",
+                consulta(1, null, null, LocalDateTime.of(2023, 10, 1, 8, 0)).generate());
+        Assertions.assertEquals("SELECT count(*) FROM PagamentoEntity e WHERE e.empresa = :empresa AND e.dia >= :dia",
+                consulta(1, null, null, null).generateCount());
+        //condição vazia não é aplicada
+        Assertions.assertEquals(SELECT + " WHERE e.dia >= :dia ORDER BY e.dia, e.id", consulta(null, null, null, null).generate());
+    }
+
+    @Test
+    public void contagemPeloFromPrincipal(){
+        Assertions.assertEquals("SELECT count(*) from PagamentoEntity e", contagem("select e.id as id from PagamentoEntity e"));
+        Assertions.assertEquals("SELECT count(*) FROM PagamentoEntity e", contagem("SELECT e.id as id,\n e.dataHora as dataHora\nFROM PagamentoEntity e"));
+        Assertions.assertEquals("SELECT count(*) FROM PagamentoEntity e", contagem("SELECT e.id as id, (SELECT max(p.id) FROM ParcelaEntity p) as ultima, 'FROM' as origem, e.fromConta as conta FROM PagamentoEntity e"));
+        Assertions.assertThrows(IllegalStateException.class, () -> contagem("SELECT e.id as id"));
+    }
+
+    private static String contagem(String select) {
+        return new StringSQL().select(select).setFilters(new HashMap<>()).generateCount();
+    }
+    private static StringSQL consulta(Integer empresa, Integer conta, String ordem, LocalDateTime seek) {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("empresa", empresa);
+        filters.put("dia", "2023-10-01");
+        filters.put("conta", conta);
+        StringSQL sql = new StringSQL().select(SELECT);
+        sql.setFilters(filters)
+                .where("e.empresa").equal("empresa").integer()
+                .and("e.dia").greaterThanEqual("dia").localDate()
+                .and("e.conta").equal("conta").integer();
+        sql.seek("e.dataHora", "e.id", seek, 10);
+        sql.orderBy(ordem == null ? "e.dia, e.id" : ordem);
+        return sql;
+    }
+}
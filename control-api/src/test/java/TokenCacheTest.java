@@ -0,0 +1,88 @@
+import com.digytal.control.infra.config.RequestInfo;
+import com.digytal.control.infra.config.TenantContext;
+import com.digytal.control.infra.security.jwt.Credencial;
+import com.digytal.control.infra.security.jwt.JwtCreator;
+import com.digytal.control.infra.security.jwt.JwtObject;
+import com.digytal.control.infra.security.jwt.TokenCache;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Confere que o token é verificado uma única vez até expirar, que tokens com assinatura inválida não entram
+ * no cache e que o RequestInfo lê a credencial do TenantContext.
+ */
+public class TokenCacheTest {
+    private static final String PREFIX = "Bearer ";
+    private static final String KEY = "CHAVE-DE-ASSINATURA-DO-TESTE";
+
+    @Test
+    public void verificaUmaVezAteExpirar(){
+        AtomicInteger verificacoes = new AtomicInteger();
+        Function<String, Credencial> verificador = t -> {
+            verificacoes.incrementAndGet();
+            return Credencial.of(JwtCreator.create(t, PREFIX, KEY));
+        };
+        String token = token(7, LocalDateTime.now().plusHours(2));
+        long hits = TokenCache.getHits();
+        Credencial primeira = TokenCache.get(token, verificador);
+        Credencial segunda = TokenCache.get(token, verificador);
+        Assertions.assertSame(primeira, segunda);
+        Assertions.assertEquals(1, verificacoes.get());
+        Assertions.assertEquals(hits + 1, TokenCache.getHits());
+        Assertions.assertEquals(7, segunda.getEmpresa());
+        Assertions.assertEquals("ROLE_ADMIN", segunda.getAutenticacao().getAuthorities().iterator().next().getAuthority());
+
+        //outro token do mesmo usuário é verificado à parte
+        TokenCache.get(token(8, LocalDateTime.now().plusHours(2)), verificador);
+        Assertions.assertEquals(2, verificacoes.get());
+    }
+
+    @Test
+    public void credencialExpiradaSaiDoCache(){
+        AtomicInteger verificacoes = new AtomicInteger();
+        //o verificador devolve uma credencial já vencida, que não pode ser reaproveitada
+        JwtObject vencido = JwtObject.builder().subject("admin").issuedAt(LocalDateTime.now().minusHours(3))
+                .expiration(LocalDateTime.now().minusHours(1)).roles("ADMIN").empresa(1).valido(true);
+        Function<String, Credencial> verificador = t -> {
+            verificacoes.incrementAndGet();
+            return Credencial.of(vencido);
+        };
+        TokenCache.get("token-vencido", verificador);
+        TokenCache.get("token-vencido", verificador);
+        Assertions.assertEquals(2, verificacoes.get());
+    }
+
+    @Test
+    public void assinaturaInvalidaNaoEntraNoCache(){
+        String token = token(1, LocalDateTime.now().plusHours(2));
+        Function<String, Credencial> outraChave = t -> Credencial.of(JwtCreator.create(t, PREFIX, "OUTRA-CHAVE"));
+        int tamanho = TokenCache.getSize();
+        Assertions.assertThrows(SignatureException.class, () -> TokenCache.get(token, outraChave));
+        Assertions.assertEquals(tamanho, TokenCache.getSize());
+    }
+
+    @Test
+    public void requestInfoLeDoTenantContext(){
+        RequestInfo requestInfo = new RequestInfo();
+        Assertions.assertNull(requestInfo.getEmpresa());
+        TenantContext.set(Credencial.of(JwtCreator.create(token(5, LocalDateTime.now().plusHours(1)), PREFIX, KEY)));
+        try {
+            Assertions.assertEquals(5, requestInfo.getEmpresa());
+            Assertions.assertEquals(3, requestInfo.getUsuario());
+        } finally {
+            TenantContext.clear();
+        }
+        Assertions.assertNull(requestInfo.getEmpresa());
+    }
+
+    private static String token(int empresa, LocalDateTime expiracao){
+        JwtObject jwtObject = JwtObject.builder().subject("admin").issuedAt().expiration(expiracao)
+                .roles("ADMIN").usuario(3).empresa(empresa).organizacao(1).valido(true);
+        return PREFIX + JwtCreator.create(PREFIX, KEY, jwtObject);
+    }
+}
@@ -0,0 +1,125 @@
+import com.digytal.control.infra.business.SaldoInsuficienteException;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.Participante;
+import com.digytal.control.model.comum.RegistroData;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.conta.ContaMovimentoEntity;
+import com.digytal.control.model.modulo.financeiro.pagamento.PagamentoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoEntity;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoValor;
+import com.digytal.control.model.modulo.financeiro.transacao.lote.TransacaoLoteItem;
+import com.digytal.control.model.modulo.financeiro.transacao.lote.TransacaoLoteResponse;
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaPagamentoRequest;
+import com.digytal.control.repository.modulo.acesso.empresa.ContaRepository;
+import com.digytal.control.repository.modulo.fincanceiro.ContaMovimentoRepository;
+import com.digytal.control.service.modulo.financeiro.PagamentoService;
+import com.digytal.control.service.modulo.financeiro.TransacaoLoteService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Importação em lote pelo TransacaoLoteService: o bloco recusado na gravação é reprocessado linha a linha, e
+ * cada linha recusada (por regra de negócio ou por erro inesperado) é informada sem interromper as demais.
+ * Os pagamentos à vista da empresa 1 movimentam a conta 1 (carga inicial).
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class TransacaoLoteTest extends BancoTest {
+    private static final int CONTA = 1;
+    @Autowired
+    private TransacaoLoteService service;
+    @Autowired
+    private PagamentoService pagamentoService;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private ContaMovimentoRepository movimentoRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void blocoRecusadoReprocessadoLinhaALinha(){
+        Assertions.assertEquals(1, service.importar(AplicacaoTipo.RECEITA, Collections.singletonList(request(100.0)).iterator()).getIncluidos());
+        double saldo = saldo();
+        int anteriores = movimentoRepository.findByContaAndDiaBetweenOrderByDiaAscDataHoraAscIdAsc(CONTA, LocalDate.now(), LocalDate.now()).size();
+
+        TransacaoRequest malformada = request(5.0);
+        malformada.setFormasPagamento(Arrays.asList((FormaPagamentoRequest) null));
+        //a segunda linha não tem saldo depois da primeira, a última é válida
+        List<TransacaoRequest> linhas = Arrays.asList(request(saldo - 30), request(50.0), malformada, request(20.0));
+        TransacaoLoteResponse response = service.importar(AplicacaoTipo.DESPESA, linhas.iterator());
+
+        Assertions.assertEquals(4, response.getTotal());
+        Assertions.assertEquals(2, response.getIncluidos());
+        Assertions.assertEquals(2, response.getRejeitados());
+        Assertions.assertEquals(new SaldoInsuficienteException().getMessage(), item(response, 2).getMensagem());
+        Assertions.assertEquals("Erro não mapeado ao incluir o lançamento", item(response, 3).getMensagem());
+        Assertions.assertNotNull(item(response, 4).getTransacao());
+        Assertions.assertEquals(10.0, saldo(), 0.0001);
+
+        List<ContaMovimentoEntity> movimentos = movimentoRepository.findByContaAndDiaBetweenOrderByDiaAscDataHoraAscIdAsc(CONTA, LocalDate.now(), LocalDate.now());
+        movimentos = movimentos.subList(anteriores, movimentos.size());
+        Assertions.assertEquals(2, movimentos.size());
+        Assertions.assertEquals(10.0, movimentos.get(movimentos.size() - 1).getSaldo(), 0.0001);
+        Assertions.assertTrue(movimentos.stream().allMatch(m -> m.getSaldo() >= 0));
+    }
+
+    @Test
+    public void saldoConferidoMovimentoAMovimento(){
+        double saldo = saldo();
+        TransacaoEntity despesa = transacao(AplicacaoTipo.DESPESA);
+        TransacaoEntity receita = transacao(AplicacaoTipo.RECEITA);
+        //o crédito seguinte cobre o débito no total, mas o saldo ficaria negativo entre os dois movimentos
+        PagamentoEntity debito = pagamento(AplicacaoTipo.DESPESA, saldo + 50);
+        PagamentoEntity credito = pagamento(AplicacaoTipo.RECEITA, 100.0);
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        Assertions.assertThrows(SaldoInsuficienteException.class, () -> transacao.executeWithoutResult(s ->
+                pagamentoService.contabilizarPagamentos(Arrays.asList(debito, credito), p -> p == debito ? despesa : receita)));
+        Assertions.assertEquals(saldo, saldo(), 0.0001);
+
+        //na ordem inversa o débito é coberto
+        transacao.executeWithoutResult(s ->
+                pagamentoService.contabilizarPagamentos(Arrays.asList(credito, pagamento(AplicacaoTipo.DESPESA, 100.0)), p -> p == credito ? receita : despesa));
+        Assertions.assertEquals(saldo, saldo(), 0.0001);
+    }
+
+    private double saldo() {
+        return contaRepository.findById(CONTA).get().getSaldo();
+    }
+    private static TransacaoLoteItem item(TransacaoLoteResponse response, int linha) {
+        return response.getItens().stream().filter(i -> i.getLinha() == linha).findFirst().get();
+    }
+    private static TransacaoRequest request(Double valor) {
+        TransacaoRequest request = new TransacaoRequest();
+        request.setTitulo("LOTE TESTE");
+        request.setDescricao("LANCAMENTO EM LOTE");
+        request.setValor(valor);
+        return request;
+    }
+    private static TransacaoEntity transacao(AplicacaoTipo tipo) {
+        TransacaoEntity transacao = new TransacaoEntity();
+        transacao.setTipo(tipo);
+        transacao.setData(RegistroData.of());
+        Participante partes = new Participante();
+        partes.setEmpresa(1);
+        transacao.setPartes(partes);
+        return transacao;
+    }
+    private static PagamentoEntity pagamento(AplicacaoTipo tipo, Double valor) {
+        PagamentoEntity pagamento = new PagamentoEntity();
+        pagamento.setDescricao("LOTE TESTE");
+        pagamento.setMeioPagamento(MeioPagamento.DINHEIRO);
+        pagamento.setConta(CONTA);
+        pagamento.setValor(TransacaoValor.of(tipo, valor));
+        return pagamento;
+    }
+}
@@ -0,0 +1,66 @@
+import com.digytal.control.infra.persistence.TupleMapper;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.RegistroData;
+import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TupleMapperTest {
+    private static final String[] ALIASES = {"id", "numeroDocumento", "numeroTransacao", "titulo", "data",
+            "meioPagamento", "cadastro_identificador", "cadastro_descricao"};
+
+    @Test
+    public void converterAliasesAninhados(){
+        Tuple tuple = tupla(15);
+        PagamentoResponse response = TupleMapper.of(PagamentoResponse.class, tuple.getElements()).map(tuple);
+        Assertions.assertEquals(15, response.getId());
+        Assertions.assertEquals("15", response.getNumeroTransacao());
+        Assertions.assertEquals(MeioPagamento.PIX, response.getMeioPagamento());
+        Assertions.assertEquals("12345678900", response.getCadastro().getIdentificador());
+        Assertions.assertEquals("CLIENTE 15", response.getCadastro().getDescricao());
+        Assertions.assertNull(response.getArea());
+    }
+
+    private Tuple tupla(int id){
+        Object[] values = {id, "DOC" + id, id, "Receitas", RegistroData.of(LocalDateTime.of(2023, 10, 2, 14, 30)),
+                MeioPagamento.PIX, "12345678900", "CLIENTE " + id};
+        return new ArrayTuple(ALIASES, values);
+    }
+
+    private static class ArrayTuple implements Tuple {
+        private final String[] aliases;
+        private final Object[] values;
+        private final List<TupleElement<?>> elements = new ArrayList<>();
+
+        ArrayTuple(String[] aliases, Object[] values) {
+            this.aliases = aliases;
+            this.values = values;
+            for (int i = 0; i < aliases.length; i++) {
+                String alias = aliases[i];
+                Class type = values[i].getClass();
+                elements.add(new TupleElement<Object>() {
+                    public Class<?> getJavaType() { return type; }
+                    public String getAlias() { return alias; }
+                });
+            }
+        }
+        public <X> X get(TupleElement<X> tupleElement) { return (X) get(tupleElement.getAlias()); }
+        public <X> X get(String alias, Class<X> type) { return (X) get(alias); }
+        public Object get(String alias) {
+            for (int i = 0; i < aliases.length; i++)
+                if (aliases[i].equals(alias))
+                    return values[i];
+            throw new IllegalArgumentException(alias);
+        }
+        public <X> X get(int i, Class<X> type) { return (X) values[i]; }
+        public Object get(int i) { return values[i]; }
+        public Object[] toArray() { return values; }
+        public List<TupleElement<?>> getElements() { return elements; }
+    }
+}
@@ -0,0 +1,106 @@
+import com.digytal.control.infra.business.BusinessException;
+import com.digytal.control.infra.business.CampoObrigatorioException;
+import com.digytal.control.infra.business.TamanhoMaximoException;
+import com.digytal.control.infra.business.TamanhoMinimoException;
+import com.digytal.control.infra.commons.definition.Definitions;
+import com.digytal.control.infra.commons.validation.Validations;
+import com.digytal.control.model.comum.endereco.Endereco;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.digytal.control.infra.commons.validation.Attributes.*;
+
+/**
+ * Executa em paralelo regras declaradas como constantes e regras montadas a cada chamada (o uso antigo, em que
+ * uma thread sobrescrevia o conjunto de regras da outra) e confere que cada requisição recebe exatamente a
+ * exceção esperada para os seus dados.
+ */
+public class ValidationsConcorrenciaTest {
+    private static final Validations OBRIGATORIOS = Validations.build(DESCRICAO, VALOR).notEmpty();
+    private static final Validations TAMANHO_TITULO = Validations.build(TITULO).maxLen(10);
+    private static final Definitions CEP_DIGITOS = Definitions.build().onlyDigits(CEP).upperCase(BAIRRO);
+    private static final int THREADS = 16;
+    private static final int OPERACOES = 5_000;
+
+    @Test
+    public void regrasImutaveis(){
+        Validations base = Validations.build(NOME);
+        Validations obrigatorio = base.notEmpty();
+        base.check(new Object() { String nome; });
+        Assertions.assertThrows(CampoObrigatorioException.class, () -> obrigatorio.check(new Object() { String nome; }));
+        //a regra do mesmo tipo substitui a anterior
+        Validations tamanho = Validations.build(TITULO).maxLen(3).maxLen(10);
+        tamanho.check(requisicao("descricao", 1.0, "0123456789"));
+    }
+
+    @Test
+    public void excecoesCorretasEmParalelo() throws Exception {
+        AtomicInteger erros = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < OPERACOES; i++) {
+                    String esperado = null;
+                    String obtido = null;
+                    try {
+                        switch (ThreadLocalRandom.current().nextInt(5)) {
+                            case 0:
+                                esperado = null;
+                                OBRIGATORIOS.check(requisicao("Venda", 10.0, "Curto"));
+                                TAMANHO_TITULO.check(requisicao("Venda", 10.0, "Curto"));
+                                break;
+                            case 1:
+                                esperado = new CampoObrigatorioException(VALOR.getLabel()).getMessage();
+                                OBRIGATORIOS.check(requisicao("Venda", null, "Curto"));
+                                break;
+                            case 2:
+                                esperado = new TamanhoMaximoException(TITULO.getLabel(), 10).getMessage();
+                                TAMANHO_TITULO.check(requisicao("Venda", 10.0, "Título longo demais"));
+                                break;
+                            case 3:
+                                //montagem a cada chamada, como antes das constantes
+                                esperado = new TamanhoMinimoException(DESCRICAO.getLabel(), 8).getMessage();
+                                Validations.build(DESCRICAO).minLen(8).check(requisicao("Venda", 10.0, "Curto"));
+                                break;
+                            default:
+                                esperado = "01310100|BELA VISTA";
+                                Endereco endereco = new Endereco();
+                                endereco.setCep("01310-100");
+                                endereco.setBairro("Bela Vista");
+                                CEP_DIGITOS.define(endereco);
+                                obtido = endereco.getCep() + "|" + endereco.getBairro();
+                        }
+                    } catch (BusinessException ex) {
+                        obtido = ex.getMessage();
+                    }
+                    if (!Objects.equals(esperado, obtido))
+                        erros.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas)
+            tarefa.get();
+        executor.shutdown();
+        Assertions.assertEquals(0, erros.get());
+    }
+
+    private static TransacaoRequest requisicao(String descricao, Double valor, String titulo){
+        TransacaoRequest request = new TransacaoRequest();
+        request.setDescricao(descricao);
+        request.setValor(valor);
+        request.setTitulo(titulo);
+        return request;
+    }
+}
@@ -0,0 +1,155 @@
+import com.digytal.control.infra.business.ParametroInvalidoException;
+import com.digytal.control.integracao.asaas.IntegradorPagamento;
+import com.digytal.control.model.modulo.financeiro.parcelamento.parcela.ParcelaEntity;
+import com.digytal.control.model.modulo.financeiro.webhook.WebhookEventoEntity;
+import com.digytal.control.model.modulo.financeiro.webhook.WebhookEventoStatus;
+import com.digytal.control.repository.modulo.fincanceiro.WebhookEventoRepository;
+import com.digytal.control.service.modulo.financeiro.WebhookEventoService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Entrada dos webhooks: o WebhookEventoService confere o token antes de gravar o evento e um erro de negócio no
+ * processamento deixa o evento como FALHA sem novas tentativas. As consultas de reserva são conferidas sobre uma
+ * cópia da tabela (V01_10 e V01_12): duas conexões reservando ao mesmo tempo recebem lotes diferentes
+ * (FOR UPDATE SKIP LOCKED). A cópia é criada no schema public e removida ao final.
+ *
+ * EXPLAIN_DATABASE_URL=jdbc:postgresql://localhost:5432/control_db mvn test -Dtest=WebhookEventoTest
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DATABASE_URL", matches = ".+")
+public class WebhookEventoTest extends BancoTest {
+    private static final String TABELA = "public.tst_webhook_evento";
+    private static final String MIGRACAO = "src/main/resources/db/migration/postgres/V01_10__webhook_evento.sql";
+    @Autowired
+    private WebhookEventoService service;
+    @Autowired
+    private WebhookEventoRepository repository;
+    @Autowired
+    private IntegradorPagamento integrador;
+
+    @BeforeAll
+    public static void criarTabela() throws Exception {
+        //somente a tabela: as constraints e o índice têm nomes globais no schema
+        String ddl = new String(Files.readAllBytes(Paths.get(MIGRACAO)), StandardCharsets.UTF_8);
+        ddl = ddl.substring(ddl.indexOf("CREATE TABLE"), ddl.indexOf(");") + 2)
+                .replace("apl_financeiro.tab_webhook_evento", TABELA).replace("_financeiro_webhook_evento", "_tst_webhook_evento");
+        try (Connection connection = conectar(); Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + TABELA);
+            st.execute(ddl);
+            st.execute("ALTER TABLE " + TABELA + " DROP COLUMN access_token");
+        }
+    }
+
+    @AfterAll
+    public static void removerTabela() throws Exception {
+        try (Connection connection = conectar(); Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + TABELA);
+        }
+    }
+
+    @Test
+    public void tokenConferidoAntesDeGravar(){
+        ParcelaEntity parcela = emitirBoletos(1, 80.0).get(0);
+        String pagamento = parcela.getBoleto().getNumeroAutorizacao();
+        String token = integrador.obterCredenciamento(1).getWebHookAccessToken();
+        String evento = "evt_" + UUID.randomUUID();
+        long gravados = repository.count();
+
+        Assertions.assertThrows(ParametroInvalidoException.class, () -> service.registrar(WebhookEventoService.ASAAS, payload(evento, "PAYMENT_RECEIVED", pagamento), "outro"));
+        Assertions.assertThrows(ParametroInvalidoException.class, () -> service.registrar(WebhookEventoService.ASAAS, payload(evento, "PAYMENT_RECEIVED", pagamento), null));
+        //sem ação ou de cobrança desconhecida: respondidos sem gravar
+        Assertions.assertFalse(service.registrar(WebhookEventoService.ASAAS, payload(evento, "PAYMENT_CREATED", pagamento), token));
+        Assertions.assertFalse(service.registrar(WebhookEventoService.ASAAS, payload(evento, "PAYMENT_RECEIVED", "pay_inexistente"), token));
+        Assertions.assertEquals(gravados, repository.count());
+
+        Assertions.assertTrue(service.registrar(WebhookEventoService.ASAAS, payload(evento, "PAYMENT_RECEIVED", pagamento), token));
+        //reenvio do provedor
+        Assertions.assertFalse(service.registrar(WebhookEventoService.ASAAS, payload(evento, "PAYMENT_RECEIVED", pagamento), token));
+        Assertions.assertEquals(gravados + 1, repository.count());
+    }
+
+    @Test
+    public void erroDeNegocioSemNovasTentativas() throws Exception {
+        ParcelaEntity parcela = emitirBoletos(1, 80.0).get(0);
+        String evento = "evt_" + UUID.randomUUID();
+        Assertions.assertTrue(service.registrar(WebhookEventoService.ASAAS, payload(evento, "PAYMENT_RECEIVED", parcela.getBoleto().getNumeroAutorizacao()),
+                integrador.obterCredenciamento(1).getWebHookAccessToken()));
+        //a cobrança deixa de existir antes do processamento: a parcela não é localizada
+        parcela.getBoleto().setNumeroAutorizacao("pay_cancelado");
+        parcelaRepository.save(parcela);
+
+        service.processarPendentes();
+        WebhookEventoEntity entity = repository.findAll().stream().filter(e -> e.getEventoId().equals(evento)).findFirst().get();
+        Assertions.assertEquals(WebhookEventoStatus.FALHA, entity.getStatus());
+        Assertions.assertEquals(1, entity.getTentativas());
+    }
+
+    @Test
+    public void reservaSemSobreposicao() throws Exception {
+        String registrar = sql(WebhookEventoRepository.REGISTRAR)
+                .replace(":provedor", "?").replace(":eventoId", "?").replace(":evento", "?").replace(":payload", "?");
+        try (Connection connection = conectar(); PreparedStatement ps = connection.prepareStatement(registrar)) {
+            for (int i = 0; i < 10; i++) {
+                ps.setString(1, "ASAAS");
+                ps.setString(2, "evt_" + i);
+                ps.setString(3, "PAYMENT_RECEIVED");
+                ps.setString(4, "{}");
+                Assertions.assertEquals(1, ps.executeUpdate());
+                //reenvio do provedor
+                Assertions.assertEquals(0, ps.executeUpdate());
+            }
+        }
+
+        String travar = sql(WebhookEventoRepository.TRAVAR_PENDENTES).replace(":limite", "6");
+        try (Connection primeira = conectar(); Connection segunda = conectar()) {
+            primeira.setAutoCommit(false);
+            segunda.setAutoCommit(false);
+            Set<Long> lote1 = ids(primeira, travar);
+            Set<Long> lote2 = ids(segunda, travar);
+            Assertions.assertEquals(6, lote1.size());
+            //só sobram 4 livres enquanto a primeira transação segura o seu lote
+            Assertions.assertEquals(4, lote2.size());
+            lote1.retainAll(lote2);
+            Assertions.assertTrue(lote1.isEmpty());
+            primeira.rollback();
+            segunda.rollback();
+        }
+    }
+
+    private static String payload(String evento, String tipo, String pagamento) {
+        return String.format("{\"id\":\"%s\",\"event\":\"%s\",\"payment\":{\"id\":\"%s\",\"status\":\"RECEIVED\"}}", evento, tipo, pagamento);
+    }
+    private static String sql(String consulta) {
+        return consulta.replace("apl_financeiro.tab_webhook_evento", TABELA);
+    }
+    private static Set<Long> ids(Connection connection, String sql) throws Exception {
+        Set<Long> ids = new HashSet<>();
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next())
+                ids.add(rs.getLong("id"));
+        }
+        return ids;
+    }
+    private static Connection conectar() throws Exception {
+        return DriverManager.getConnection(System.getenv("EXPLAIN_DATABASE_URL"),
+                Objects.toString(System.getenv("EXPLAIN_DATABASE_USER"), "postgres"),
+                Objects.toString(System.getenv("EXPLAIN_DATABASE_PASSWORD"), "postgres"));
+    }
+}
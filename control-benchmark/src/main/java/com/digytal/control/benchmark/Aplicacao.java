@@ -0,0 +1,37 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.ControlApiApplication;
+import com.digytal.control.infra.config.TenantContext;
+import com.digytal.control.infra.security.jwt.Credencial;
+import com.digytal.control.infra.security.jwt.JwtObject;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Objects;
+
+/**
+ * Sobe a aplicação (sem servidor web) contra o banco informado em EXPLAIN_DATABASE_URL, para os benchmarks
+ * que passam pelos serviços e repositórios reais. Sem a variável esses benchmarks falham na preparação e
+ * os demais seguem normalmente. A requisição simulada é da empresa 1 da carga inicial.
+ */
+final class Aplicacao {
+    private Aplicacao() {}
+
+    static ConfigurableApplicationContext iniciar() {
+        String url = System.getenv("EXPLAIN_DATABASE_URL");
+        if (url == null || url.isEmpty())
+            throw new IllegalStateException("Informe o banco em EXPLAIN_DATABASE_URL");
+        return new SpringApplicationBuilder(ControlApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + url,
+                        "spring.datasource.username=" + Objects.toString(System.getenv("EXPLAIN_DATABASE_USER"), "postgres"),
+                        "spring.datasource.password=" + Objects.toString(System.getenv("EXPLAIN_DATABASE_PASSWORD"), "postgres"),
+                        "logging.level.root=WARN")
+                .run();
+    }
+    static void autenticar() {
+        TenantContext.set(Credencial.of(JwtObject.builder().subject("benchmark").usuario(1).empresa(1).organizacao(1)
+                .issuedAt().expirationHours(1)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.digytal.control.benchmark;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//tupla em memória no formato devolvido pelo Hibernate, para medir a conversão sem banco
+class ArrayTuple implements Tuple {
+    private final String[] aliases;
+    private final Object[] values;
+    private final List<TupleElement<?>> elements = new ArrayList<>();
+
+    ArrayTuple(String[] aliases, Object[] values) {
+        this.aliases = aliases;
+        this.values = values;
+        for (int i = 0; i < aliases.length; i++) {
+            String alias = aliases[i];
+            Class<?> type = values[i] == null ? Object.class : values[i].getClass();
+            elements.add(new TupleElement<Object>() {
+                @Override
+                public Class<?> getJavaType() {
+                    return type;
+                }
+                @Override
+                public String getAlias() {
+                    return alias;
+                }
+            });
+        }
+    }
+    @Override
+    public <X> X get(TupleElement<X> tupleElement) {
+        return tupleElement.getJavaType().cast(get(tupleElement.getAlias()));
+    }
+    @Override
+    public <X> X get(String alias, Class<X> type) {
+        return type.cast(get(alias));
+    }
+    @Override
+    public Object get(String alias) {
+        return values[Arrays.asList(aliases).indexOf(alias)];
+    }
+    @Override
+    public <X> X get(int i, Class<X> type) {
+        return type.cast(values[i]);
+    }
+    @Override
+    public Object get(int i) {
+        return values[i];
+    }
+    @Override
+    public Object[] toArray() {
+        return values.clone();
+    }
+    @Override
+    public List<TupleElement<?>> getElements() {
+        return elements;
+    }
+}
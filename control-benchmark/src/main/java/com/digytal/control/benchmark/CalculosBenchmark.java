@@ -0,0 +1,75 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.infra.utils.Calculos;
+import com.digytal.control.infra.utils.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações do Calculos (BigDecimal criado a cada chamada) comparadas às do Money (long em ponto fixo).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculosBenchmark {
+    private Double valor = 1527.4391;
+    private Double quantidade = 3.25;
+    private Double aliquota = 2.75;
+    private Money valorMoney = Money.of(valor);
+    private Money quantidadeMoney = Money.of(quantidade);
+    private Money aliquotaMoney = Money.of(aliquota);
+
+    @Benchmark
+    public Double calculosSomar() {
+        return Calculos.somar(Calculos.ESCALA4, valor, quantidade);
+    }
+    @Benchmark
+    public Money moneySomar() {
+        return valorMoney.somar(quantidadeMoney);
+    }
+    @Benchmark
+    public Double calculosMultiplicar() {
+        return Calculos.multiplicar(Calculos.ESCALA4, valor, quantidade);
+    }
+    @Benchmark
+    public Money moneyMultiplicar() {
+        return valorMoney.multiplicar(quantidadeMoney);
+    }
+    @Benchmark
+    public Double calculosDividir() {
+        return Calculos.dividir(Calculos.ESCALA4, valor, quantidade);
+    }
+    @Benchmark
+    public Money moneyDividir() {
+        return valorMoney.dividir(quantidadeMoney);
+    }
+    @Benchmark
+    public Double calculosPorcentagem() {
+        return Calculos.calcularPorcentagem(valor, aliquota);
+    }
+    @Benchmark
+    public Money moneyPorcentagem() {
+        return valorMoney.porcentagem(aliquotaMoney);
+    }
+    //conversões de entrada e saída, feitas nas bordas de cada cálculo enquanto as entidades usam Double
+    @Benchmark
+    public Double calculosAplicarEscala4() {
+        return Calculos.aplicarEscala4(valor);
+    }
+    @Benchmark
+    public double moneyOfToDouble() {
+        return Money.of(valor).toDouble();
+    }
+}
@@ -0,0 +1,66 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.infra.config.RequestInfo;
+import com.digytal.control.infra.config.TenantContext;
+import com.digytal.control.infra.security.jwt.Credencial;
+import com.digytal.control.infra.security.jwt.JwtCreator;
+import com.digytal.control.infra.security.jwt.JwtObject;
+import com.digytal.control.infra.security.jwt.TokenCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Custo de autenticação por requisição no JwtFilter: verificação da assinatura a cada requisição (como antes)
+ * e consulta ao TokenCache, seguidas da leitura da empresa pelo RequestInfo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    private static final String PREFIX = "Bearer ";
+    private static final String KEY = "CHAVE-DE-ASSINATURA-DO-BENCHMARK";
+    private final Function<String, Credencial> verificador = t -> Credencial.of(JwtCreator.create(t, PREFIX, KEY));
+    private final RequestInfo requestInfo = new RequestInfo();
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtObject jwtObject = JwtObject.builder().subject("admin").issuedAt().expirationHours(2)
+                .roles("ADMIN", "USUARIO").usuario(1).empresa(1).organizacao(1).valido(true);
+        token = PREFIX + JwtCreator.create(PREFIX, KEY, jwtObject);
+    }
+    @Benchmark
+    public JwtObject verificar() {
+        return JwtCreator.create(token, PREFIX, KEY);
+    }
+    @Benchmark
+    public Integer autenticarSemCache() {
+        return autenticar(verificador.apply(token));
+    }
+    @Benchmark
+    public Integer autenticarComCache() {
+        return autenticar(TokenCache.get(token, verificador));
+    }
+    private Integer autenticar(Credencial credencial) {
+        TenantContext.set(credencial);
+        try {
+            return requestInfo.getEmpresa();
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.model.modulo.param.ibge.IbgeEntity;
+import com.digytal.control.model.modulo.param.ibge.MunicipioResponse;
+import com.digytal.control.service.modulo.param.MunicipioIndice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas ao índice de municípios com o total do IBGE (5570): busca por prefixo, com e sem UF, e por código.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MunicipioIndiceBenchmark {
+    private MunicipioIndice indice;
+
+    @State(Scope.Thread)
+    public static class Consulta {
+        @Param({"sao", "mun1", "belo horizonte"})
+        private String prefixo;
+    }
+
+    @Setup
+    public void setup() {
+        List<IbgeEntity> municipios = new ArrayList<>();
+        municipios.add(municipio(3550308, "São Paulo", 35, "São Paulo", "SP"));
+        municipios.add(municipio(4318903, "São Paulo das Missões", 43, "Rio Grande do Sul", "RS"));
+        municipios.add(municipio(3106200, "Belo Horizonte", 31, "Minas Gerais", "MG"));
+        for (int i = municipios.size(); i < 5570; i++)
+            municipios.add(municipio(1_000_000 + i, "Município " + i, 11 + i % 27, "Estado " + i % 27, "U" + (char) ('A' + i % 27)));
+        indice = new MunicipioIndice(municipios);
+    }
+    @Benchmark
+    public List<MunicipioResponse> buscar(Consulta consulta) {
+        return indice.buscar(consulta.prefixo, null, 10);
+    }
+    @Benchmark
+    public List<MunicipioResponse> buscarPorUf(Consulta consulta) {
+        return indice.buscar(consulta.prefixo, "SP", 10);
+    }
+    @Benchmark
+    public MunicipioResponse obter() {
+        return indice.obter(3106200);
+    }
+
+    private static IbgeEntity municipio(int codigo, String nome, int uf, String estado, String sigla) {
+        IbgeEntity municipio = new IbgeEntity();
+        municipio.setId(codigo);
+        municipio.setNome(nome.toUpperCase());
+        municipio.setNomeOficial(nome);
+        municipio.setUfId(uf);
+        municipio.setUfNome(estado);
+        municipio.setUfSigla(sigla);
+        return municipio;
+    }
+}
@@ -0,0 +1,56 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.model.modulo.financeiro.transacao.pagamento.FormaParcelamentoRequest;
+import com.digytal.control.service.modulo.financeiro.ParcelamentoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Divisão do valor em parcelas com as datas de vencimento (ParcelamentoService.parcelar). O método é privado e
+ * não usa os repositórios, é chamado por um MethodHandle sobre uma instância sem o contexto Spring.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParcelamentoBenchmark {
+    @Param({"3", "12", "48"})
+    private int numeroParcelas;
+    private Double valor = 1999.9;
+    private FormaParcelamentoRequest request;
+    private ParcelamentoService service;
+    private MethodHandle parcelar;
+
+    @Setup
+    public void setup() throws Exception {
+        request = new FormaParcelamentoRequest();
+        request.setNumeroParcelas(numeroParcelas);
+        request.setDataPrimeiroVencimento(LocalDate.now().plusDays(30));
+        service = new ParcelamentoService();
+        Method method = ParcelamentoService.class.getDeclaredMethod("parcelar", Double.class, FormaParcelamentoRequest.class);
+        method.setAccessible(true);
+        parcelar = MethodHandles.lookup().unreflect(method);
+    }
+    @Benchmark
+    public List<?> parcelar() throws Throwable {
+        return (List<?>) parcelar.invoke(service, valor, request);
+    }
+}
@@ -0,0 +1,87 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.infra.report.ReportCache;
+import com.digytal.control.infra.report.ReportGenerator;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emissão de um PDF de 10 mil linhas: o caminho anterior (modelo desserializado a cada chamada e PDF montado
+ * em byte[] antes da resposta) e o atual (modelo do ReportCache e PDF exportado direto na saída). Em SampleTime
+ * o JMH informa os percentis; com -prof gc, a alocação por emissão.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportBenchmark {
+    private static final String RELATORIO = "lancamentos-benchmark.jasper";
+    private List<Map<String, ?>> registros;
+    private byte[] modelo;
+    private final OutputStream descarte = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setup() throws Exception {
+        registros = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Map<String, Object> registro = new HashMap<>();
+            registro.put("codigo", i);
+            registro.put("descricao", "Lançamento " + i);
+            registro.put("valor", i * 1.5);
+            registros.add(registro);
+        }
+        ByteArrayOutputStream serializado = new ByteArrayOutputStream();
+        JRSaver.saveObject(ReportCache.get(RELATORIO), serializado);
+        modelo = serializado.toByteArray();
+    }
+    @Benchmark
+    public long anterior() throws Exception {
+        JasperReport report = (JasperReport) JRLoader.loadObject(new ByteArrayInputStream(modelo));
+        Map<String, Object> parametros = new HashMap<>();
+        parametros.put("EMPRESA_CABECALHO", "EMPRESA TESTE");
+        JasperPrint print = JasperFillManager.fillReport(report, parametros, new JRBeanCollectionDataSource(registros));
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        JRPdfExporter exporter = new JRPdfExporter();
+        exporter.setExporterInput(new SimpleExporterInput(print));
+        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(pdf));
+        exporter.exportReport();
+        byte[] conteudo = pdf.toByteArray();
+        return new ByteArrayInputStream(conteudo).transferTo(descarte);
+    }
+    @Benchmark
+    public JasperPrint atual() throws Exception {
+        ReportGenerator generator = ReportGenerator.of(RELATORIO).setData(registros);
+        generator.setParameter("EMPRESA_CABECALHO", "EMPRESA TESTE");
+        JasperPrint print = generator.fill();
+        generator.export(print, descarte);
+        return print;
+    }
+}
@@ -0,0 +1,62 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.infra.config.GlobalConfiguration;
+import com.digytal.control.infra.http.response.Response;
+import com.digytal.control.infra.http.response.ResponseFactory;
+import com.digytal.control.infra.persistence.TupleMapper;
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResponse;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoValor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização do envelope Response com uma página de pagamentos, com o ObjectMapper configurado da API.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+    @Param({"1", "50", "500"})
+    private int registros;
+    private ObjectMapper mapper;
+    private Response response;
+
+    @Setup
+    public void setup() {
+        mapper = new GlobalConfiguration().mapper();
+        List<PagamentoResponse> pagamentos = new ArrayList<>(registros);
+        TupleMapper tupleMapper = null;
+        for (int i = 0; i < registros; i++) {
+            Tuple tuple = TupleMapperBenchmark.tupla(i);
+            if (tupleMapper == null)
+                tupleMapper = TupleMapper.of(PagamentoResponse.class, tuple.getElements());
+            PagamentoResponse pagamento = tupleMapper.map(tuple);
+            pagamento.setValor(TransacaoValor.of(AplicacaoTipo.RECEITA, 100.0 + i));
+            pagamentos.add(pagamento);
+        }
+        response = registros == 1 ? ResponseFactory.ok(pagamentos.get(0)) : ResponseFactory.ok(pagamentos);
+    }
+    @Benchmark
+    public byte[] serializar() throws Exception {
+        return mapper.writeValueAsBytes(response);
+    }
+}
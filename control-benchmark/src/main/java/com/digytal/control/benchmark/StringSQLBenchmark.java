@@ -0,0 +1,89 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.infra.sql.QueryCache;
+import com.digytal.control.infra.sql.StringSQL;
+import com.digytal.control.model.comum.MeioPagamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do filtro de pagamentos (mesmo formato do PagamentoRepositoryImpl) até o texto final da consulta,
+ * com somente o período, com todos os filtros opcionais e com a paginação por chave, com e sem o QueryCache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringSQLBenchmark {
+    private static final String SELECT = "SELECT e.id as id, t.numeroDocumento as numeroDocumento, t.titulo as titulo, t.data as data, " +
+            "e.meioPagamento as meioPagamento, c.cpfCnpj as cadastro_identificador, c.nomeFantasia as cadastro_descricao " +
+            "FROM PagamentoEntity e INNER JOIN TransacaoEntity t ON e.transacao = t.id INNER JOIN CadastroEntity c ON t.partes.cadastro = c.id";
+
+    @Param({"PERIODO", "COMPLETO", "KEYSET"})
+    private String filtro;
+    //sem o cache toda consulta gera o texto (e ainda paga a chave e a inclusão no cache)
+    @Param({"true", "false"})
+    private boolean cache;
+
+    @Setup
+    public void setup() {
+        QueryCache.MAX_SIZE = cache ? 512 : 0;
+        QueryCache.clear();
+    }
+    @TearDown
+    public void tearDown() {
+        QueryCache.MAX_SIZE = 512;
+    }
+
+    @Benchmark
+    public String generate() {
+        StringSQL sql = consulta();
+        sql.generate();
+        return sql.generateCount();
+    }
+
+    private StringSQL consulta() {
+        StringSQL sql = new StringSQL();
+        sql.select(SELECT);
+        Map<String, Object> filters = new LinkedHashMap<>();
+        filters.put("empresa", 1);
+        filters.put("diaInicial", LocalDate.of(2023, 10, 1));
+        filters.put("diaFinal", LocalDate.of(2023, 10, 31));
+        filters.put("pageIndex", 1);
+        filters.put("pageSize", 50);
+        sql.setFilters(filters)
+                .where("t.partes.empresa").equal("empresa").integer()
+                .and("t.data.dia").greaterThanEqual("diaInicial").localDate()
+                .and("t.data.dia").lessThanEquals("diaFinal").localDate();
+        if (!filtro.equals("PERIODO")) {
+            filters.put("meioPagamento", MeioPagamento.PIX);
+            sql.and("e.meioPagamento").equal("meioPagamento").enumeration();
+            filters.put("conta", 3);
+            sql.and("e.conta").equal("conta").integer();
+            filters.put("cadastro", 15);
+            sql.and("t.partes.cadastro").equal("cadastro").integer();
+        }
+        if (filtro.equals("KEYSET"))
+            sql.seek("t.data.dataHora", "e.id", LocalDateTime.of(2023, 10, 15, 10, 0), 1500);
+        sql.orderBy("t.data.dataHora, e.id");
+        return sql;
+    }
+}
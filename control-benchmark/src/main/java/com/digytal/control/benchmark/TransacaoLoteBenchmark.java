@@ -0,0 +1,83 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.model.modulo.acesso.empresa.aplicacao.AplicacaoTipo;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import com.digytal.control.model.modulo.financeiro.transacao.lote.TransacaoLoteResponse;
+import com.digytal.control.service.modulo.financeiro.TransacaoLoteService;
+import com.digytal.control.service.modulo.financeiro.TransacaoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importação de lançamentos à vista pelo TransacaoLoteService (blocos de financeiro.lote.tamanho-bloco linhas)
+ * comparada à inclusão uma a uma pelo TransacaoService.incluir, em lançamentos por segundo. Usa o banco de
+ * EXPLAIN_DATABASE_URL e grava os lançamentos nele.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransacaoLoteBenchmark {
+    private static final int LINHAS = 2000;
+    private ConfigurableApplicationContext context;
+    private TransacaoLoteService loteService;
+    private TransacaoService transacaoService;
+    private List<TransacaoRequest> requests;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        context = Aplicacao.iniciar();
+        loteService = context.getBean(TransacaoLoteService.class);
+        transacaoService = context.getBean(TransacaoService.class);
+    }
+    @Setup(Level.Invocation)
+    public void preparar() {
+        Aplicacao.autenticar();
+        requests = new ArrayList<>(LINHAS);
+        for (int i = 0; i < LINHAS; i++) {
+            TransacaoRequest request = new TransacaoRequest();
+            request.setTitulo("BENCHMARK");
+            request.setDescricao("LANCAMENTO " + i);
+            request.setValor(10.0 + i % 100);
+            requests.add(request);
+        }
+    }
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public TransacaoLoteResponse lote() {
+        return loteService.importar(AplicacaoTipo.RECEITA, requests.iterator());
+    }
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public int linhaALinha() {
+        int incluidas = 0;
+        for (TransacaoRequest request : requests) {
+            transacaoService.incluir(AplicacaoTipo.RECEITA, request);
+            incluidas++;
+        }
+        return incluidas;
+    }
+}
@@ -0,0 +1,80 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.infra.persistence.TupleMapper;
+import com.digytal.control.model.comum.MeioPagamento;
+import com.digytal.control.model.comum.RegistroData;
+import com.digytal.control.model.modulo.financeiro.pagamento.response.PagamentoResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyAccessor;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão das tuplas das consultas em DTO pelo TupleMapper usado no QueryRepository: por linha com o
+ * mapeamento já montado, a montagem do mapeamento feita uma vez por consulta e, por linha, a conversão
+ * anterior por PropertyAccessor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TupleMapperBenchmark {
+    static final String[] ALIASES = {"id", "numeroDocumento", "numeroTransacao", "titulo", "data",
+            "meioPagamento", "cadastro_identificador", "cadastro_descricao"};
+
+    private Tuple tuple;
+    private TupleMapper mapper;
+
+    @Setup
+    public void setup() {
+        tuple = tupla(15);
+        mapper = TupleMapper.of(PagamentoResponse.class, tuple.getElements());
+    }
+    @Benchmark
+    public PagamentoResponse map() {
+        return mapper.map(tuple);
+    }
+    @Benchmark
+    public TupleMapper of() {
+        return TupleMapper.of(PagamentoResponse.class, tuple.getElements());
+    }
+    //conversão anterior do QueryRepository, como referência
+    @Benchmark
+    public PagamentoResponse reflexao() {
+        PagamentoResponse item = new PagamentoResponse();
+        for (TupleElement<?> te : tuple.getElements()) {
+            Object value = tuple.get(te.getAlias());
+            if (value == null)
+                continue;
+            PropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(item);
+            String attribute = te.getAlias().replaceAll("\\_", ".");
+            String[] path = attribute.split("\\.");
+            if (path.length > 1 && accessor.getPropertyValue(path[0]) == null)
+                accessor.setPropertyValue(path[0], BeanUtils.instantiateClass(accessor.getPropertyType(path[0])));
+            accessor.setPropertyValue(attribute, value);
+        }
+        return item;
+    }
+
+    static Tuple tupla(int id) {
+        Object[] values = {id, "DOC" + id, id, "Receitas", RegistroData.of(LocalDateTime.of(2023, 10, 2, 14, 30)),
+                MeioPagamento.PIX, "12345678900", "CLIENTE " + id};
+        return new ArrayTuple(ALIASES, values);
+    }
+}
@@ -0,0 +1,84 @@
+package com.digytal.control.benchmark;
+
+import com.digytal.control.infra.commons.definition.Definitions;
+import com.digytal.control.infra.commons.validation.Validations;
+import com.digytal.control.model.comum.endereco.Endereco;
+import com.digytal.control.model.modulo.financeiro.transacao.TransacaoRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.digytal.control.infra.commons.validation.Attributes.*;
+
+/**
+ * Regras de validação e de definição de campos montadas a cada requisição e declaradas como constantes,
+ * como nos serviços de inclusão.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationsBenchmark {
+    private static final Validations OBRIGATORIOS = Validations.build(DESCRICAO, VALOR).notEmpty();
+    private static final Validations TAMANHO_TITULO = Validations.build(TITULO).maxLen(40);
+    private static final Validations TAMANHO_DESCRICAO = Validations.build(DESCRICAO).maxLen(200);
+    private static final Validations TAMANHO_OBSERVACAO = Validations.build(OBSERVACAO).maxLen(100);
+    private static final Definitions CEP_DIGITOS = Definitions.build().onlyDigits(CEP);
+    private static final Definitions MAIUSCULAS = Definitions.build().upperCase(LOGRADOURO, BAIRRO);
+    private TransacaoRequest request;
+    private Endereco endereco;
+
+    @Setup
+    public void setup() {
+        request = new TransacaoRequest();
+        request.setTitulo("Venda balcão");
+        request.setDescricao("Venda de mercadorias no balcão");
+        request.setObservacao("Pagamento à vista");
+        request.setValor(150.0);
+        endereco = new Endereco();
+        endereco.setLogradouro("Avenida Paulista");
+        endereco.setBairro("Bela Vista");
+    }
+    //mesmas regras do TransacaoService.incluir
+    @Benchmark
+    public TransacaoRequest validarTransacao() {
+        Validations.build(DESCRICAO, VALOR).notEmpty().check(request);
+        Validations.build(TITULO).maxLen(40).check(request);
+        Validations.build(DESCRICAO).maxLen(200).check(request);
+        Validations.build(OBSERVACAO).maxLen(100).check(request);
+        return request;
+    }
+    @Benchmark
+    public TransacaoRequest validarTransacaoConstantes() {
+        OBRIGATORIOS.check(request);
+        TAMANHO_TITULO.check(request);
+        TAMANHO_DESCRICAO.check(request);
+        TAMANHO_OBSERVACAO.check(request);
+        return request;
+    }
+    @Benchmark
+    public Endereco definirEndereco() {
+        endereco.setCep("01310-100");
+        Definitions.build().onlyDigits(CEP).define(endereco);
+        Definitions.build().upperCase(LOGRADOURO, BAIRRO).define(endereco);
+        return endereco;
+    }
+    @Benchmark
+    public Endereco definirEnderecoConstantes() {
+        endereco.setCep("01310-100");
+        CEP_DIGITOS.define(endereco);
+        MAIUSCULAS.define(endereco);
+        return endereco;
+    }
+}